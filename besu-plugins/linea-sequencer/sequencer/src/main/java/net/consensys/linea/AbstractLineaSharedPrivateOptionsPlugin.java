@@ -11,6 +11,7 @@ package net.consensys.linea;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.extern.slf4j.Slf4j;
 import net.consensys.linea.bundles.BundlePoolService;
@@ -34,10 +35,12 @@ import net.consensys.linea.config.LineaTransactionSelectorCliOptions;
 import net.consensys.linea.config.LineaTransactionSelectorConfiguration;
 import net.consensys.linea.config.LineaTransactionValidatorCliOptions;
 import net.consensys.linea.config.LineaTransactionValidatorConfiguration;
+import net.consensys.linea.extradata.MinGasPriceApplier;
 import net.consensys.linea.plugins.AbstractLineaSharedOptionsPlugin;
 import net.consensys.linea.plugins.LineaOptionsPluginConfiguration;
 import net.consensys.linea.plugins.config.LineaTracerSharedCliOptions;
 import net.consensys.linea.plugins.config.LineaTracerSharedConfiguration;
+import net.consensys.linea.sequencer.modulelimit.ModuleLineLimitsWatcher;
 import net.consensys.linea.utils.Compressor;
 import org.hyperledger.besu.plugin.ServiceManager;
 import org.hyperledger.besu.plugin.services.BesuConfiguration;
@@ -72,6 +75,10 @@ public abstract class AbstractLineaSharedPrivateOptionsPlugin
   protected static BundlePoolService bundlePoolService;
   protected static MetricCategoryRegistry metricCategoryRegistry;
   protected static RpcEndpointService rpcEndpointService;
+  protected static ModuleLineLimitsWatcher moduleLineLimitsWatcher;
+  // set by the extra data plugin, when setting the min gas price from the extra data is enabled
+  protected static volatile Optional<MinGasPriceApplier> maybeMinGasPriceApplier =
+      Optional.empty();
 
   private static final AtomicBoolean sharedRegisterTasksDone = new AtomicBoolean(false);
   private static final AtomicBoolean sharedStartTasksDone = new AtomicBoolean(false);
@@ -261,6 +268,12 @@ public abstract class AbstractLineaSharedPrivateOptionsPlugin
             besuEvents,
             blockchainService);
     bundlePoolService.loadFromDisk();
+
+    final var tracerConfiguration = tracerConfiguration();
+    moduleLineLimitsWatcher =
+        new ModuleLineLimitsWatcher(
+            tracerConfiguration.moduleLimitsFilePath(), tracerConfiguration.moduleLimitsMap());
+    moduleLineLimitsWatcher.start();
   }
 
   @Override
@@ -270,5 +283,9 @@ public abstract class AbstractLineaSharedPrivateOptionsPlugin
     sharedStartTasksDone.set(false);
     blockchainService = null;
     metricsSystem = null;
+    if (moduleLineLimitsWatcher != null) {
+      moduleLineLimitsWatcher.close();
+      moduleLineLimitsWatcher = null;
+    }
   }
 }
@@ -55,10 +55,7 @@ public class TransactionProfitabilityCalculator {
       final Wei minGasPriceWei) {
     final int compressedTxSize = getCompressedTxSize(transaction);
 
-    final long variableCostWei =
-        profitabilityConf.extraDataPricingEnabled()
-            ? profitabilityConf.variableCostWei()
-            : minGasPriceWei.toLong();
+    final long variableCostWei = variableCostWei(minGasPriceWei);
 
     final var profitAt =
         minMargin * (variableCostWei * compressedTxSize / gas + profitabilityConf.fixedCostWei());
@@ -81,6 +78,34 @@ public class TransactionProfitabilityCalculator {
     return profitAtWei;
   }
 
+  /**
+   * Same as {@link #profitablePriorityFeePerGas(Transaction, double, long, Wei)}, but for a tx
+   * whose compressed size is already known and without the conversion to Wei, so it is cheap to
+   * reevaluate many txs when the pricing config changes.
+   *
+   * @param compressedTxSize the compressed size of the tx, see {@link #getCompressedTxSize}
+   * @param minMargin the min margin to use for this calculation
+   * @param gas the gas to use for this calculation
+   * @param minGasPriceWei the current minGasPrice, only used in place of the variable cost from the
+   *     config, in case the extra data pricing is disabled
+   * @return the estimation of priorityFeePerGas in Wei, rounded down
+   */
+  public double profitablePriorityFeePerGas(
+      final int compressedTxSize,
+      final double minMargin,
+      final long gas,
+      final Wei minGasPriceWei) {
+    final long variableCostWei = variableCostWei(minGasPriceWei);
+    return Math.floor(
+        minMargin * (variableCostWei * compressedTxSize / gas + profitabilityConf.fixedCostWei()));
+  }
+
+  private long variableCostWei(final Wei minGasPriceWei) {
+    return profitabilityConf.extraDataPricingEnabled()
+        ? profitabilityConf.variableCostWei()
+        : minGasPriceWei.toLong();
+  }
+
   /**
    * Checks if then given gas price is considered profitable for the given tx, according to the
    * current pricing config, the minMargin and gas used, or gasLimit of the tx.
@@ -165,7 +190,7 @@ public class TransactionProfitabilityCalculator {
    * @param transaction the tx
    * @return the compressed size
    */
-  private int getCompressedTxSize(final Transaction transaction) {
+  public static int getCompressedTxSize(final Transaction transaction) {
     final byte[] bytes = transaction.encoded().toArrayUnsafe();
     return Compressor.instance.compressedSize(bytes);
   }
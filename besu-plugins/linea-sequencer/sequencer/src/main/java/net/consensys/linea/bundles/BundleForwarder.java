@@ -16,6 +16,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.OptionalLong;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ScheduledExecutorService;
@@ -89,6 +91,10 @@ public class BundleForwarder
             bundle);
       }
 
+      if (config.isForwardBatchEnabled()) {
+        return callBatch(chainHeadBlockNumber);
+      }
+
       final long reqId = reqIdProvider.getAndIncrement();
       final var jsonRpcRequest = new JsonRpcEnvelope(reqId, bundle.toBundleParameter());
 
@@ -135,6 +141,93 @@ public class BundleForwarder
       }
     }
 
+    /**
+     * Forwards this bundle together with the next queued ones in a single JSON-RPC batch request.
+     * Queued bundles are taken in priority order, so the order of the batch is the same as if they
+     * were sent one by one, and on network errors each bundle is retried on its own.
+     */
+    private SendBundleResponse callBatch(final long chainHeadBlockNumber) {
+      final List<SendBundleTask> batch = new ArrayList<>(config.forwardBatchSize());
+      batch.add(this);
+      executor
+          .pollQueuedTasks(SendBundleTask.class, config.forwardBatchSize() - 1)
+          .forEach(
+              task -> {
+                if (task.bundle.blockNumber() > chainHeadBlockNumber) {
+                  batch.add(task);
+                } else {
+                  log.trace(
+                      "Skip forwarding bundle {} for past block number {}",
+                      task.bundle.bundleIdentifier(),
+                      task.bundle.blockNumber());
+                }
+              });
+
+      final List<JsonRpcEnvelope> jsonRpcRequests =
+          batch.stream()
+              .map(
+                  task ->
+                      new JsonRpcEnvelope(
+                          reqIdProvider.getAndIncrement(), task.bundle.toBundleParameter()))
+              .toList();
+      final long reqId = jsonRpcRequests.getFirst().id;
+      final int maxRetryCount =
+          batch.stream().mapToInt(task -> task.retryCount).max().orElse(retryCount);
+
+      log.trace("Forwarding batch request {}, max retry count {}", jsonRpcRequests, maxRetryCount);
+
+      final RequestBody body;
+      try {
+        body = RequestBody.create(OBJECT_MAPPER.writeValueAsString(jsonRpcRequests), JSON);
+      } catch (JsonProcessingException e) {
+        log.error("Error creating send bundle batch request body", e);
+        throw new BundleForwarderException(
+            "Error creating send bundle batch request body", e, bundle, reqId);
+      }
+
+      final var requestBuilder = new Request.Builder().url(recipientUrl).post(body);
+
+      if (maxRetryCount > 0) {
+        requestBuilder.addHeader(RETRY_COUNT_HEADER, String.valueOf(maxRetryCount));
+      }
+
+      try (final Response response = rpcClient.newCall(requestBuilder.build()).execute()) {
+        final var result =
+            new SendBundleResponse(reqId, bundle, response, response.body().string());
+        if (response.isSuccessful()) {
+          logBatchErrors(jsonRpcRequests, result.body());
+          log.trace("Batch of {} bundles forwarded", batch.size());
+        } else {
+          log.error(
+              "Batch of bundles {} forward failed with status {}",
+              jsonRpcRequests,
+              response.code());
+        }
+        return result;
+      } catch (IOException e) {
+        log.warn(
+            "Error forwarding batch request {}, retrying each bundle later", jsonRpcRequests, e);
+        batch.forEach(task -> retry(task.bundle, task.retryCount + 1));
+        throw new BundleForwarderException(
+            "Error send bundle batch request, retrying later", e, bundle, reqId);
+      }
+    }
+
+    private void logBatchErrors(final List<JsonRpcEnvelope> jsonRpcRequests, final String body) {
+      try {
+        for (final var jsonRpcResponse : OBJECT_MAPPER.readTree(body)) {
+          if (jsonRpcResponse.has("error")) {
+            log.error(
+                "Bundle forward with reqId {} failed with error {}",
+                jsonRpcResponse.path("id").asText(),
+                jsonRpcResponse.get("error"));
+          }
+        }
+      } catch (JsonProcessingException e) {
+        log.error("Invalid response {} to batch request {}", body, jsonRpcRequests, e);
+      }
+    }
+
     @Override
     public int compareTo(final SendBundleTask o) {
       final int blockNumberPlusRetriesComp =
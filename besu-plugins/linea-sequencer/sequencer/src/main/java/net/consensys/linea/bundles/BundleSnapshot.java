@@ -0,0 +1,243 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * This file is dual-licensed under either the MIT license or Apache License 2.0.
+ * See the LICENSE-MIT and LICENSE-APACHE files in the repository root for details.
+ *
+ * SPDX-License-Identifier: MIT OR Apache-2.0
+ */
+
+package net.consensys.linea.bundles;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.datatypes.PendingTransaction;
+import org.hyperledger.besu.ethereum.core.Transaction;
+
+/**
+ * Binary snapshot of the bundle pool, used to persist bundles across restarts.
+ *
+ * <p>Layout, all numbers big endian:
+ *
+ * <pre>
+ * header:  magic "LBPS" | int version | int bundle count
+ * bundle:  long block number | 32 bytes bundle identifier | byte flags
+ *          | [long min timestamp] | [long max timestamp] | [long msb, long lsb replacement UUID]
+ *          | [int count, 32 bytes each reverting tx hashes]
+ *          | int tx count | (int length, raw RLP encoded tx) for each tx
+ * trailer: int CRC32C of all the preceding bytes
+ * </pre>
+ *
+ * The whole file is checked against the checksum before any bundle is decoded, so a truncated or
+ * corrupted snapshot is never partially loaded.
+ */
+public final class BundleSnapshot {
+  static final int MAGIC = 0x4C425053; // "LBPS"
+  static final int VERSION = 1;
+
+  private static final int FLAG_HAS_PRIORITY = 1;
+  private static final int FLAG_MIN_TIMESTAMP = 1 << 1;
+  private static final int FLAG_MAX_TIMESTAMP = 1 << 2;
+  private static final int FLAG_REPLACEMENT_UUID = 1 << 3;
+  private static final int FLAG_REVERTING_TX_HASHES = 1 << 4;
+
+  private BundleSnapshot() {}
+
+  /**
+   * Writes the bundles to the given path, replacing any existing file.
+   *
+   * <p>The snapshot is first written and synced to a temporary file in the same directory, then
+   * atomically moved to the path, so a crash while writing never leaves a partial snapshot in place
+   * of the previous one.
+   *
+   * @param path the snapshot file path
+   * @param bundles the bundles to write, in the order they will be read back
+   * @throws IOException if the snapshot cannot be written
+   */
+  public static void write(final Path path, final Collection<TransactionBundle> bundles)
+      throws IOException {
+    final Path absolutePath = path.toAbsolutePath();
+    final Path tempPath =
+        Files.createTempFile(
+            absolutePath.getParent(), absolutePath.getFileName().toString(), ".tmp");
+    try {
+      try (final var fileOut = new FileOutputStream(tempPath.toFile())) {
+        writeTo(fileOut, bundles);
+        fileOut.getChannel().force(true);
+      }
+      Files.move(
+          tempPath,
+          absolutePath,
+          StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(tempPath);
+    }
+  }
+
+  private static void writeTo(
+      final FileOutputStream fileOutputStream, final Collection<TransactionBundle> bundles)
+      throws IOException {
+    final var crc = new CRC32C();
+    final var fileOut = new BufferedOutputStream(fileOutputStream, 1 << 16);
+    final var out = new DataOutputStream(new CheckedOutputStream(fileOut, crc));
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeInt(bundles.size());
+    for (final TransactionBundle bundle : bundles) {
+      writeBundle(out, bundle);
+    }
+    out.flush();
+    // the checksum itself is written outside the checked stream
+    final var checksumOut = new DataOutputStream(fileOut);
+    checksumOut.writeInt((int) crc.getValue());
+    // flushed without closing, the file is synced before being closed
+    checksumOut.flush();
+  }
+
+  /**
+   * Reads all the bundles from the given snapshot.
+   *
+   * @param path the snapshot file path
+   * @return the bundles in the order they were written
+   * @throws IOException if the file cannot be read
+   * @throws IllegalArgumentException if the file is not a valid snapshot or fails the checksum
+   */
+  public static List<TransactionBundle> read(final Path path) throws IOException {
+    final byte[] content = Files.readAllBytes(path);
+    if (content.length < 4 * Integer.BYTES) {
+      throw new IllegalArgumentException("Bundle snapshot too short, size=" + content.length);
+    }
+    final var buffer = ByteBuffer.wrap(content);
+    final int expectedChecksum = buffer.getInt(content.length - Integer.BYTES);
+    final var crc = new CRC32C();
+    crc.update(content, 0, content.length - Integer.BYTES);
+    if ((int) crc.getValue() != expectedChecksum) {
+      throw new IllegalArgumentException("Bundle snapshot checksum mismatch");
+    }
+
+    final int magic = buffer.getInt();
+    if (magic != MAGIC) {
+      throw new IllegalArgumentException(
+          "Unsupported bundle snapshot header " + Integer.toHexString(magic));
+    }
+    final int version = buffer.getInt();
+    if (version != VERSION) {
+      throw new IllegalArgumentException("Unsupported bundle snapshot version " + version);
+    }
+    final int count = buffer.getInt();
+    final var bundles = new ArrayList<TransactionBundle>(count);
+    final var body = buffer.slice(buffer.position(), buffer.remaining() - Integer.BYTES);
+    try {
+      for (int i = 0; i < count; i++) {
+        bundles.add(readBundle(body));
+      }
+    } catch (final BufferUnderflowException e) {
+      throw new IllegalArgumentException("Bundle snapshot truncated after " + bundles.size(), e);
+    }
+    return bundles;
+  }
+
+  private static void writeBundle(final DataOutputStream out, final TransactionBundle bundle)
+      throws IOException {
+    out.writeLong(bundle.blockNumber());
+    out.write(bundle.bundleIdentifier().toArrayUnsafe());
+
+    int flags = bundle.hasPriority() ? FLAG_HAS_PRIORITY : 0;
+    flags |= bundle.minTimestamp().isPresent() ? FLAG_MIN_TIMESTAMP : 0;
+    flags |= bundle.maxTimestamp().isPresent() ? FLAG_MAX_TIMESTAMP : 0;
+    flags |= bundle.replacementUUID().isPresent() ? FLAG_REPLACEMENT_UUID : 0;
+    flags |= bundle.revertingTxHashes().isPresent() ? FLAG_REVERTING_TX_HASHES : 0;
+    out.writeByte(flags);
+
+    if (bundle.minTimestamp().isPresent()) {
+      out.writeLong(bundle.minTimestamp().get());
+    }
+    if (bundle.maxTimestamp().isPresent()) {
+      out.writeLong(bundle.maxTimestamp().get());
+    }
+    if (bundle.replacementUUID().isPresent()) {
+      out.writeLong(bundle.replacementUUID().get().getMostSignificantBits());
+      out.writeLong(bundle.replacementUUID().get().getLeastSignificantBits());
+    }
+    if (bundle.revertingTxHashes().isPresent()) {
+      final var revertingTxHashes = bundle.revertingTxHashes().get();
+      out.writeInt(revertingTxHashes.size());
+      for (final Hash hash : revertingTxHashes) {
+        out.write(hash.toArrayUnsafe());
+      }
+    }
+
+    out.writeInt(bundle.pendingTransactions().size());
+    for (final PendingTransaction pendingTx : bundle.pendingTransactions()) {
+      final byte[] encoded = pendingTx.getTransaction().encoded().toArrayUnsafe();
+      out.writeInt(encoded.length);
+      out.write(encoded);
+    }
+  }
+
+  private static TransactionBundle readBundle(final ByteBuffer in) {
+    final long blockNumber = in.getLong();
+    final Hash bundleIdentifier = readHash(in);
+    final int flags = in.get();
+
+    final Optional<Long> minTimestamp =
+        (flags & FLAG_MIN_TIMESTAMP) != 0 ? Optional.of(in.getLong()) : Optional.empty();
+    final Optional<Long> maxTimestamp =
+        (flags & FLAG_MAX_TIMESTAMP) != 0 ? Optional.of(in.getLong()) : Optional.empty();
+    final Optional<UUID> replacementUUID =
+        (flags & FLAG_REPLACEMENT_UUID) != 0
+            ? Optional.of(new UUID(in.getLong(), in.getLong()))
+            : Optional.empty();
+    Optional<List<Hash>> revertingTxHashes = Optional.empty();
+    if ((flags & FLAG_REVERTING_TX_HASHES) != 0) {
+      final int hashCount = in.getInt();
+      final var hashes = new ArrayList<Hash>(hashCount);
+      for (int i = 0; i < hashCount; i++) {
+        hashes.add(readHash(in));
+      }
+      revertingTxHashes = Optional.of(hashes);
+    }
+
+    final int txCount = in.getInt();
+    final var transactions = new ArrayList<Transaction>(txCount);
+    for (int i = 0; i < txCount; i++) {
+      final byte[] encoded = new byte[in.getInt()];
+      in.get(encoded);
+      transactions.add(Transaction.readFrom(Bytes.wrap(encoded)));
+    }
+
+    return new TransactionBundle(
+        bundleIdentifier,
+        transactions,
+        blockNumber,
+        minTimestamp,
+        maxTimestamp,
+        revertingTxHashes,
+        replacementUUID,
+        (flags & FLAG_HAS_PRIORITY) != 0);
+  }
+
+  private static Hash readHash(final ByteBuffer in) {
+    final byte[] hash = new byte[Bytes32.SIZE];
+    in.get(hash);
+    return Hash.wrap(Bytes32.wrap(hash));
+  }
+}
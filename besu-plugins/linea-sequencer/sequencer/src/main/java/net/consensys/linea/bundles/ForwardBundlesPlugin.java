@@ -12,12 +12,15 @@ package net.consensys.linea.bundles;
 import com.google.auto.service.AutoService;
 import java.net.URL;
 import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import net.consensys.linea.AbstractLineaRequiredPlugin;
 import net.consensys.linea.utils.PriorityThreadPoolExecutor;
+import okhttp3.ConnectionPool;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import org.hyperledger.besu.plugin.BesuPlugin;
 import org.hyperledger.besu.plugin.ServiceManager;
 
@@ -32,7 +35,7 @@ public class ForwardBundlesPlugin extends AbstractLineaRequiredPlugin {
     final var config = bundleConfiguration();
     final var forwardUrls = config.forwardUrls();
     if (!forwardUrls.isEmpty()) {
-      final var rpcClient = createRpcClient(config.timeoutMillis());
+      final var rpcClient = createRpcClient(config.timeoutMillis(), forwardUrls.size());
       final var retryScheduler = createRetryScheduler();
       forwardUrls.stream()
           .map(
@@ -49,10 +52,14 @@ public class ForwardBundlesPlugin extends AbstractLineaRequiredPlugin {
     }
   }
 
-  private OkHttpClient createRpcClient(final int timeoutMillis) {
+  private OkHttpClient createRpcClient(final int timeoutMillis, final int endpointCount) {
+    // each endpoint has a single forwarding thread, so one kept alive connection per endpoint is
+    // enough, over TLS HTTP/2 is negotiated when the endpoint supports it
     return new OkHttpClient.Builder()
         .retryOnConnectionFailure(false)
         .callTimeout(Duration.ofMillis(timeoutMillis))
+        .connectionPool(new ConnectionPool(endpointCount, 5, TimeUnit.MINUTES))
+        .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
         .build();
   }
 
@@ -13,7 +13,6 @@ import static java.util.Collections.emptyList;
 
 import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SequenceWriter;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.github.benmanes.caffeine.cache.Cache;
@@ -22,20 +21,21 @@ import com.github.benmanes.caffeine.cache.RemovalCause;
 import com.github.benmanes.caffeine.cache.Scheduler;
 import com.google.auto.service.AutoService;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.Striped;
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
@@ -57,11 +57,19 @@ import org.hyperledger.besu.util.Subscribers;
 @Slf4j
 public class LineaLimitedBundlePool implements BundlePoolService, BesuEvents.BlockAddedListener {
   public static final String BUNDLE_SAVE_FILENAME = "bundles.ndjson";
+  public static final String BUNDLE_SNAPSHOT_FILENAME = "bundles.bin";
+  private static final int BLOCK_LOCK_STRIPES = 64;
   private final BlockchainService blockchainService;
   private final Cache<Hash, TransactionBundle> cache;
   private final Map<Long, List<TransactionBundle>> blockIndex;
+  // legacy NDJSON save file, only read to restore bundles saved by previous versions
   private final Path saveFilePath;
+  private final Path snapshotFilePath;
   private final AtomicBoolean isFrozen = new AtomicBoolean(false);
+  // modifications hold the read lock, freezing the pool takes the write lock
+  private final ReadWriteLock freezeLock = new ReentrantReadWriteLock();
+  // guards the block index list of a block number, so different blocks can be modified in parallel
+  private final Striped<Lock> blockLocks = Striped.lock(BLOCK_LOCK_STRIPES);
   private final Subscribers<TransactionBundleAddedListener> transactionBundleAddedListeners =
       Subscribers.create();
   private final Subscribers<TransactionBundleRemovedListener> transactionBundleRemovedListeners =
@@ -80,6 +88,7 @@ public class LineaLimitedBundlePool implements BundlePoolService, BesuEvents.Blo
       final BesuEvents eventService,
       final BlockchainService blockchainService) {
     this.saveFilePath = dataDir.resolve(BUNDLE_SAVE_FILENAME);
+    this.snapshotFilePath = dataDir.resolve(BUNDLE_SNAPSHOT_FILENAME);
     this.blockchainService = blockchainService;
     this.cache =
         Caffeine.newBuilder()
@@ -125,7 +134,13 @@ public class LineaLimitedBundlePool implements BundlePoolService, BesuEvents.Blo
    *     one
    */
   public List<TransactionBundle> getBundlesByBlockNumber(long blockNumber) {
-    return List.copyOf(blockIndex.getOrDefault(blockNumber, emptyList()));
+    final Lock blockLock = blockLocks.get(blockNumber);
+    blockLock.lock();
+    try {
+      return List.copyOf(blockIndex.getOrDefault(blockNumber, emptyList()));
+    } finally {
+      blockLock.unlock();
+    }
   }
 
   /**
@@ -157,13 +172,28 @@ public class LineaLimitedBundlePool implements BundlePoolService, BesuEvents.Blo
   public void putOrReplace(Hash hash, TransactionBundle bundle) {
     failIfFrozen(
         () -> {
-          TransactionBundle existing = cache.getIfPresent(hash);
-          if (existing != null) {
-            removeFromBlockIndex(existing);
+          while (true) {
+            final TransactionBundle existing = cache.getIfPresent(hash);
+            final var locks =
+                lockBlocks(
+                    existing == null
+                        ? List.of(bundle.blockNumber())
+                        : List.of(bundle.blockNumber(), existing.blockNumber()));
+            try {
+              if (cache.getIfPresent(hash) != existing) {
+                // concurrently replaced or removed, try again with the blocks of the current one
+                continue;
+              }
+              if (existing != null) {
+                removeFromBlockIndex(existing);
+              }
+              cache.put(hash, bundle);
+              addToBlockIndex(bundle);
+              return null;
+            } finally {
+              unlockBlocks(locks);
+            }
           }
-          cache.put(hash, bundle);
-          addToBlockIndex(bundle);
-          return null;
         });
   }
 
@@ -196,13 +226,22 @@ public class LineaLimitedBundlePool implements BundlePoolService, BesuEvents.Blo
   public boolean remove(Hash hash) {
     return failIfFrozen(
         () -> {
-          var existingBundle = cache.getIfPresent(hash);
-          if (existingBundle != null) {
-            cache.invalidate(hash);
-            removeFromBlockIndex(existingBundle);
-            return true;
+          while (true) {
+            final var existingBundle = cache.getIfPresent(hash);
+            if (existingBundle == null) {
+              return false;
+            }
+            final var locks = lockBlocks(List.of(existingBundle.blockNumber()));
+            try {
+              if (cache.getIfPresent(hash) == existingBundle) {
+                cache.invalidate(hash);
+                removeFromBlockIndex(existingBundle);
+                return true;
+              }
+            } finally {
+              unlockBlocks(locks);
+            }
           }
-          return false;
         });
   }
 
@@ -218,40 +257,23 @@ public class LineaLimitedBundlePool implements BundlePoolService, BesuEvents.Blo
 
   @Override
   public void saveToDisk() {
-    synchronized (isFrozen) {
+    freezeLock.writeLock().lock();
+    try {
       isFrozen.set(true);
-      log.info("Saving bundles to {}", saveFilePath);
-      final var objectMapper = new ObjectMapper().registerModule(new Jdk8Module());
-      configureObjectMapperV2(objectMapper);
-      try (final BufferedWriter bw = Files.newBufferedWriter(saveFilePath, StandardCharsets.UTF_8);
-          final SequenceWriter sequenceWriter =
-              objectMapper
-                  .writerFor(TransactionBundle.class)
-                  .withRootValueSeparator(System.lineSeparator())
-                  .writeValues(bw)) {
-
-        // write the header
-        bw.write(objectMapper.writeValueAsString(Map.of("version", 2)));
-        bw.newLine();
-
-        // write the bundles sorted by block number
-        final var savedCount =
-            blockIndex.values().stream()
-                .flatMap(List::stream)
-                .sorted(Comparator.comparing(TransactionBundle::blockNumber))
-                .peek(
-                    bundle -> {
-                      try {
-                        sequenceWriter.write(bundle);
-                      } catch (IOException e) {
-                        throw new RuntimeException(e);
-                      }
-                    })
-                .count();
-        log.info("Saved {} bundles to {}", savedCount, saveFilePath);
-      } catch (final Throwable ioe) {
-        log.error("Error while saving bundles to {}", saveFilePath, ioe);
-      }
+      log.info("Saving bundles to {}", snapshotFilePath);
+      // write the bundles sorted by block number
+      final var bundles =
+          blockIndex.keySet().stream()
+              .sorted()
+              .map(this::getBundlesByBlockNumber)
+              .flatMap(List::stream)
+              .toList();
+      BundleSnapshot.write(snapshotFilePath, bundles);
+      log.info("Saved {} bundles to {}", bundles.size(), snapshotFilePath);
+    } catch (final Throwable ioe) {
+      log.error("Error while saving bundles to {}", snapshotFilePath, ioe);
+    } finally {
+      freezeLock.writeLock().unlock();
     }
   }
 
@@ -259,6 +281,9 @@ public class LineaLimitedBundlePool implements BundlePoolService, BesuEvents.Blo
   public void loadFromDisk() {
     failIfFrozen(
         () -> {
+          if (snapshotFilePath.toFile().exists()) {
+            loadFromSnapshot();
+          }
           if (saveFilePath.toFile().exists()) {
             log.info("Loading bundles from {}", saveFilePath);
             final var chainHeadBlockNumber = blockchainService.getChainHeadHeader().getNumber();
@@ -318,6 +343,35 @@ public class LineaLimitedBundlePool implements BundlePoolService, BesuEvents.Blo
         });
   }
 
+  private void loadFromSnapshot() {
+    log.info("Loading bundles from {}", snapshotFilePath);
+    final var chainHeadBlockNumber = blockchainService.getChainHeadHeader().getNumber();
+    long loadedCount = 0L;
+    try {
+      final var bundles = BundleSnapshot.read(snapshotFilePath);
+      for (final TransactionBundle bundle : bundles) {
+        if (bundle.blockNumber() > chainHeadBlockNumber) {
+          this.putOrReplace(bundle.bundleIdentifier(), bundle);
+          loadedCount++;
+        } else {
+          log.debug(
+              "Skipping bundle {}, since its block number {} is not greater than chain head block number {}",
+              bundle.bundleIdentifier(),
+              bundle.blockNumber(),
+              chainHeadBlockNumber);
+        }
+      }
+      log.info("Loaded {} bundles from {}", loadedCount, snapshotFilePath);
+    } catch (final Throwable t) {
+      log.error(
+          "Error while reading bundles from {}, partially loaded {} bundles",
+          snapshotFilePath,
+          loadedCount,
+          t);
+    }
+    snapshotFilePath.toFile().delete();
+  }
+
   private void configureObjectMapperV1(final ObjectMapper objectMapper) {
     final var module = new SimpleModule();
     module.addDeserializer(
@@ -362,7 +416,13 @@ public class LineaLimitedBundlePool implements BundlePoolService, BesuEvents.Blo
    */
   private void addToBlockIndex(TransactionBundle bundle) {
     long blockNumber = bundle.blockNumber();
-    blockIndex.computeIfAbsent(blockNumber, k -> new ArrayList<>()).add(bundle);
+    final Lock blockLock = blockLocks.get(blockNumber);
+    blockLock.lock();
+    try {
+      blockIndex.computeIfAbsent(blockNumber, k -> new ArrayList<>()).add(bundle);
+    } finally {
+      blockLock.unlock();
+    }
     transactionBundleAddedListeners.forEach(listener -> listener.onTransactionBundleAdded(bundle));
   }
 
@@ -373,15 +433,37 @@ public class LineaLimitedBundlePool implements BundlePoolService, BesuEvents.Blo
    */
   private void removeFromBlockIndex(TransactionBundle bundle) {
     long blockNumber = bundle.blockNumber();
-    List<TransactionBundle> bundles = blockIndex.get(blockNumber);
-    if (bundles != null) {
-      bundles.remove(bundle);
-      if (bundles.isEmpty()) {
-        blockIndex.remove(blockNumber);
+    final Lock blockLock = blockLocks.get(blockNumber);
+    blockLock.lock();
+    try {
+      List<TransactionBundle> bundles = blockIndex.get(blockNumber);
+      if (bundles != null) {
+        bundles.remove(bundle);
+        if (bundles.isEmpty()) {
+          blockIndex.remove(blockNumber);
+        }
       }
+    } finally {
+      blockLock.unlock();
     }
   }
 
+  /**
+   * Locks the block index of the given block numbers, always in the same order to avoid deadlocks.
+   *
+   * @param blockNumbers The block numbers to lock.
+   * @return The acquired locks, to be released with {@link #unlockBlocks(List)}.
+   */
+  private List<Lock> lockBlocks(List<Long> blockNumbers) {
+    final var locks = List.copyOf(blockLocks.bulkGet(blockNumbers));
+    locks.forEach(Lock::lock);
+    return locks;
+  }
+
+  private void unlockBlocks(List<Lock> locks) {
+    locks.reversed().forEach(Lock::unlock);
+  }
+
   private int calculateWeight(TransactionBundle bundle) {
     return bundle.pendingTransactions().stream().mapToInt(PendingTransaction::memorySize).sum();
   }
@@ -406,7 +488,8 @@ public class LineaLimitedBundlePool implements BundlePoolService, BesuEvents.Blo
    */
   @Override
   public void onBlockAdded(final AddedBlockContext addedBlockContext) {
-    synchronized (isFrozen) {
+    freezeLock.readLock().lock();
+    try {
       if (!isFrozen.get()) { // do nothing if frozen
         final var lastSeen = addedBlockContext.getBlockHeader().getNumber();
         final var latest = Math.max(lastSeen, blockchainService.getChainHeadHeader().getNumber());
@@ -418,21 +501,34 @@ public class LineaLimitedBundlePool implements BundlePoolService, BesuEvents.Blo
             .collect(Collectors.toSet())
             .forEach(
                 k -> {
-                  blockIndex.get(k).forEach(bundle -> cache.invalidate(bundle.bundleIdentifier()));
-                  // dropping from the cache should inherently remove from blockIndex, but this
-                  // is cheap insurance against blockIndex map leaking due to cache evictions
-                  blockIndex.remove(k);
+                  final Lock blockLock = blockLocks.get(k);
+                  blockLock.lock();
+                  try {
+                    // dropping from the cache does not remove from blockIndex, since it is not
+                    // an eviction, so the whole block is dropped from the index at once
+                    final var bundles = blockIndex.remove(k);
+                    if (bundles != null) {
+                      bundles.forEach(bundle -> cache.invalidate(bundle.bundleIdentifier()));
+                    }
+                  } finally {
+                    blockLock.unlock();
+                  }
                 });
       }
+    } finally {
+      freezeLock.readLock().unlock();
     }
   }
 
   private <R> R failIfFrozen(Supplier<R> modificationAction) {
-    synchronized (isFrozen) {
+    freezeLock.readLock().lock();
+    try {
       if (isFrozen.get()) {
         throw new IllegalStateException("Bundle pool is not accepting modifications");
       }
       return modificationAction.get();
+    } finally {
+      freezeLock.readLock().unlock();
     }
   }
 }
@@ -30,6 +30,10 @@ public class LineaBundleCliOptions implements LineaCliOptions {
   private static final String BUNDLES_FORWARD_TIMEOUT = "--plugin-linea-bundles-forward-timeout";
   private static final int DEFAULT_BUNDLES_FORWARD_TIMEOUT_MILLIS = 5000;
 
+  private static final String BUNDLES_FORWARD_BATCH_SIZE =
+      "--plugin-linea-bundles-forward-batch-size";
+  private static final int DEFAULT_BUNDLES_FORWARD_BATCH_SIZE = 1;
+
   @CommandLine.Option(
       names = {BUNDLES_FORWARD_URLS},
       paramLabel = "<SET<URL>>",
@@ -51,6 +55,13 @@ public class LineaBundleCliOptions implements LineaCliOptions {
           "Number of milliseconds to wait before a forward times out (default: ${DEFAULT-VALUE})")
   private int timeoutMillis = DEFAULT_BUNDLES_FORWARD_TIMEOUT_MILLIS;
 
+  @CommandLine.Option(
+      names = {BUNDLES_FORWARD_BATCH_SIZE},
+      paramLabel = "<INTEGER>",
+      description =
+          "Max number of queued bundles forwarded together in a JSON-RPC batch request, 1 disables batching (default: ${DEFAULT-VALUE})")
+  private int forwardBatchSize = DEFAULT_BUNDLES_FORWARD_BATCH_SIZE;
+
   private LineaBundleCliOptions() {}
 
   /**
@@ -73,6 +84,7 @@ public class LineaBundleCliOptions implements LineaCliOptions {
     options.forwardUrls = config.forwardUrls();
     options.retryDelayMillis = config.retryDelayMillis();
     options.timeoutMillis = config.timeoutMillis();
+    options.forwardBatchSize = config.forwardBatchSize();
     return options;
   }
 
@@ -87,6 +99,7 @@ public class LineaBundleCliOptions implements LineaCliOptions {
         .forwardUrls(forwardUrls)
         .retryDelayMillis(retryDelayMillis)
         .timeoutMillis(timeoutMillis)
+        .forwardBatchSize(forwardBatchSize)
         .build();
   }
 
@@ -98,6 +111,7 @@ public class LineaBundleCliOptions implements LineaCliOptions {
             forwardUrls.stream().map(URL::toString).collect(Collectors.joining(",")))
         .add(BUNDLES_FORWARD_RETRY_DELAY, retryDelayMillis)
         .add(BUNDLES_FORWARD_TIMEOUT, timeoutMillis)
+        .add(BUNDLES_FORWARD_BATCH_SIZE, forwardBatchSize)
         .toString();
   }
 }
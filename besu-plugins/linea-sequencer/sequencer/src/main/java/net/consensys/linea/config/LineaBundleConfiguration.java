@@ -26,4 +26,14 @@ public class LineaBundleConfiguration implements LineaOptionsConfiguration {
   private Set<URL> forwardUrls;
   private int retryDelayMillis;
   private int timeoutMillis;
+  private int forwardBatchSize;
+
+  /**
+   * Whether queued bundles are forwarded together in JSON-RPC batch requests.
+   *
+   * @return true if the forward batch size is greater than one
+   */
+  public boolean isForwardBatchEnabled() {
+    return forwardBatchSize > 1;
+  }
 }
@@ -0,0 +1,160 @@
+package net.consensys.linea.credible;
+
+import net.consensys.linea.credible.SidecarApiModels.*;
+import net.consensys.linea.metrics.LineaMetricCategory;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+import org.hyperledger.besu.plugin.services.metrics.Histogram;
+import org.hyperledger.besu.plugin.services.metrics.LabelledMetric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import com.fasterxml.jackson.core.type.TypeReference;
+
+/**
+ * Sends block environments to the Credible Layer sidecar off the block import thread.
+ *
+ * New block environments are put in a bounded queue consumed by a single thread. When more
+ * block environments are queued while a call is in flight, only the latest one is sent and the
+ * older ones are counted as dropped, since the sidecar only needs the current block environment.
+ */
+public class BlockEnvNotifier implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(BlockEnvNotifier.class);
+    private static final double[] SEND_LATENCY_BUCKETS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5};
+
+    private final SidecarClient sidecarClient;
+    private final BlockingQueue<SendBlockEnvRequest> queue;
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final ExecutorService executor;
+    private Optional<Counter> sentCounter = Optional.empty();
+    private Optional<Counter> droppedCounter = Optional.empty();
+    private Optional<Counter> failedCounter = Optional.empty();
+    private Optional<Histogram> sendLatency = Optional.empty();
+
+    public BlockEnvNotifier(final SidecarClient sidecarClient, final int queueCapacity) {
+        this.sidecarClient = sidecarClient;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.executor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().daemon().name("CredibleBlockEnvNotifier").factory());
+        this.executor.submit(this::sendLoop);
+    }
+
+    public void registerMetrics(final MetricsSystem metricsSystem, final LineaMetricCategory category) {
+        metricsSystem.createGauge(
+            category,
+            "block_env_queue_depth",
+            "Number of block environments waiting to be sent to the sidecar",
+            this::queueDepth);
+
+        final LabelledMetric<Counter> updatesCounter = metricsSystem.createLabelledCounter(
+            category,
+            "block_env_updates",
+            "Total number of block environment updates by status",
+            "status");
+        sentCounter = Optional.of(updatesCounter.labels("sent"));
+        droppedCounter = Optional.of(updatesCounter.labels("dropped"));
+        failedCounter = Optional.of(updatesCounter.labels("failed"));
+
+        sendLatency = Optional.of(metricsSystem.createLabelledHistogram(
+            category,
+            "block_env_send_latency_seconds",
+            "Latency of sendBlockEnv calls to the sidecar",
+            SEND_LATENCY_BUCKETS).labels());
+    }
+
+    /**
+     * Queues the block environment to be sent, never blocks the caller.
+     * If the queue is full the oldest queued block environment is dropped.
+     */
+    public void notifyBlockEnv(final SendBlockEnvRequest blockEnv) {
+        while (!queue.offer(blockEnv)) {
+            if (queue.poll() != null) {
+                countDropped();
+            }
+        }
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    public long sentCount() {
+        return sentCount.get();
+    }
+
+    public long droppedCount() {
+        return droppedCount.get();
+    }
+
+    public long failedCount() {
+        return failedCount.get();
+    }
+
+    private void sendLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            final SendBlockEnvRequest blockEnv;
+            try {
+                blockEnv = latestBlockEnv();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            send(blockEnv);
+        }
+    }
+
+    private SendBlockEnvRequest latestBlockEnv() throws InterruptedException {
+        SendBlockEnvRequest latest = queue.take();
+        SendBlockEnvRequest newer;
+        while ((newer = queue.poll()) != null) {
+            countDropped();
+            latest = newer;
+        }
+        return latest;
+    }
+
+    private void send(final SendBlockEnvRequest blockEnv) {
+        final long start = System.nanoTime();
+        try {
+            Map<String, Object> response = sidecarClient.call(
+                CredibleLayerMethods.SEND_BLOCK_ENV, blockEnv, new TypeReference<Map<String, Object>>() {});
+            sentCount.incrementAndGet();
+            sentCounter.ifPresent(Counter::inc);
+            LOG.debug("Sidecar response for block {}: {}", blockEnv.getNumber(), response);
+        } catch (SidecarClient.JsonRpcException e) {
+            countFailed();
+            LOG.error("JsonRpcException sending block env {}: {}", blockEnv.getNumber(), e.getMessage());
+        } catch (Exception e) {
+            countFailed();
+            LOG.error("Exception sending block env {}: {}", blockEnv.getNumber(), e.getMessage());
+        } finally {
+            final double elapsedSeconds = (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+            sendLatency.ifPresent(histogram -> histogram.observe(elapsedSeconds));
+        }
+    }
+
+    private void countDropped() {
+        droppedCount.incrementAndGet();
+        droppedCounter.ifPresent(Counter::inc);
+    }
+
+    private void countFailed() {
+        failedCount.incrementAndGet();
+        failedCounter.ifPresent(Counter::inc);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -23,6 +23,9 @@ import org.hyperledger.besu.plugin.services.TransactionSimulationService;
 import org.hyperledger.besu.plugin.BesuPlugin;
 import org.hyperledger.besu.plugin.ServiceManager;
 import org.hyperledger.besu.plugin.services.PicoCLIOptions;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.MetricCategoryRegistry;
+import net.consensys.linea.metrics.LineaMetricCategory;
 import net.consensys.linea.credible.SidecarClient;
 import net.consensys.linea.credible.SidecarApiModels.*;
 import lombok.extern.slf4j.Slf4j;
@@ -35,10 +38,12 @@ import picocli.CommandLine;
 @Slf4j
 public class CredibleBlockPlugin implements BesuPlugin, BesuEvents.BlockAddedListener {
   private static final String PLUGIN_NAME = "credible-sidecar";
+  private static final int BLOCK_ENV_QUEUE_CAPACITY = 16;
 
   private ServiceManager context;
   private BesuEvents besuEvents;
   private SidecarClient sidecarClient;
+  private BlockEnvNotifier blockEnvNotifier;
 
   @CommandLine.Command(
     name = PLUGIN_NAME,
@@ -68,8 +73,32 @@ public class CredibleBlockPlugin implements BesuPlugin, BesuEvents.BlockAddedLis
       )
       private int processingTimeout = 50;
 
+      @CommandLine.Option(
+          names = {"--plugin-credible-sidecar-batch-size"},
+          description = "Max number of transactions sent to the Sidecar in a single batch request (default: ${DEFAULT-VALUE})",
+          defaultValue = "64"
+      )
+      private int batchSize = 64;
+
+      @CommandLine.Option(
+          names = {"--plugin-credible-sidecar-batch-flush-interval-ms"},
+          description = "Max time in ms a transaction waits for its batch to be filled before it is sent to the Sidecar (default: ${DEFAULT-VALUE})",
+          defaultValue = "1"
+      )
+      private int batchFlushInterval = 1;
+
+      @CommandLine.Option(
+          names = {"--plugin-credible-sidecar-result-poll-interval-ms"},
+          description = "Initial interval in ms between the polls of the results not yet processed by the Sidecar, doubled up to 8 times while no result is received (default: ${DEFAULT-VALUE})",
+          defaultValue = "5"
+      )
+      private int resultPollInterval = 5;
+
       public String getRpcEndpoint() { return rpcEndpoint; }
       public int getProcessingTimeout() { return processingTimeout; }
+      public int getBatchSize() { return batchSize; }
+      public int getBatchFlushInterval() { return batchFlushInterval; }
+      public int getResultPollInterval() { return resultPollInterval; }
   }
 
   private static CrediblePluginConfiguration config = null;
@@ -88,6 +117,10 @@ public class CredibleBlockPlugin implements BesuPlugin, BesuEvents.BlockAddedLis
       } else {
           log.atError().setMessage("PicoCLI not available").log();
       } 
+
+      context
+        .getService(MetricCategoryRegistry.class)
+        .ifPresent(registry -> registry.addMetricCategory(LineaMetricCategory.CREDIBLE_LAYER));
   }
 
   public static Optional<CrediblePluginConfiguration> pluginConfiguration() {
@@ -105,6 +138,14 @@ public class CredibleBlockPlugin implements BesuPlugin, BesuEvents.BlockAddedLis
       this.sidecarClient = new SidecarClient.Builder()
         .baseUrl(config.getRpcEndpoint())
         .build();
+
+      // block envs are sent from a dedicated thread, so a slow sidecar does not delay block import
+      this.blockEnvNotifier = new BlockEnvNotifier(sidecarClient, BLOCK_ENV_QUEUE_CAPACITY);
+      context
+        .getService(MetricCategoryRegistry.class)
+        .filter(registry -> registry.isMetricCategoryEnabled(LineaMetricCategory.CREDIBLE_LAYER))
+        .flatMap(registry -> context.getService(MetricsSystem.class))
+        .ifPresent(metricsSystem -> blockEnvNotifier.registerMetrics(metricsSystem, LineaMetricCategory.CREDIBLE_LAYER));
   }
 
   private long listenerIdentifier;
@@ -122,6 +163,9 @@ public class CredibleBlockPlugin implements BesuPlugin, BesuEvents.BlockAddedLis
       context
         .getService(BesuEvents.class)
         .ifPresentOrElse(this::stopEvents, () -> log.atError().setMessage("Error retrieving BesuEvents service").log());
+      if (blockEnvNotifier != null) {
+        blockEnvNotifier.close();
+      }
     }
     
   @Override
@@ -143,13 +187,6 @@ public class CredibleBlockPlugin implements BesuPlugin, BesuEvents.BlockAddedLis
         blockHeader.getMixHash().toHexString()
       );
 
-      try {
-          Map<String, Object> response = this.sidecarClient.call("sendBlockEnv", blockEnv, new TypeReference<Map<String, Object>>() {});
-          log.atInfo().setMessage("Sidecar response: " + response).log(); 
-        } catch (SidecarClient.JsonRpcException e) {
-          log.atError().setMessage("JsonRpcException: " + e.getMessage()).log();
-        } catch (Exception e) {
-          log.atError().setMessage("Exception: " + e.getMessage()).log();
-        }
+      blockEnvNotifier.notifyBlockEnv(blockEnv);
   }
 }
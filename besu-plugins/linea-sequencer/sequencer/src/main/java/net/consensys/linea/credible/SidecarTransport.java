@@ -0,0 +1,284 @@
+package net.consensys.linea.credible;
+
+import net.consensys.linea.credible.SidecarApiModels.*;
+import net.consensys.linea.credible.SidecarClient.JsonRpcRequest;
+import net.consensys.linea.credible.SidecarClient.JsonRpcResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pipelined transport to the Credible Layer sidecar.
+ *
+ * Candidate transactions are queued without waiting for the sidecar, a dedicated thread
+ * accumulates them and sends, in a single batchCall, the sendTransactions request for the queued
+ * transactions followed by the getTransactions request for their results.
+ * Results are correlated back to the submitted transactions by tx hash, hashes not yet known by
+ * the sidecar are polled again with the next batch, or after resultPollIntervalMillis if no
+ * transaction is queued meanwhile. The poll interval doubles, up to 8 times resultPollIntervalMillis,
+ * while the polls return no new result, and is reset as soon as results are received.
+ *
+ * Each submitted transaction has a result deadline, after which its result is no longer awaited.
+ */
+public class SidecarTransport implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(SidecarTransport.class);
+    private static final long IDLE_WAIT_MILLIS = 100;
+    private static final int MAX_RESULT_POLL_BACKOFF_FACTOR = 8;
+
+    private final SidecarClient sidecarClient;
+    private final int maxBatchSize;
+    private final long flushIntervalMillis;
+    private final long resultPollIntervalMillis;
+    private final long resultDeadlineNanos;
+    private final BlockingQueue<TransactionWithHash> queuedTransactions = new LinkedBlockingQueue<>();
+    private final Set<String> hashesToPoll = ConcurrentHashMap.newKeySet();
+    private final Map<String, PendingResult> pendingResults = new ConcurrentHashMap<>();
+    private final AtomicLong requestIdProvider = new AtomicLong(0L);
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final ExecutorService executor;
+    // only accessed by the sender thread
+    private long nextResultPollIntervalMillis;
+
+    private record PendingResult(CompletableFuture<TransactionResult> future, long deadlineNanos) {}
+
+    public SidecarTransport(
+            final SidecarClient sidecarClient,
+            final int maxBatchSize,
+            final long flushIntervalMillis,
+            final long resultPollIntervalMillis,
+            final long resultDeadlineMillis) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be greater than 0");
+        }
+        if (resultPollIntervalMillis < 1) {
+            throw new IllegalArgumentException("resultPollIntervalMillis must be greater than 0");
+        }
+        this.sidecarClient = sidecarClient;
+        this.maxBatchSize = maxBatchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.resultPollIntervalMillis = resultPollIntervalMillis;
+        this.nextResultPollIntervalMillis = resultPollIntervalMillis;
+        this.resultDeadlineNanos = TimeUnit.MILLISECONDS.toNanos(resultDeadlineMillis);
+        this.executor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().daemon().name("CredibleSidecarTransport").factory());
+        this.executor.submit(this::sendLoop);
+    }
+
+    public static SidecarTransport fromConfiguration(
+            final CredibleBlockPlugin.CrediblePluginConfiguration config) {
+        return new SidecarTransport(
+            new SidecarClient.Builder().baseUrl(config.getRpcEndpoint()).build(),
+            config.getBatchSize(),
+            config.getBatchFlushInterval(),
+            config.getResultPollInterval(),
+            config.getProcessingTimeout());
+    }
+
+    /**
+     * Queues the transaction to be sent to the sidecar, without waiting for the sidecar.
+     *
+     * @return the future of the transaction result, completed with null if no result was received
+     */
+    public CompletableFuture<TransactionResult> submit(final String txHash, final TxEnv txEnv) {
+        final var pendingResult = new PendingResult(
+            new CompletableFuture<>(), System.nanoTime() + resultDeadlineNanos);
+        final var previous = pendingResults.put(txHash, pendingResult);
+        if (previous != null) {
+            previous.future().complete(null);
+        }
+        queuedTransactions.add(new TransactionWithHash(txEnv, txHash));
+        return pendingResult.future();
+    }
+
+    /**
+     * Returns the result of a submitted transaction, waiting at most until its result deadline.
+     * Once the deadline is elapsed the lookup does not block.
+     */
+    public Optional<TransactionResult> awaitResult(final String txHash) {
+        final var pendingResult = pendingResults.get(txHash);
+        if (pendingResult == null) {
+            return Optional.empty();
+        }
+        // the result is completed by the sender thread while the entry is still pending
+        final long remainingNanos = pendingResult.deadlineNanos() - System.nanoTime();
+        try {
+            return Optional.ofNullable(remainingNanos > 0
+                ? pendingResult.future().get(remainingNanos, TimeUnit.NANOSECONDS)
+                : pendingResult.future().getNow(null));
+        } catch (TimeoutException e) {
+            LOG.debug("Result deadline elapsed for transaction {}", txHash);
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (ExecutionException e) {
+            LOG.debug("No result for transaction {}: {}", txHash, e.getMessage());
+            return Optional.empty();
+        } finally {
+            pendingResults.remove(txHash, pendingResult);
+        }
+    }
+
+    public int pendingResultsCount() {
+        return pendingResults.size();
+    }
+
+    private void sendLoop() {
+        while (running.get()) {
+            try {
+                final List<TransactionWithHash> batch = nextBatch();
+                final Set<String> hashes = new LinkedHashSet<>();
+                batch.forEach(tx -> hashes.add(tx.getHash()));
+                hashes.addAll(hashesToPoll);
+                hashesToPoll.removeAll(hashes);
+                if (!hashes.isEmpty()) {
+                    final int resolvedCount = sendBatch(batch, hashes);
+                    // back off while the sidecar has not processed the polled transactions
+                    nextResultPollIntervalMillis = batch.isEmpty() && resolvedCount == 0
+                        ? Math.min(
+                            nextResultPollIntervalMillis * 2,
+                            resultPollIntervalMillis * MAX_RESULT_POLL_BACKOFF_FACTOR)
+                        : resultPollIntervalMillis;
+                }
+                expirePendingResults();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                LOG.error("Unexpected error in sidecar transport loop: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private List<TransactionWithHash> nextBatch() throws InterruptedException {
+        final List<TransactionWithHash> batch = new ArrayList<>(maxBatchSize);
+        // wait less for the first transaction if there are results to poll
+        final long firstWaitMillis =
+            hashesToPoll.isEmpty() ? IDLE_WAIT_MILLIS : nextResultPollIntervalMillis;
+        final var first = queuedTransactions.poll(firstWaitMillis, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return batch;
+        }
+        batch.add(first);
+        final long flushDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        while (batch.size() < maxBatchSize) {
+            queuedTransactions.drainTo(batch, maxBatchSize - batch.size());
+            final long remainingNanos = flushDeadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remainingNanos <= 0) {
+                break;
+            }
+            final var next = queuedTransactions.poll(remainingNanos, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    /**
+     * Sends the batch and polls the results of the given hashes.
+     *
+     * @return the number of transactions resolved by the responses
+     */
+    private int sendBatch(final List<TransactionWithHash> batch, final Set<String> hashes) {
+        final List<JsonRpcRequest> requests = new ArrayList<>(2);
+        final String sendId = "send-" + requestIdProvider.incrementAndGet();
+        final String getId = "get-" + requestIdProvider.incrementAndGet();
+        if (!batch.isEmpty()) {
+            requests.add(new JsonRpcRequest(
+                CredibleLayerMethods.SEND_TRANSACTIONS, new SendTransactionsRequest(batch), sendId));
+        }
+        requests.add(new JsonRpcRequest(
+            CredibleLayerMethods.GET_TRANSACTIONS, new GetTransactionsRequest(List.copyOf(hashes)), getId));
+
+        final List<JsonRpcResponse<Object>> responses;
+        try {
+            responses = sidecarClient.batchCall(requests);
+        } catch (SidecarClient.JsonRpcException e) {
+            LOG.error("Error sending batch of {} transactions to sidecar: {}", batch.size(), e.getMessage());
+            hashes.forEach(this::completeWithoutResult);
+            return hashes.size();
+        }
+
+        final Set<String> resolved = new LinkedHashSet<>();
+        for (final JsonRpcResponse<Object> response : responses) {
+            if (response.hasError()) {
+                LOG.warn("Sidecar request {} failed: {}", response.getId(), response.getError());
+            } else if (sendId.equals(response.getId())) {
+                final var sendResponse = sidecarClient.convertResult(
+                    response.getResult(), SendTransactionsResponse.class);
+                if (sendResponse != null && sendResponse.getFailed() != null) {
+                    sendResponse.getFailed().forEach(txHash -> {
+                        LOG.warn("Transaction {} failed to queue", txHash);
+                        completeWithoutResult(txHash);
+                        resolved.add(txHash);
+                    });
+                }
+            } else if (getId.equals(response.getId())) {
+                final var getResponse = sidecarClient.convertResult(
+                    response.getResult(), GetTransactionsResponse.class);
+                if (getResponse != null && getResponse.getResults() != null) {
+                    for (final TransactionResult txResult : getResponse.getResults()) {
+                        final var pendingResult = pendingResults.get(txResult.getHash());
+                        if (pendingResult != null) {
+                            pendingResult.future().complete(txResult);
+                        }
+                        resolved.add(txResult.getHash());
+                    }
+                }
+            }
+        }
+
+        // poll again the ones the sidecar has not processed yet, while they are still awaited
+        hashes.stream()
+            .filter(txHash -> !resolved.contains(txHash) && pendingResults.containsKey(txHash))
+            .forEach(hashesToPoll::add);
+        return resolved.size();
+    }
+
+    private void completeWithoutResult(final String txHash) {
+        final var pendingResult = pendingResults.get(txHash);
+        if (pendingResult != null) {
+            pendingResult.future().complete(null);
+        }
+    }
+
+    private void expirePendingResults() {
+        final long now = System.nanoTime();
+        pendingResults.entrySet().removeIf(entry -> {
+            if (entry.getValue().deadlineNanos() - now < 0) {
+                entry.getValue().future().complete(null);
+                hashesToPoll.remove(entry.getKey());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    @Override
+    public void close() {
+        running.set(false);
+        executor.shutdownNow();
+        pendingResults.values().forEach(pendingResult -> pendingResult.future().complete(null));
+        pendingResults.clear();
+        sidecarClient.close();
+    }
+}
@@ -9,8 +9,10 @@
 
 package net.consensys.linea.extradata;
 
+import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import lombok.extern.slf4j.Slf4j;
 import net.consensys.linea.config.LineaProfitabilityConfiguration;
 import org.apache.commons.lang3.mutable.MutableLong;
@@ -32,12 +34,53 @@ import org.hyperledger.besu.plugin.services.rpc.RpcResponseType;
 @Slf4j
 public class LineaExtraDataHandler {
   private final RpcEndpointService rpcEndpointService;
+  private final Supplier<Optional<MinGasPriceApplier>> maybeMinGasPriceApplier;
+  private final boolean applyMinGasPriceAsync;
   private final ExtraDataConsumer[] extraDataConsumers;
 
-  public LineaExtraDataHandler(
+  /**
+   * Creates a handler that sets the min gas price synchronously, reporting any failure to the
+   * caller. If an applier is available at the time of the call, the min gas price is set through
+   * it, so it does not skip a later value received via the extra data of the imported blocks.
+   *
+   * @param rpcEndpointService the RPC endpoint service used to set the min gas price
+   * @param profitabilityConf the profitability configuration to update
+   * @param maybeMinGasPriceApplier supplies the optional min gas price applier
+   * @return a handler that waits for the min gas price to be set
+   */
+  public static LineaExtraDataHandler settingMinGasPriceSync(
+      final RpcEndpointService rpcEndpointService,
+      final LineaProfitabilityConfiguration profitabilityConf,
+      final Supplier<Optional<MinGasPriceApplier>> maybeMinGasPriceApplier) {
+    return new LineaExtraDataHandler(
+        rpcEndpointService, profitabilityConf, maybeMinGasPriceApplier, false);
+  }
+
+  /**
+   * Creates a handler that, if an applier is present, delegates to it the setting of the min gas
+   * price, so the handling never waits for it.
+   *
+   * @param rpcEndpointService the RPC endpoint service used to set the min gas price
+   * @param profitabilityConf the profitability configuration to update
+   * @param maybeMinGasPriceApplier the optional async min gas price applier
+   * @return a handler that does not wait for the min gas price to be set
+   */
+  public static LineaExtraDataHandler settingMinGasPriceAsync(
       final RpcEndpointService rpcEndpointService,
-      final LineaProfitabilityConfiguration profitabilityConf) {
+      final LineaProfitabilityConfiguration profitabilityConf,
+      final Optional<MinGasPriceApplier> maybeMinGasPriceApplier) {
+    return new LineaExtraDataHandler(
+        rpcEndpointService, profitabilityConf, () -> maybeMinGasPriceApplier, true);
+  }
+
+  private LineaExtraDataHandler(
+      final RpcEndpointService rpcEndpointService,
+      final LineaProfitabilityConfiguration profitabilityConf,
+      final Supplier<Optional<MinGasPriceApplier>> maybeMinGasPriceApplier,
+      final boolean applyMinGasPriceAsync) {
     this.rpcEndpointService = rpcEndpointService;
+    this.maybeMinGasPriceApplier = maybeMinGasPriceApplier;
+    this.applyMinGasPriceAsync = applyMinGasPriceAsync;
     this.extraDataConsumers = new ExtraDataConsumer[] {new Version1Consumer(profitabilityConf)};
   }
 
@@ -136,6 +179,15 @@ public class LineaExtraDataHandler {
       currEthGasPriceKWei.setValue(ethGasPriceKWei);
       if (profitabilityConf.extraDataSetMinGasPriceEnabled()) {
         final var minGasPriceWei = Wei.of(ethGasPriceKWei).multiply(WEI_IN_KWEI);
+        final var maybeApplier = maybeMinGasPriceApplier.get();
+        if (maybeApplier.isPresent()) {
+          if (applyMinGasPriceAsync) {
+            maybeApplier.get().submit(minGasPriceWei);
+          } else {
+            maybeApplier.get().apply(minGasPriceWei);
+          }
+          return;
+        }
         final var resp =
             rpcEndpointService.call(
                 "miner_setMinGasPrice", new Object[] {minGasPriceWei.toShortHexString()});
@@ -12,10 +12,12 @@ package net.consensys.linea.extradata;
 import static net.consensys.linea.metrics.LineaMetricCategory.PRICING_CONF;
 
 import com.google.auto.service.AutoService;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.extern.slf4j.Slf4j;
 import net.consensys.linea.AbstractLineaRequiredPlugin;
 import net.consensys.linea.config.LineaProfitabilityConfiguration;
+import net.consensys.linea.metrics.HistogramMetrics;
 import org.hyperledger.besu.plugin.BesuPlugin;
 import org.hyperledger.besu.plugin.ServiceManager;
 import org.hyperledger.besu.plugin.data.AddedBlockContext;
@@ -50,6 +52,24 @@ public class LineaExtraDataPlugin extends AbstractLineaRequiredPlugin {
                   () ->
                       new RuntimeException("Failed to obtain BesuEvents from the ServiceManager."));
 
+      if (profitabilityConfiguration().extraDataSetMinGasPriceEnabled()) {
+        // setting the min gas price is done off the block import path,
+        // the applier is shared with linea_setExtraData that sets it too
+        maybeMinGasPriceApplier =
+            Optional.of(
+                new MinGasPriceApplier(
+                    rpcEndpointService,
+                    metricCategoryRegistry.isMetricCategoryEnabled(PRICING_CONF)
+                        ? Optional.of(
+                            new HistogramMetrics(
+                                metricsSystem,
+                                PRICING_CONF,
+                                "min_gas_price_apply_lag_seconds",
+                                "time between the import of a block and the setting of the min gas price from its extra data",
+                                MinGasPriceApplier.APPLY_LAG_BUCKETS))
+                        : Optional.empty()));
+      }
+
       // assume that we are in sync by default to support reading extra data at genesis
       final AtomicBoolean inSync = new AtomicBoolean(true);
 
@@ -86,6 +106,13 @@ public class LineaExtraDataPlugin extends AbstractLineaRequiredPlugin {
     }
   }
 
+  @Override
+  public void stop() {
+    super.stop();
+    maybeMinGasPriceApplier.ifPresent(MinGasPriceApplier::close);
+    maybeMinGasPriceApplier = Optional.empty();
+  }
+
   private void initMetrics(final LineaProfitabilityConfiguration lineaProfitabilityConfiguration) {
     final var confLabelledGauge =
         metricsSystem.createLabelledSuppliedGauge(
@@ -99,7 +126,8 @@ public class LineaExtraDataPlugin extends AbstractLineaRequiredPlugin {
       final BesuEvents besuEventsService, final AtomicBoolean inSync) {
 
     final var extraDataHandler =
-        new LineaExtraDataHandler(rpcEndpointService, profitabilityConfiguration());
+        LineaExtraDataHandler.settingMinGasPriceAsync(
+            rpcEndpointService, profitabilityConfiguration(), maybeMinGasPriceApplier);
 
     if (inSync.get()) {
       final var chainHeadHeader = blockchainService.getChainHeadHeader();
@@ -0,0 +1,182 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * This file is dual-licensed under either the MIT license or Apache License 2.0.
+ * See the LICENSE-MIT and LICENSE-APACHE files in the repository root for details.
+ *
+ * SPDX-License-Identifier: MIT OR Apache-2.0
+ */
+
+package net.consensys.linea.extradata;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import net.consensys.linea.metrics.HistogramMetrics;
+import org.hyperledger.besu.datatypes.Wei;
+import org.hyperledger.besu.plugin.services.RpcEndpointService;
+import org.hyperledger.besu.plugin.services.rpc.PluginRpcResponse;
+import org.hyperledger.besu.plugin.services.rpc.RpcResponseType;
+
+/**
+ * Applies the min gas price, received via the extra data of the imported blocks, off the block
+ * import path.
+ *
+ * <p>Updates are applied by a single thread, and only the latest pending update is kept, so if
+ * blocks are imported faster than the min gas price can be set, the intermediate values are
+ * skipped. The min gas price is only set when it differs from the last one successfully applied.
+ *
+ * <p>The min gas price set synchronously, via {@code linea_setExtraData}, must go through {@link
+ * #apply(Wei)}, so the last applied value always reflects what has been set last.
+ */
+@Slf4j
+public class MinGasPriceApplier implements AutoCloseable {
+  public static final double[] APPLY_LAG_BUCKETS = {
+    0.001, 0.005, 0.01, 0.05, 0.1, 0.5, 1.0, 5.0, 10.0
+  };
+
+  private final RpcEndpointService rpcEndpointService;
+  private final Optional<HistogramMetrics> maybeApplyLagMetrics;
+  private final ExecutorService executor;
+  private final AtomicReference<PendingUpdate> pendingUpdate = new AtomicReference<>();
+  private final AtomicLong appliedCount = new AtomicLong();
+  private final AtomicLong coalescedCount = new AtomicLong();
+  private final AtomicLong unchangedCount = new AtomicLong();
+  private final AtomicLong failedCount = new AtomicLong();
+  // guards the calls to set the min gas price and the last applied value
+  private final Object lock = new Object();
+  private Wei lastAppliedMinGasPrice;
+
+  public MinGasPriceApplier(
+      final RpcEndpointService rpcEndpointService,
+      final Optional<HistogramMetrics> maybeApplyLagMetrics) {
+    this.rpcEndpointService = rpcEndpointService;
+    this.maybeApplyLagMetrics = maybeApplyLagMetrics;
+    this.executor =
+        Executors.newSingleThreadExecutor(
+            r -> {
+              final Thread thread = new Thread(r, "min-gas-price-applier");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Schedules the min gas price to be set, replacing any update not yet applied. Never blocks.
+   *
+   * @param minGasPrice the new min gas price
+   */
+  public void submit(final Wei minGasPrice) {
+    final var update = new PendingUpdate(minGasPrice, System.nanoTime());
+    final var replaced = pendingUpdate.getAndSet(update);
+    if (replaced == null) {
+      try {
+        executor.execute(this::applyPendingUpdate);
+      } catch (RejectedExecutionException e) {
+        log.debug("Min gas price applier is closed, ignoring min gas price {}", minGasPrice);
+      }
+    } else {
+      coalescedCount.incrementAndGet();
+      log.trace(
+          "Min gas price {} replaced by {} before being applied",
+          replaced.minGasPrice,
+          minGasPrice);
+    }
+  }
+
+  /**
+   * Sets the min gas price on the caller thread, discarding any update not yet applied since it is
+   * older than this one.
+   *
+   * @param minGasPrice the new min gas price
+   * @throws LineaExtraDataException if the min gas price could not be set
+   */
+  public void apply(final Wei minGasPrice) throws LineaExtraDataException {
+    synchronized (lock) {
+      if (pendingUpdate.getAndSet(null) != null) {
+        coalescedCount.incrementAndGet();
+      }
+      final var resp = setMinGasPrice(minGasPrice);
+      if (!resp.getType().equals(RpcResponseType.SUCCESS)) {
+        failedCount.incrementAndGet();
+        throw new LineaExtraDataException(
+            LineaExtraDataException.ErrorType.FAILED_CALLING_SET_MIN_GAS_PRICE,
+            "Internal setMinGasPrice method failed: " + resp);
+      }
+      lastAppliedMinGasPrice = minGasPrice;
+      appliedCount.incrementAndGet();
+    }
+  }
+
+  private void applyPendingUpdate() {
+    synchronized (lock) {
+      final var update = pendingUpdate.getAndSet(null);
+      if (update == null) {
+        return;
+      }
+
+      if (update.minGasPrice.equals(lastAppliedMinGasPrice)) {
+        unchangedCount.incrementAndGet();
+        log.trace("Min gas price {} unchanged, not setting it", update.minGasPrice);
+        return;
+      }
+
+      try {
+        final var resp = setMinGasPrice(update.minGasPrice);
+        if (!resp.getType().equals(RpcResponseType.SUCCESS)) {
+          failedCount.incrementAndGet();
+          log.warn("Internal setMinGasPrice method failed: {}", resp);
+          return;
+        }
+      } catch (Exception e) {
+        failedCount.incrementAndGet();
+        log.warn("Internal setMinGasPrice method failed", e);
+        return;
+      }
+
+      lastAppliedMinGasPrice = update.minGasPrice;
+      appliedCount.incrementAndGet();
+      final double lagSeconds = (System.nanoTime() - update.submittedAtNanos) / 1_000_000_000.0;
+      maybeApplyLagMetrics.ifPresent(metrics -> metrics.track(lagSeconds));
+      log.atDebug()
+          .setMessage("Min gas price set to {}, {}s after the block import")
+          .addArgument(update.minGasPrice::toHumanReadableString)
+          .addArgument(lagSeconds)
+          .log();
+    }
+  }
+
+  private PluginRpcResponse setMinGasPrice(final Wei minGasPrice) {
+    // the value set may be unknown if the call does not succeed
+    lastAppliedMinGasPrice = null;
+    return rpcEndpointService.call(
+        "miner_setMinGasPrice", new Object[] {minGasPrice.toShortHexString()});
+  }
+
+  long appliedCount() {
+    return appliedCount.get();
+  }
+
+  long coalescedCount() {
+    return coalescedCount.get();
+  }
+
+  long unchangedCount() {
+    return unchangedCount.get();
+  }
+
+  long failedCount() {
+    return failedCount.get();
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  private record PendingUpdate(Wei minGasPrice, long submittedAtNanos) {}
+}
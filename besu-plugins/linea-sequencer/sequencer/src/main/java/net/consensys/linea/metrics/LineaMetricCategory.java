@@ -20,7 +20,11 @@ public enum LineaMetricCategory implements MetricCategory {
   /** Runtime pricing configuration */
   PRICING_CONF,
   /** Sequencer liveness monitoring */
-  SEQUENCER_LIVENESS;
+  SEQUENCER_LIVENESS,
+  /** Sequencer transaction selection */
+  SEQUENCER_TX_SELECTION,
+  /** Credible Layer sidecar integration */
+  CREDIBLE_LAYER;
 
   private static final Optional<String> APPLICATION_PREFIX = Optional.of("linea_");
 
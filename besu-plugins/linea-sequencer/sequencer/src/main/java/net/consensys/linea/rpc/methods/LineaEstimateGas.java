@@ -23,6 +23,7 @@ import java.math.RoundingMode;
 import java.util.EnumSet;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import lombok.extern.slf4j.Slf4j;
 import net.consensys.linea.bl.TransactionProfitabilityCalculator;
 import net.consensys.linea.config.LineaProfitabilityConfiguration;
@@ -32,6 +33,7 @@ import net.consensys.linea.config.LineaTransactionPoolValidatorConfiguration;
 import net.consensys.linea.plugins.config.LineaL1L2BridgeSharedConfiguration;
 import net.consensys.linea.sequencer.modulelimit.ModuleLimitsValidationResult;
 import net.consensys.linea.sequencer.modulelimit.ModuleLineCountValidator;
+import net.consensys.linea.sequencer.modulelimit.ModuleLineLimits;
 import net.consensys.linea.zktracer.LineCountingTracer;
 import net.consensys.linea.zktracer.ZkCounter;
 import net.consensys.linea.zktracer.ZkTracer;
@@ -94,7 +96,7 @@ public class LineaEstimateGas {
   private TransactionProfitabilityCalculator txProfitabilityCalculator;
   private LineaL1L2BridgeSharedConfiguration l1L2BridgeConfiguration;
   private LineaTracerConfiguration tracerConfiguration;
-  private ModuleLineCountValidator moduleLineCountValidator;
+  private Supplier<ModuleLineLimits> moduleLineLimitsSupplier;
 
   public LineaEstimateGas(
       final BesuConfiguration besuConfiguration,
@@ -113,6 +115,7 @@ public class LineaEstimateGas {
       final LineaProfitabilityConfiguration profitabilityConf,
       final LineaL1L2BridgeSharedConfiguration l1L2BridgeConfiguration,
       final LineaTracerConfiguration tracerConfiguration,
+      final Supplier<ModuleLineLimits> moduleLineLimitsSupplier,
       final WorldStateService worldStateService) {
     this.rpcConfiguration = rpcConfiguration;
     this.txValidatorConf = transactionValidatorConfiguration;
@@ -120,8 +123,7 @@ public class LineaEstimateGas {
     this.txProfitabilityCalculator = new TransactionProfitabilityCalculator(profitabilityConf);
     this.l1L2BridgeConfiguration = l1L2BridgeConfiguration;
     this.tracerConfiguration = tracerConfiguration;
-    this.moduleLineCountValidator =
-        new ModuleLineCountValidator(tracerConfiguration.moduleLimitsMap());
+    this.moduleLineLimitsSupplier = moduleLineLimitsSupplier;
     this.worldStateService = worldStateService;
   }
 
@@ -268,6 +270,9 @@ public class LineaEstimateGas {
             lineCountingTracer,
             EnumSet.of(ALLOW_FUTURE_NONCE));
 
+    // use the current limits, in case the limits file has been reloaded
+    final ModuleLineCountValidator moduleLineCountValidator =
+        new ModuleLineCountValidator(moduleLineLimitsSupplier.get());
     ModuleLimitsValidationResult moduleLimit =
         moduleLineCountValidator.validate(lineCountingTracer.getModulesLineCount());
 
@@ -62,6 +62,7 @@ public class LineaEstimateGasEndpointPlugin extends AbstractLineaRequiredPlugin
         profitabilityConfiguration(),
         l1L2BridgeSharedConfiguration(),
         tracerConfiguration(),
+        moduleLineLimitsWatcher,
         worldStateService);
   }
 }
@@ -42,8 +42,10 @@ public class LineaSetExtraDataEndpointPlugin extends AbstractLineaRequiredPlugin
   @Override
   public void beforeExternalServices() {
     super.beforeExternalServices();
+    // the applier is started later by the extra data plugin, so it is looked up on each call
     lineaSetExtraDataMethod.init(
-        new LineaExtraDataHandler(rpcEndpointService, profitabilityConfiguration()));
+        LineaExtraDataHandler.settingMinGasPriceSync(
+            rpcEndpointService, profitabilityConfiguration(), () -> maybeMinGasPriceApplier));
   }
 
   @Override
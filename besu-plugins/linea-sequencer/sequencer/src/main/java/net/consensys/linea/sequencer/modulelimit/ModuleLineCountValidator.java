@@ -13,7 +13,6 @@ import java.io.File;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.tuweni.toml.Toml;
@@ -26,7 +25,7 @@ import org.apache.tuweni.toml.TomlTable;
  */
 @Slf4j
 public class ModuleLineCountValidator {
-  private final Map<String, Integer> moduleLineCountLimits;
+  private final ModuleLineLimits moduleLineLimits;
 
   /**
    * Constructs a new accumulator with specified module line count limits.
@@ -34,7 +33,16 @@ public class ModuleLineCountValidator {
    * @param moduleLineCountLimits A map of module names to their respective line count limits.
    */
   public ModuleLineCountValidator(Map<String, Integer> moduleLineCountLimits) {
-    this.moduleLineCountLimits = Map.copyOf(moduleLineCountLimits);
+    this(ModuleLineLimits.fromMap(moduleLineCountLimits));
+  }
+
+  /**
+   * Constructs a new accumulator with specified module line count limits.
+   *
+   * @param moduleLineLimits The table of the line count limits for each module.
+   */
+  public ModuleLineCountValidator(final ModuleLineLimits moduleLineLimits) {
+    this.moduleLineLimits = moduleLineLimits;
   }
 
   /**
@@ -46,7 +54,7 @@ public class ModuleLineCountValidator {
    */
   public ModuleLimitsValidationResult validate(
       final Map<String, Integer> currentAccumulatedLineCounts) {
-    return validate(currentAccumulatedLineCounts, initialLineCountLimits());
+    return validate(currentAccumulatedLineCounts, Map.of());
   }
 
   /**
@@ -55,12 +63,15 @@ public class ModuleLineCountValidator {
    *
    * @param currentAccumulatedLineCounts A map of module names to their current accumulated line
    *     counts.
-   * @param prevAccumulatedLineCounts A map with previous accumulated line counts.
+   * @param prevAccumulatedLineCounts A map with previous accumulated line counts, missing modules
+   *     count as 0.
    * @return A {@link ModuleLimitsValidationResult} indicating the outcome of the verification.
    */
   public ModuleLimitsValidationResult validate(
       final Map<String, Integer> currentAccumulatedLineCounts,
       final Map<String, Integer> prevAccumulatedLineCounts) {
+    final int[] currentLineCounts = new int[moduleLineLimits.size()];
+    final int[] prevLineCounts = new int[moduleLineLimits.size()];
     for (Map.Entry<String, Integer> moduleEntry : currentAccumulatedLineCounts.entrySet()) {
       final String moduleName = moduleEntry.getKey();
       final int currentTotalLineCountForModule = moduleEntry.getValue();
@@ -72,19 +83,49 @@ public class ModuleLineCountValidator {
         return ModuleLimitsValidationResult.invalidLineCount(
             moduleName, currentTotalLineCountForModule);
       }
-      final Integer lineCountLimitForModule = moduleLineCountLimits.get(moduleName);
+      final int moduleIndex = moduleLineLimits.indexOf(moduleName);
 
-      if (lineCountLimitForModule == null) {
+      if (moduleIndex < 0) {
         log.error("Module '{}' is not defined in limits config.", moduleName);
         return ModuleLimitsValidationResult.moduleNotDefined(moduleName);
       }
 
+      currentLineCounts[moduleIndex] = currentTotalLineCountForModule;
+      prevLineCounts[moduleIndex] = prevAccumulatedLineCounts.getOrDefault(moduleName, 0);
+    }
+    return validate(currentLineCounts, prevLineCounts);
+  }
+
+  /**
+   * Verifies whether the current accumulated line counts, against previous accumulation line
+   * counts, for modules exceed the predefined limits. Both arrays are indexed as the {@link
+   * ModuleLineLimits} of this validator.
+   *
+   * @param currentAccumulatedLineCounts The current accumulated line count of each module.
+   * @param prevAccumulatedLineCounts The previous accumulated line count of each module.
+   * @return A {@link ModuleLimitsValidationResult} indicating the outcome of the verification.
+   */
+  public ModuleLimitsValidationResult validate(
+      final int[] currentAccumulatedLineCounts, final int[] prevAccumulatedLineCounts) {
+    for (int i = 0; i < currentAccumulatedLineCounts.length; i++) {
+      final int currentTotalLineCountForModule = currentAccumulatedLineCounts[i];
+      final int lineCountLimitForModule = moduleLineLimits.lineLimit(i);
       final int lineCountAddedByCurrentTx =
-          currentTotalLineCountForModule - prevAccumulatedLineCounts.get(moduleName);
+          currentTotalLineCountForModule - prevAccumulatedLineCounts[i];
+
+      if (currentTotalLineCountForModule < 0) {
+        final String moduleName = moduleLineLimits.moduleName(i);
+        log.error(
+            "Negative line count {} returned for module '{}'.",
+            currentTotalLineCountForModule,
+            moduleName);
+        return ModuleLimitsValidationResult.invalidLineCount(
+            moduleName, currentTotalLineCountForModule);
+      }
 
       if (lineCountAddedByCurrentTx > lineCountLimitForModule) {
         return ModuleLimitsValidationResult.txModuleLineCountOverflow(
-            moduleName,
+            moduleLineLimits.moduleName(i),
             lineCountAddedByCurrentTx,
             lineCountLimitForModule,
             currentTotalLineCountForModule,
@@ -93,7 +134,7 @@ public class ModuleLineCountValidator {
 
       if (currentTotalLineCountForModule > lineCountLimitForModule) {
         return ModuleLimitsValidationResult.blockModuleLineCountFull(
-            moduleName,
+            moduleLineLimits.moduleName(i),
             lineCountAddedByCurrentTx,
             lineCountLimitForModule,
             currentTotalLineCountForModule,
@@ -103,9 +144,8 @@ public class ModuleLineCountValidator {
     return ModuleLimitsValidationResult.VALID;
   }
 
-  private Map<String, Integer> initialLineCountLimits() {
-    return moduleLineCountLimits.keySet().stream()
-        .collect(Collectors.toMap(Function.identity(), unused -> 0));
+  public ModuleLineLimits moduleLineLimits() {
+    return moduleLineLimits;
   }
 
   /** Enumerates possible outcomes of verifying module line counts against their limits. */
@@ -0,0 +1,127 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * This file is dual-licensed under either the MIT license or Apache License 2.0.
+ * See the LICENSE-MIT and LICENSE-APACHE files in the repository root for details.
+ *
+ * SPDX-License-Identifier: MIT OR Apache-2.0
+ */
+package net.consensys.linea.sequencer.modulelimit;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable table of the line count limits for each module. Each module is assigned an index, in
+ * the alphabetical order of the module names, so line counts can be kept in dense int arrays and
+ * validated with a simple loop.
+ */
+public final class ModuleLineLimits {
+  private final String[] moduleNames;
+  private final int[] lineLimits;
+  private final Map<String, Integer> moduleIndexes;
+
+  private ModuleLineLimits(final String[] moduleNames, final int[] lineLimits) {
+    this.moduleNames = moduleNames;
+    this.lineLimits = lineLimits;
+    this.moduleIndexes = HashMap.newHashMap(moduleNames.length);
+    for (int i = 0; i < moduleNames.length; i++) {
+      moduleIndexes.put(moduleNames[i], i);
+    }
+  }
+
+  /**
+   * Creates the table from a map of module names to their respective line count limits.
+   *
+   * @param moduleLineCountLimits the line count limit for each module
+   * @return the limits table
+   */
+  public static ModuleLineLimits fromMap(final Map<String, Integer> moduleLineCountLimits) {
+    final String[] moduleNames = moduleLineCountLimits.keySet().toArray(String[]::new);
+    Arrays.sort(moduleNames);
+    final int[] lineLimits = new int[moduleNames.length];
+    for (int i = 0; i < moduleNames.length; i++) {
+      lineLimits[i] = moduleLineCountLimits.get(moduleNames[i]);
+    }
+    return new ModuleLineLimits(moduleNames, lineLimits);
+  }
+
+  public int size() {
+    return moduleNames.length;
+  }
+
+  public String moduleName(final int index) {
+    return moduleNames[index];
+  }
+
+  public int lineLimit(final int index) {
+    return lineLimits[index];
+  }
+
+  /**
+   * Returns the index of the module in this table.
+   *
+   * @param moduleName the name of the module
+   * @return the index of the module, or -1 if there is no limit for the module
+   */
+  public int indexOf(final String moduleName) {
+    final Integer index = moduleIndexes.get(moduleName);
+    return index == null ? -1 : index;
+  }
+
+  public boolean containsModule(final String moduleName) {
+    return moduleIndexes.containsKey(moduleName);
+  }
+
+  /**
+   * Converts the line count of each module into a line counts array, indexed as this table.
+   *
+   * @param lineCountByModule the line count of each module
+   * @return the line counts array, with 0 for the modules not in the map
+   * @throws IllegalStateException if there is no limit for one of the modules in the map
+   */
+  public int[] lineCounts(final Map<String, Integer> lineCountByModule) {
+    final int[] lineCounts = new int[moduleNames.length];
+    for (final Map.Entry<String, Integer> moduleEntry : lineCountByModule.entrySet()) {
+      final int index = indexOf(moduleEntry.getKey());
+      if (index < 0) {
+        throw new IllegalStateException(
+            "Module " + moduleEntry.getKey() + " does not exist in the limits file.");
+      }
+      lineCounts[index] = moduleEntry.getValue();
+    }
+    return lineCounts;
+  }
+
+  public Map<String, Integer> toMap() {
+    final Map<String, Integer> map = LinkedHashMap.newLinkedHashMap(moduleNames.length);
+    for (int i = 0; i < moduleNames.length; i++) {
+      map.put(moduleNames[i], lineLimits[i]);
+    }
+    return map;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof ModuleLineLimits that)) {
+      return false;
+    }
+    return Arrays.equals(moduleNames, that.moduleNames)
+        && Arrays.equals(lineLimits, that.lineLimits);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Arrays.hashCode(moduleNames) + Arrays.hashCode(lineLimits);
+  }
+
+  @Override
+  public String toString() {
+    return toMap().toString();
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * This file is dual-licensed under either the MIT license or Apache License 2.0.
+ * See the LICENSE-MIT and LICENSE-APACHE files in the repository root for details.
+ *
+ * SPDX-License-Identifier: MIT OR Apache-2.0
+ */
+package net.consensys.linea.sequencer.modulelimit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the module line limits in sync with the limits file, so a limit can be changed without
+ * restarting the sequencer.
+ *
+ * <p>The file is watched for changes and, every time it is rewritten, it is parsed again and the
+ * new limits table atomically replaces the current one. Consumers get the current table once per
+ * unit of work, a block for the tx selection or a tx for the simulation, so the limits never change
+ * in the middle of it.
+ *
+ * <p>A file that cannot be parsed, or that does not define a limit for all the modules of the
+ * current table, is ignored and the current limits are kept.
+ */
+@Slf4j
+public class ModuleLineLimitsWatcher implements Supplier<ModuleLineLimits>, AutoCloseable {
+  private final Path moduleLimitsFilePath;
+  private final AtomicReference<ModuleLineLimits> currentLimits;
+  private ExecutorService executor;
+  private WatchService watchService;
+
+  public ModuleLineLimitsWatcher(
+      final String moduleLimitsFilePath, final Map<String, Integer> initialModuleLimits) {
+    this.moduleLimitsFilePath = Path.of(moduleLimitsFilePath).toAbsolutePath();
+    this.currentLimits = new AtomicReference<>(ModuleLineLimits.fromMap(initialModuleLimits));
+  }
+
+  /**
+   * Returns the current limits table.
+   *
+   * @return the current limits table
+   */
+  @Override
+  public ModuleLineLimits get() {
+    return currentLimits.get();
+  }
+
+  /** Starts watching the limits file for changes. */
+  public synchronized void start() {
+    if (executor != null) {
+      return;
+    }
+    try {
+      watchService = FileSystems.getDefault().newWatchService();
+      moduleLimitsFilePath.getParent().register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+    } catch (IOException e) {
+      throw new UncheckedIOException(
+          "Cannot watch the module limits file " + moduleLimitsFilePath, e);
+    }
+    executor =
+        Executors.newSingleThreadExecutor(
+            r -> {
+              final Thread thread = new Thread(r, "module-line-limits-watcher");
+              thread.setDaemon(true);
+              return thread;
+            });
+    executor.execute(this::watch);
+    log.info("Watching module limits file {} for changes", moduleLimitsFilePath);
+  }
+
+  /**
+   * Parses the limits file again and, if it is valid and different from the current limits,
+   * replaces them.
+   *
+   * @return true if the limits have been replaced
+   */
+  public synchronized boolean reload() {
+    final ModuleLineLimits newLimits;
+    try {
+      newLimits =
+          ModuleLineLimits.fromMap(
+              ModuleLineCountValidator.createLimitModules(moduleLimitsFilePath.toString()));
+    } catch (RuntimeException e) {
+      log.warn(
+          "Ignoring the update of module limits file {}, keeping the current limits",
+          moduleLimitsFilePath,
+          e);
+      return false;
+    }
+
+    final ModuleLineLimits oldLimits = currentLimits.get();
+    for (int i = 0; i < oldLimits.size(); i++) {
+      if (!newLimits.containsModule(oldLimits.moduleName(i))) {
+        log.warn(
+            "Ignoring the update of module limits file {}, since limit for module {} is not defined, keeping the current limits",
+            moduleLimitsFilePath,
+            oldLimits.moduleName(i));
+        return false;
+      }
+    }
+
+    if (newLimits.equals(oldLimits)) {
+      log.debug("Module limits file {} updated, but limits are unchanged", moduleLimitsFilePath);
+      return false;
+    }
+
+    currentLimits.set(newLimits);
+    log.info("Module limits reloaded from {}: {}", moduleLimitsFilePath, newLimits);
+    return true;
+  }
+
+  private void watch() {
+    final Path fileName = moduleLimitsFilePath.getFileName();
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        final WatchKey key = watchService.take();
+        boolean limitsFileChanged = false;
+        for (final WatchEvent<?> event : key.pollEvents()) {
+          if (fileName.equals(event.context())) {
+            limitsFileChanged = true;
+          }
+        }
+        if (limitsFileChanged) {
+          reload();
+        }
+        if (!key.reset()) {
+          log.warn(
+              "Directory of module limits file {} is no longer accessible, stop watching it",
+              moduleLimitsFilePath);
+          return;
+        }
+      }
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      log.debug("Stopped watching module limits file {}", moduleLimitsFilePath);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+    if (watchService != null) {
+      try {
+        watchService.close();
+      } catch (IOException e) {
+        log.warn("Error closing the watch service of module limits file", e);
+      }
+      watchService = null;
+    }
+  }
+}
@@ -11,11 +11,13 @@ package net.consensys.linea.sequencer.txpoolvalidation;
 
 import java.util.Arrays;
 import java.util.Optional;
+import java.util.function.Supplier;
 import net.consensys.linea.config.LineaProfitabilityConfiguration;
 import net.consensys.linea.config.LineaTracerConfiguration;
 import net.consensys.linea.config.LineaTransactionPoolValidatorConfiguration;
 import net.consensys.linea.jsonrpc.JsonRpcManager;
 import net.consensys.linea.plugins.config.LineaL1L2BridgeSharedConfiguration;
+import net.consensys.linea.sequencer.modulelimit.ModuleLineLimits;
 import net.consensys.linea.sequencer.txpoolvalidation.validators.AllowedAddressValidator;
 import net.consensys.linea.sequencer.txpoolvalidation.validators.CalldataValidator;
 import net.consensys.linea.sequencer.txpoolvalidation.validators.GasLimitValidator;
@@ -39,6 +41,7 @@ public class LineaTransactionPoolValidatorFactory implements PluginTransactionPo
   private final LineaProfitabilityConfiguration profitabilityConf;
   private final LineaL1L2BridgeSharedConfiguration l1L2BridgeConfiguration;
   private final LineaTracerConfiguration tracerConfiguration;
+  private final Supplier<ModuleLineLimits> moduleLineLimitsSupplier;
   private final Optional<JsonRpcManager> rejectedTxJsonRpcManager;
 
   public LineaTransactionPoolValidatorFactory(
@@ -49,6 +52,7 @@ public class LineaTransactionPoolValidatorFactory implements PluginTransactionPo
       final LineaTransactionPoolValidatorConfiguration txPoolValidatorConf,
       final LineaProfitabilityConfiguration profitabilityConf,
       final LineaTracerConfiguration tracerConfiguration,
+      final Supplier<ModuleLineLimits> moduleLineLimitsSupplier,
       final LineaL1L2BridgeSharedConfiguration l1L2BridgeConfiguration,
       final Optional<JsonRpcManager> rejectedTxJsonRpcManager) {
     this.besuConfiguration = besuConfiguration;
@@ -58,6 +62,7 @@ public class LineaTransactionPoolValidatorFactory implements PluginTransactionPo
     this.txPoolValidatorConf = txPoolValidatorConf;
     this.profitabilityConf = profitabilityConf;
     this.tracerConfiguration = tracerConfiguration;
+    this.moduleLineLimitsSupplier = moduleLineLimitsSupplier;
     this.l1L2BridgeConfiguration = l1L2BridgeConfiguration;
     this.rejectedTxJsonRpcManager = rejectedTxJsonRpcManager;
   }
@@ -82,6 +87,7 @@ public class LineaTransactionPoolValidatorFactory implements PluginTransactionPo
               transactionSimulationService,
               txPoolValidatorConf,
               tracerConfiguration,
+              moduleLineLimitsSupplier,
               l1L2BridgeConfiguration,
               rejectedTxJsonRpcManager)
         };
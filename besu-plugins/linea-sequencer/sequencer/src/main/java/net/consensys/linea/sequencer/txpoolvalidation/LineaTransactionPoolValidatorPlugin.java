@@ -39,6 +39,8 @@ public class LineaTransactionPoolValidatorPlugin extends AbstractLineaRequiredPl
   private TransactionPoolValidatorService transactionPoolValidatorService;
   private TransactionSimulationService transactionSimulationService;
   private Optional<JsonRpcManager> rejectedTxJsonRpcManager = Optional.empty();
+  private Optional<TransactionPoolProfitabilityMetrics> maybeTransactionPoolProfitabilityMetrics =
+      Optional.empty();
 
   @Override
   public void doRegister(final ServiceManager serviceManager) {
@@ -92,6 +94,7 @@ public class LineaTransactionPoolValidatorPlugin extends AbstractLineaRequiredPl
               transactionPoolValidatorConfiguration(),
               profitabilityConfiguration(),
               tracerConfiguration(),
+              moduleLineLimitsWatcher,
               l1L2BridgeSharedConfiguration(),
               rejectedTxJsonRpcManager));
 
@@ -119,20 +122,19 @@ public class LineaTransactionPoolValidatorPlugin extends AbstractLineaRequiredPl
                 profitabilityConfiguration(),
                 transactionPoolService,
                 blockchainService);
+        maybeTransactionPoolProfitabilityMetrics = Optional.of(transactionPoolProfitabilityMetrics);
+
+        // the metrics are computed in the background, the listeners only hand over the events
+        besuEventsService.addTransactionAddedListener(
+            transactionPoolProfitabilityMetrics::onTransactionAdded);
+        besuEventsService.addTransactionDroppedListener(
+            transactionPoolProfitabilityMetrics::onTransactionDropped);
 
         besuEventsService.addBlockAddedListener(
-            addedBlockContext -> {
-              try {
-                // on new block let's calculate profitability for every txs in the pool
-                transactionPoolProfitabilityMetrics.update();
-              } catch (final Exception e) {
-                log.warn(
-                    "Error calculating transaction profitability for block {}({})",
-                    addedBlockContext.getBlockHeader().getNumber(),
-                    addedBlockContext.getBlockHeader().getBlockHash(),
-                    e);
-              }
-            });
+            addedBlockContext ->
+                // on new block let's refresh profitability for every txs still in the pool
+                transactionPoolProfitabilityMetrics.update(
+                    addedBlockContext.getBlockBody().getTransactions()));
       }
 
     } catch (Exception e) {
@@ -144,5 +146,6 @@ public class LineaTransactionPoolValidatorPlugin extends AbstractLineaRequiredPl
   public void stop() {
     super.stop();
     rejectedTxJsonRpcManager.ifPresent(JsonRpcManager::shutdown);
+    maybeTransactionPoolProfitabilityMetrics.ifPresent(TransactionPoolProfitabilityMetrics::close);
   }
 }
@@ -10,12 +10,21 @@ package net.consensys.linea.sequencer.txpoolvalidation.metrics;
 
 import static net.consensys.linea.metrics.LineaMetricCategory.TX_POOL_PROFITABILITY;
 
-import java.util.stream.Collectors;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
 import lombok.extern.slf4j.Slf4j;
 import net.consensys.linea.bl.TransactionProfitabilityCalculator;
 import net.consensys.linea.config.LineaProfitabilityConfiguration;
 import net.consensys.linea.metrics.HistogramMetrics;
-import org.apache.tuweni.units.bigints.UInt256s;
+import org.hyperledger.besu.datatypes.Hash;
 import org.hyperledger.besu.datatypes.PendingTransaction;
 import org.hyperledger.besu.datatypes.Transaction;
 import org.hyperledger.besu.datatypes.Wei;
@@ -30,16 +39,31 @@ import org.hyperledger.besu.plugin.services.transactionpool.TransactionPoolServi
  * profitablePriorityFeePerGas/transaction.priorityFeePerGas
  *
  * <p>Provides: - Lowest ratio seen (minimum profitability) - Highest ratio seen (maximum
- * profitability) - Distribution histogram of ratios
+ * profitability) - Distribution histogram of ratios, observed when txs are added to the pool -
+ * Number of txs currently in the pool for each ratio bucket
+ *
+ * <p>The metrics are maintained incrementally from the pool add and drop events. The compressed
+ * size of each tx, the expensive part of the profitability formula, is computed only once when the
+ * tx is added, so refreshing the metrics only applies the base fee and pricing config to the cached
+ * values, and moves the txs whose ratio changed to their new bucket.
+ *
+ * <p>The pool events are handled by a single background thread, in the order they are received, so
+ * the pool listeners never wait for the compression of the txs or the refresh of the metrics.
  */
 @Slf4j
-public class TransactionPoolProfitabilityMetrics {
+public class TransactionPoolProfitabilityMetrics implements AutoCloseable {
   private final TransactionProfitabilityCalculator profitabilityCalculator;
   private final LineaProfitabilityConfiguration profitabilityConf;
   private final BesuConfiguration besuConfiguration;
   private final TransactionPoolService transactionPoolService;
   private final BlockchainService blockchainService;
   private final HistogramMetrics histogramMetrics;
+  private final double[] buckets;
+  private final AtomicLongArray poolBucketCounts;
+  private final ExecutorService executor;
+  // only accessed by the executor thread
+  private final Map<Hash, TrackedTransaction> trackedTransactions = new HashMap<>();
+  private boolean poolContentLoaded = false;
 
   public TransactionPoolProfitabilityMetrics(
       final BesuConfiguration besuConfiguration,
@@ -47,7 +71,29 @@ public class TransactionPoolProfitabilityMetrics {
       final LineaProfitabilityConfiguration profitabilityConf,
       final TransactionPoolService transactionPoolService,
       final BlockchainService blockchainService) {
+    this(
+        besuConfiguration,
+        metricsSystem,
+        profitabilityConf,
+        transactionPoolService,
+        blockchainService,
+        Executors.newSingleThreadExecutor(
+            r -> {
+              final Thread thread = new Thread(r, "tx-pool-profitability-metrics");
+              thread.setDaemon(true);
+              return thread;
+            }));
+  }
+
+  TransactionPoolProfitabilityMetrics(
+      final BesuConfiguration besuConfiguration,
+      final MetricsSystem metricsSystem,
+      final LineaProfitabilityConfiguration profitabilityConf,
+      final TransactionPoolService transactionPoolService,
+      final BlockchainService blockchainService,
+      final ExecutorService executor) {
 
+    this.executor = executor;
     this.besuConfiguration = besuConfiguration;
     this.profitabilityConf = profitabilityConf;
     this.profitabilityCalculator = new TransactionProfitabilityCalculator(profitabilityConf);
@@ -60,60 +106,226 @@ public class TransactionPoolProfitabilityMetrics {
             "ratio",
             "transaction pool profitability ratio",
             profitabilityConf.profitabilityMetricsBuckets());
+
+    this.buckets = profitabilityConf.profitabilityMetricsBuckets().clone();
+    Arrays.sort(buckets);
+    // last one is the +Inf bucket
+    this.poolBucketCounts = new AtomicLongArray(buckets.length + 1);
+    final var poolRatio =
+        metricsSystem.createLabelledSuppliedGauge(
+            TX_POOL_PROFITABILITY,
+            "ratio_pool_txs",
+            "Number of txs in the pool by transaction pool profitability ratio bucket",
+            "bucket");
+    for (int i = 0; i <= buckets.length; i++) {
+      final int bucket = i;
+      poolRatio.labels(
+          () -> poolBucketCounts.get(bucket),
+          bucket < buckets.length ? Double.toString(buckets[bucket]) : "+Inf");
+    }
   }
 
+  /**
+   * Starts tracking a tx added to the pool, computing its compressed size in the background.
+   *
+   * @param transaction the tx added to the pool
+   */
+  public void onTransactionAdded(final Transaction transaction) {
+    execute(
+        () -> track(transaction),
+        e ->
+            log.warn(
+                "Error calculating transaction profitability for tx {}", transaction.getHash(), e));
+  }
+
+  /**
+   * Stops tracking a tx dropped from the pool.
+   *
+   * @param transaction the tx dropped from the pool
+   */
+  public void onTransactionDropped(final Transaction transaction) {
+    execute(
+        () -> untrack(transaction),
+        e -> log.warn("Error untracking transaction {}", transaction.getHash(), e));
+  }
+
+  /**
+   * Stops tracking the txs confirmed by the new block, then refreshes the metrics in the
+   * background.
+   *
+   * @param confirmedTransactions the txs included in the new block
+   */
+  public void update(final Collection<? extends Transaction> confirmedTransactions) {
+    execute(
+        () -> {
+          confirmedTransactions.forEach(this::untrack);
+          refresh();
+        },
+        e -> log.warn("Error refreshing transaction pool profitability metrics", e));
+  }
+
+  /**
+   * Refreshes in the background the ratios of all the tracked txs, with the next block base fee and
+   * the current pricing config.
+   */
   public void update() {
+    update(List.of());
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  private void execute(final Runnable task, final Consumer<Exception> onError) {
+    try {
+      executor.execute(
+          () -> {
+            try {
+              task.run();
+            } catch (final Exception e) {
+              onError.accept(e);
+            }
+          });
+    } catch (final RejectedExecutionException e) {
+      log.debug("Transaction pool profitability metrics are closed, ignoring pool event");
+    }
+  }
+
+  private void track(final Transaction transaction) {
+    final var tracked =
+        new TrackedTransaction(
+            transaction, TransactionProfitabilityCalculator.getCompressedTxSize(transaction));
+    final double ratio =
+        tracked.ratio(nextBlockBaseFee(), profitablePriorityFeePerGas(tracked, minGasPrice()));
+    histogramMetrics.track(ratio);
+    log.trace("Recorded profitability ratio {} for tx {}", ratio, transaction.getHash());
+
+    tracked.bucket = bucketOf(ratio);
+    poolBucketCounts.incrementAndGet(tracked.bucket);
+    final var replaced = trackedTransactions.put(transaction.getHash(), tracked);
+    if (replaced != null) {
+      poolBucketCounts.decrementAndGet(replaced.bucket);
+    }
+  }
+
+  private void untrack(final Transaction transaction) {
+    final var tracked = trackedTransactions.remove(transaction.getHash());
+    if (tracked != null) {
+      poolBucketCounts.decrementAndGet(tracked.bucket);
+    }
+  }
+
+  private void refresh() {
     final long startTime = System.currentTimeMillis();
-    final var txPoolContent = transactionPoolService.getPendingTransactions();
-
-    final var ratioStats =
-        txPoolContent.parallelStream()
-            .map(PendingTransaction::getTransaction)
-            .map(
-                tx -> {
-                  final var ratio = handleTransaction(tx);
-                  histogramMetrics.track(ratio);
-                  log.trace("Recorded profitability ratio {} for tx {}", ratio, tx.getHash());
-                  return ratio;
-                })
-            .collect(Collectors.summarizingDouble(Double::doubleValue));
-
-    histogramMetrics.setMinMax(ratioStats.getMin(), ratioStats.getMax());
+
+    // txs already in the pool before the listeners were registered
+    if (!poolContentLoaded) {
+      poolContentLoaded = true;
+      transactionPoolService.getPendingTransactions().stream()
+          .map(PendingTransaction::getTransaction)
+          .filter(tx -> !trackedTransactions.containsKey(tx.getHash()))
+          .forEach(this::track);
+    }
+
+    final double baseFee = nextBlockBaseFee();
+    final Wei minGasPrice = minGasPrice();
+    double min = Double.POSITIVE_INFINITY;
+    double max = Double.NEGATIVE_INFINITY;
+    for (final TrackedTransaction tracked : trackedTransactions.values()) {
+      final double ratio =
+          tracked.ratio(baseFee, profitablePriorityFeePerGas(tracked, minGasPrice));
+      final int bucket = bucketOf(ratio);
+      if (tracked.bucket != bucket) {
+        poolBucketCounts.decrementAndGet(tracked.bucket);
+        poolBucketCounts.incrementAndGet(bucket);
+        tracked.bucket = bucket;
+      }
+      min = Math.min(min, ratio);
+      max = Math.max(max, ratio);
+    }
+
+    histogramMetrics.setMinMax(min, max);
 
     log.atDebug()
-        .setMessage("Transaction pool profitability metrics processed {}txs in {}ms, statistics {}")
-        .addArgument(txPoolContent::size)
+        .setMessage(
+            "Transaction pool profitability metrics refreshed {}txs in {}ms, min ratio {}, max ratio {}")
+        .addArgument(trackedTransactions::size)
         .addArgument(() -> System.currentTimeMillis() - startTime)
-        .addArgument(ratioStats)
+        .addArgument(min)
+        .addArgument(max)
         .log();
   }
 
-  private double handleTransaction(final Transaction transaction) {
-    final Wei actualPriorityFeePerGas;
-    if (transaction.getMaxPriorityFeePerGas().isEmpty()) {
-      actualPriorityFeePerGas =
-          Wei.fromQuantity(transaction.getGasPrice().orElseThrow())
-              .subtract(blockchainService.getNextBlockBaseFee().orElseThrow());
-    } else {
-      final Wei maxPriorityFeePerGas =
-          Wei.fromQuantity(transaction.getMaxPriorityFeePerGas().get());
-      actualPriorityFeePerGas =
-          UInt256s.min(
-              maxPriorityFeePerGas.add(blockchainService.getNextBlockBaseFee().orElseThrow()),
-              Wei.fromQuantity(transaction.getMaxFeePerGas().orElseThrow()));
+  /**
+   * Returns the number of txs in the pool for each ratio bucket, the last one being the +Inf
+   * bucket.
+   *
+   * @return the count of txs for each bucket
+   */
+  long[] poolBucketCounts() {
+    final long[] counts = new long[poolBucketCounts.length()];
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = poolBucketCounts.get(i);
     }
+    return counts;
+  }
 
-    final Wei profitablePriorityFeePerGas =
-        profitabilityCalculator.profitablePriorityFeePerGas(
-            transaction,
-            profitabilityConf.txPoolMinMargin(),
-            transaction.getGasLimit(),
-            besuConfiguration.getMinGasPrice());
+  int trackedTransactionsCount() {
+    return trackedTransactions.size();
+  }
 
-    final double ratio =
-        actualPriorityFeePerGas.toBigInteger().doubleValue()
-            / profitablePriorityFeePerGas.toBigInteger().doubleValue();
+  private int bucketOf(final double ratio) {
+    if (Double.isNaN(ratio)) {
+      return buckets.length;
+    }
+    final int index = Arrays.binarySearch(buckets, ratio);
+    return index >= 0 ? index : -index - 1;
+  }
+
+  private double profitablePriorityFeePerGas(
+      final TrackedTransaction tracked, final Wei minGasPrice) {
+    return profitabilityCalculator.profitablePriorityFeePerGas(
+        tracked.compressedSize, profitabilityConf.txPoolMinMargin(), tracked.gasLimit, minGasPrice);
+  }
+
+  private double nextBlockBaseFee() {
+    return blockchainService.getNextBlockBaseFee().orElseThrow().toBigInteger().doubleValue();
+  }
+
+  private Wei minGasPrice() {
+    return besuConfiguration.getMinGasPrice();
+  }
 
-    return ratio;
+  /** The base fee independent values of a tx, needed to compute its profitability ratio. */
+  private static class TrackedTransaction {
+    private final int compressedSize;
+    private final long gasLimit;
+    private final boolean hasGasPrice;
+    private final double gasPrice;
+    private final double maxPriorityFeePerGas;
+    private final double maxFeePerGas;
+    private int bucket;
+
+    TrackedTransaction(final Transaction transaction, final int compressedSize) {
+      this.compressedSize = compressedSize;
+      this.gasLimit = transaction.getGasLimit();
+      this.hasGasPrice = transaction.getMaxPriorityFeePerGas().isEmpty();
+      this.gasPrice = toDouble(transaction.getGasPrice().map(Wei::fromQuantity).orElse(Wei.ZERO));
+      this.maxPriorityFeePerGas =
+          toDouble(transaction.getMaxPriorityFeePerGas().map(Wei::fromQuantity).orElse(Wei.ZERO));
+      this.maxFeePerGas =
+          toDouble(transaction.getMaxFeePerGas().map(Wei::fromQuantity).orElse(Wei.ZERO));
+    }
+
+    double ratio(final double baseFee, final double profitablePriorityFeePerGas) {
+      final double actualPriorityFeePerGas =
+          hasGasPrice ? gasPrice - baseFee : Math.min(maxPriorityFeePerGas + baseFee, maxFeePerGas);
+      return actualPriorityFeePerGas / profitablePriorityFeePerGas;
+    }
+
+    private static double toDouble(final Wei wei) {
+      return wei.toBigInteger().doubleValue();
+    }
   }
 }
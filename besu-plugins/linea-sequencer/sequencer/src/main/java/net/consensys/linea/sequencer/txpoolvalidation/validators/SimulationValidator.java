@@ -18,6 +18,7 @@ import java.time.Instant;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 import lombok.extern.slf4j.Slf4j;
 import net.consensys.linea.config.LineaTracerConfiguration;
 import net.consensys.linea.config.LineaTransactionPoolValidatorConfiguration;
@@ -26,6 +27,7 @@ import net.consensys.linea.jsonrpc.JsonRpcRequestBuilder;
 import net.consensys.linea.plugins.config.LineaL1L2BridgeSharedConfiguration;
 import net.consensys.linea.sequencer.modulelimit.ModuleLimitsValidationResult;
 import net.consensys.linea.sequencer.modulelimit.ModuleLineCountValidator;
+import net.consensys.linea.sequencer.modulelimit.ModuleLineLimits;
 import net.consensys.linea.zktracer.LineCountingTracer;
 import net.consensys.linea.zktracer.ZkCounter;
 import net.consensys.linea.zktracer.ZkTracer;
@@ -49,6 +51,7 @@ public class SimulationValidator implements PluginTransactionPoolValidator {
   private final LineaTransactionPoolValidatorConfiguration txPoolValidatorConf;
   private final LineaL1L2BridgeSharedConfiguration l1L2BridgeConfiguration;
   private final LineaTracerConfiguration tracerConfiguration;
+  private final Supplier<ModuleLineLimits> moduleLineLimitsSupplier;
   private final Optional<JsonRpcManager> rejectedTxJsonRpcManager;
 
   public SimulationValidator(
@@ -57,6 +60,7 @@ public class SimulationValidator implements PluginTransactionPoolValidator {
       final TransactionSimulationService transactionSimulationService,
       final LineaTransactionPoolValidatorConfiguration txPoolValidatorConf,
       final LineaTracerConfiguration tracerConfiguration,
+      final Supplier<ModuleLineLimits> moduleLineLimitsSupplier,
       final LineaL1L2BridgeSharedConfiguration l1L2BridgeConfiguration,
       final Optional<JsonRpcManager> rejectedTxJsonRpcManager) {
     this.blockchainService = blockchainService;
@@ -65,6 +69,7 @@ public class SimulationValidator implements PluginTransactionPoolValidator {
     this.txPoolValidatorConf = txPoolValidatorConf;
     this.l1L2BridgeConfiguration = l1L2BridgeConfiguration;
     this.tracerConfiguration = tracerConfiguration;
+    this.moduleLineLimitsSupplier = moduleLineLimitsSupplier;
     this.rejectedTxJsonRpcManager = rejectedTxJsonRpcManager;
   }
 
@@ -85,8 +90,9 @@ public class SimulationValidator implements PluginTransactionPoolValidator {
           .addArgument(hasPriority)
           .log();
 
+      // use the current limits, in case the limits file has been reloaded
       final ModuleLineCountValidator moduleLineCountValidator =
-          new ModuleLineCountValidator(tracerConfiguration.moduleLimitsMap());
+          new ModuleLineCountValidator(moduleLineLimitsSupplier.get());
       final var pendingBlockHeader = transactionSimulationService.simulatePendingBlockHeader();
 
       final var lineCountingTracer =
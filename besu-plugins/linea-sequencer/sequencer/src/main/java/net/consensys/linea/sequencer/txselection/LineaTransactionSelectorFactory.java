@@ -12,6 +12,7 @@ package net.consensys.linea.sequencer.txselection;
 import java.time.Instant;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import lombok.extern.slf4j.Slf4j;
 import net.consensys.linea.bundles.BundlePoolService;
 import net.consensys.linea.bundles.TransactionBundle;
@@ -22,6 +23,7 @@ import net.consensys.linea.jsonrpc.JsonRpcManager;
 import net.consensys.linea.metrics.HistogramMetrics;
 import net.consensys.linea.plugins.config.LineaL1L2BridgeSharedConfiguration;
 import net.consensys.linea.sequencer.liveness.LivenessService;
+import net.consensys.linea.sequencer.modulelimit.ModuleLineLimits;
 import net.consensys.linea.sequencer.txselection.selectors.LineaTransactionSelector;
 import org.hyperledger.besu.plugin.data.ProcessableBlockHeader;
 import org.hyperledger.besu.plugin.services.BlockchainService;
@@ -29,7 +31,7 @@ import org.hyperledger.besu.plugin.services.txselection.BlockTransactionSelectio
 import org.hyperledger.besu.plugin.services.txselection.PluginTransactionSelector;
 import org.hyperledger.besu.plugin.services.txselection.PluginTransactionSelectorFactory;
 import org.hyperledger.besu.plugin.services.txselection.SelectorsStateManager;
-import net.consensys.linea.credible.CredibleBlockPlugin;
+import net.consensys.linea.credible.SidecarTransport;
 
 /**
  * Represents a factory for creating transaction selectors. Note that a new instance of the
@@ -45,10 +47,12 @@ public class LineaTransactionSelectorFactory implements PluginTransactionSelecto
   private final LineaL1L2BridgeSharedConfiguration l1L2BridgeConfiguration;
   private final LineaProfitabilityConfiguration profitabilityConfiguration;
   private final LineaTracerConfiguration tracerConfiguration;
+  private final Supplier<ModuleLineLimits> moduleLineLimitsSupplier;
   private final Optional<HistogramMetrics> maybeProfitabilityMetrics;
+  private final Optional<HistogramMetrics> maybeSelectorMetrics;
   private final BundlePoolService bundlePoolService;
   private final Optional<LivenessService> livenessService;
-  private final Optional<CredibleBlockPlugin.CrediblePluginConfiguration> maybeCredibleConfiguration;
+  private final Optional<SidecarTransport> maybeSidecarTransport;
   private final AtomicReference<LineaTransactionSelector> currSelector = new AtomicReference<>();
 
   public LineaTransactionSelectorFactory(
@@ -57,25 +61,31 @@ public class LineaTransactionSelectorFactory implements PluginTransactionSelecto
       final LineaL1L2BridgeSharedConfiguration l1L2BridgeConfiguration,
       final LineaProfitabilityConfiguration profitabilityConfiguration,
       final LineaTracerConfiguration tracerConfiguration,
+      final Supplier<ModuleLineLimits> moduleLineLimitsSupplier,
       final Optional<LivenessService> livenessService,
       final Optional<JsonRpcManager> rejectedTxJsonRpcManager,
       final Optional<HistogramMetrics> maybeProfitabilityMetrics,
+      final Optional<HistogramMetrics> maybeSelectorMetrics,
       final BundlePoolService bundlePoolService,
-      final Optional<CredibleBlockPlugin.CrediblePluginConfiguration> maybeCredibleConfiguration) {
+      final Optional<SidecarTransport> maybeSidecarTransport) {
     this.blockchainService = blockchainService;
     this.txSelectorConfiguration = txSelectorConfiguration;
     this.l1L2BridgeConfiguration = l1L2BridgeConfiguration;
     this.profitabilityConfiguration = profitabilityConfiguration;
     this.tracerConfiguration = tracerConfiguration;
+    this.moduleLineLimitsSupplier = moduleLineLimitsSupplier;
     this.rejectedTxJsonRpcManager = rejectedTxJsonRpcManager;
     this.maybeProfitabilityMetrics = maybeProfitabilityMetrics;
+    this.maybeSelectorMetrics = maybeSelectorMetrics;
     this.bundlePoolService = bundlePoolService;
     this.livenessService = livenessService;
-    this.maybeCredibleConfiguration = maybeCredibleConfiguration;
+    this.maybeSidecarTransport = maybeSidecarTransport;
   }
 
   @Override
   public PluginTransactionSelector create(final SelectorsStateManager selectorsStateManager) {
+    // the limits are read once per block, so a reload of the limits file never affects the block
+    // being built
     final var selector =
         new LineaTransactionSelector(
             selectorsStateManager,
@@ -84,9 +94,11 @@ public class LineaTransactionSelectorFactory implements PluginTransactionSelecto
             l1L2BridgeConfiguration,
             profitabilityConfiguration,
             tracerConfiguration,
+            moduleLineLimitsSupplier.get(),
             rejectedTxJsonRpcManager,
             maybeProfitabilityMetrics,
-            maybeCredibleConfiguration);
+            maybeSelectorMetrics,
+            maybeSidecarTransport);
     currSelector.set(selector);
     return selector;
   }
@@ -10,6 +10,7 @@
 package net.consensys.linea.sequencer.txselection;
 
 import static net.consensys.linea.metrics.LineaMetricCategory.SEQUENCER_PROFITABILITY;
+import static net.consensys.linea.metrics.LineaMetricCategory.SEQUENCER_TX_SELECTION;
 
 import com.google.auto.service.AutoService;
 import java.math.BigInteger;
@@ -24,11 +25,13 @@ import net.consensys.linea.plugins.config.LineaL1L2BridgeSharedConfiguration;
 import net.consensys.linea.sequencer.liveness.LineaLivenessService;
 import net.consensys.linea.sequencer.liveness.LineaLivenessTxBuilder;
 import net.consensys.linea.sequencer.liveness.LivenessService;
+import net.consensys.linea.sequencer.txselection.selectors.LineaTransactionSelector;
 import net.consensys.linea.sequencer.txselection.selectors.ProfitableTransactionSelector;
 import org.hyperledger.besu.plugin.BesuPlugin;
 import org.hyperledger.besu.plugin.ServiceManager;
 import org.hyperledger.besu.plugin.services.TransactionSelectionService;
 import net.consensys.linea.credible.CredibleBlockPlugin;
+import net.consensys.linea.credible.SidecarTransport;
 
 /**
  * This class extends the default transaction selection rules used by Besu. It leverages the
@@ -40,6 +43,7 @@ import net.consensys.linea.credible.CredibleBlockPlugin;
 public class LineaTransactionSelectorPlugin extends AbstractLineaRequiredPlugin {
   private TransactionSelectionService transactionSelectionService;
   private Optional<JsonRpcManager> rejectedTxJsonRpcManager = Optional.empty();
+  private Optional<SidecarTransport> sidecarTransport = Optional.empty();
 
   @Override
   public void doRegister(final ServiceManager serviceManager) {
@@ -52,6 +56,7 @@ public class LineaTransactionSelectorPlugin extends AbstractLineaRequiredPlugin
                         "Failed to obtain TransactionSelectionService from the ServiceManager."));
 
     metricCategoryRegistry.addMetricCategory(SEQUENCER_PROFITABILITY);
+    metricCategoryRegistry.addMetricCategory(SEQUENCER_TX_SELECTION);
   }
 
   @Override
@@ -87,6 +92,20 @@ public class LineaTransactionSelectorPlugin extends AbstractLineaRequiredPlugin
                     ProfitableTransactionSelector.Phase.class))
             : Optional.empty();
 
+    final Optional<HistogramMetrics> maybeSelectorMetrics =
+        metricCategoryRegistry.isMetricCategoryEnabled(SEQUENCER_TX_SELECTION)
+            ? Optional.of(
+                new HistogramMetrics(
+                    metricsSystem,
+                    SEQUENCER_TX_SELECTION,
+                    "selector_evaluation_seconds",
+                    "transaction selector evaluation time in seconds",
+                    LineaTransactionSelector.EVALUATION_TIME_BUCKETS,
+                    LineaTransactionSelector.Selector.class,
+                    ProfitableTransactionSelector.Phase.class,
+                    LineaTransactionSelector.Result.class))
+            : Optional.empty();
+
     final BigInteger chainId =
         blockchainService
             .getChainId()
@@ -104,7 +123,10 @@ public class LineaTransactionSelectorPlugin extends AbstractLineaRequiredPlugin
                     metricsSystem))
             : Optional.empty();
 
-    var cliConfig = CredibleBlockPlugin.pluginConfiguration();
+    sidecarTransport =
+        CredibleBlockPlugin.pluginConfiguration()
+            .filter(cliConfig -> cliConfig.getRpcEndpoint() != null)
+            .map(SidecarTransport::fromConfiguration);
 
     transactionSelectionService.registerPluginTransactionSelectorFactory(
         new LineaTransactionSelectorFactory(
@@ -113,16 +135,19 @@ public class LineaTransactionSelectorPlugin extends AbstractLineaRequiredPlugin
             l1L2BridgeSharedConfiguration(),
             profitabilityConfiguration(),
             tracerConfiguration(),
+            moduleLineLimitsWatcher,
             livenessService,
             rejectedTxJsonRpcManager,
             maybeProfitabilityMetrics,
+            maybeSelectorMetrics,
             bundlePoolService,
-            cliConfig));
+            sidecarTransport));
   }
 
   @Override
   public void stop() {
     super.stop();
     rejectedTxJsonRpcManager.ifPresent(JsonRpcManager::shutdown);
+    sidecarTransport.ifPresent(SidecarTransport::close);
   }
 }
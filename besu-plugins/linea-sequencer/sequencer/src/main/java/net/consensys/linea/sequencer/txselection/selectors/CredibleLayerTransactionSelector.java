@@ -13,35 +13,21 @@ import org.hyperledger.besu.plugin.data.TransactionProcessingResult;
 import org.hyperledger.besu.plugin.data.TransactionSelectionResult;
 import org.hyperledger.besu.plugin.services.txselection.PluginTransactionSelector;
 import org.hyperledger.besu.plugin.services.txselection.TransactionEvaluationContext;
-import net.consensys.linea.credible.SidecarClient;
+import net.consensys.linea.credible.SidecarTransport;
 import net.consensys.linea.credible.TransactionConverter;
 import net.consensys.linea.credible.SidecarApiModels.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
-import java.util.Map;
-import java.util.List;
-import java.util.concurrent.TimeoutException;
+import java.util.Optional;
 
 public class CredibleLayerTransactionSelector implements PluginTransactionSelector {
   private static final Logger LOG = LoggerFactory.getLogger(CredibleLayerTransactionSelector.class);
   
-  private final String rpcUrl;
-  private final int processingTimeout;
-  private SidecarClient sidecarClient;
-  
-  // Store pending getTransactions futures by transaction hash
-  private final Map<String, CompletableFuture<GetTransactionsResponse>> pendingTxRequests = 
-        new ConcurrentHashMap<>();
+  // Shared across blocks, sends the transactions to the sidecar in batches
+  private final SidecarTransport sidecarTransport;
 
-  public CredibleLayerTransactionSelector(final String rpcUrl, final int processingTimeout) {
-    this.rpcUrl = rpcUrl;
-    this.processingTimeout = processingTimeout;
-    this.sidecarClient = new SidecarClient.Builder()
-        .baseUrl(rpcUrl)
-        .build();
+  public CredibleLayerTransactionSelector(final SidecarTransport sidecarTransport) {
+    this.sidecarTransport = sidecarTransport;
   }
 
   @Override
@@ -54,33 +40,8 @@ public class CredibleLayerTransactionSelector implements PluginTransactionSelect
     try {
         TxEnv txEnv = TransactionConverter.convertToTxEnv(tx);
         
-        // Create request with proper models
-        SendTransactionsRequest sendRequest = new SendTransactionsRequest();
-        sendRequest.setTransactions(List.of(new TransactionWithHash(txEnv, txHash)));
-        
-        // 1. Send transaction synchronously via sendTransactions
-        SendTransactionsResponse sendResponse = sidecarClient.call(
-          CredibleLayerMethods.SEND_TRANSACTIONS, 
-          sendRequest, 
-          SendTransactionsResponse.class
-        );
-
-        // Check if transaction was queued successfully
-        if (sendResponse.getFailed() != null && sendResponse.getFailed().contains(txHash)) {
-            LOG.warn("Transaction {} failed to queue", txHash);
-        }
-        
-        // 2. Start long-polling getTransactions async
-        GetTransactionsRequest getRequest = new GetTransactionsRequest(List.of(txHash));
-        
-        CompletableFuture<GetTransactionsResponse> future = sidecarClient.callAsync(
-          CredibleLayerMethods.GET_TRANSACTIONS,
-          getRequest,
-          GetTransactionsResponse.class
-        );
-        
-        // Store future for postprocessing
-        pendingTxRequests.put(txHash, future);
+        // Queue the transaction, the result is fetched by the transport while the tx is processed
+        sidecarTransport.submit(txHash, txEnv);
         
         LOG.debug("Started async transaction processing for {}", txHash);
     } catch (Exception e) {
@@ -97,46 +58,28 @@ public class CredibleLayerTransactionSelector implements PluginTransactionSelect
 
       var tx = txContext.getPendingTransaction().getTransaction();
       String txHash = tx.getHash().toHexString();
-      CompletableFuture<GetTransactionsResponse> future = pendingTxRequests.remove(txHash);
-      
-      if (future == null) {
-          LOG.warn("No pending request found for transaction {}, allowing", txHash);
-          return TransactionSelectionResult.SELECTED;
-      }
       
       try {
           LOG.debug("Awaiting result for {}", txHash);
           
-          // Wait for long-polling response
-          GetTransactionsResponse response = future.get(this.processingTimeout, TimeUnit.MILLISECONDS);
+          // Waits at most until the result deadline of the transaction
+          Optional<TransactionResult> maybeResult = sidecarTransport.awaitResult(txHash);
           
-          // Process the response to determine if transaction is valid
-          if (response.getResults() == null || response.getResults().isEmpty()) {
-              LOG.warn("No results for transaction {} but allowing", txHash);
+          if (maybeResult.isEmpty()) {
+              LOG.warn("No result from sidecar for transaction {} but allowing", txHash);
               return TransactionSelectionResult.SELECTED;
           }
           
-          // Find the result for our specific transaction hash
-          for (TransactionResult txResult : response.getResults()) {
-              if (txHash.equals(txResult.getHash())) {
-                  String status = txResult.getStatus();
-                  
-                  if (TransactionStatus.ASSERTION_FAILED.equals(status) || 
-                      TransactionStatus.FAILED.equals(status)) {
-                      LOG.info("Transaction {} excluded due to status: {}", txHash, status);
-                      return TransactionSelectionResult.invalid("tx rejected by sidecar");
-                  } else {
-                      LOG.debug("Transaction {} included with status: {}", txHash, status);
-                      return TransactionSelectionResult.SELECTED;
-                  }
-              }
-          }
+          String status = maybeResult.get().getStatus();
           
-          LOG.warn("Transaction {} not found in results, but allowing", txHash);
-          return TransactionSelectionResult.SELECTED;
-    } catch (TimeoutException e) {
-        LOG.warn("Fetching result from sidecar timed out {}", txHash);
-        return TransactionSelectionResult.SELECTED;
+          if (TransactionStatus.ASSERTION_FAILED.equals(status) || 
+              TransactionStatus.FAILED.equals(status)) {
+              LOG.info("Transaction {} excluded due to status: {}", txHash, status);
+              return TransactionSelectionResult.invalid("tx rejected by sidecar");
+          } else {
+              LOG.debug("Transaction {} included with status: {}", txHash, status);
+              return TransactionSelectionResult.SELECTED;
+          }
     } catch (Exception e) {
         LOG.error("Error in transaction postprocessing for {}: {}", txHash, e.getMessage());
         return TransactionSelectionResult.SELECTED;
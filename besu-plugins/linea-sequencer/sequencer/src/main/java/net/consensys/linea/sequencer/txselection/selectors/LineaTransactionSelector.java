@@ -12,20 +12,27 @@ import static net.consensys.linea.sequencer.txselection.LineaTransactionSelectio
 import static net.consensys.linea.sequencer.txselection.LineaTransactionSelectionResult.TX_MODULE_LINE_COUNT_OVERFLOW_CACHED;
 
 import java.time.Instant;
+import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Stream;
+import java.util.function.Function;
 import lombok.extern.slf4j.Slf4j;
 import net.consensys.linea.bundles.TransactionBundle;
 import net.consensys.linea.config.LineaProfitabilityConfiguration;
 import net.consensys.linea.config.LineaTracerConfiguration;
 import net.consensys.linea.config.LineaTransactionSelectorConfiguration;
+import net.consensys.linea.credible.SidecarTransport;
 import net.consensys.linea.jsonrpc.JsonRpcManager;
 import net.consensys.linea.jsonrpc.JsonRpcRequestBuilder;
 import net.consensys.linea.metrics.HistogramMetrics;
+import net.consensys.linea.metrics.HistogramMetrics.LabelValue;
 import net.consensys.linea.plugins.config.LineaL1L2BridgeSharedConfiguration;
+import net.consensys.linea.sequencer.modulelimit.ModuleLineLimits;
+import net.consensys.linea.sequencer.txselection.selectors.ProfitableTransactionSelector.Phase;
 import net.consensys.linea.zktracer.LineCountingTracer;
 import org.hyperledger.besu.plugin.data.TransactionProcessingResult;
 import org.hyperledger.besu.plugin.data.TransactionSelectionResult;
@@ -33,15 +40,108 @@ import org.hyperledger.besu.plugin.services.BlockchainService;
 import org.hyperledger.besu.plugin.services.txselection.PluginTransactionSelector;
 import org.hyperledger.besu.plugin.services.txselection.SelectorsStateManager;
 import org.hyperledger.besu.plugin.services.txselection.TransactionEvaluationContext;
-import net.consensys.linea.credible.CredibleBlockPlugin;
 
-/** Class for transaction selection using a list of selectors. */
+/**
+ * Class for transaction selection using a list of selectors.
+ *
+ * <p>Each evaluation phase runs its own chain of selectors, ordered cheapest first, and stops at
+ * the first selector that does not select the transaction, so a cheap reject skips the expensive
+ * checks, like the compression done by {@link ProfitableTransactionSelector} or the line count
+ * validation done by {@link TraceLineLimitTransactionSelector}. The selectors can be freely
+ * reordered within a chain, as long as these invariants hold:
+ *
+ * <ul>
+ *   <li>a selector evaluation only depends on the transaction, the evaluation context and its own
+ *       working state, never on the evaluation of another selector
+ *   <li>a stateful selector only changes its working state, that is committed if the transaction is
+ *       selected and rolled back otherwise, so there is nothing to undo for the selectors skipped
+ *       after a reject
+ *   <li>selectors with side effects outside the block creation, like {@link
+ *       CredibleLayerTransactionSelector} that calls the Credible Layer sidecar, are evaluated
+ *       last, so they only see the transactions that passed all the local checks
+ *   <li>all the selectors are notified of the selection outcome, even if they did not evaluate the
+ *       transaction
+ * </ul>
+ *
+ * <p>When a transaction fails more than one check, the result of the first failed check in the
+ * chain is returned.
+ */
 @Slf4j
 public class LineaTransactionSelector implements PluginTransactionSelector {
+  /** The selectors in the chain, declared in the order they are notified of the outcome */
+  public enum Selector implements LabelValue {
+    CREDIBLE_LAYER,
+    MAX_BLOCK_CALLDATA,
+    MAX_BLOCK_GAS,
+    PROFITABLE,
+    BUNDLE_CONSTRAINT,
+    MAX_BUNDLE_GAS,
+    TRACE_LINE_LIMIT;
+
+    final String value;
+
+    Selector() {
+      this.value = name().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String value() {
+      return value;
+    }
+  }
+
+  /** The outcome of a selector evaluation */
+  public enum Result implements LabelValue {
+    SELECTED,
+    REJECTED;
+
+    final String value;
+
+    Result() {
+      this.value = name().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String value() {
+      return value;
+    }
+  }
+
+  private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+  public static final double[] EVALUATION_TIME_BUCKETS = {
+    0.000_001, 0.000_005, 0.000_01, 0.000_05, 0.000_1, 0.000_5, 0.001, 0.005, 0.01, 0.05, 0.1
+  };
+
+  // lookups in the over line count limit cache and checks on the tx fields, before the compression
+  private static final List<Selector> PRE_PROCESSING_ORDER =
+      List.of(
+          Selector.TRACE_LINE_LIMIT,
+          Selector.BUNDLE_CONSTRAINT,
+          Selector.MAX_BLOCK_CALLDATA,
+          Selector.MAX_BLOCK_GAS,
+          Selector.MAX_BUNDLE_GAS,
+          Selector.PROFITABLE,
+          Selector.CREDIBLE_LAYER);
+
+  // checks on the gas used, before the compression and the line count validation, and the wait for
+  // the sidecar result last, to give it as much time as possible
+  private static final List<Selector> POST_PROCESSING_ORDER =
+      List.of(
+          Selector.MAX_BLOCK_GAS,
+          Selector.MAX_BLOCK_CALLDATA,
+          Selector.BUNDLE_CONSTRAINT,
+          Selector.MAX_BUNDLE_GAS,
+          Selector.PROFITABLE,
+          Selector.TRACE_LINE_LIMIT,
+          Selector.CREDIBLE_LAYER);
 
   private TraceLineLimitTransactionSelector traceLineLimitTransactionSelector;
-  private final List<PluginTransactionSelector> selectors;
+  private final Map<Selector, PluginTransactionSelector> selectors;
+  private final List<ChainLink> preProcessingChain;
+  private final List<ChainLink> postProcessingChain;
   private final Optional<JsonRpcManager> rejectedTxJsonRpcManager;
+  private final Optional<HistogramMetrics> maybeSelectorMetrics;
   private final Set<String> rejectedTransactionReasonsMap = new HashSet<>();
 
   public LineaTransactionSelector(
@@ -51,10 +151,13 @@ public class LineaTransactionSelector implements PluginTransactionSelector {
       final LineaL1L2BridgeSharedConfiguration l1L2BridgeConfiguration,
       final LineaProfitabilityConfiguration profitabilityConfiguration,
       final LineaTracerConfiguration tracerConfiguration,
+      final ModuleLineLimits moduleLineLimits,
       final Optional<JsonRpcManager> rejectedTxJsonRpcManager,
       final Optional<HistogramMetrics> maybeProfitabilityMetrics,
-      final Optional<CredibleBlockPlugin.CrediblePluginConfiguration> maybeCredibleConfiguration) {
+      final Optional<HistogramMetrics> maybeSelectorMetrics,
+      final Optional<SidecarTransport> maybeSidecarTransport) {
     this.rejectedTxJsonRpcManager = rejectedTxJsonRpcManager;
+    this.maybeSelectorMetrics = maybeSelectorMetrics;
 
     // only report rejected transaction selection result from TraceLineLimitTransactionSelector
     if (rejectedTxJsonRpcManager.isPresent()) {
@@ -70,30 +173,35 @@ public class LineaTransactionSelector implements PluginTransactionSelector {
             l1L2BridgeConfiguration,
             profitabilityConfiguration,
             tracerConfiguration,
+            moduleLineLimits,
             maybeProfitabilityMetrics,
-            maybeCredibleConfiguration);
+            maybeSidecarTransport);
+    preProcessingChain = createChain(PRE_PROCESSING_ORDER);
+    postProcessingChain = createChain(POST_PROCESSING_ORDER);
   }
 
   /**
-   * Creates a list of selectors based on Linea configuration.
+   * Creates the selectors based on Linea configuration.
    *
    * @param selectorsStateManager
    * @param blockchainService Blockchain service.
    * @param txSelectorConfiguration The configuration to use.
    * @param profitabilityConfiguration The profitability configuration.
    * @param tracerConfiguration the tracer config
+   * @param moduleLineLimits the module line limits in effect for this block
    * @param maybeProfitabilityMetrics The optional profitability metrics
-   * @return A list of selectors.
+   * @return The selectors, in the order they are notified of the outcome.
    */
-  private List<PluginTransactionSelector> createTransactionSelectors(
+  private Map<Selector, PluginTransactionSelector> createTransactionSelectors(
       final SelectorsStateManager selectorsStateManager,
       final BlockchainService blockchainService,
       final LineaTransactionSelectorConfiguration txSelectorConfiguration,
       final LineaL1L2BridgeSharedConfiguration l1L2BridgeConfiguration,
       final LineaProfitabilityConfiguration profitabilityConfiguration,
       final LineaTracerConfiguration tracerConfiguration,
+      final ModuleLineLimits moduleLineLimits,
       final Optional<HistogramMetrics> maybeProfitabilityMetrics,
-      final Optional<CredibleBlockPlugin.CrediblePluginConfiguration> maybeCredibleConfiguration) {
+      final Optional<SidecarTransport> maybeSidecarTransport) {
 
     traceLineLimitTransactionSelector =
         new TraceLineLimitTransactionSelector(
@@ -101,25 +209,43 @@ public class LineaTransactionSelector implements PluginTransactionSelector {
             blockchainService.getChainId().get(),
             txSelectorConfiguration,
             l1L2BridgeConfiguration,
-            tracerConfiguration);
+            tracerConfiguration,
+            moduleLineLimits);
 
-    Stream.Builder<PluginTransactionSelector> builder = Stream.builder();
+    final Map<Selector, PluginTransactionSelector> selectorsByName = new EnumMap<>(Selector.class);
 
-    maybeCredibleConfiguration.ifPresent(cfg ->
-        builder.add(new CredibleLayerTransactionSelector(cfg.getRpcEndpoint(), cfg.getProcessingTimeout())));
+    maybeSidecarTransport.ifPresent(
+        transport ->
+            selectorsByName.put(
+                Selector.CREDIBLE_LAYER, new CredibleLayerTransactionSelector(transport)));
 
-    builder.add(new MaxBlockCallDataTransactionSelector(
-        selectorsStateManager, txSelectorConfiguration.maxBlockCallDataSize()));
-    builder.add(new MaxBlockGasTransactionSelector(
-        selectorsStateManager, txSelectorConfiguration.maxGasPerBlock()));
-    builder.add(new ProfitableTransactionSelector(
-        blockchainService, profitabilityConfiguration, maybeProfitabilityMetrics));
-    builder.add(new BundleConstraintTransactionSelector());
-    builder.add(new MaxBundleGasPerBlockTransactionSelector(
-        selectorsStateManager, txSelectorConfiguration.maxBundleGasPerBlock()));
-    builder.add(traceLineLimitTransactionSelector);
+    selectorsByName.put(
+        Selector.MAX_BLOCK_CALLDATA,
+        new MaxBlockCallDataTransactionSelector(
+            selectorsStateManager, txSelectorConfiguration.maxBlockCallDataSize()));
+    selectorsByName.put(
+        Selector.MAX_BLOCK_GAS,
+        new MaxBlockGasTransactionSelector(
+            selectorsStateManager, txSelectorConfiguration.maxGasPerBlock()));
+    selectorsByName.put(
+        Selector.PROFITABLE,
+        new ProfitableTransactionSelector(
+            blockchainService, profitabilityConfiguration, maybeProfitabilityMetrics));
+    selectorsByName.put(Selector.BUNDLE_CONSTRAINT, new BundleConstraintTransactionSelector());
+    selectorsByName.put(
+        Selector.MAX_BUNDLE_GAS,
+        new MaxBundleGasPerBlockTransactionSelector(
+            selectorsStateManager, txSelectorConfiguration.maxBundleGasPerBlock()));
+    selectorsByName.put(Selector.TRACE_LINE_LIMIT, traceLineLimitTransactionSelector);
 
-    return builder.build().toList();
+    return selectorsByName;
+  }
+
+  private List<ChainLink> createChain(final List<Selector> order) {
+    return order.stream()
+        .filter(selectors::containsKey)
+        .map(name -> new ChainLink(name, selectors.get(name)))
+        .toList();
   }
 
   /**
@@ -132,11 +258,10 @@ public class LineaTransactionSelector implements PluginTransactionSelector {
   @Override
   public TransactionSelectionResult evaluateTransactionPreProcessing(
       final TransactionEvaluationContext evaluationContext) {
-    return selectors.stream()
-        .map(selector -> selector.evaluateTransactionPreProcessing(evaluationContext))
-        .filter(result -> !result.equals(TransactionSelectionResult.SELECTED))
-        .findFirst()
-        .orElse(TransactionSelectionResult.SELECTED);
+    return evaluate(
+        preProcessingChain,
+        Phase.PRE_PROCESSING,
+        selector -> selector.evaluateTransactionPreProcessing(evaluationContext));
   }
 
   /**
@@ -151,10 +276,29 @@ public class LineaTransactionSelector implements PluginTransactionSelector {
   public TransactionSelectionResult evaluateTransactionPostProcessing(
       final TransactionEvaluationContext evaluationContext,
       final TransactionProcessingResult processingResult) {
-    for (var selector : selectors) {
-      TransactionSelectionResult result =
-          selector.evaluateTransactionPostProcessing(evaluationContext, processingResult);
-      if (!result.equals(TransactionSelectionResult.SELECTED)) {
+    return evaluate(
+        postProcessingChain,
+        Phase.POST_PROCESSING,
+        selector ->
+            selector.evaluateTransactionPostProcessing(evaluationContext, processingResult));
+  }
+
+  private TransactionSelectionResult evaluate(
+      final List<ChainLink> chain,
+      final Phase phase,
+      final Function<PluginTransactionSelector, TransactionSelectionResult> evaluation) {
+    for (final ChainLink link : chain) {
+      final long startTime = System.nanoTime();
+      final TransactionSelectionResult result = evaluation.apply(link.selector());
+      final boolean selected = result.equals(TransactionSelectionResult.SELECTED);
+      maybeSelectorMetrics.ifPresent(
+          metrics ->
+              metrics.track(
+                  (System.nanoTime() - startTime) / NANOS_PER_SECOND,
+                  link.name().value(),
+                  phase.value(),
+                  selected ? Result.SELECTED.value() : Result.REJECTED.value()));
+      if (!selected) {
         return result;
       }
     }
@@ -177,8 +321,9 @@ public class LineaTransactionSelector implements PluginTransactionSelector {
       getOperationTracer().commitTransactionBundle();
     }
 
-    selectors.forEach(
-        selector -> selector.onTransactionSelected(evaluationContext, processingResult));
+    selectors
+        .values()
+        .forEach(selector -> selector.onTransactionSelected(evaluationContext, processingResult));
   }
 
   /**
@@ -197,9 +342,11 @@ public class LineaTransactionSelector implements PluginTransactionSelector {
       getOperationTracer().popTransactionBundle();
     }
 
-    selectors.forEach(
-        selector ->
-            selector.onTransactionNotSelected(evaluationContext, transactionSelectionResult));
+    selectors
+        .values()
+        .forEach(
+            selector ->
+                selector.onTransactionNotSelected(evaluationContext, transactionSelectionResult));
 
     rejectedTxJsonRpcManager.ifPresent(
         jsonRpcManager -> {
@@ -226,4 +373,6 @@ public class LineaTransactionSelector implements PluginTransactionSelector {
   public LineCountingTracer getOperationTracer() {
     return traceLineLimitTransactionSelector.getOperationTracer();
   }
+
+  private record ChainLink(Selector name, PluginTransactionSelector selector) {}
 }
@@ -21,14 +21,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import lombok.extern.slf4j.Slf4j;
 import net.consensys.linea.config.LineaTracerConfiguration;
 import net.consensys.linea.config.LineaTransactionSelectorConfiguration;
 import net.consensys.linea.plugins.config.LineaL1L2BridgeSharedConfiguration;
 import net.consensys.linea.sequencer.modulelimit.ModuleLimitsValidationResult;
 import net.consensys.linea.sequencer.modulelimit.ModuleLineCountValidator;
+import net.consensys.linea.sequencer.modulelimit.ModuleLineLimits;
 import net.consensys.linea.zktracer.Fork;
 import net.consensys.linea.zktracer.LineCountingTracer;
 import net.consensys.linea.zktracer.ZkCounter;
@@ -62,10 +63,12 @@ import org.slf4j.MarkerFactory;
  */
 @Slf4j
 public class TraceLineLimitTransactionSelector
-    extends AbstractStatefulPluginTransactionSelector<Map<String, Integer>> {
+    extends AbstractStatefulPluginTransactionSelector<int[]> {
   private static final Marker BLOCK_LINE_COUNT_MARKER = MarkerFactory.getMarker("BLOCK_LINE_COUNT");
   @VisibleForTesting protected static Set<Hash> overLineCountLimitCache = new LinkedHashSet<>();
-  private final LineaTracerConfiguration tracerConfiguration;
+  // the limits the txs in the over line count limit cache were found to be over
+  private static ModuleLineLimits overLineCountLimitCacheLimits;
+  private final ModuleLineLimits moduleLineLimits;
   private final LineCountingTracer lineCountingTracer;
   private final BigInteger chainId;
   private final int overLimitCacheSize;
@@ -77,27 +80,67 @@ public class TraceLineLimitTransactionSelector
       final LineaTransactionSelectorConfiguration txSelectorConfiguration,
       final LineaL1L2BridgeSharedConfiguration l1L2BridgeConfiguration,
       final LineaTracerConfiguration tracerConfiguration) {
-    super(
+    this(
         stateManager,
-        tracerConfiguration.moduleLimitsMap().keySet().stream()
-            .collect(Collectors.toMap(Function.identity(), unused -> 0)),
-        Map::copyOf);
+        chainId,
+        txSelectorConfiguration,
+        l1L2BridgeConfiguration,
+        tracerConfiguration,
+        ModuleLineLimits.fromMap(tracerConfiguration.moduleLimitsMap()));
+  }
+
+  /**
+   * Creates the selector for a new block, with the module line limits in effect for the whole
+   * block.
+   *
+   * @param stateManager the selectors state manager
+   * @param chainId the chain id
+   * @param txSelectorConfiguration the tx selector configuration
+   * @param l1L2BridgeConfiguration the L1 L2 bridge configuration
+   * @param tracerConfiguration the tracer configuration
+   * @param moduleLineLimits the current module line limits
+   */
+  public TraceLineLimitTransactionSelector(
+      final SelectorsStateManager stateManager,
+      final BigInteger chainId,
+      final LineaTransactionSelectorConfiguration txSelectorConfiguration,
+      final LineaL1L2BridgeSharedConfiguration l1L2BridgeConfiguration,
+      final LineaTracerConfiguration tracerConfiguration,
+      final ModuleLineLimits moduleLineLimits) {
+    super(stateManager, new int[moduleLineLimits.size()], int[]::clone);
 
     this.chainId = chainId;
-    this.tracerConfiguration = tracerConfiguration;
+    this.moduleLineLimits = moduleLineLimits;
     this.overLimitCacheSize = txSelectorConfiguration.overLinesLimitCacheSize();
 
     lineCountingTracer =
         new LineCountingTracerWithLog(tracerConfiguration, l1L2BridgeConfiguration);
     for (Module m : lineCountingTracer.getModulesToCount()) {
-      if (!tracerConfiguration.moduleLimitsMap().containsKey(m.moduleKey())) {
+      if (!moduleLineLimits.containsModule(m.moduleKey())) {
         throw new IllegalStateException(
             "Limit for module %s not defined in %s"
                 .formatted(m.moduleKey(), tracerConfiguration.moduleLimitsFilePath()));
       }
     }
     lineCountingTracer.traceStartConflation(1L);
-    moduleLineCountValidator = new ModuleLineCountValidator(tracerConfiguration.moduleLimitsMap());
+    moduleLineCountValidator = new ModuleLineCountValidator(moduleLineLimits);
+    resetOverLineCountLimitCacheIfLimitsChanged(moduleLineLimits);
+  }
+
+  /**
+   * A tx over the previous limits could fit in the new ones, so the over line count limit cache is
+   * only valid as long as the limits do not change.
+   */
+  private static synchronized void resetOverLineCountLimitCacheIfLimitsChanged(
+      final ModuleLineLimits moduleLineLimits) {
+    if (overLineCountLimitCacheLimits != null
+        && !overLineCountLimitCacheLimits.equals(moduleLineLimits)) {
+      log.info(
+          "Module line limits changed, clearing {} txs from the over line count limit cache",
+          overLineCountLimitCache.size());
+      overLineCountLimitCache.clear();
+    }
+    overLineCountLimitCacheLimits = moduleLineLimits;
   }
 
   /**
@@ -135,25 +178,28 @@ public class TraceLineLimitTransactionSelector
       final TransactionEvaluationContext evaluationContext,
       final TransactionProcessingResult processingResult) {
 
-    final var prevCumulatedLineCountMap = getWorkingState();
+    final int[] prevCumulatedLineCounts = getWorkingState();
 
     // check that we are not exceeding line number for any module
-    final var newCumulatedLineCountMap = lineCountingTracer.getModulesLineCount();
+    final int[] newCumulatedLineCounts;
+    try {
+      newCumulatedLineCounts =
+          moduleLineLimits.lineCounts(lineCountingTracer.getModulesLineCount());
+    } catch (IllegalStateException e) {
+      log.error(e.getMessage());
+      throw e;
+    }
     final Transaction transaction = evaluationContext.getPendingTransaction().getTransaction();
     log.atTrace()
         .setMessage("Tx {} line count per module: {}")
         .addArgument(transaction::getHash)
-        .addArgument(() -> logTxLineCount(newCumulatedLineCountMap, prevCumulatedLineCountMap))
+        .addArgument(() -> logTxLineCount(newCumulatedLineCounts, prevCumulatedLineCounts))
         .log();
 
     ModuleLimitsValidationResult result =
-        moduleLineCountValidator.validate(newCumulatedLineCountMap, prevCumulatedLineCountMap);
+        moduleLineCountValidator.validate(newCumulatedLineCounts, prevCumulatedLineCounts);
 
     switch (result.getResult()) {
-      case MODULE_NOT_DEFINED:
-        log.error("Module {} does not exist in the limits file.", result.getModuleName());
-        throw new RuntimeException(
-            "Module " + result.getModuleName() + " does not exist in the limits file.");
       case INVALID_LINE_COUNT:
         log.warn(
             "Tx {} line count for module {}={} is invalid, removing from the txpool",
@@ -183,7 +229,7 @@ public class TraceLineLimitTransactionSelector
         break;
     }
 
-    setWorkingState(newCumulatedLineCountMap);
+    setWorkingState(newCumulatedLineCounts);
 
     return SELECTED;
   }
@@ -208,20 +254,18 @@ public class TraceLineLimitTransactionSelector
         .log();
   }
 
-  private String logTxLineCount(
-      final Map<String, Integer> currCumulatedLineCount,
-      final Map<String, Integer> stateLineLimitMap) {
-    return currCumulatedLineCount.entrySet().stream()
-        .map(
-            e ->
+  private String logTxLineCount(final int[] currCumulatedLineCounts, final int[] stateLineCounts) {
+    return IntStream.range(0, currCumulatedLineCounts.length)
+        .mapToObj(
+            i ->
                 // tx line count / cumulated line count / line count limit
-                e.getKey()
+                moduleLineLimits.moduleName(i)
                     + "="
-                    + (e.getValue() - stateLineLimitMap.getOrDefault(e.getKey(), 0))
+                    + (currCumulatedLineCounts[i] - stateLineCounts[i])
                     + "/"
-                    + e.getValue()
+                    + currCumulatedLineCounts[i]
                     + "/"
-                    + tracerConfiguration.moduleLimitsMap().get(e.getKey()))
+                    + moduleLineLimits.lineLimit(i))
         .collect(Collectors.joining(",", "[", "]"));
   }
 
@@ -246,11 +290,14 @@ public class TraceLineLimitTransactionSelector
           .addKeyValue("blockHash", blockHeader::getBlockHash)
           .addKeyValue(
               "traceCounts",
-              () ->
-                  getCommitedState().entrySet().stream()
-                      .sorted(Map.Entry.comparingByKey())
-                      .map(e -> '"' + e.getKey() + "\":" + e.getValue())
-                      .collect(Collectors.joining(",")))
+              () -> {
+                final int[] commitedLineCounts = getCommitedState();
+                // module names are already sorted in the limits table
+                return IntStream.range(0, commitedLineCounts.length)
+                    .mapToObj(
+                        i -> '"' + moduleLineLimits.moduleName(i) + "\":" + commitedLineCounts[i])
+                    .collect(Collectors.joining(","));
+              })
           .log();
     }
 
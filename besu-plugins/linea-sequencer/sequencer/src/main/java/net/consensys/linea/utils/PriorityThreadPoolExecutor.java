@@ -8,6 +8,8 @@
  */
 package net.consensys.linea.utils;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.PriorityBlockingQueue;
@@ -52,6 +54,36 @@ public class PriorityThreadPoolExecutor extends ThreadPoolExecutor {
     return super.remove(new PriorityFuture<>(runnable, null));
   }
 
+  /**
+   * Takes queued tasks out of the executor, in priority order, so the caller can process them
+   * together with the task it is currently executing. Never waits for tasks to be queued, so it
+   * returns as soon as the queue is drained. The taken tasks are cancelled, so the executor will
+   * never run them.
+   *
+   * @param sourceTaskType the type of the tasks to take, polling stops at the first other task
+   * @param maxTasks the max number of tasks to take
+   * @return the source tasks taken from the queue
+   */
+  public <T> List<T> pollQueuedTasks(final Class<T> sourceTaskType, final int maxTasks) {
+    final var tasks = new ArrayList<T>(maxTasks);
+    while (tasks.size() < maxTasks) {
+      final Runnable next = getQueue().poll();
+      if (next == null) {
+        break;
+      }
+      if (next instanceof PriorityFuture<?> priorityFuture
+          && sourceTaskType.isInstance(priorityFuture.getSourceTask())) {
+        priorityFuture.cancel(false);
+        tasks.add(sourceTaskType.cast(priorityFuture.getSourceTask()));
+      } else {
+        // give it back to the executor
+        getQueue().offer(next);
+        break;
+      }
+    }
+    return tasks;
+  }
+
   // we delegate equality to source class so the remove works
   @EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
   public static class PriorityFuture<T> extends FutureTask<T>
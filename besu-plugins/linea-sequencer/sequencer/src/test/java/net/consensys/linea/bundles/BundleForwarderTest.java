@@ -10,6 +10,7 @@
 package net.consensys.linea.bundles;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.absent;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalToJson;
 import static com.github.tomakehurst.wiremock.client.WireMock.exactly;
@@ -33,14 +34,18 @@ import static org.mockito.Mockito.lenient;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.github.tomakehurst.wiremock.http.Fault;
 import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
 import com.github.tomakehurst.wiremock.junit5.WireMockTest;
 import com.github.tomakehurst.wiremock.matching.StringValuePattern;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
 import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.net.MalformedURLException;
 import java.net.URI;
+import java.net.URL;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -50,11 +55,13 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
 import net.consensys.linea.bundles.BundleForwarder.SendBundleResponse;
 import net.consensys.linea.config.LineaBundleConfiguration;
 import net.consensys.linea.utils.PriorityThreadPoolExecutor;
 import net.consensys.linea.utils.TestablePriorityThreadPoolExecutor;
 import okhttp3.OkHttpClient;
+import org.apache.tuweni.bytes.Bytes;
 import org.hyperledger.besu.datatypes.Hash;
 import org.hyperledger.besu.plugin.services.BlockchainService;
 import org.junit.jupiter.api.AfterEach;
@@ -76,6 +83,7 @@ class BundleForwarderTest extends AbstractBundleTest {
   private BundleForwarder bundleForwarder;
   private TestablePriorityThreadPoolExecutor executor;
   private ResponseCollector responseCollector;
+  private URL recipientUrl;
 
   @Mock(answer = RETURNS_DEEP_STUBS)
   private BlockchainService blockchainService;
@@ -83,6 +91,7 @@ class BundleForwarderTest extends AbstractBundleTest {
   @BeforeEach
   void init(final WireMockRuntimeInfo wmInfo) throws MalformedURLException {
     REQ_ID_COUNT.set(0);
+    recipientUrl = URI.create(wmInfo.getHttpBaseUrl()).toURL();
     lenient()
         .when(blockchainService.getChainHeadHeader().getNumber())
         .thenReturn(CHAIN_HEAD_BLOCK_NUMBER);
@@ -269,6 +278,109 @@ class BundleForwarderTest extends AbstractBundleTest {
     assertThat(getAllServeEvents()).isEmpty();
   }
 
+  @Test
+  void queuedBundlesAreForwardedInBatches() throws Exception {
+    stubFor(
+        post(urlEqualTo("/"))
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("[]")));
+    final int bundleCount = 100;
+    final int batchSize = 10;
+    final var bundles =
+        IntStream.range(0, bundleCount)
+            .mapToObj(
+                i ->
+                    createBundle(
+                        Hash.hash(Bytes.ofUnsignedInt(i)),
+                        CHAIN_HEAD_BLOCK_NUMBER + 1 + i,
+                        List.of(TX1, TX2)))
+            .toList();
+
+    final var batchExecutor =
+        new TestablePriorityThreadPoolExecutor(0, 1, 1, SECONDS, Thread.ofVirtual().factory());
+    final var batchForwarder = createBatchForwarder(batchExecutor, batchSize);
+    batchExecutor.waitForQueueTaskCount(bundleCount, true);
+    // submitted in reverse order, they must still be forwarded by block number
+    bundles.reversed().forEach(batchForwarder::onTransactionBundleAdded);
+    await()
+        .atMost(30, SECONDS)
+        .until(() -> forwardedBlockNumbers(getAllServeEvents()).size() == bundleCount);
+    batchExecutor.shutdown();
+
+    assertThat(getAllServeEvents()).hasSize(bundleCount / batchSize);
+    assertThat(forwardedBlockNumbers(getAllServeEvents()))
+        .containsExactlyElementsOf(bundles.stream().map(TransactionBundle::blockNumber).toList());
+  }
+
+  @Test
+  void failedBatchIsRetriedPerBundle() throws Exception {
+    stubFor(
+        post(urlEqualTo("/"))
+            .withHeader(RETRY_COUNT_HEADER, absent())
+            .willReturn(aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER)));
+    stubFor(
+        post(urlEqualTo("/"))
+            .withHeader(RETRY_COUNT_HEADER, equalTo("1"))
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("[]")));
+    final var bundle_bn1 =
+        createBundle(
+            Hash.fromHexStringLenient("0x9abc"), CHAIN_HEAD_BLOCK_NUMBER + 1, List.of(TX1, TX3));
+    final var bundle_bn2 =
+        createBundle(
+            Hash.fromHexStringLenient("0x5678"), CHAIN_HEAD_BLOCK_NUMBER + 2, List.of(TX2, TX3));
+
+    final var batchExecutor =
+        new TestablePriorityThreadPoolExecutor(0, 1, 1, SECONDS, Thread.ofVirtual().factory());
+    final var batchForwarder = createBatchForwarder(batchExecutor, 10);
+    batchExecutor.waitForQueueTaskCount(2, true);
+    batchForwarder.onTransactionBundleAdded(bundle_bn2);
+    batchForwarder.onTransactionBundleAdded(bundle_bn1);
+
+    await()
+        .atMost(5, SECONDS)
+        .untilAsserted(
+            () ->
+                assertThat(
+                        forwardedBlockNumbers(
+                            getAllServeEvents().stream()
+                                .filter(
+                                    event -> event.getRequest().containsHeader(RETRY_COUNT_HEADER))
+                                .toList()))
+                    .containsExactlyInAnyOrder(bundle_bn1.blockNumber(), bundle_bn2.blockNumber()));
+    batchExecutor.shutdown();
+  }
+
+  private BundleForwarder createBatchForwarder(
+      final PriorityThreadPoolExecutor batchExecutor, final int batchSize) {
+    return new BundleForwarder(
+        bundleConfiguration.toBuilder().forwardBatchSize(batchSize).build(),
+        batchExecutor,
+        Executors.newSingleThreadScheduledExecutor(),
+        blockchainService,
+        new OkHttpClient.Builder().callTimeout(RPC_CALL_TIMEOUT).build(),
+        recipientUrl);
+  }
+
+  private static List<Long> forwardedBlockNumbers(final List<ServeEvent> serveEvents)
+      throws JsonProcessingException {
+    final List<Long> blockNumbers = new ArrayList<>();
+    // serve events are returned most recent first
+    for (final var event : serveEvents.reversed()) {
+      for (final var jsonRpcRequest :
+          OBJECT_MAPPER.readTree(event.getRequest().getBodyAsString())) {
+        blockNumbers.add(jsonRpcRequest.get("params").get(0).get("blockNumber").asLong());
+      }
+    }
+    return blockNumbers;
+  }
+
   private static String getExpectedRequest(final TransactionBundle bundle, final long reqId)
       throws JsonProcessingException {
     final var expectedRequest =
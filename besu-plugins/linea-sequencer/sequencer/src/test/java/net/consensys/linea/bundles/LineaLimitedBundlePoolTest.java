@@ -11,6 +11,7 @@ package net.consensys.linea.bundles;
 
 import static java.nio.charset.StandardCharsets.US_ASCII;
 import static net.consensys.linea.bundles.LineaLimitedBundlePool.BUNDLE_SAVE_FILENAME;
+import static net.consensys.linea.bundles.LineaLimitedBundlePool.BUNDLE_SNAPSHOT_FILENAME;
 import static net.consensys.linea.bundles.LineaLimitedBundlePool.UUIDToHash;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -27,11 +28,17 @@ import static org.mockito.Mockito.when;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 import lombok.Getter;
 import net.consensys.linea.bundles.BundlePoolService.TransactionBundleAddedListener;
 import net.consensys.linea.bundles.BundlePoolService.TransactionBundleRemovedListener;
@@ -283,25 +290,165 @@ class LineaLimitedBundlePoolTest extends AbstractBundleTest {
   }
 
   @Test
-  void saveToDisk() throws IOException {
+  void saveToDisk() {
 
     Hash hash1 = Hash.fromHexStringLenient("0x1234");
-    TransactionBundle bundle1 = createBundle(hash1, 1, List.of(TX1, TX2), true);
+    TransactionBundle bundle1 = createBundle(hash1, 11, List.of(TX1, TX2), true);
     pool.putOrReplace(hash1, bundle1);
 
     Hash hash2 = Hash.fromHexStringLenient("0x5678");
-    TransactionBundle bundle2 = createBundle(hash2, 2, List.of(TX3));
+    TransactionBundle bundle2 = createBundle(hash2, 12, List.of(TX3));
     pool.putOrReplace(hash2, bundle2);
 
     pool.saveToDisk();
 
-    final var saved = Files.readString(dataDir.resolve(BUNDLE_SAVE_FILENAME), US_ASCII);
-    assertThat(saved)
-        .isEqualTo(
-            """
-              {"version":2}
-              {"blockNumber":1,"bundleIdentifier":"0x0000000000000000000000000000000000000000000000000000000000001234","pendingTransactions":["+E+AghOIglIIgASAggqWoHNvbkX5jC5D+Q0GW88l7bP45W+b8oubebJsfXgE+lRzoAVzHPSnS/zQmUxq3Hg9UHQ3p51KWM6dyYuqKVM7HYz7","+E8BghOIglIIgASAggqVoGgwjcqbkx9qWzUse4MmYxq5fGYo617lp3j9YAj74GDhoFrjtX1uTIbDgflVrS1EPJv2jmbGV2NbxukBL0sNVpBf"],"hasPriority":true}
-              {"blockNumber":2,"bundleIdentifier":"0x0000000000000000000000000000000000000000000000000000000000005678","pendingTransactions":["+E8CghOIglIIgASAggqVoMmdnUf+4fBBE+l/IAxacTZhj5elWnFdplP+s4jg92yyoHUWAGDUZ5Vo6dg3q7e9+PyBAkwlk4Fprh1UFmyQhhjx"],"hasPriority":false}""");
+    assertThat(dataDir.resolve(BUNDLE_SNAPSHOT_FILENAME)).exists();
+    assertThat(dataDir.resolve(BUNDLE_SAVE_FILENAME)).doesNotExist();
+
+    final var restoredPool = newPool(10_000L);
+    restoredPool.loadFromDisk();
+
+    assertThat(restoredPool.size()).isEqualTo(2);
+    assertSameBundle(restoredPool.get(hash1), bundle1);
+    assertSameBundle(restoredPool.get(hash2), bundle2);
+    assertThat(dataDir.resolve(BUNDLE_SNAPSHOT_FILENAME)).doesNotExist();
+  }
+
+  @Test
+  void saveAndLoadSnapshotKeepsAllBundleFields() throws IOException {
+    final var bundle =
+        new TransactionBundle(
+            Hash.fromHexStringLenient("0x1234"),
+            List.of(TX1, TX2, TX3),
+            11L,
+            Optional.of(1_000L),
+            Optional.of(2_000L),
+            Optional.of(List.of(TX2.getHash(), TX3.getHash())),
+            Optional.of(UUID.randomUUID()),
+            false);
+    final var emptyBundle = createBundle(Hash.fromHexStringLenient("0x5678"), 12, List.of());
+    final var snapshotPath = dataDir.resolve(BUNDLE_SNAPSHOT_FILENAME);
+
+    BundleSnapshot.write(snapshotPath, List.of(bundle, emptyBundle));
+
+    final var restored = BundleSnapshot.read(snapshotPath);
+    assertThat(restored).hasSize(2);
+    assertSameBundle(restored.get(0), bundle);
+    assertSameBundle(restored.get(1), emptyBundle);
+  }
+
+  @Test
+  void writeSnapshotReplacesExistingOneWithoutLeavingTempFiles() throws IOException {
+    final var bundle1 = createBundle(Hash.fromHexStringLenient("0x1234"), 11, List.of(TX1));
+    final var bundle2 = createBundle(Hash.fromHexStringLenient("0x5678"), 12, List.of(TX2));
+    final var snapshotPath = dataDir.resolve(BUNDLE_SNAPSHOT_FILENAME);
+
+    BundleSnapshot.write(snapshotPath, List.of(bundle1));
+    BundleSnapshot.write(snapshotPath, List.of(bundle2));
+
+    final var restored = BundleSnapshot.read(snapshotPath);
+    assertThat(restored).hasSize(1);
+    assertSameBundle(restored.get(0), bundle2);
+    try (final var files = Files.list(dataDir)) {
+      assertThat(files).filteredOn(file -> file.toString().endsWith(".tmp")).isEmpty();
+    }
+  }
+
+  @Test
+  void loadFromDisk_CorruptedSnapshot() throws IOException {
+    Hash hash = Hash.fromHexStringLenient("0x1234");
+    pool.putOrReplace(hash, createBundle(hash, 11, List.of(TX1, TX2)));
+    pool.saveToDisk();
+
+    final var snapshotPath = dataDir.resolve(BUNDLE_SNAPSHOT_FILENAME);
+    final byte[] content = Files.readAllBytes(snapshotPath);
+    content[content.length / 2] ^= 0x01;
+    Files.write(snapshotPath, content);
+
+    final var restoredPool = newPool(10_000L);
+    restoredPool.loadFromDisk();
+
+    // no bundle should be restored from a snapshot failing the checksum
+    assertThat(restoredPool.size()).isEqualTo(0);
+    assertThat(snapshotPath).doesNotExist();
+    assertThatThrownBy(() -> BundleSnapshot.read(writeTruncatedSnapshot()))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void saveAndLoadManyBundles() {
+    final int bundleCount = 20_000;
+    final var bigPool = newPool(Long.MAX_VALUE);
+    for (int i = 0; i < bundleCount; i++) {
+      final Hash hash = Hash.hash(Bytes.ofUnsignedInt(i));
+      bigPool.putOrReplace(hash, createBundle(hash, 11 + i % 100, List.of(TX1, TX2)));
+    }
+
+    final long saveStart = System.nanoTime();
+    bigPool.saveToDisk();
+    final Duration saveDuration = Duration.ofNanos(System.nanoTime() - saveStart);
+
+    final var restoredPool = newPool(Long.MAX_VALUE);
+    final long loadStart = System.nanoTime();
+    restoredPool.loadFromDisk();
+    final Duration loadDuration = Duration.ofNanos(System.nanoTime() - loadStart);
+
+    assertThat(restoredPool.size()).isEqualTo(bundleCount);
+    assertThat(restoredPool.getBundlesByBlockNumber(11))
+        .map(TransactionBundle::bundleIdentifier)
+        .containsExactlyInAnyOrderElementsOf(
+            bigPool.getBundlesByBlockNumber(11).stream()
+                .map(TransactionBundle::bundleIdentifier)
+                .toList());
+    assertThat(saveDuration).isLessThan(Duration.ofSeconds(5));
+    assertThat(loadDuration).isLessThan(Duration.ofSeconds(5));
+  }
+
+  @Test
+  void concurrentPutOrReplaceAndRemoveOnDifferentBlocks() throws Exception {
+    final int threadCount = 8;
+    final int bundlesPerThread = 2_000;
+    final var bigPool = newPool(Long.MAX_VALUE);
+    final var executor = Executors.newFixedThreadPool(threadCount);
+    final var startLatch = new CountDownLatch(1);
+    try {
+      final var futures =
+          IntStream.range(0, threadCount)
+              .mapToObj(
+                  thread ->
+                      executor.submit(
+                          () -> {
+                            startLatch.await();
+                            for (int i = 0; i < bundlesPerThread; i++) {
+                              final Hash hash =
+                                  Hash.hash(Bytes.ofUnsignedInt(thread * bundlesPerThread + i));
+                              final long blockNumber = 11 + thread;
+                              bigPool.putOrReplace(hash, createBundle(hash, blockNumber));
+                              // replace half of them on a block shared by all the threads
+                              if (i % 2 == 0) {
+                                bigPool.putOrReplace(hash, createBundle(hash, 100));
+                              }
+                              // and remove a quarter of them
+                              if (i % 4 == 0) {
+                                assertTrue(bigPool.remove(hash));
+                              }
+                            }
+                            return null;
+                          }))
+              .toList();
+      startLatch.countDown();
+      for (final var future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    for (int thread = 0; thread < threadCount; thread++) {
+      assertThat(bigPool.getBundlesByBlockNumber(11 + thread)).hasSize(bundlesPerThread / 2);
+    }
+    assertThat(bigPool.getBundlesByBlockNumber(100)).hasSize(threadCount * bundlesPerThread / 4);
+    assertThat(bigPool.size()).isEqualTo(threadCount * bundlesPerThread * 3 / 4);
   }
 
   @Test
@@ -309,9 +456,9 @@ class LineaLimitedBundlePoolTest extends AbstractBundleTest {
     Files.writeString(
         dataDir.resolve(BUNDLE_SAVE_FILENAME),
         """
-              {"version":2}
-              {"blockNumber":11,"bundleIdentifier":"0x0000000000000000000000000000000000000000000000000000000000001234","pendingTransactions":["+E+AghOIglIIgASAggqWoHNvbkX5jC5D+Q0GW88l7bP45W+b8oubebJsfXgE+lRzoAVzHPSnS/zQmUxq3Hg9UHQ3p51KWM6dyYuqKVM7HYz7","+E8BghOIglIIgASAggqVoGgwjcqbkx9qWzUse4MmYxq5fGYo617lp3j9YAj74GDhoFrjtX1uTIbDgflVrS1EPJv2jmbGV2NbxukBL0sNVpBf"],"hasPriority":true}
-              {"blockNumber":12,"bundleIdentifier":"0x0000000000000000000000000000000000000000000000000000000000005678","pendingTransactions":["+E8CghOIglIIgASAggqVoMmdnUf+4fBBE+l/IAxacTZhj5elWnFdplP+s4jg92yyoHUWAGDUZ5Vo6dg3q7e9+PyBAkwlk4Fprh1UFmyQhhjx"],"hasPriority":false}""",
+{"version":2}
+{"blockNumber":11,"bundleIdentifier":"0x0000000000000000000000000000000000000000000000000000000000001234","pendingTransactions":["+E+AghOIglIIgASAggqWoHNvbkX5jC5D+Q0GW88l7bP45W+b8oubebJsfXgE+lRzoAVzHPSnS/zQmUxq3Hg9UHQ3p51KWM6dyYuqKVM7HYz7","+E8BghOIglIIgASAggqVoGgwjcqbkx9qWzUse4MmYxq5fGYo617lp3j9YAj74GDhoFrjtX1uTIbDgflVrS1EPJv2jmbGV2NbxukBL0sNVpBf"],"hasPriority":true}
+{"blockNumber":12,"bundleIdentifier":"0x0000000000000000000000000000000000000000000000000000000000005678","pendingTransactions":["+E8CghOIglIIgASAggqVoMmdnUf+4fBBE+l/IAxacTZhj5elWnFdplP+s4jg92yyoHUWAGDUZ5Vo6dg3q7e9+PyBAkwlk4Fprh1UFmyQhhjx"],"hasPriority":false}""",
         US_ASCII);
 
     pool.loadFromDisk();
@@ -345,9 +492,9 @@ class LineaLimitedBundlePoolTest extends AbstractBundleTest {
     Files.writeString(
         dataDir.resolve(BUNDLE_SAVE_FILENAME),
         """
-             {"version":1}
-             {"0x0000000000000000000000000000000000000000000000000000000000001234":{"blockNumber":11,"txs":["+E+AghOIglIIgASAggqWoHNvbkX5jC5D+Q0GW88l7bP45W+b8oubebJsfXgE+lRzoAVzHPSnS/zQmUxq3Hg9UHQ3p51KWM6dyYuqKVM7HYz7","+E8BghOIglIIgASAggqVoGgwjcqbkx9qWzUse4MmYxq5fGYo617lp3j9YAj74GDhoFrjtX1uTIbDgflVrS1EPJv2jmbGV2NbxukBL0sNVpBf"]}}
-             {"0x0000000000000000000000000000000000000000000000000000000000005678":{"blockNumber":12,"txs":["+E8CghOIglIIgASAggqVoMmdnUf+4fBBE+l/IAxacTZhj5elWnFdplP+s4jg92yyoHUWAGDUZ5Vo6dg3q7e9+PyBAkwlk4Fprh1UFmyQhhjx"]}}""",
+{"version":1}
+{"0x0000000000000000000000000000000000000000000000000000000000001234":{"blockNumber":11,"txs":["+E+AghOIglIIgASAggqWoHNvbkX5jC5D+Q0GW88l7bP45W+b8oubebJsfXgE+lRzoAVzHPSnS/zQmUxq3Hg9UHQ3p51KWM6dyYuqKVM7HYz7","+E8BghOIglIIgASAggqVoGgwjcqbkx9qWzUse4MmYxq5fGYo617lp3j9YAj74GDhoFrjtX1uTIbDgflVrS1EPJv2jmbGV2NbxukBL0sNVpBf"]}}
+{"0x0000000000000000000000000000000000000000000000000000000000005678":{"blockNumber":12,"txs":["+E8CghOIglIIgASAggqVoMmdnUf+4fBBE+l/IAxacTZhj5elWnFdplP+s4jg92yyoHUWAGDUZ5Vo6dg3q7e9+PyBAkwlk4Fprh1UFmyQhhjx"]}}""",
         US_ASCII);
 
     pool.loadFromDisk();
@@ -381,8 +528,8 @@ class LineaLimitedBundlePoolTest extends AbstractBundleTest {
     Files.writeString(
         dataDir.resolve(BUNDLE_SAVE_FILENAME),
         """
-             {"version":0}
-             {"0x0000000000000000000000000000000000000000000000000000000000001234":{"blockNumber":11,"txs":["+E+AghOIglIIgASAggqWoHNvbkX5jC5D+Q0GW88l7bP45W+b8oubebJsfXgE+lRzoAVzHPSnS/zQmUxq3Hg9UHQ3p51KWM6dyYuqKVM7HYz7","+E8BghOIglIIgASAggqVoGgwjcqbkx9qWzUse4MmYxq5fGYo617lp3j9YAj74GDhoFrjtX1uTIbDgflVrS1EPJv2jmbGV2NbxukBL0sNVpBf"]}}""",
+{"version":0}
+{"0x0000000000000000000000000000000000000000000000000000000000001234":{"blockNumber":11,"txs":["+E+AghOIglIIgASAggqWoHNvbkX5jC5D+Q0GW88l7bP45W+b8oubebJsfXgE+lRzoAVzHPSnS/zQmUxq3Hg9UHQ3p51KWM6dyYuqKVM7HYz7","+E8BghOIglIIgASAggqVoGgwjcqbkx9qWzUse4MmYxq5fGYo617lp3j9YAj74GDhoFrjtX1uTIbDgflVrS1EPJv2jmbGV2NbxukBL0sNVpBf"]}}""",
         US_ASCII);
 
     pool.loadFromDisk();
@@ -396,9 +543,9 @@ class LineaLimitedBundlePoolTest extends AbstractBundleTest {
     Files.writeString(
         dataDir.resolve(BUNDLE_SAVE_FILENAME),
         """
-             {"version":1}
-             {"0x0000000000000000000000000000000000000000000000000000000000001234":{"blockNumber":11,"txs":["+E+AghOIglIIgASAggqWoHNvbkX5jC5D+Q0GW88l7bP45W+b8oubebJsfXgE+lRzoAVzHPSnS/zQmUxq3Hg9UHQ3p51KWM6dyYuqKVM7HYz7","+E8BghOIglIIgASAggqVoGgwjcqbkx9qWzUse4MmYxq5fGYo617lp3j9YAj74GDhoFrjtX1uTIbDgflVrS1EPJv2jmbGV2NbxukBL0sNVpBf"]}}
-             {"0x0000000000000000000000000000000000000000000000000000000000005678":{"blockNumber":"not a number","txs":["+E8CghOIglIIgASAggqVoMmdnUf+4fBBE+l/IAxacTZhj5elWnFdplP+s4jg92yyoHUWAGDUZ5Vo6dg3q7e9+PyBAkwlk4Fprh1UFmyQhhjx"]}}""",
+{"version":1}
+{"0x0000000000000000000000000000000000000000000000000000000000001234":{"blockNumber":11,"txs":["+E+AghOIglIIgASAggqWoHNvbkX5jC5D+Q0GW88l7bP45W+b8oubebJsfXgE+lRzoAVzHPSnS/zQmUxq3Hg9UHQ3p51KWM6dyYuqKVM7HYz7","+E8BghOIglIIgASAggqVoGgwjcqbkx9qWzUse4MmYxq5fGYo617lp3j9YAj74GDhoFrjtX1uTIbDgflVrS1EPJv2jmbGV2NbxukBL0sNVpBf"]}}
+{"0x0000000000000000000000000000000000000000000000000000000000005678":{"blockNumber":"not a number","txs":["+E8CghOIglIIgASAggqVoMmdnUf+4fBBE+l/IAxacTZhj5elWnFdplP+s4jg92yyoHUWAGDUZ5Vo6dg3q7e9+PyBAkwlk4Fprh1UFmyQhhjx"]}}""",
         US_ASCII);
 
     pool.loadFromDisk();
@@ -426,9 +573,9 @@ class LineaLimitedBundlePoolTest extends AbstractBundleTest {
     Files.writeString(
         dataDir.resolve(BUNDLE_SAVE_FILENAME),
         """
-            {"version":1}
-            {"0x0000000000000000000000000000000000000000000000000000000000005678":{"blockNumber":10,"txs":["+E8CghOIglIIgASAggqVoMmdnUf+4fBBE+l/IAxacTZhj5elWnFdplP+s4jg92yyoHUWAGDUZ5Vo6dg3q7e9+PyBAkwlk4Fprh1UFmyQhhjx"]}}
-            {"0x0000000000000000000000000000000000000000000000000000000000001234":{"blockNumber":11,"txs":["+E+AghOIglIIgASAggqWoHNvbkX5jC5D+Q0GW88l7bP45W+b8oubebJsfXgE+lRzoAVzHPSnS/zQmUxq3Hg9UHQ3p51KWM6dyYuqKVM7HYz7","+E8BghOIglIIgASAggqVoGgwjcqbkx9qWzUse4MmYxq5fGYo617lp3j9YAj74GDhoFrjtX1uTIbDgflVrS1EPJv2jmbGV2NbxukBL0sNVpBf"]}}""",
+{"version":1}
+{"0x0000000000000000000000000000000000000000000000000000000000005678":{"blockNumber":10,"txs":["+E8CghOIglIIgASAggqVoMmdnUf+4fBBE+l/IAxacTZhj5elWnFdplP+s4jg92yyoHUWAGDUZ5Vo6dg3q7e9+PyBAkwlk4Fprh1UFmyQhhjx"]}}
+{"0x0000000000000000000000000000000000000000000000000000000000001234":{"blockNumber":11,"txs":["+E+AghOIglIIgASAggqWoHNvbkX5jC5D+Q0GW88l7bP45W+b8oubebJsfXgE+lRzoAVzHPSnS/zQmUxq3Hg9UHQ3p51KWM6dyYuqKVM7HYz7","+E8BghOIglIIgASAggqVoGgwjcqbkx9qWzUse4MmYxq5fGYo617lp3j9YAj74GDhoFrjtX1uTIbDgflVrS1EPJv2jmbGV2NbxukBL0sNVpBf"]}}""",
         US_ASCII);
 
     pool.loadFromDisk();
@@ -451,6 +598,34 @@ class LineaLimitedBundlePoolTest extends AbstractBundleTest {
     assertThat(pool.get(hash2)).isNull();
   }
 
+  private LineaLimitedBundlePool newPool(final long maxSizeInBytes) {
+    return new LineaLimitedBundlePool(dataDir, maxSizeInBytes, eventService, blockchainService);
+  }
+
+  private void assertSameBundle(final TransactionBundle actual, final TransactionBundle expected) {
+    assertThat(actual.bundleIdentifier()).isEqualTo(expected.bundleIdentifier());
+    assertThat(actual.blockNumber()).isEqualTo(expected.blockNumber());
+    assertThat(actual.minTimestamp()).isEqualTo(expected.minTimestamp());
+    assertThat(actual.maxTimestamp()).isEqualTo(expected.maxTimestamp());
+    assertThat(actual.revertingTxHashes()).isEqualTo(expected.revertingTxHashes());
+    assertThat(actual.replacementUUID()).isEqualTo(expected.replacementUUID());
+    assertThat(actual.hasPriority()).isEqualTo(expected.hasPriority());
+    assertThat(actual.pendingTransactions())
+        .map(PendingTransaction::getTransaction)
+        .map(Transaction::getHash)
+        .containsExactlyElementsOf(
+            expected.pendingTransactions().stream()
+                .map(PendingTransaction::getTransaction)
+                .map(Transaction::getHash)
+                .toList());
+  }
+
+  private Path writeTruncatedSnapshot() throws IOException {
+    final var path = dataDir.resolve("truncated.bin");
+    Files.write(path, new byte[] {0x4C, 0x42, 0x50, 0x53});
+    return path;
+  }
+
   private TransactionBundle createBundle(Hash hash, long blockNumber) {
     return createBundle(hash, blockNumber, Collections.emptyList());
   }
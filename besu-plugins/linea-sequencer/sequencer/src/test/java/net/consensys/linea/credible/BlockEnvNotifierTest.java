@@ -0,0 +1,133 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * This file is dual-licensed under either the MIT license or Apache License 2.0.
+ * See the LICENSE-MIT and LICENSE-APACHE files in the repository root for details.
+ *
+ * SPDX-License-Identifier: MIT OR Apache-2.0
+ */
+
+package net.consensys.linea.credible;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import net.consensys.linea.credible.SidecarApiModels.SendBlockEnvRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class BlockEnvNotifierTest {
+  private final BlockingSidecarClient sidecarClient = new BlockingSidecarClient();
+  private BlockEnvNotifier notifier;
+
+  @AfterEach
+  void tearDown() {
+    sidecarClient.release();
+    if (notifier != null) {
+      notifier.close();
+    }
+  }
+
+  @Test
+  void blockImportIsNotDelayedBySlowSidecar() throws InterruptedException {
+    notifier = new BlockEnvNotifier(sidecarClient, 16);
+    final int blockCount = 20;
+
+    notifier.notifyBlockEnv(blockEnv(1));
+    sidecarClient.awaitCallStarted();
+    // the sidecar does not answer until released, a blocking notify would never return
+    for (long blockNumber = 2; blockNumber <= blockCount; blockNumber++) {
+      notifier.notifyBlockEnv(blockEnv(blockNumber));
+    }
+    assertThat(sidecarClient.receivedBlockNumbers).containsExactly(1L);
+    assertThat(notifier.queueDepth()).isEqualTo(16);
+
+    sidecarClient.release();
+
+    // only the latest block env is sent once the in flight call completes
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .until(() -> notifier.droppedCount() + notifier.sentCount() == blockCount);
+    assertThat(sidecarClient.receivedBlockNumbers).containsExactly(1L, (long) blockCount);
+    assertThat(notifier.queueDepth()).isZero();
+    assertThat(notifier.failedCount()).isZero();
+  }
+
+  @Test
+  void oldestBlockEnvIsDroppedWhenQueueIsFull() throws InterruptedException {
+    notifier = new BlockEnvNotifier(sidecarClient, 2);
+
+    // the first block env is in flight while the next ones are queued
+    notifier.notifyBlockEnv(blockEnv(1));
+    sidecarClient.awaitCallStarted();
+    for (long blockNumber = 2; blockNumber <= 5; blockNumber++) {
+      notifier.notifyBlockEnv(blockEnv(blockNumber));
+    }
+    assertThat(notifier.queueDepth()).isEqualTo(2);
+    assertThat(notifier.droppedCount()).isEqualTo(2);
+
+    sidecarClient.release();
+
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(
+            () -> assertThat(sidecarClient.receivedBlockNumbers).containsExactly(1L, 5L));
+    assertThat(notifier.droppedCount()).isEqualTo(3);
+  }
+
+  private static SendBlockEnvRequest blockEnv(final long blockNumber) {
+    return new SendBlockEnvRequest(
+        blockNumber,
+        "0x0000000000000000000000000000000000000000",
+        1_700_000_000L + blockNumber,
+        2_000_000_000L,
+        "7",
+        "0x2",
+        "0x0000000000000000000000000000000000000000000000000000000000000000");
+  }
+
+  /** Records the sent block envs and holds every call until released. */
+  private static class BlockingSidecarClient extends SidecarClient {
+    private final List<Long> receivedBlockNumbers = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<Long> startedCalls = new LinkedBlockingQueue<>();
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    BlockingSidecarClient() {
+      super("http://127.0.0.1:0");
+    }
+
+    @Override
+    public <T> T call(final String method, final Object params, final TypeReference<T> resultType)
+        throws JsonRpcException {
+      final long blockNumber = ((SendBlockEnvRequest) params).getNumber();
+      receivedBlockNumbers.add(blockNumber);
+      startedCalls.add(blockNumber);
+      try {
+        released.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new JsonRpcException("interrupted", e);
+      }
+      @SuppressWarnings("unchecked")
+      final T result = (T) Map.of("success", true);
+      return result;
+    }
+
+    void awaitCallStarted() throws InterruptedException {
+      assertThat(startedCalls.poll(5, TimeUnit.SECONDS)).isNotNull();
+    }
+
+    void release() {
+      released.countDown();
+    }
+  }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * This file is dual-licensed under either the MIT license or Apache License 2.0.
+ * See the LICENSE-MIT and LICENSE-APACHE files in the repository root for details.
+ *
+ * SPDX-License-Identifier: MIT OR Apache-2.0
+ */
+
+package net.consensys.linea.credible;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.consensys.linea.credible.SidecarApiModels.CredibleLayerMethods;
+import net.consensys.linea.credible.SidecarApiModels.TransactionResult;
+import net.consensys.linea.credible.SidecarApiModels.TransactionStatus;
+import net.consensys.linea.credible.SidecarApiModels.TxEnv;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SidecarTransportTest {
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private StubSidecar stubSidecar;
+  private SidecarTransport transport;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    stubSidecar = new StubSidecar();
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (transport != null) {
+      transport.close();
+    }
+    stubSidecar.stop();
+  }
+
+  @Test
+  void resultsAreCorrelatedByTxHash() {
+    transport = newTransport(16, 5, 5_000);
+    stubSidecar.statuses.put(hash(1), TransactionStatus.ASSERTION_FAILED);
+    stubSidecar.statuses.put(hash(2), TransactionStatus.FAILED);
+
+    for (int i = 0; i < 4; i++) {
+      transport.submit(hash(i), new TxEnv());
+    }
+
+    assertThat(transport.awaitResult(hash(3)))
+        .hasValueSatisfying(r -> assertThat(r.getStatus()).isEqualTo(TransactionStatus.SUCCESS));
+    assertThat(transport.awaitResult(hash(2)))
+        .hasValueSatisfying(r -> assertThat(r.getStatus()).isEqualTo(TransactionStatus.FAILED));
+    assertThat(transport.awaitResult(hash(1)))
+        .hasValueSatisfying(
+            r -> assertThat(r.getStatus()).isEqualTo(TransactionStatus.ASSERTION_FAILED));
+    assertThat(transport.awaitResult(hash(0)))
+        .hasValueSatisfying(r -> assertThat(r.getHash()).isEqualTo(hash(0)));
+    assertThat(transport.pendingResultsCount()).isZero();
+    // all the transactions fit in the same batch
+    assertThat(stubSidecar.httpRequests.get()).isEqualTo(1);
+  }
+
+  @Test
+  void notYetProcessedTransactionsArePolledAgain() {
+    transport = newTransport(16, 1, 5_000);
+    stubSidecar.notFoundResponses.put(hash(1), new AtomicInteger(3));
+
+    transport.submit(hash(1), new TxEnv());
+
+    assertThat(transport.awaitResult(hash(1)))
+        .hasValueSatisfying(r -> assertThat(r.getStatus()).isEqualTo(TransactionStatus.SUCCESS));
+    assertThat(stubSidecar.sentTransactions).containsExactly(hash(1));
+    assertThat(stubSidecar.httpRequests.get()).isEqualTo(4);
+  }
+
+  @Test
+  void resultIsNotAwaitedPastTheDeadline() {
+    transport = newTransport(16, 1, 100);
+    stubSidecar.latencyMillis = 2_000;
+
+    transport.submit(hash(1), new TxEnv());
+
+    final long start = System.nanoTime();
+    assertThat(transport.awaitResult(hash(1))).isEmpty();
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1_000);
+    // once the deadline is elapsed the lookup returns immediately
+    assertThat(transport.awaitResult(hash(1))).isEmpty();
+  }
+
+  @Test
+  void unknownTransactionHasNoResult() {
+    transport = newTransport(16, 1, 1000);
+
+    assertThat(transport.awaitResult(hash(42))).isEmpty();
+  }
+
+  @Test
+  void pollsOfNotYetProcessedTransactionsBackOff() {
+    transport = newTransport(16, 1, 10, 1_000);
+    stubSidecar.notFoundResponses.put(hash(1), new AtomicInteger(Integer.MAX_VALUE));
+
+    transport.submit(hash(1), new TxEnv());
+
+    assertThat(transport.awaitResult(hash(1))).isEmpty();
+    // polled after 10, 20, 40 then every 80 ms until the deadline, instead of every ms
+    assertThat(stubSidecar.httpRequests.get()).isBetween(4, 20);
+  }
+
+  private SidecarTransport newTransport(
+      final int batchSize, final long flushIntervalMillis, final long deadlineMillis) {
+    return newTransport(batchSize, flushIntervalMillis, 1, deadlineMillis);
+  }
+
+  private SidecarTransport newTransport(
+      final int batchSize,
+      final long flushIntervalMillis,
+      final long resultPollIntervalMillis,
+      final long deadlineMillis) {
+    return new SidecarTransport(
+        new SidecarClient.Builder().baseUrl(stubSidecar.url()).build(),
+        batchSize,
+        flushIntervalMillis,
+        resultPollIntervalMillis,
+        deadlineMillis);
+  }
+
+  private static String hash(final int i) {
+    return String.format("0x%064x", i);
+  }
+
+  /**
+   * Local stub of the Credible Layer sidecar, answering sendTransactions and getTransactions, in
+   * single or batch requests, after a configurable latency.
+   */
+  private static class StubSidecar {
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    final Map<String, String> statuses = new ConcurrentHashMap<>();
+    final Map<String, AtomicInteger> notFoundResponses = new ConcurrentHashMap<>();
+    final Set<String> sentTransactions = ConcurrentHashMap.newKeySet();
+    final AtomicInteger httpRequests = new AtomicInteger();
+    volatile long latencyMillis = 0;
+
+    StubSidecar() throws IOException {
+      // small responses are otherwise delayed by Nagle's algorithm
+      System.setProperty("sun.net.httpserver.nodelay", "true");
+      server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+      server.createContext("/", this::handle);
+      server.setExecutor(executor);
+      server.start();
+    }
+
+    String url() {
+      return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    void stop() {
+      server.stop(0);
+      executor.shutdownNow();
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+      httpRequests.incrementAndGet();
+      final JsonNode request = OBJECT_MAPPER.readTree(exchange.getRequestBody());
+      final JsonNode response;
+      if (request.isArray()) {
+        final ArrayNode responses = OBJECT_MAPPER.createArrayNode();
+        request.forEach(r -> responses.add(respond(r)));
+        response = responses;
+      } else {
+        response = respond(request);
+      }
+      try {
+        Thread.sleep(latencyMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      final byte[] body = OBJECT_MAPPER.writeValueAsBytes(response);
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, body.length);
+      exchange.getResponseBody().write(body);
+      exchange.close();
+    }
+
+    private ObjectNode respond(final JsonNode request) {
+      final ObjectNode response = OBJECT_MAPPER.createObjectNode();
+      response.put("jsonrpc", "2.0");
+      response.set("id", request.get("id"));
+      final JsonNode params = request.get("params");
+      switch (request.get("method").asText()) {
+        case CredibleLayerMethods.SEND_TRANSACTIONS -> {
+          final var queued = OBJECT_MAPPER.createArrayNode();
+          params
+              .get("transactions")
+              .forEach(
+                  tx -> {
+                    sentTransactions.add(tx.get("hash").asText());
+                    queued.add(tx.get("hash").asText());
+                  });
+          response.putObject("result").set("queued", queued);
+        }
+        case CredibleLayerMethods.GET_TRANSACTIONS -> {
+          final var results = OBJECT_MAPPER.createArrayNode();
+          final var notFound = OBJECT_MAPPER.createArrayNode();
+          params
+              .get("hashes")
+              .forEach(
+                  hashNode -> {
+                    final String txHash = hashNode.asText();
+                    final var remainingNotFound = notFoundResponses.get(txHash);
+                    if (remainingNotFound != null && remainingNotFound.getAndDecrement() > 0) {
+                      notFound.add(txHash);
+                    } else {
+                      results.add(
+                          OBJECT_MAPPER.valueToTree(
+                              new TransactionResult(
+                                  txHash,
+                                  statuses.getOrDefault(txHash, TransactionStatus.SUCCESS),
+                                  21_000L,
+                                  null)));
+                    }
+                  });
+          final var result = response.putObject("result");
+          result.set("results", results);
+          result.set("not_found", notFound);
+        }
+        default ->
+            response.putObject("error").put("code", -32601).put("message", "Method not found");
+      }
+      return response;
+    }
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * This file is dual-licensed under either the MIT license or Apache License 2.0.
+ * See the LICENSE-MIT and LICENSE-APACHE files in the repository root for details.
+ *
+ * SPDX-License-Identifier: MIT OR Apache-2.0
+ */
+
+package net.consensys.linea.extradata;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.doubleThat;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import net.consensys.linea.config.LineaProfitabilityConfiguration;
+import net.consensys.linea.metrics.HistogramMetrics;
+import org.apache.tuweni.bytes.Bytes;
+import org.hyperledger.besu.datatypes.Wei;
+import org.hyperledger.besu.plugin.services.RpcEndpointService;
+import org.hyperledger.besu.plugin.services.rpc.PluginRpcRequest;
+import org.hyperledger.besu.plugin.services.rpc.PluginRpcResponse;
+import org.hyperledger.besu.plugin.services.rpc.RpcResponseType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MinGasPriceApplierTest {
+  private static final long SET_MIN_GAS_PRICE_LATENCY_MILLIS = 200;
+
+  private FakeRpcEndpointService rpcEndpointService;
+  private HistogramMetrics applyLagMetrics;
+  private MinGasPriceApplier applier;
+
+  @BeforeEach
+  void setUp() {
+    rpcEndpointService = new FakeRpcEndpointService(SET_MIN_GAS_PRICE_LATENCY_MILLIS);
+    applyLagMetrics = mock(HistogramMetrics.class);
+    applier = new MinGasPriceApplier(rpcEndpointService, Optional.of(applyLagMetrics));
+  }
+
+  @AfterEach
+  void tearDown() {
+    applier.close();
+  }
+
+  @Test
+  void blockImportIsNotDelayedBySetMinGasPrice() {
+    final var profitabilityConf =
+        LineaProfitabilityConfiguration.builder().extraDataSetMinGasPriceEnabled(true).build();
+    final var extraDataHandler =
+        LineaExtraDataHandler.settingMinGasPriceAsync(
+            rpcEndpointService, profitabilityConf, Optional.of(applier));
+    final int blockCount = 20;
+
+    for (int blockNumber = 1; blockNumber <= blockCount; blockNumber++) {
+      extraDataHandler.handle(extraData(blockNumber));
+      // the handling returns before the min gas price is set
+      assertThat(rpcEndpointService.minGasPrices).hasSizeLessThan(blockNumber);
+      // blocks are imported faster than the min gas price is set
+      sleep(10);
+    }
+
+    // the pricing conf is still updated as part of the handling
+    assertThat(profitabilityConf.ethGasPriceWei()).isEqualTo(blockCount * 1_000L);
+
+    // intermediate values are skipped, and the latest one is eventually set
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .until(() -> applier.appliedCount() + applier.coalescedCount() == blockCount);
+    assertThat(applier.coalescedCount()).isPositive();
+    assertThat(rpcEndpointService.minGasPrices)
+        .hasSizeLessThan(blockCount)
+        .last()
+        .isEqualTo(Wei.of(blockCount * 1_000L).toShortHexString());
+  }
+
+  @Test
+  void unchangedMinGasPriceIsNotSetAgain() {
+    for (int i = 1; i <= 3; i++) {
+      applier.submit(Wei.of(1_000));
+      final int submitted = i;
+      await()
+          .atMost(Duration.ofSeconds(5))
+          .until(() -> applier.appliedCount() + applier.unchangedCount() == submitted);
+    }
+
+    assertThat(rpcEndpointService.minGasPrices).containsExactly(Wei.of(1_000).toShortHexString());
+    assertThat(applier.appliedCount()).isEqualTo(1);
+    assertThat(applier.unchangedCount()).isEqualTo(2);
+  }
+
+  @Test
+  void failedSetMinGasPriceIsRetriedOnNextUpdate() {
+    rpcEndpointService.failNextCall.set(true);
+    applier.submit(Wei.of(1_000));
+    await().atMost(Duration.ofSeconds(5)).until(() -> applier.failedCount() == 1);
+    verify(applyLagMetrics, never()).track(doubleThat(lag -> true));
+
+    // the same value is set again, since it was not applied
+    applier.submit(Wei.of(1_000));
+    await().atMost(Duration.ofSeconds(5)).until(() -> applier.appliedCount() == 1);
+
+    assertThat(rpcEndpointService.minGasPrices)
+        .containsExactly(Wei.of(1_000).toShortHexString(), Wei.of(1_000).toShortHexString());
+  }
+
+  @Test
+  void minGasPriceSetViaRpcIsNotSkippedByTheNextImportedBlock() {
+    final var profitabilityConf =
+        LineaProfitabilityConfiguration.builder().extraDataSetMinGasPriceEnabled(true).build();
+    final var rpcExtraDataHandler =
+        LineaExtraDataHandler.settingMinGasPriceSync(
+            rpcEndpointService, profitabilityConf, () -> Optional.of(applier));
+    applier.submit(Wei.of(1_000));
+    await().atMost(Duration.ofSeconds(5)).until(() -> applier.appliedCount() == 1);
+
+    // linea_setExtraData sets the min gas price synchronously
+    rpcExtraDataHandler.handle(extraData(2));
+    assertThat(rpcEndpointService.minGasPrices)
+        .containsExactly(Wei.of(1_000).toShortHexString(), Wei.of(2_000).toShortHexString());
+
+    // the next imported block sets back the value last applied from a block
+    applier.submit(Wei.of(1_000));
+    await().atMost(Duration.ofSeconds(5)).until(() -> applier.appliedCount() == 3);
+    assertThat(applier.unchangedCount()).isZero();
+    assertThat(rpcEndpointService.minGasPrices).last().isEqualTo(Wei.of(1_000).toShortHexString());
+  }
+
+  @Test
+  void failedSetMinGasPriceViaRpcIsReported() {
+    rpcEndpointService.failNextCall.set(true);
+
+    assertThatThrownBy(() -> applier.apply(Wei.of(1_000)))
+        .isInstanceOf(LineaExtraDataException.class)
+        .extracting(e -> ((LineaExtraDataException) e).getErrorType())
+        .isEqualTo(LineaExtraDataException.ErrorType.FAILED_CALLING_SET_MIN_GAS_PRICE);
+    assertThat(applier.failedCount()).isEqualTo(1);
+
+    // the value is unknown after a failure, so the same value is set again
+    applier.submit(Wei.of(1_000));
+    await().atMost(Duration.ofSeconds(5)).until(() -> applier.appliedCount() == 1);
+  }
+
+  @Test
+  void applyLagIsTracked() {
+    applier.submit(Wei.of(1_000));
+    await().atMost(Duration.ofSeconds(5)).until(() -> applier.appliedCount() == 1);
+
+    verify(applyLagMetrics, atLeastOnce())
+        .track(doubleThat(lag -> lag >= SET_MIN_GAS_PRICE_LATENCY_MILLIS / 1_000.0));
+  }
+
+  private static Bytes extraData(final long ethGasPriceKWei) {
+    // version 1, fixed cost, variable cost, eth gas price
+    return Bytes.concatenate(
+        Bytes.of(1),
+        Bytes.ofUnsignedInt(1),
+        Bytes.ofUnsignedInt(2),
+        Bytes.ofUnsignedInt(ethGasPriceKWei));
+  }
+
+  private static void sleep(final long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** Answers the set min gas price calls after a fixed latency, recording the values set */
+  private static class FakeRpcEndpointService implements RpcEndpointService {
+    private final long latencyMillis;
+    private final List<String> minGasPrices = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean failNextCall = new AtomicBoolean(false);
+
+    FakeRpcEndpointService(final long latencyMillis) {
+      this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public <T> void registerRPCEndpoint(
+        final String namespace,
+        final String functionName,
+        final Function<PluginRpcRequest, T> function) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public PluginRpcResponse call(final String methodName, final Object[] params) {
+      assertThat(methodName).isEqualTo("miner_setMinGasPrice");
+      sleep(latencyMillis);
+      minGasPrices.add((String) params[0]);
+      final var response = mock(PluginRpcResponse.class);
+      when(response.getType())
+          .thenReturn(
+              failNextCall.getAndSet(false) ? RpcResponseType.ERROR : RpcResponseType.SUCCESS);
+      return response;
+    }
+  }
+}
@@ -10,7 +10,11 @@ package net.consensys.linea.sequencer.modulelimit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import org.junit.jupiter.api.Test;
 
 class ModuleLineCountValidatorTest {
@@ -68,4 +72,81 @@ class ModuleLineCountValidatorTest {
     assertThat(moduleLineCountValidator.validate(lineCountTx, lineCountTx))
         .isEqualTo(ModuleLimitsValidationResult.invalidLineCount("MOD2", -2));
   }
+
+  @Test
+  void arrayValidationIsIndexedAsTheLimits() {
+    final var moduleLineLimits = ModuleLineLimits.fromMap(Map.of("MOD3", 3, "MOD1", 1, "MOD2", 2));
+    final var moduleLineCountValidator = new ModuleLineCountValidator(moduleLineLimits);
+
+    final int[] prevLineCounts = moduleLineLimits.lineCounts(Map.of("MOD1", 1, "MOD2", 1));
+    final int[] lineCounts = moduleLineLimits.lineCounts(Map.of("MOD1", 1, "MOD2", 1, "MOD3", 4));
+
+    assertThat(moduleLineCountValidator.validate(lineCounts, prevLineCounts))
+        .isEqualTo(ModuleLimitsValidationResult.txModuleLineCountOverflow("MOD3", 4, 3, 4, 3));
+  }
+
+  /**
+   * Compares the validation of the line counts of all the modules, for a block of txs, between the
+   * map based validation it replaced and the array based one.
+   */
+  @Test
+  void arrayValidationMatchesMapValidation() {
+    final int moduleCount = 50;
+    final int txCount = 1_000;
+    final Random random = new Random(42);
+    final Map<String, Integer> limits = new HashMap<>();
+    for (int i = 0; i < moduleCount; i++) {
+      limits.put("MOD" + i, 200_000 + random.nextInt(200_000));
+    }
+    final var moduleLineLimits = ModuleLineLimits.fromMap(limits);
+    final var moduleLineCountValidator = new ModuleLineCountValidator(moduleLineLimits);
+
+    final List<Map<String, Integer>> lineCountMaps = new ArrayList<>(txCount + 1);
+    final Map<String, Integer> cumulatedLineCounts = new HashMap<>();
+    limits.keySet().forEach(module -> cumulatedLineCounts.put(module, 0));
+    for (int tx = 0; tx <= txCount; tx++) {
+      cumulatedLineCounts.replaceAll((module, count) -> count + random.nextInt(1_000));
+      lineCountMaps.add(Map.copyOf(cumulatedLineCounts));
+    }
+
+    int validCount = 0;
+    for (int tx = 1; tx <= txCount; tx++) {
+      final boolean mapValid =
+          mapValidate(limits, lineCountMaps.get(tx), lineCountMaps.get(tx - 1));
+      final boolean arrayValid =
+          moduleLineCountValidator
+              .validate(
+                  moduleLineLimits.lineCounts(lineCountMaps.get(tx)),
+                  moduleLineLimits.lineCounts(lineCountMaps.get(tx - 1)))
+              .equals(ModuleLimitsValidationResult.VALID);
+      assertThat(arrayValid).as("tx %d", tx).isEqualTo(mapValid);
+      if (arrayValid) {
+        validCount++;
+      }
+    }
+    // the block fills up along the way, so both outcomes are compared
+    assertThat(validCount).isGreaterThan(0).isLessThan(txCount);
+  }
+
+  /** The map based validation, as it was before the limits table */
+  private static boolean mapValidate(
+      final Map<String, Integer> limits,
+      final Map<String, Integer> currentLineCounts,
+      final Map<String, Integer> prevLineCounts) {
+    for (Map.Entry<String, Integer> moduleEntry : currentLineCounts.entrySet()) {
+      final int currentLineCount = moduleEntry.getValue();
+      if (currentLineCount < 0) {
+        return false;
+      }
+      final Integer limit = limits.get(moduleEntry.getKey());
+      if (limit == null) {
+        return false;
+      }
+      final int txLineCount = currentLineCount - prevLineCounts.get(moduleEntry.getKey());
+      if (txLineCount > limit || currentLineCount > limit) {
+        return false;
+      }
+    }
+    return true;
+  }
 }
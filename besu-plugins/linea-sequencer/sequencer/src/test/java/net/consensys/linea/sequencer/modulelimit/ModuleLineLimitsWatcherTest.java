@@ -0,0 +1,101 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * This file is dual-licensed under either the MIT license or Apache License 2.0.
+ * See the LICENSE-MIT and LICENSE-APACHE files in the repository root for details.
+ *
+ * SPDX-License-Identifier: MIT OR Apache-2.0
+ */
+package net.consensys.linea.sequencer.modulelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.awaitility.Awaitility.await;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ModuleLineLimitsWatcherTest {
+  private static final Map<String, Integer> INITIAL_LIMITS = Map.of("MOD1", 1, "MOD2", 2);
+
+  @TempDir Path tempDir;
+  private Path limitsFilePath;
+  private ModuleLineLimitsWatcher watcher;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    limitsFilePath = tempDir.resolve("line-limits.toml");
+    writeLimits("MOD1 = 1\nMOD2 = 2\n");
+    watcher = new ModuleLineLimitsWatcher(limitsFilePath.toString(), INITIAL_LIMITS);
+  }
+
+  @AfterEach
+  void tearDown() {
+    watcher.close();
+  }
+
+  @Test
+  void reloadSwapsTheLimits() throws IOException {
+    final var initialLimits = watcher.get();
+    writeLimits("MOD1 = 10\nMOD2 = 2\nMOD3 = 3\n");
+
+    assertThat(watcher.reload()).isTrue();
+
+    assertThat(watcher.get().toMap())
+        .containsExactly(entry("MOD1", 10), entry("MOD2", 2), entry("MOD3", 3));
+    // the previous table is left untouched for who is still using it
+    assertThat(initialLimits.toMap()).isEqualTo(INITIAL_LIMITS);
+  }
+
+  @Test
+  void unchangedLimitsAreNotSwapped() {
+    final var initialLimits = watcher.get();
+
+    assertThat(watcher.reload()).isFalse();
+
+    assertThat(watcher.get()).isSameAs(initialLimits);
+  }
+
+  @Test
+  void invalidFileKeepsTheCurrentLimits() throws IOException {
+    final var initialLimits = watcher.get();
+    writeLimits("MOD1 = \n");
+
+    assertThat(watcher.reload()).isFalse();
+
+    assertThat(watcher.get()).isSameAs(initialLimits);
+  }
+
+  @Test
+  void fileWithoutAllTheModulesKeepsTheCurrentLimits() throws IOException {
+    final var initialLimits = watcher.get();
+    writeLimits("MOD1 = 10\n");
+
+    assertThat(watcher.reload()).isFalse();
+
+    assertThat(watcher.get()).isSameAs(initialLimits);
+  }
+
+  @Test
+  void fileChangeIsPickedUp() throws IOException {
+    watcher.start();
+
+    writeLimits("MOD1 = 1\nMOD2 = 20\n");
+
+    // the polling interval of the watch service can be up to 10 seconds on some platforms
+    await()
+        .atMost(Duration.ofSeconds(30))
+        .untilAsserted(() -> assertThat(watcher.get().toMap()).containsEntry("MOD2", 20));
+  }
+
+  private void writeLimits(final String limits) throws IOException {
+    Files.writeString(limitsFilePath, "[traces-limits]\n" + limits);
+  }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * This file is dual-licensed under either the MIT license or Apache License 2.0.
+ * See the LICENSE-MIT and LICENSE-APACHE files in the repository root for details.
+ *
+ * SPDX-License-Identifier: MIT OR Apache-2.0
+ */
+
+package net.consensys.linea.sequencer.txpoolvalidation.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import net.consensys.linea.config.LineaProfitabilityCliOptions;
+import net.consensys.linea.config.LineaProfitabilityConfiguration;
+import net.consensys.linea.metrics.LineaMetricCategory;
+import org.apache.tuweni.bytes.Bytes;
+import org.bouncycastle.asn1.sec.SECNamedCurves;
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.params.ECDomainParameters;
+import org.hyperledger.besu.crypto.SECPSignature;
+import org.hyperledger.besu.datatypes.Address;
+import org.hyperledger.besu.datatypes.PendingTransaction;
+import org.hyperledger.besu.datatypes.Wei;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.plugin.services.BesuConfiguration;
+import org.hyperledger.besu.plugin.services.BlockchainService;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Histogram;
+import org.hyperledger.besu.plugin.services.metrics.LabelledMetric;
+import org.hyperledger.besu.plugin.services.metrics.LabelledSuppliedMetric;
+import org.hyperledger.besu.plugin.services.transactionpool.TransactionPoolService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TransactionPoolProfitabilityMetricsTest {
+  private static final Address RECIPIENT =
+      Address.fromHexString("0x0000000000000000000000000000000000001001");
+  private static final SECPSignature FAKE_SIGNATURE;
+
+  static {
+    final X9ECParameters params = SECNamedCurves.getByName("secp256k1");
+    final ECDomainParameters curve =
+        new ECDomainParameters(params.getCurve(), params.getG(), params.getN(), params.getH());
+    FAKE_SIGNATURE =
+        SECPSignature.create(
+            new BigInteger(
+                "66397251408932042429874251838229702988618145381408295790259650671563847073199"),
+            new BigInteger(
+                "24729624138373455972486746091821238755870276413282629437244319694880507882088"),
+            (byte) 0,
+            curve.getN());
+  }
+
+  // with no variable cost, the profitable priority fee is txPoolMinMargin * fixedCostWei
+  private static final long FIXED_COST_WEI = 1_000_000_000L;
+  private static final double TX_POOL_MIN_MARGIN = 0.5;
+  private static final long PROFITABLE_PRIORITY_FEE = 500_000_000L;
+  // 0.1, 0.3, 0.5, 0.7, 0.9, 1.0, 1.1, 1.2, 1.5, 2.0, 5.0, 10.0, +Inf
+  private static final int BUCKET_COUNT =
+      LineaProfitabilityCliOptions.DEFAULT_PROFITABILITY_METRICS_BUCKETS.length + 1;
+
+  private final LineaProfitabilityConfiguration profitabilityConf =
+      LineaProfitabilityCliOptions.create().toDomainObject().toBuilder()
+          .txPoolMinMargin(TX_POOL_MIN_MARGIN)
+          .extraDataPricingEnabled(true)
+          .fixedCostWei(FIXED_COST_WEI)
+          .variableCostWei(0)
+          .build();
+  private final BesuConfiguration besuConfiguration = mock(BesuConfiguration.class);
+  private final BlockchainService blockchainService = mock(BlockchainService.class);
+  private final TransactionPoolService transactionPoolService = mock(TransactionPoolService.class);
+  private final MetricsSystem metricsSystem = mock(MetricsSystem.class);
+  private final List<PendingTransaction> poolContent = new ArrayList<>();
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+  private TransactionPoolProfitabilityMetrics metrics;
+  private long nonce = 0;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    when(besuConfiguration.getMinGasPrice()).thenReturn(Wei.of(1_000_000));
+    setNextBlockBaseFee(0);
+    when(transactionPoolService.getPendingTransactions()).thenAnswer(i -> poolContent);
+
+    final LabelledMetric<Histogram> histogram = mock(LabelledMetric.class);
+    when(histogram.labels(any(String[].class))).thenReturn(mock(Histogram.class));
+    when(metricsSystem.createLabelledHistogram(
+            any(LineaMetricCategory.class),
+            anyString(),
+            anyString(),
+            any(double[].class),
+            any(String[].class)))
+        .thenReturn(histogram);
+    when(metricsSystem.createLabelledSuppliedGauge(
+            any(LineaMetricCategory.class), anyString(), anyString(), any(String[].class)))
+        .thenReturn(mock(LabelledSuppliedMetric.class));
+
+    metrics =
+        new TransactionPoolProfitabilityMetrics(
+            besuConfiguration,
+            metricsSystem,
+            profitabilityConf,
+            transactionPoolService,
+            blockchainService,
+            executor);
+  }
+
+  @AfterEach
+  void tearDown() {
+    metrics.close();
+  }
+
+  @Test
+  void addedTransactionsAreCountedInTheirRatioBucket() throws Exception {
+    metrics.onTransactionAdded(legacyTx(ratioToGasPrice(0.2)));
+    metrics.onTransactionAdded(legacyTx(ratioToGasPrice(1.0)));
+    metrics.onTransactionAdded(legacyTx(ratioToGasPrice(3.0)));
+    metrics.onTransactionAdded(eip1559Tx(ratioToGasPrice(3.0), ratioToGasPrice(20)));
+    metrics.onTransactionAdded(legacyTx(ratioToGasPrice(20)));
+
+    awaitPoolEvents(executor);
+    assertThat(metrics.poolBucketCounts()).containsExactly(bucketCounts(1, 1, 5, 1, 10, 2, 12, 1));
+  }
+
+  @Test
+  void droppedAndConfirmedTransactionsAreNoLongerCounted() throws Exception {
+    final var dropped = legacyTx(ratioToGasPrice(0.2));
+    final var confirmed = legacyTx(ratioToGasPrice(1.0));
+    final var remaining = legacyTx(ratioToGasPrice(3.0));
+    metrics.onTransactionAdded(dropped);
+    metrics.onTransactionAdded(confirmed);
+    metrics.onTransactionAdded(remaining);
+
+    metrics.onTransactionDropped(dropped);
+    // dropping twice must not decrement the count twice
+    metrics.onTransactionDropped(dropped);
+    metrics.update(List.of(confirmed));
+
+    awaitPoolEvents(executor);
+    assertThat(metrics.trackedTransactionsCount()).isEqualTo(1);
+    assertThat(metrics.poolBucketCounts()).containsExactly(bucketCounts(10, 1));
+  }
+
+  @Test
+  void refreshMovesTransactionsToTheBucketOfTheNewBaseFee() throws Exception {
+    metrics.onTransactionAdded(legacyTx(ratioToGasPrice(1.0)));
+    metrics.onTransactionAdded(legacyTx(ratioToGasPrice(3.0)));
+    // priority fee is capped by the max fee
+    metrics.onTransactionAdded(eip1559Tx(ratioToGasPrice(1.0), ratioToGasPrice(1.0)));
+    awaitPoolEvents(executor);
+
+    setNextBlockBaseFee(PROFITABLE_PRIORITY_FEE / 10);
+    metrics.update(List.of());
+
+    awaitPoolEvents(executor);
+    // legacy: (gasPrice - baseFee) / profitable fee
+    // eip1559: min(maxPriorityFee + baseFee, maxFee) / profitable fee
+    assertThat(metrics.poolBucketCounts()).containsExactly(bucketCounts(4, 1, 5, 1, 10, 1));
+  }
+
+  @Test
+  void transactionsAlreadyInThePoolAreLoadedOnFirstRefresh() throws Exception {
+    final var alreadyTracked = legacyTx(ratioToGasPrice(0.2));
+    metrics.onTransactionAdded(alreadyTracked);
+    poolContent.add(pendingTransaction(alreadyTracked));
+    poolContent.add(pendingTransaction(legacyTx(ratioToGasPrice(20))));
+
+    metrics.update();
+    metrics.update();
+
+    awaitPoolEvents(executor);
+    assertThat(metrics.trackedTransactionsCount()).isEqualTo(2);
+    assertThat(metrics.poolBucketCounts()).containsExactly(bucketCounts(1, 1, 12, 1));
+  }
+
+  @Test
+  void poolEventsAreHandledInTheBackground() throws Exception {
+    final var blockedExecutor = Executors.newSingleThreadExecutor();
+    final var metrics =
+        new TransactionPoolProfitabilityMetrics(
+            besuConfiguration,
+            metricsSystem,
+            profitabilityConf,
+            transactionPoolService,
+            blockchainService,
+            blockedExecutor);
+    final var unblock = new CountDownLatch(1);
+    blockedExecutor.execute(
+        () -> {
+          try {
+            unblock.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        });
+
+    // the listeners return while the executor is busy
+    metrics.onTransactionAdded(legacyTx(ratioToGasPrice(1.0)));
+    metrics.update(List.of());
+    assertThat(metrics.poolBucketCounts()).containsExactly(bucketCounts());
+
+    unblock.countDown();
+    awaitPoolEvents(blockedExecutor);
+    assertThat(metrics.poolBucketCounts()).containsExactly(bucketCounts(5, 1));
+    metrics.close();
+  }
+
+  /** Waits for the pool events handed over to the executor to be handled */
+  private static void awaitPoolEvents(final ExecutorService executor) throws Exception {
+    executor.submit(() -> {}).get(5, TimeUnit.SECONDS);
+  }
+
+  private void setNextBlockBaseFee(final long baseFee) {
+    when(blockchainService.getNextBlockBaseFee()).thenReturn(Optional.of(Wei.of(baseFee)));
+  }
+
+  private static long ratioToGasPrice(final double ratio) {
+    return (long) (ratio * PROFITABLE_PRIORITY_FEE);
+  }
+
+  private static long[] bucketCounts(final long... bucketAndCountPairs) {
+    final long[] counts = new long[BUCKET_COUNT];
+    for (int i = 0; i < bucketAndCountPairs.length; i += 2) {
+      counts[(int) bucketAndCountPairs[i]] = bucketAndCountPairs[i + 1];
+    }
+    return counts;
+  }
+
+  private Transaction legacyTx(final long gasPrice) {
+    return Transaction.builder()
+        .nonce(nonce++)
+        .to(RECIPIENT)
+        .gasLimit(21000)
+        .gasPrice(Wei.of(gasPrice))
+        .payload(Bytes.EMPTY)
+        .value(Wei.ONE)
+        .signature(FAKE_SIGNATURE)
+        .build();
+  }
+
+  private Transaction eip1559Tx(final long maxPriorityFeePerGas, final long maxFeePerGas) {
+    return Transaction.builder()
+        .chainId(BigInteger.valueOf(59144))
+        .nonce(nonce++)
+        .to(RECIPIENT)
+        .gasLimit(21000)
+        .maxPriorityFeePerGas(Wei.of(maxPriorityFeePerGas))
+        .maxFeePerGas(Wei.of(maxFeePerGas))
+        .payload(Bytes.EMPTY)
+        .value(Wei.ONE)
+        .signature(FAKE_SIGNATURE)
+        .build();
+  }
+
+  private static PendingTransaction pendingTransaction(final Transaction tx) {
+    final var pendingTransaction = mock(PendingTransaction.class);
+    when(pendingTransaction.getTransaction()).thenReturn(tx);
+    return pendingTransaction;
+  }
+}
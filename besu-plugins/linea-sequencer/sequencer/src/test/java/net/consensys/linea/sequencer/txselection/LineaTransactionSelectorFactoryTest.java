@@ -31,6 +31,7 @@ import net.consensys.linea.config.LineaTracerConfiguration;
 import net.consensys.linea.config.LineaTransactionSelectorConfiguration;
 import net.consensys.linea.plugins.config.LineaL1L2BridgeSharedConfiguration;
 import net.consensys.linea.sequencer.modulelimit.ModuleLineCountValidator;
+import net.consensys.linea.sequencer.modulelimit.ModuleLineLimits;
 import net.consensys.linea.sequencer.txselection.selectors.TraceLineLimitTransactionSelectorTest;
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.bytes.Bytes32;
@@ -112,10 +113,13 @@ class LineaTransactionSelectorFactoryTest {
             l1L2BridgeConfiguration,
             mockProfitabilityConfiguration,
             lineaTracerConfiguration,
+            () -> ModuleLineLimits.fromMap(lineaTracerConfiguration.moduleLimitsMap()),
             Optional.empty(),
             Optional.empty(),
             Optional.empty(),
-            bundlePool);
+            Optional.empty(),
+            bundlePool,
+            Optional.empty());
     factory.create(new SelectorsStateManager());
   }
 
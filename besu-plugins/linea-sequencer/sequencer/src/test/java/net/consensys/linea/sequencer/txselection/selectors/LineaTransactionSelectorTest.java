@@ -0,0 +1,340 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * This file is dual-licensed under either the MIT license or Apache License 2.0.
+ * See the LICENSE-MIT and LICENSE-APACHE files in the repository root for details.
+ *
+ * SPDX-License-Identifier: MIT OR Apache-2.0
+ */
+package net.consensys.linea.sequencer.txselection.selectors;
+
+import static net.consensys.linea.sequencer.txselection.LineaTransactionSelectionResult.TX_MODULE_LINE_COUNT_OVERFLOW_CACHED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hyperledger.besu.plugin.data.TransactionSelectionResult.SELECTED;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import net.consensys.linea.bundles.TransactionBundle;
+import net.consensys.linea.config.LineaProfitabilityCliOptions;
+import net.consensys.linea.config.LineaProfitabilityConfiguration;
+import net.consensys.linea.config.LineaTracerConfiguration;
+import net.consensys.linea.config.LineaTransactionSelectorConfiguration;
+import net.consensys.linea.metrics.HistogramMetrics;
+import net.consensys.linea.plugins.config.LineaL1L2BridgeSharedConfiguration;
+import net.consensys.linea.sequencer.modulelimit.ModuleLineCountValidator;
+import net.consensys.linea.sequencer.modulelimit.ModuleLineLimits;
+import net.consensys.linea.sequencer.txselection.selectors.LineaTransactionSelector.Result;
+import net.consensys.linea.sequencer.txselection.selectors.LineaTransactionSelector.Selector;
+import net.consensys.linea.sequencer.txselection.selectors.ProfitableTransactionSelector.Phase;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.hyperledger.besu.datatypes.Address;
+import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.datatypes.PendingTransaction;
+import org.hyperledger.besu.datatypes.Wei;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.plugin.data.ProcessableBlockHeader;
+import org.hyperledger.besu.plugin.data.TransactionProcessingResult;
+import org.hyperledger.besu.plugin.data.TransactionSelectionResult;
+import org.hyperledger.besu.plugin.services.BlockchainService;
+import org.hyperledger.besu.plugin.services.txselection.SelectorsStateManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LineaTransactionSelectorTest {
+  private static final String MODULE_LINE_LIMITS_RESOURCE_NAME = "/sequencer/line-limits.toml";
+  private static final Wei BASE_FEE = Wei.of(7);
+  private static final Wei MIN_GAS_PRICE = Wei.of(1_000_000_000);
+  private static final Wei PROFITABLE_GAS_PRICE = Wei.of(1_100_000_000);
+  private static final Wei UNPROFITABLE_GAS_PRICE = Wei.of(1_000_010);
+  private static final int ENCODED_TX_SIZE = 1_000;
+  private static final long GAS_USED = 21_000;
+  private final Random random = new Random(42);
+  private final LineaProfitabilityConfiguration profitabilityConf =
+      LineaProfitabilityCliOptions.create().toDomainObject().toBuilder()
+          .minMargin(1.5)
+          .fixedCostWei(600_000)
+          .variableCostWei(1_000_000)
+          .build();
+  private final LineaTransactionSelectorConfiguration txSelectorConf =
+      LineaTransactionSelectorConfiguration.builder()
+          .maxBlockCallDataSize(100_000_000)
+          .overLinesLimitCacheSize(10_000)
+          .maxGasPerBlock(10_000_000_000L)
+          .maxBundleGasPerBlock(10_000_000_000L)
+          .build();
+  private final LineaL1L2BridgeSharedConfiguration l1L2BridgeConf =
+      LineaL1L2BridgeSharedConfiguration.builder()
+          .contract(Address.fromHexString("0xDEADBEEF"))
+          .topic(Bytes.fromHexString("0x012345"))
+          .build();
+  private final HistogramMetrics selectorMetrics = mock(HistogramMetrics.class);
+  private BlockchainService blockchainService;
+  private LineaTracerConfiguration tracerConfiguration;
+
+  @TempDir static Path tempDir;
+  static Path lineLimitsConfPath;
+
+  @BeforeAll
+  public static void beforeAll() throws IOException {
+    lineLimitsConfPath = tempDir.resolve("line-limits.toml");
+    Files.copy(
+        LineaTransactionSelectorTest.class.getResourceAsStream(MODULE_LINE_LIMITS_RESOURCE_NAME),
+        lineLimitsConfPath);
+  }
+
+  @BeforeEach
+  public void initialize() {
+    tracerConfiguration =
+        LineaTracerConfiguration.builder()
+            .moduleLimitsFilePath(lineLimitsConfPath.toString())
+            .moduleLimitsMap(
+                new HashMap<>(
+                    ModuleLineCountValidator.createLimitModules(lineLimitsConfPath.toString())))
+            .build();
+    blockchainService = mock(BlockchainService.class);
+    when(blockchainService.getChainId()).thenReturn(Optional.of(BigInteger.ONE));
+    when(blockchainService.getNextBlockBaseFee()).thenReturn(Optional.of(BASE_FEE));
+    TraceLineLimitTransactionSelector.overLineCountLimitCache.clear();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    TraceLineLimitTransactionSelector.overLineCountLimitCache.clear();
+  }
+
+  @Test
+  public void allSelectorsAreTimedWhenTxIsSelected() {
+    final var selector = newSelectorForNewBlock();
+    final var evaluationContext = evaluationContext(pendingTransaction(), PROFITABLE_GAS_PRICE);
+
+    assertThat(selector.evaluateTransactionPreProcessing(evaluationContext)).isEqualTo(SELECTED);
+    assertThat(
+            selector.evaluateTransactionPostProcessing(evaluationContext, processingResult(false)))
+        .isEqualTo(SELECTED);
+
+    for (final Phase phase : Phase.values()) {
+      for (final Selector name : Selector.values()) {
+        if (name != Selector.CREDIBLE_LAYER) {
+          verify(selectorMetrics)
+              .track(anyDouble(), eq(name.value()), eq(phase.value()), eq(Result.SELECTED.value()));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void expiredBundleTxIsRejectedBeforeProfitabilityCheck() {
+    final var selector = newSelectorForNewBlock();
+    final var evaluationContext = evaluationContext(expiredBundleTx(), UNPROFITABLE_GAS_PRICE);
+
+    assertThat(selector.evaluateTransactionPreProcessing(evaluationContext))
+        .isEqualTo(TransactionSelectionResult.invalid("Failed Bundled Transaction Criteria"));
+
+    verify(selectorMetrics)
+        .track(
+            anyDouble(),
+            eq(Selector.BUNDLE_CONSTRAINT.value()),
+            eq(Phase.PRE_PROCESSING.value()),
+            eq(Result.REJECTED.value()));
+    verify(selectorMetrics, never())
+        .track(anyDouble(), eq(Selector.PROFITABLE.value()), any(), any());
+  }
+
+  @Test
+  public void failedBundleTxIsRejectedBeforeProfitabilityCheck() {
+    final var selector = newSelectorForNewBlock();
+    final var evaluationContext = evaluationContext(bundleTx(), PROFITABLE_GAS_PRICE);
+
+    assertThat(selector.evaluateTransactionPreProcessing(evaluationContext)).isEqualTo(SELECTED);
+    assertThat(
+            selector.evaluateTransactionPostProcessing(evaluationContext, processingResult(true)))
+        .isEqualTo(
+            TransactionSelectionResult.invalid("Failed non revertable transaction in bundle"));
+
+    verify(selectorMetrics)
+        .track(
+            anyDouble(),
+            eq(Selector.BUNDLE_CONSTRAINT.value()),
+            eq(Phase.POST_PROCESSING.value()),
+            eq(Result.REJECTED.value()));
+    verify(selectorMetrics, never())
+        .track(
+            anyDouble(), eq(Selector.PROFITABLE.value()), eq(Phase.POST_PROCESSING.value()), any());
+  }
+
+  @Test
+  public void txOverLineCountLimitIsRejectedBeforeProfitabilityCheck() {
+    final var selector = newSelectorForNewBlock();
+    final var pendingTransaction = pendingTransaction();
+    TraceLineLimitTransactionSelector.overLineCountLimitCache.add(
+        pendingTransaction.getTransaction().getHash());
+
+    assertThat(
+            selector.evaluateTransactionPreProcessing(
+                evaluationContext(pendingTransaction, UNPROFITABLE_GAS_PRICE)))
+        .isEqualTo(TX_MODULE_LINE_COUNT_OVERFLOW_CACHED);
+
+    verify(selectorMetrics)
+        .track(
+            anyDouble(),
+            eq(Selector.TRACE_LINE_LIMIT.value()),
+            eq(Phase.PRE_PROCESSING.value()),
+            eq(Result.REJECTED.value()));
+    verify(selectorMetrics, never())
+        .track(anyDouble(), eq(Selector.PROFITABLE.value()), any(), any());
+  }
+
+  /**
+   * With a mix of txs rejected by the cheap checks, the profitability and line count checks only
+   * evaluate the txs that passed all the cheaper ones.
+   */
+  @Test
+  public void txsRejectedByCheapSelectorsNeverReachExpensiveOnes() {
+    final int expiredBundleTxs = 4;
+    final int failedBundleTxs = 3;
+    final int overLineCountLimitTxs = 3;
+    final int validTxs = 10;
+    final List<TestTransactionEvaluationContext> evaluationContexts = new ArrayList<>();
+    final List<TransactionProcessingResult> processingResults = new ArrayList<>();
+    for (int i = 0; i < expiredBundleTxs; i++) {
+      evaluationContexts.add(evaluationContext(expiredBundleTx(), PROFITABLE_GAS_PRICE));
+      processingResults.add(processingResult(false));
+    }
+    for (int i = 0; i < failedBundleTxs; i++) {
+      evaluationContexts.add(evaluationContext(bundleTx(), PROFITABLE_GAS_PRICE));
+      processingResults.add(processingResult(true));
+    }
+    for (int i = 0; i < overLineCountLimitTxs; i++) {
+      final var pendingTransaction = pendingTransaction();
+      TraceLineLimitTransactionSelector.overLineCountLimitCache.add(
+          pendingTransaction.getTransaction().getHash());
+      evaluationContexts.add(evaluationContext(pendingTransaction, PROFITABLE_GAS_PRICE));
+      processingResults.add(processingResult(false));
+    }
+    for (int i = 0; i < validTxs; i++) {
+      evaluationContexts.add(evaluationContext(pendingTransaction(), PROFITABLE_GAS_PRICE));
+      processingResults.add(processingResult(false));
+    }
+
+    final var selector = newSelectorForNewBlock();
+    int selectedTxs = 0;
+    for (int i = 0; i < evaluationContexts.size(); i++) {
+      final var evaluationContext = evaluationContexts.get(i);
+      if (selector.evaluateTransactionPreProcessing(evaluationContext).equals(SELECTED)
+          && selector
+              .evaluateTransactionPostProcessing(evaluationContext, processingResults.get(i))
+              .equals(SELECTED)) {
+        selectedTxs++;
+      }
+    }
+
+    assertThat(selectedTxs).isEqualTo(validTxs);
+    // expired bundle and over line count limit txs are rejected before processing
+    verify(selectorMetrics, times(validTxs + failedBundleTxs))
+        .track(
+            anyDouble(), eq(Selector.PROFITABLE.value()), eq(Phase.PRE_PROCESSING.value()), any());
+    // failed bundle txs are rejected by the bundle constraint after processing
+    verify(selectorMetrics, times(validTxs))
+        .track(
+            anyDouble(), eq(Selector.PROFITABLE.value()), eq(Phase.POST_PROCESSING.value()), any());
+    verify(selectorMetrics, times(validTxs))
+        .track(
+            anyDouble(),
+            eq(Selector.TRACE_LINE_LIMIT.value()),
+            eq(Phase.POST_PROCESSING.value()),
+            any());
+  }
+
+  private LineaTransactionSelector newSelectorForNewBlock() {
+    final var selectorsStateManager = new SelectorsStateManager();
+    final var selector =
+        new LineaTransactionSelector(
+            selectorsStateManager,
+            blockchainService,
+            txSelectorConf,
+            l1L2BridgeConf,
+            profitabilityConf,
+            tracerConfiguration,
+            ModuleLineLimits.fromMap(tracerConfiguration.moduleLimitsMap()),
+            Optional.empty(),
+            Optional.empty(),
+            Optional.of(selectorMetrics),
+            Optional.empty());
+    selectorsStateManager.blockSelectionStarted();
+    return selector;
+  }
+
+  private TestTransactionEvaluationContext evaluationContext(
+      final PendingTransaction pendingTransaction, final Wei gasPrice) {
+    return new TestTransactionEvaluationContext(
+        mock(ProcessableBlockHeader.class), pendingTransaction, gasPrice, MIN_GAS_PRICE);
+  }
+
+  private PendingTransaction pendingTransaction() {
+    final PendingTransaction pendingTransaction = mock(PendingTransaction.class);
+    final Transaction transaction = transaction();
+    when(pendingTransaction.getTransaction()).thenReturn(transaction);
+    when(pendingTransaction.hasPriority()).thenReturn(false);
+    return pendingTransaction;
+  }
+
+  private PendingTransaction expiredBundleTx() {
+    return bundle(Optional.of(Instant.now().getEpochSecond() - 60))
+        .pendingTransactions()
+        .getFirst();
+  }
+
+  private PendingTransaction bundleTx() {
+    return bundle(Optional.empty()).pendingTransactions().getFirst();
+  }
+
+  private TransactionBundle bundle(final Optional<Long> maxTimestamp) {
+    return new TransactionBundle(
+        Hash.wrap(Bytes32.random()),
+        List.of(transaction()),
+        1L,
+        Optional.empty(),
+        maxTimestamp,
+        Optional.empty(),
+        Optional.empty(),
+        false);
+  }
+
+  private Transaction transaction() {
+    final Transaction transaction = mock(Transaction.class);
+    final byte[] encoded = new byte[ENCODED_TX_SIZE];
+    random.nextBytes(encoded);
+    when(transaction.getHash()).thenReturn(Hash.wrap(Bytes32.random()));
+    when(transaction.getGasLimit()).thenReturn(GAS_USED);
+    when(transaction.getPayload()).thenReturn(Bytes.EMPTY);
+    when(transaction.encoded()).thenReturn(Bytes.wrap(encoded));
+    return transaction;
+  }
+
+  private TransactionProcessingResult processingResult(final boolean failed) {
+    final TransactionProcessingResult processingResult = mock(TransactionProcessingResult.class);
+    when(processingResult.getEstimateGasUsedByTransaction()).thenReturn(GAS_USED);
+    when(processingResult.isFailed()).thenReturn(failed);
+    return processingResult;
+  }
+}
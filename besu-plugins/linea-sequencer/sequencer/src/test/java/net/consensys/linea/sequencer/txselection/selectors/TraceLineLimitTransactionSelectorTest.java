@@ -19,11 +19,14 @@ import java.io.IOException;
 import java.math.BigInteger;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import net.consensys.linea.config.LineaTracerConfiguration;
 import net.consensys.linea.config.LineaTransactionSelectorConfiguration;
 import net.consensys.linea.plugins.config.LineaL1L2BridgeSharedConfiguration;
 import net.consensys.linea.sequencer.modulelimit.ModuleLineCountValidator;
+import net.consensys.linea.sequencer.modulelimit.ModuleLineLimits;
+import net.consensys.linea.sequencer.modulelimit.ModuleLineLimitsWatcher;
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.bytes.Bytes32;
 import org.hyperledger.besu.datatypes.Address;
@@ -71,10 +74,18 @@ public class TraceLineLimitTransactionSelectorTest {
   }
 
   private TestableTraceLineLimitTransactionSelector newSelectorForNewBlock() {
+    return newSelectorForNewBlock(ModuleLineLimits.fromMap(tracerConfiguration.moduleLimitsMap()));
+  }
+
+  private TestableTraceLineLimitTransactionSelector newSelectorForNewBlock(
+      final ModuleLineLimits moduleLineLimits) {
     selectorsStateManager = new SelectorsStateManager();
     final var selector =
         new TestableTraceLineLimitTransactionSelector(
-            selectorsStateManager, tracerConfiguration, OVER_LINE_COUNT_LIMIT_CACHE_SIZE);
+            selectorsStateManager,
+            tracerConfiguration,
+            moduleLineLimits,
+            OVER_LINE_COUNT_LIMIT_CACHE_SIZE);
     selectorsStateManager.blockSelectionStarted();
     return selector;
   }
@@ -194,6 +205,85 @@ public class TraceLineLimitTransactionSelectorTest {
         .isTrue();
   }
 
+  @Test
+  public void limitsSwappedDuringSelectionApplyFromNextBlock() throws IOException {
+    final Path watchedLimitsPath = tempDir.resolve("watched-line-limits.toml");
+    Files.copy(lineLimitsConfPath, watchedLimitsPath, StandardCopyOption.REPLACE_EXISTING);
+
+    try (final var moduleLineLimitsWatcher =
+        new ModuleLineLimitsWatcher(
+            watchedLimitsPath.toString(),
+            ModuleLineCountValidator.createLimitModules(watchedLimitsPath.toString()))) {
+      final var transactionSelector = newSelectorForNewBlock(moduleLineLimitsWatcher.get());
+      transactionSelector.resetCache();
+
+      final var firstEvaluationContext =
+          mockEvaluationContext(false, 100, Wei.of(1_100_000_000), Wei.of(1_000_000_000), 21000, 0);
+      verifyTransactionSelection(
+          transactionSelector,
+          firstEvaluationContext,
+          mock(TransactionProcessingResult.class),
+          SELECTED,
+          SELECTED);
+
+      // lower the EXT limit while the block is being built
+      Files.writeString(
+          watchedLimitsPath,
+          Files.readString(watchedLimitsPath).replaceFirst("(?m)^EXT\\s*=.*$", "EXT = 5"));
+      assertThat(moduleLineLimitsWatcher.reload()).isTrue();
+
+      // the block being built keeps the limits it started with
+      final var secondEvaluationContext =
+          mockEvaluationContext(false, 100, Wei.of(1_100_000_000), Wei.of(1_000_000_000), 21000, 0);
+      verifyTransactionSelection(
+          transactionSelector,
+          secondEvaluationContext,
+          mock(TransactionProcessingResult.class),
+          SELECTED,
+          SELECTED);
+
+      // while the next block uses the new ones
+      final var nextBlockTransactionSelector =
+          newSelectorForNewBlock(moduleLineLimitsWatcher.get());
+      final var nextBlockEvaluationContext =
+          mockEvaluationContext(false, 100, Wei.of(1_100_000_000), Wei.of(1_000_000_000), 21000, 0);
+      verifyTransactionSelection(
+          nextBlockTransactionSelector,
+          nextBlockEvaluationContext,
+          mock(TransactionProcessingResult.class),
+          SELECTED,
+          TX_MODULE_LINE_COUNT_OVERFLOW);
+    }
+  }
+
+  @Test
+  public void overLimitCacheIsClearedWhenLimitsChange() {
+    final var overLimits = new HashMap<>(tracerConfiguration.moduleLimitsMap());
+    overLimits.put("EXT", 5);
+    final var transactionSelector = newSelectorForNewBlock(ModuleLineLimits.fromMap(overLimits));
+    transactionSelector.resetCache();
+
+    final var evaluationContext =
+        mockEvaluationContext(false, 100, Wei.of(1_100_000_000), Wei.of(1_000_000_000), 21000, 0);
+    verifyTransactionSelection(
+        transactionSelector,
+        evaluationContext,
+        mock(TransactionProcessingResult.class),
+        SELECTED,
+        TX_MODULE_LINE_COUNT_OVERFLOW);
+    final Hash txHash = evaluationContext.getPendingTransaction().getTransaction().getHash();
+    assertThat(transactionSelector.isOverLineCountLimitTxCached(txHash)).isTrue();
+
+    // with the same limits the tx is still known to be over them
+    assertThat(
+            newSelectorForNewBlock(ModuleLineLimits.fromMap(overLimits))
+                .isOverLineCountLimitTxCached(txHash))
+        .isTrue();
+
+    // but it could fit in the new ones
+    assertThat(newSelectorForNewBlock().isOverLineCountLimitTxCached(txHash)).isFalse();
+  }
+
   private void verifyTransactionSelection(
       final TestableTraceLineLimitTransactionSelector selector,
       final TestTransactionEvaluationContext evaluationContext,
@@ -248,6 +338,7 @@ public class TraceLineLimitTransactionSelectorTest {
     TestableTraceLineLimitTransactionSelector(
         final SelectorsStateManager selectorsStateManager,
         final LineaTracerConfiguration lineaTracerConfiguration,
+        final ModuleLineLimits moduleLineLimits,
         final int overLimitCacheSize) {
       super(
           selectorsStateManager,
@@ -259,7 +350,8 @@ public class TraceLineLimitTransactionSelectorTest {
               .contract(Address.fromHexString("0xDEADBEEF"))
               .topic(Bytes.fromHexString("0x012345"))
               .build(),
-          lineaTracerConfiguration);
+          lineaTracerConfiguration,
+          moduleLineLimits);
     }
 
     void resetCache() {
@@ -2,6 +2,8 @@ package linea.coordinator.config.v2
 
 import com.sksamuel.hoplite.Masked
 import linea.domain.RetryConfig
+import kotlin.time.Duration
+import kotlin.time.Duration.Companion.milliseconds
 import kotlin.time.Duration.Companion.minutes
 import kotlin.time.Duration.Companion.seconds
 
@@ -19,4 +21,24 @@ data class DatabaseConfig(
     timeout = 10.minutes,
     failuresWarningThreshold = 3u,
   ),
-)
+  val recordsCleanup: RecordsCleanupConfig = RecordsCleanupConfig(),
+) {
+  data class RecordsCleanupConfig(
+    val maxRecordsPerDelete: UInt = 1_000u,
+    val pauseBetweenDeletes: Duration = 50.milliseconds,
+    val retryBackoffDelay: Duration = 1.seconds,
+    val maxRetryBackoffDelay: Duration = 1.minutes,
+  ) {
+    init {
+      require(maxRecordsPerDelete >= 1u) {
+        "maxRecordsPerDelete=$maxRecordsPerDelete must be equal or greater than 1"
+      }
+      require(retryBackoffDelay >= 1.milliseconds) {
+        "retryBackoffDelay=$retryBackoffDelay must be equal or greater than 1ms"
+      }
+      require(maxRetryBackoffDelay >= retryBackoffDelay) {
+        "maxRetryBackoffDelay=$maxRetryBackoffDelay must be equal or greater than retryBackoffDelay=$retryBackoffDelay"
+      }
+    }
+  }
+}
@@ -45,6 +45,7 @@ data class MessageAnchoringConfig(
     val pollingTimeout: Duration = 5.seconds,
     val ethLogsSearchSuccessBackoffDelay: Duration = 1.milliseconds,
     val ethLogsSearchBlockChunkSize: UInt = 1000u,
+    val ethLogsSearchMaxInFlightRequests: UInt = 4u,
   ) {
     init {
       require(pollingInterval >= 1.milliseconds) {
@@ -59,6 +60,9 @@ data class MessageAnchoringConfig(
       require(ethLogsSearchBlockChunkSize >= 1u) {
         "ethLogsSearchBlockChunkSize=$ethLogsSearchBlockChunkSize must be equal or greater than 1"
       }
+      require(ethLogsSearchMaxInFlightRequests >= 1u) {
+        "ethLogsSearchMaxInFlightRequests=$ethLogsSearchMaxInFlightRequests must be equal or greater than 1"
+      }
     }
   }
 
@@ -2,6 +2,8 @@ package linea.coordinator.config.v2.toml
 
 import com.sksamuel.hoplite.Masked
 import linea.coordinator.config.v2.DatabaseConfig
+import kotlin.time.Duration
+import kotlin.time.Duration.Companion.milliseconds
 import kotlin.time.Duration.Companion.minutes
 import kotlin.time.Duration.Companion.seconds
 
@@ -19,7 +21,15 @@ data class DatabaseToml(
     timeout = 10.minutes,
     failuresWarningThreshold = 3u,
   ),
+  val recordsCleanup: RecordsCleanupToml = RecordsCleanupToml(),
 ) {
+  data class RecordsCleanupToml(
+    val maxRecordsPerDelete: UInt = 1_000u,
+    val pauseBetweenDeletes: Duration = 50.milliseconds,
+    val retryBackoffDelay: Duration = 1.seconds,
+    val maxRetryBackoffDelay: Duration = 1.minutes,
+  )
+
   fun reified(): DatabaseConfig {
     return DatabaseConfig(
       host = this.hostname,
@@ -31,6 +41,12 @@ data class DatabaseToml(
       readPipeliningLimit = this.readPipeliningLimit,
       transactionalPoolSize = this.transactionalPoolSize,
       persistenceRetries = this.persistenceRetries.asDomain,
+      recordsCleanup = DatabaseConfig.RecordsCleanupConfig(
+        maxRecordsPerDelete = this.recordsCleanup.maxRecordsPerDelete,
+        pauseBetweenDeletes = this.recordsCleanup.pauseBetweenDeletes,
+        retryBackoffDelay = this.recordsCleanup.retryBackoffDelay,
+        maxRetryBackoffDelay = this.recordsCleanup.maxRetryBackoffDelay,
+      ),
     )
   }
 }
@@ -48,6 +48,7 @@ data class MessageAnchoringConfigToml(
     val pollingTimeout: Duration = 5.seconds,
     val ethLogsSearchSuccessBackoffDelay: Duration = 1.milliseconds,
     val ethLogsSearchBlockChunkSize: UInt = 1000u,
+    val ethLogsSearchMaxInFlightRequests: UInt = 4u,
   ) {
     init {
 
@@ -63,6 +64,9 @@ data class MessageAnchoringConfigToml(
       require(ethLogsSearchBlockChunkSize >= 1u) {
         "ethLogsSearchBlockChunkSize=$ethLogsSearchBlockChunkSize must be equal or greater than 1"
       }
+      require(ethLogsSearchMaxInFlightRequests >= 1u) {
+        "ethLogsSearchMaxInFlightRequests=$ethLogsSearchMaxInFlightRequests must be equal or greater than 1"
+      }
     }
   }
 
@@ -90,6 +94,7 @@ data class MessageAnchoringConfigToml(
         pollingTimeout = l1EventScraping.pollingTimeout,
         ethLogsSearchSuccessBackoffDelay = l1EventScraping.ethLogsSearchSuccessBackoffDelay,
         ethLogsSearchBlockChunkSize = l1EventScraping.ethLogsSearchBlockChunkSize,
+        ethLogsSearchMaxInFlightRequests = l1EventScraping.ethLogsSearchMaxInFlightRequests,
       ),
       anchoringTickInterval = anchoringTickInterval,
       messageQueueCapacity = messageQueueCapacity,
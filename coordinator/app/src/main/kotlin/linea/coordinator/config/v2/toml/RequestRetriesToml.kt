@@ -10,6 +10,7 @@ data class RequestRetriesToml(
   val timeout: Duration? = null,
   val backoffDelay: Duration = 1.seconds,
   val failuresWarningThreshold: UInt? = null,
+  val maxBackoffDelay: Duration? = null,
 ) {
   init {
     maxRetries?.also {
@@ -31,6 +32,7 @@ data class RequestRetriesToml(
     timeout = timeout,
     backoffDelay = backoffDelay,
     failuresWarningThreshold = failuresWarningThreshold?.toUInt() ?: 0u,
+    maxBackoffDelay = maxBackoffDelay,
   )
 
   internal val asDomain: linea.domain.RetryConfig = linea.domain.RetryConfig(
@@ -38,6 +40,7 @@ data class RequestRetriesToml(
     timeout = timeout,
     backoffDelay = backoffDelay,
     failuresWarningThreshold = failuresWarningThreshold?.toUInt() ?: 0u,
+    maxBackoffDelay = maxBackoffDelay,
   )
 
   companion object {
@@ -63,12 +63,25 @@ class CoordinatorApp(private val configs: CoordinatorConfig) {
     ),
   )
 
-  private val sqlClient: SqlClient = initDb(configs.database)
+  private val sqlWriteClient: SqlClient = initDb(configs.database)
+
+  // polling reads have their own pipelined pool, so they do not wait for connections behind conflation writes
+  private val sqlReadClient: SqlClient = Db.vertxSqlClient(
+    vertx = vertx,
+    host = configs.database.host,
+    port = configs.database.port,
+    database = configs.database.schema,
+    username = configs.database.username,
+    password = configs.database.password.value,
+    maxPoolSize = configs.database.readPoolSize,
+    pipeliningLimit = configs.database.readPipeliningLimit,
+  )
   private val batchesRepository =
     PostgresBatchesRepository(
       batchesDao = RetryingBatchesPostgresDao(
         delegate = BatchesPostgresDao(
-          connection = sqlClient,
+          connection = sqlWriteClient,
+          readConnection = sqlReadClient,
         ),
         persistenceRetryer = persistenceRetryer,
       ),
@@ -81,7 +94,8 @@ class CoordinatorApp(private val configs: CoordinatorConfig) {
           config = BlobsPostgresDao.Config(
             maxBlobsToReturn = configs.l1Submission?.blob?.dbMaxBlobsToReturn ?: 50u,
           ),
-          connection = sqlClient,
+          connection = sqlWriteClient,
+          readConnection = sqlReadClient,
         ),
         persistenceRetryer = persistenceRetryer,
       ),
@@ -90,7 +104,8 @@ class CoordinatorApp(private val configs: CoordinatorConfig) {
   private val aggregationsRepository = AggregationsRepositoryImpl(
     aggregationsPostgresDao = RetryingPostgresAggregationsDao(
       delegate = PostgresAggregationsDao(
-        connection = sqlClient,
+        connection = sqlWriteClient,
+        readConnection = sqlReadClient,
       ),
       persistenceRetryer = persistenceRetryer,
     ),
@@ -103,7 +118,8 @@ class CoordinatorApp(private val configs: CoordinatorConfig) {
     batchesRepository = batchesRepository,
     blobsRepository = blobsRepository,
     aggregationsRepository = aggregationsRepository,
-    sqlClient = sqlClient,
+    sqlWriteClient = sqlWriteClient,
+    sqlReadClient = sqlReadClient,
     smartContractErrors = configs.smartContractErrors,
     metricsFacade = micrometerMetricsFacade,
   )
@@ -182,7 +198,7 @@ class CoordinatorApp(private val configs: CoordinatorConfig) {
       username = dbConfig.username,
       password = dbConfig.password.value,
       maxPoolSize = dbConfig.transactionalPoolSize,
-      pipeliningLimit = dbConfig.readPipeliningLimit,
+      pipeliningLimit = 1,
     )
   }
 }
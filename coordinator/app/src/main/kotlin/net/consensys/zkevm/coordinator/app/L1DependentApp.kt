@@ -81,7 +81,8 @@ class L1DependentApp(
   private val batchesRepository: BatchesRepository,
   private val blobsRepository: BlobsRepository,
   private val aggregationsRepository: AggregationsRepository,
-  private val sqlClient: SqlClient,
+  private val sqlWriteClient: SqlClient,
+  private val sqlReadClient: SqlClient,
   private val smartContractErrors: SmartContractErrors,
   private val metricsFacade: MetricsFacade,
 ) : LongRunningService {
@@ -215,7 +216,8 @@ class L1DependentApp(
           .gasPriceCapCalculation.historicAvgRewardConstant,
       ),
       FeeHistoriesPostgresDao(
-        sqlClient,
+        connection = sqlWriteClient,
+        readConnection = sqlReadClient,
       ),
     )
 
@@ -341,7 +343,13 @@ class L1DependentApp(
   private val alreadySubmittedBlobsFilter =
     L1ShnarfBasedAlreadySubmittedBlobsFilter(
       lineaRollup = lineaSmartContractClientForDataSubmission,
+      l1EthApiClient = createEthApiClient(
+        rpcUrl = configs.l1Submission!!.blob.l1Endpoint.toString(),
+        log = LogManager.getLogger("clients.l1.eth.data-submission"),
+        vertx = vertx,
+      ),
       acceptedBlobEndBlockNumberConsumer = { highestAcceptedBlobTracker(it) },
+      confirmationBlockTag = configs.l1FinalizationMonitor.l1QueryBlockTag,
     )
 
   private val blobSubmissionCoordinator = run {
@@ -656,6 +664,14 @@ class L1DependentApp(
         batchesRepository = batchesRepository,
         blobsRepository = blobsRepository,
         aggregationsRepository = aggregationsRepository,
+        vertx = vertx,
+        metricsFacade = metricsFacade,
+        config = RecordsCleanupFinalizationHandler.Config(
+          maxRecordsPerDelete = configs.database.recordsCleanup.maxRecordsPerDelete.toInt(),
+          pauseBetweenDeletes = configs.database.recordsCleanup.pauseBetweenDeletes,
+          retryBackoffDelay = configs.database.recordsCleanup.retryBackoffDelay,
+          maxRetryBackoffDelay = configs.database.recordsCleanup.maxRetryBackoffDelay,
+        ),
       ),
       "highest_accepted_finalization_on_l1" to FinalizationHandler { update: FinalizationMonitor.FinalizationUpdate ->
         highestAcceptedFinalizationTracker(update.blockNumber)
@@ -29,6 +29,7 @@ import net.consensys.zkevm.coordinator.blockcreation.GethCliqueSafeBlockProvider
 import net.consensys.zkevm.coordinator.clients.ExecutionProverClientV2
 import net.consensys.zkevm.coordinator.clients.TracesGeneratorJsonRpcClientV2
 import net.consensys.zkevm.coordinator.clients.prover.ProverClientFactory
+import net.consensys.zkevm.domain.Batch
 import net.consensys.zkevm.domain.BlocksConflation
 import net.consensys.zkevm.ethereum.coordination.HighestConflationTracker
 import net.consensys.zkevm.ethereum.coordination.HighestProvenBatchTracker
@@ -38,6 +39,7 @@ import net.consensys.zkevm.ethereum.coordination.HighestUnprovenBlobTracker
 import net.consensys.zkevm.ethereum.coordination.SimpleCompositeSafeFutureHandler
 import net.consensys.zkevm.ethereum.coordination.aggregation.ConsecutiveProvenBlobsProviderWithLastEndBlockNumberTracker
 import net.consensys.zkevm.ethereum.coordination.aggregation.ProofAggregationCoordinatorService
+import net.consensys.zkevm.ethereum.coordination.aggregation.ProvenBlobsTracker
 import net.consensys.zkevm.ethereum.coordination.blob.BlobCompressionProofCoordinator
 import net.consensys.zkevm.ethereum.coordination.blob.BlobCompressionProofUpdate
 import net.consensys.zkevm.ethereum.coordination.blob.BlobZkStateProviderImpl
@@ -148,6 +150,9 @@ class ConflationApp(
     metricsFacade = metricsFacade,
   )
 
+  // pushes proven blobs to the aggregation coordinator as soon as their proofs arrive
+  private val provenBlobsTracker = ProvenBlobsTracker()
+
   private val blobCompressionProofCoordinator = run {
     val maxProvenBlobCache = run {
       val highestProvenBlobTracker = HighestProvenBlobTracker(lastProcessedBlockNumber)
@@ -162,6 +167,7 @@ class ConflationApp(
     val blobCompressionProofHandler: (BlobCompressionProofUpdate) -> SafeFuture<*> = SimpleCompositeSafeFutureHandler(
       listOf(
         maxProvenBlobCache,
+        provenBlobsTracker::acceptNewBlobCompressionProof,
       ),
     )
     val genesisStateProvider = GenesisStateProvider(
@@ -243,6 +249,7 @@ class ConflationApp(
         startBlockNumberInclusive = lastConsecutiveAggregatedBlockNumber + 1u,
         aggregationsRepository = aggregationsRepository,
         consecutiveProvenBlobsProvider = maxBlobEndBlockNumberTracker,
+        provenBlobsTracker = provenBlobsTracker,
         proofAggregationClient = proverClientFactory.proofAggregationProverClient(),
         l2EthApiClient = createEthApiClient(
           l2Web3jClient,
@@ -263,6 +270,8 @@ class ConflationApp(
         metricsFacade = metricsFacade,
         provenAggregationEndBlockNumberConsumer = { aggEndBlockNumber -> highestAggregationTracker(aggEndBlockNumber) },
         aggregationSizeMultipleOf = configs.conflation.proofAggregation.aggregationSizeMultipleOf,
+        // blobs pushed by the proven blobs tracker do not go through maxBlobEndBlockNumberTracker
+        provenBlobEndBlockNumberConsumer = maxBlobEndBlockNumberTracker,
       )
   }
 
@@ -315,10 +324,14 @@ class ConflationApp(
         highestProvenBatchTracker
       }
 
+      val batchesProofHandler = BatchProofHandlerImpl(batchesRepository)
       val batchProofHandler = SimpleCompositeSafeFutureHandler(
         listOf(
           maxProvenBatchCache,
-          BatchProofHandlerImpl(batchesRepository)::acceptNewBatch,
+          { batch: Batch ->
+            batchesProofHandler.acceptNewBatch(batch)
+              .thenCompose { provenBlobsTracker.acceptNewBatch(batch) }
+          },
         ),
       )
       val executionProverClient: ExecutionProverClientV2 = proverClientFactory.executionProverClient(
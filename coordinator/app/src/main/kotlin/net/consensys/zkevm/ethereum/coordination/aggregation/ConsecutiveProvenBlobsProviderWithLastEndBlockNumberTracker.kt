@@ -4,12 +4,16 @@ import net.consensys.zkevm.domain.BlobAndBatchCounters
 import net.consensys.zkevm.persistence.AggregationsRepository
 import tech.pegasys.teku.infrastructure.async.SafeFuture
 import java.util.concurrent.atomic.AtomicReference
+import java.util.function.Consumer
 import java.util.function.Supplier
 
+/**
+ * Also accepts the end block number of the proven blobs found by other providers, e.g. the ProvenBlobsTracker.
+ */
 class ConsecutiveProvenBlobsProviderWithLastEndBlockNumberTracker(
   private val repository: AggregationsRepository,
   initialBlockNumber: ULong,
-) : ConsecutiveProvenBlobsProvider, Supplier<Number> {
+) : ConsecutiveProvenBlobsProvider, Supplier<Number>, Consumer<ULong> {
   private val cache = AtomicReference(initialBlockNumber)
 
   override fun findConsecutiveProvenBlobs(fromBlockNumber: Long): SafeFuture<List<BlobAndBatchCounters>> {
@@ -23,6 +27,10 @@ class ConsecutiveProvenBlobsProviderWithLastEndBlockNumberTracker(
     return consecutiveProvenBlobs
   }
 
+  override fun accept(provenBlobEndBlockNumber: ULong) {
+    cache.set(provenBlobEndBlockNumber)
+  }
+
   override fun get(): Number {
     return cache.get().toLong()
   }
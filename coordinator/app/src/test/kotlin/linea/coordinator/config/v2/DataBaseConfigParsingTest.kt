@@ -6,6 +6,7 @@ import linea.coordinator.config.v2.toml.RequestRetriesToml
 import linea.coordinator.config.v2.toml.parseConfig
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.Test
+import kotlin.time.Duration.Companion.milliseconds
 import kotlin.time.Duration.Companion.minutes
 import kotlin.time.Duration.Companion.seconds
 
@@ -26,6 +27,11 @@ class DataBaseConfigParsingTest {
       backoff-delay = "PT1S"
       timeout = "PT40S"
       failures-warning-threshold = 2
+      [database.records-cleanup]
+      max-records-per-delete = 500
+      pause-between-deletes = "PT0.1S"
+      retry-backoff-delay = "PT2S"
+      max-retry-backoff-delay = "PT30S"
     """.trimIndent()
 
     val config = DatabaseToml(
@@ -43,6 +49,12 @@ class DataBaseConfigParsingTest {
         timeout = 40.seconds,
         failuresWarningThreshold = 2u,
       ),
+      recordsCleanup = DatabaseToml.RecordsCleanupToml(
+        maxRecordsPerDelete = 500u,
+        pauseBetweenDeletes = 100.milliseconds,
+        retryBackoffDelay = 2.seconds,
+        maxRetryBackoffDelay = 30.seconds,
+      ),
     )
 
     val tomlMinimal = """
@@ -67,6 +79,12 @@ class DataBaseConfigParsingTest {
         timeout = 10.minutes,
         failuresWarningThreshold = 3u,
       ),
+      recordsCleanup = DatabaseToml.RecordsCleanupToml(
+        maxRecordsPerDelete = 1_000u,
+        pauseBetweenDeletes = 50.milliseconds,
+        retryBackoffDelay = 1.seconds,
+        maxRetryBackoffDelay = 1.minutes,
+      ),
     )
   }
 
@@ -43,6 +43,7 @@ class MessageAnchoringConfigParsingTest {
     polling-timeout = "PT50S"
     eth-logs-search-success-backoff-delay = "PT0.1S"
     eth-logs-search-block-chunk-size = 123
+    eth-logs-search-max-in-flight-requests = 8
 
     [message-anchoring.gas]
     max-fee-per-gas-cap = 100000000000
@@ -79,6 +80,7 @@ class MessageAnchoringConfigParsingTest {
           pollingTimeout = 50.seconds,
           ethLogsSearchSuccessBackoffDelay = 100.milliseconds,
           ethLogsSearchBlockChunkSize = 123u,
+          ethLogsSearchMaxInFlightRequests = 8u,
         ),
         l1RequestRetries = RequestRetriesToml(
           maxRetries = 4u,
@@ -139,6 +141,7 @@ class MessageAnchoringConfigParsingTest {
           pollingTimeout = 5.seconds,
           ethLogsSearchSuccessBackoffDelay = 1.milliseconds,
           ethLogsSearchBlockChunkSize = 1000u,
+          ethLogsSearchMaxInFlightRequests = 4u,
         ),
         l1RequestRetries = RequestRetriesToml(
           maxRetries = null,
@@ -49,4 +49,13 @@ class ConsecutiveProvenBlobsProviderWithLastEndBlockNumberTrackerTest {
     cache.findConsecutiveProvenBlobs(expectedEndBLockNumber.toLong())
     assertThat(cache.get()).isEqualTo(expectedEndBLockNumber.toLong())
   }
+
+  @Test
+  fun `accept saves the end block number of blobs found by other providers`() {
+    val cache = ConsecutiveProvenBlobsProviderWithLastEndBlockNumberTracker(mock<AggregationsRepository>(), 12UL)
+
+    cache.accept(20UL)
+
+    assertThat(cache.get()).isEqualTo(20L)
+  }
 }
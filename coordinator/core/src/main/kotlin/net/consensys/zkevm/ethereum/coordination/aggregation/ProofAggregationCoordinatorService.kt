@@ -21,6 +21,7 @@ import net.consensys.zkevm.persistence.AggregationsRepository
 import org.apache.logging.log4j.LogManager
 import org.apache.logging.log4j.Logger
 import tech.pegasys.teku.infrastructure.async.SafeFuture
+import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.ConcurrentLinkedQueue
 import java.util.function.Consumer
 import kotlin.time.Duration
@@ -33,10 +34,12 @@ class ProofAggregationCoordinatorService(
   private val aggregationCalculator: AggregationCalculator,
   private val aggregationsRepository: AggregationsRepository,
   private val consecutiveProvenBlobsProvider: ConsecutiveProvenBlobsProvider,
+  private val provenBlobsTracker: ProvenBlobsTracker? = null,
   private val proofAggregationClient: ProofAggregationProverClientV2,
   private val aggregationL2StateProvider: AggregationL2StateProvider,
   private val log: Logger = LogManager.getLogger(ProofAggregationCoordinatorService::class.java),
   private val provenAggregationEndBlockNumberConsumer: Consumer<ULong> = Consumer<ULong> { },
+  private val provenBlobEndBlockNumberConsumer: Consumer<ULong> = Consumer<ULong> { },
 ) : AggregationHandler, PeriodicPollingService(
   vertx = vertx,
   pollingIntervalMs = config.pollingInterval.inWholeMilliseconds,
@@ -48,6 +51,10 @@ class ProofAggregationCoordinatorService(
   )
 
   private val pendingBlobs = ConcurrentLinkedQueue<BlobAndBatchCounters>()
+
+  // L2 states by block number, fetched ahead of the aggregations they are the parent block of
+  private val aggregationL2States = ConcurrentHashMap<Long, SafeFuture<AggregationL2State>>()
+  private var nextAggregationParentBlockNumber = nextBlockNumberToPoll - 1
   private val aggregationSizeInBlocksHistogram = metricsFacade.createHistogram(
     category = LineaMetricsCategory.AGGREGATION,
     name = "blocks.size",
@@ -66,11 +73,14 @@ class ProofAggregationCoordinatorService(
 
   init {
     aggregationCalculator.onAggregation(this)
+    provenBlobsTracker?.onNewProof(::sendTrackedProvenBlobs)
   }
 
   /**
-   * This component is responsible for periodically monitoring the blobs table to check how many blobs were PROVEN
+   * This component is responsible for monitoring how many blobs were PROVEN
    *  and aggregate all the corresponding batch proofs into a single final proof.
+   *  Proven blobs are pushed by the ProvenBlobsTracker as soon as their last proof arrives, the blobs table is
+   *  polled to recover the blobs proven before a restart and as a safety net for blobs missed by the tracker.
    *  The aggregation proof can be triggered by 2 conditions:
    *    Number of batches - if number of all batches combined for all subsequent blobs above a given threshold;
    *    Finalization deadline: the time elapsed between first block’s timestamp in the first submitted blob and
@@ -81,7 +91,7 @@ class ProofAggregationCoordinatorService(
    *    500 batches proving limit gives (20*500*12)/3600 ~ 33 hours max.
    *
    * High level steps:
-   *   Poll blobs table for blobs, respecting
+   *   Get proven blobs from the ProvenBlobsTracker or poll blobs table for blobs, respecting
    *      Blob status is COMPRESSION_PROVEN and Join with batches table, PROVEN status
    *      Blob submission start block number order
    *   Send blob to aggregation calculator. Which will trigger aggregation based on:
@@ -89,7 +99,7 @@ class ProofAggregationCoordinatorService(
    *      blob.firstBlockTimestamp < current_time - submission_deadline;
    *        (we don't wait to fill prover capacity of the submission_deadline is reached)
    *   When aggregation calculator fires an aggregation (onAggregation), do:
-   *    Build aggregation proof request and send it to the prover;
+   *    Build aggregation proof request, with the L2 state of its parent block prefetched, and send it to the prover;
    *    Insert a record in aggregation proof response table PROVING status
    *    Wait for the prover response and update record with PROVEN status;
    *
@@ -103,32 +113,56 @@ class ProofAggregationCoordinatorService(
    *    }
    */
 
+  @Synchronized
+  override fun start(): SafeFuture<Unit> {
+    prefetchAggregationL2State(nextAggregationParentBlockNumber)
+    return super.start()
+  }
+
   @Synchronized
   override fun action(): SafeFuture<*> {
+    sendTrackedProvenBlobs()
     log.debug("Polling blobs for aggregation calculator from block={}", nextBlockNumberToPoll)
     return consecutiveProvenBlobsProvider
       .findConsecutiveProvenBlobs(nextBlockNumberToPoll)
-      .thenApply { blobs ->
-        blobs.forEach {
-          pendingBlobs.offer(it)
-          aggregationCalculator.newBlob(it.blobCounters)
-        }
-        if (blobs.isNotEmpty()) {
-          nextBlockNumberToPoll = blobs.last().blobCounters.endBlockNumber.toLong() + 1
-          val numberOfBatches = blobs.sumOf { it.blobCounters.numberOfBatches }
-          log.info(
-            "new blobs sent to aggregation calculator: " +
-              "nextBlockToPoll={} numberOfBlobs={} numberOfBatches={} total={} blobs={}",
-            nextBlockNumberToPoll,
-            blobs.size,
-            numberOfBatches,
-            blobs.size + numberOfBatches.toInt(),
-            blobs.map(BlobAndBatchCounters::blobCounters).toBlockIntervalsString(),
-          )
-        } else {
-          log.debug("Found no new blobs for aggregation. nextBlockToPoll={}", nextBlockNumberToPoll)
-        }
-      }
+      .thenApply { blobs -> sendBlobsToAggregationCalculator(blobs, source = "db") }
+  }
+
+  @Synchronized
+  private fun sendTrackedProvenBlobs() {
+    provenBlobsTracker
+      ?.findConsecutiveProvenBlobs(nextBlockNumberToPoll)
+      ?.thenApply { blobs -> sendBlobsToAggregationCalculator(blobs, source = "tracker") }
+  }
+
+  /**
+   * Blobs can be received both from the tracker and from the DB poll,
+   * so blobs already sent to the aggregation calculator are skipped.
+   */
+  @Synchronized
+  private fun sendBlobsToAggregationCalculator(blobs: List<BlobAndBatchCounters>, source: String) {
+    val newBlobs = blobs.dropWhile { it.blobCounters.startBlockNumber < nextBlockNumberToPoll.toULong() }
+    if (newBlobs.isEmpty()) {
+      log.debug("Found no new blobs for aggregation. nextBlockToPoll={} source={}", nextBlockNumberToPoll, source)
+      return
+    }
+    newBlobs.forEach {
+      pendingBlobs.offer(it)
+      aggregationCalculator.newBlob(it.blobCounters)
+    }
+    nextBlockNumberToPoll = newBlobs.last().blobCounters.endBlockNumber.toLong() + 1
+    provenBlobEndBlockNumberConsumer.accept(newBlobs.last().blobCounters.endBlockNumber)
+    val numberOfBatches = newBlobs.sumOf { it.blobCounters.numberOfBatches }
+    log.info(
+      "new blobs sent to aggregation calculator: " +
+        "nextBlockToPoll={} numberOfBlobs={} numberOfBatches={} total={} source={} blobs={}",
+      nextBlockNumberToPoll,
+      newBlobs.size,
+      numberOfBatches,
+      newBlobs.size + numberOfBatches.toInt(),
+      source,
+      newBlobs.map(BlobAndBatchCounters::blobCounters).toBlockIntervalsString(),
+    )
   }
 
   @Synchronized
@@ -167,8 +201,11 @@ class ProofAggregationCoordinatorService(
     }
     val blockIntervals = BlockIntervals(startingBlockNumber, upperBoundaries)
 
-    aggregationL2StateProvider
-      .getAggregationL2State(blockNumber = blobsToAggregate.startBlockNumber.toLong() - 1)
+    val aggregationL2State = getAggregationL2State(blockNumber = blobsToAggregate.startBlockNumber.toLong() - 1)
+    nextAggregationParentBlockNumber = blobsToAggregate.endBlockNumber.toLong()
+    prefetchAggregationL2State(nextAggregationParentBlockNumber)
+
+    aggregationL2State
       .whenException {
         log.error(
           "failed to get parent aggregation l2 message rolling hash: aggregation={} errorMessage={}",
@@ -218,6 +255,33 @@ class ProofAggregationCoordinatorService(
       }
   }
 
+  /**
+   * Fetches the L2 state of the parent block of the next aggregation as soon as it is known,
+   * so the aggregation request does not wait for the L2 calls once the aggregation is triggered.
+   * Failed fetches are dropped and retried when the aggregation is triggered.
+   */
+  private fun prefetchAggregationL2State(blockNumber: Long) {
+    val aggregationL2State = aggregationL2States.computeIfAbsent(blockNumber) {
+      aggregationL2StateProvider.getAggregationL2State(blockNumber)
+    }
+    aggregationL2State.whenComplete { _, error ->
+      if (error != null) {
+        log.debug(
+          "failed to prefetch aggregation l2 state: blockNumber={} errorMessage={}",
+          blockNumber,
+          error.message,
+        )
+        aggregationL2States.remove(blockNumber, aggregationL2State)
+      }
+    }
+  }
+
+  private fun getAggregationL2State(blockNumber: Long): SafeFuture<AggregationL2State> {
+    aggregationL2States.keys.removeIf { it < blockNumber }
+    return aggregationL2States.remove(blockNumber)
+      ?: aggregationL2StateProvider.getAggregationL2State(blockNumber)
+  }
+
   companion object {
     fun create(
       vertx: Vertx,
@@ -229,6 +293,7 @@ class ProofAggregationCoordinatorService(
       startBlockNumberInclusive: ULong,
       aggregationsRepository: AggregationsRepository,
       consecutiveProvenBlobsProvider: ConsecutiveProvenBlobsProvider,
+      provenBlobsTracker: ProvenBlobsTracker?,
       proofAggregationClient: ProofAggregationProverClientV2,
       l2EthApiClient: EthApiClient,
       l2MessageService: L2MessageServiceSmartContractClientReadOnly,
@@ -237,6 +302,7 @@ class ProofAggregationCoordinatorService(
       metricsFacade: MetricsFacade,
       provenAggregationEndBlockNumberConsumer: Consumer<ULong>,
       aggregationSizeMultipleOf: UInt,
+      provenBlobEndBlockNumberConsumer: Consumer<ULong> = Consumer<ULong> { },
     ): LongRunningService {
       val aggregationCalculatorByDeadline =
         AggregationTriggerCalculatorByDeadline(
@@ -281,12 +347,14 @@ class ProofAggregationCoordinatorService(
         aggregationCalculator = globalAggregationCalculator,
         aggregationsRepository = aggregationsRepository,
         consecutiveProvenBlobsProvider = consecutiveProvenBlobsProvider,
+        provenBlobsTracker = provenBlobsTracker,
         proofAggregationClient = proofAggregationClient,
         aggregationL2StateProvider = AggregationL2StateProviderImpl(
           ethApiClient = l2EthApiClient,
           messageService = l2MessageService,
         ),
         provenAggregationEndBlockNumberConsumer = provenAggregationEndBlockNumberConsumer,
+        provenBlobEndBlockNumberConsumer = provenBlobEndBlockNumberConsumer,
       )
 
       return LongRunningService.compose(deadlineCheckRunner, proofAggregationService)
@@ -0,0 +1,102 @@
+package net.consensys.zkevm.ethereum.coordination.aggregation
+
+import net.consensys.zkevm.domain.Batch
+import net.consensys.zkevm.domain.BlobAndBatchCounters
+import net.consensys.zkevm.domain.BlobCounters
+import net.consensys.zkevm.ethereum.coordination.blob.BlobCompressionProofHandler
+import net.consensys.zkevm.ethereum.coordination.blob.BlobCompressionProofUpdate
+import net.consensys.zkevm.ethereum.coordination.proofcreation.BatchProofHandler
+import org.apache.logging.log4j.LogManager
+import org.apache.logging.log4j.Logger
+import tech.pegasys.teku.infrastructure.async.SafeFuture
+import java.util.TreeMap
+
+/**
+ * Keeps track in memory of the blobs with a compression proof and of the proven batches, as their proofs arrive,
+ * so blobs can be sent to aggregation as soon as they are proven, without polling the database.
+ *
+ * A blob is proven once its compression proof and the execution proofs of all its batches are available.
+ * Listeners are notified every time a proof arrives, and read the proven blobs with findConsecutiveProvenBlobs.
+ * Blobs and batches before the requested block number are dropped on each read.
+ *
+ * Proofs received before a restart are not known by this tracker, the database remains the source of truth for them.
+ */
+class ProvenBlobsTracker(
+  private val log: Logger = LogManager.getLogger(ProvenBlobsTracker::class.java),
+) : BlobCompressionProofHandler, BatchProofHandler, ConsecutiveProvenBlobsProvider {
+  // by start block number
+  private val compressionProvenBlobs = TreeMap<ULong, BlobAndBatchCounters>()
+
+  // end block number by start block number
+  private val provenBatches = TreeMap<ULong, ULong>()
+  private val listeners = mutableListOf<Runnable>()
+
+  @Synchronized
+  fun onNewProof(listener: Runnable) {
+    listeners.add(listener)
+  }
+
+  override fun acceptNewBlobCompressionProof(
+    blobCompressionProofUpdate: BlobCompressionProofUpdate,
+  ): SafeFuture<Unit> {
+    val blobCompressionProof = blobCompressionProofUpdate.blobCompressionProof
+    val blob = BlobAndBatchCounters(
+      blobCounters = BlobCounters(
+        numberOfBatches = blobCompressionProof.conflationOrder.upperBoundaries.size.toUInt(),
+        startBlockNumber = blobCompressionProofUpdate.blockInterval.startBlockNumber,
+        endBlockNumber = blobCompressionProofUpdate.blockInterval.endBlockNumber,
+        startBlockTimestamp = blobCompressionProofUpdate.startBlockTime,
+        endBlockTimestamp = blobCompressionProofUpdate.endBlockTime,
+        expectedShnarf = blobCompressionProof.expectedShnarf,
+      ),
+      executionProofs = blobCompressionProof.conflationOrder,
+    )
+    synchronized(this) {
+      compressionProvenBlobs[blob.blobCounters.startBlockNumber] = blob
+    }
+    log.trace("blob compression proof received: blob={}", blob.blobCounters.intervalString())
+    notifyListeners()
+    return SafeFuture.completedFuture(Unit)
+  }
+
+  override fun acceptNewBatch(batch: Batch): SafeFuture<Unit> {
+    synchronized(this) {
+      provenBatches[batch.startBlockNumber] = batch.endBlockNumber
+    }
+    notifyListeners()
+    return SafeFuture.completedFuture(Unit)
+  }
+
+  /**
+   * Returns the consecutive proven blobs starting at fromBlockNumber, or an empty list if the blob starting there
+   * is not proven yet or is not known by this tracker.
+   */
+  @Synchronized
+  override fun findConsecutiveProvenBlobs(fromBlockNumber: Long): SafeFuture<List<BlobAndBatchCounters>> {
+    val startBlockNumber = fromBlockNumber.toULong()
+    compressionProvenBlobs.headMap(startBlockNumber).clear()
+    provenBatches.headMap(startBlockNumber).clear()
+
+    val provenBlobs = mutableListOf<BlobAndBatchCounters>()
+    var nextBlob = compressionProvenBlobs[startBlockNumber]
+    while (nextBlob != null && areAllBatchesProven(nextBlob)) {
+      provenBlobs.add(nextBlob)
+      nextBlob = compressionProvenBlobs[nextBlob.blobCounters.endBlockNumber + 1UL]
+    }
+    return SafeFuture.completedFuture(provenBlobs)
+  }
+
+  private fun areAllBatchesProven(blob: BlobAndBatchCounters): Boolean {
+    return blob.executionProofs.toIntervalList().all { batch ->
+      provenBatches[batch.startBlockNumber] == batch.endBlockNumber
+    }
+  }
+
+  private fun notifyListeners() {
+    val listenersToNotify = synchronized(this) { listeners.toList() }
+    listenersToNotify.forEach { listener ->
+      runCatching { listener.run() }
+        .onFailure { log.error("proven blobs listener failed: errorMessage={}", it.message, it) }
+    }
+  }
+}
@@ -66,14 +66,18 @@ class BlobCompressionProofCoordinator(
 
   data class Config(
     val pollingInterval: Duration,
-  )
+    // number of queued blobs whose ZK states are fetched in parallel, ahead of their shnarf calculation
+    val zkStatePrefetchLimit: Int = 4,
+  ) {
+    init {
+      require(zkStatePrefetchLimit > 0) { "zkStatePrefetchLimit must be greater than 0" }
+    }
+  }
 
-  @Synchronized
-  private fun sendBlobToCompressionProver(blob: Blob): SafeFuture<Unit> {
+  private fun sendBlobToCompressionProver(blob: Blob, blobZkStateFuture: SafeFuture<BlobZkState>): SafeFuture<Unit> {
     log.debug("Preparing compression proof request for blob={}", blob.intervalString())
 
-    val blobZkSateAndRollingShnarfFuture = blobZkStateProvider
-      .getBlobZKState(blob.blocksRange)
+    val blobZkSateAndRollingShnarfFuture = blobZkStateFuture
       .thenCompose { blobZkState ->
         rollingBlobShnarfCalculator.calculateShnarf(
           compressedData = blob.compressedData,
@@ -154,18 +158,22 @@ class BlobCompressionProofCoordinator(
           expectedShnarf = expectedShnarfResult.expectedShnarf,
           blobCompressionProof = blobCompressionProof,
         )
-        SafeFuture.allOf(
-          blobsRepository.saveNewBlob(blobRecord),
-          blobCompressionProofHandler.acceptNewBlobCompressionProof(
-            BlobCompressionProofUpdate(
-              blockInterval = BlockInterval.between(
-                startBlockNumber = blobRecord.startBlockNumber,
-                endBlockNumber = blobRecord.endBlockNumber,
+        // the proof handler may hand the blob over to aggregation, so it must be persisted first
+        blobsRepository.saveNewBlob(blobRecord)
+          .thenCompose {
+            blobCompressionProofHandler.acceptNewBlobCompressionProof(
+              BlobCompressionProofUpdate(
+                blockInterval = BlockInterval.between(
+                  startBlockNumber = blobRecord.startBlockNumber,
+                  endBlockNumber = blobRecord.endBlockNumber,
+                ),
+                blobCompressionProof = blobCompressionProof,
+                startBlockTime = blobRecord.startBlockTime,
+                endBlockTime = blobRecord.endBlockTime,
               ),
-              blobCompressionProof = blobCompressionProof,
-            ),
-          ),
-        ).thenApply {}
+            )
+          }
+          .thenApply {}
       }
   }
 
@@ -188,8 +196,14 @@ class BlobCompressionProofCoordinator(
   override fun start(): CompletableFuture<Unit> {
     if (timerId == null) {
       blobPollingAction = Handler<Long> {
-        handleBlobFromTheQueue().whenComplete { _, _ ->
-          timerId = vertx.setTimer(config.pollingInterval.inWholeMilliseconds, blobPollingAction)
+        handleBlobsFromTheQueue().handle { _, error ->
+          // keep draining the queue while there is a backlog, unless handling failed
+          val delay = if (error == null && blobsToHandle.isNotEmpty()) {
+            1L
+          } else {
+            config.pollingInterval.inWholeMilliseconds
+          }
+          timerId = vertx.setTimer(delay, blobPollingAction)
         }
       }
       timerId = vertx.setTimer(config.pollingInterval.inWholeMilliseconds, blobPollingAction)
@@ -197,22 +211,40 @@ class BlobCompressionProofCoordinator(
     return SafeFuture.completedFuture(Unit)
   }
 
-  private fun handleBlobFromTheQueue(): SafeFuture<Unit> {
-    return if (blobsToHandle.isNotEmpty()) {
-      val blobToHandle = blobsToHandle.poll()
-      sendBlobToCompressionProver(blobToHandle)
-        .whenException { exception ->
-          blobsToHandle.putFirst(blobToHandle)
-          log.warn(
-            "Error handling blob from BlobCompressionProofCoordinator queue: blob={} errorMessage={}",
-            blobToHandle.intervalString(),
-            exception.message,
-            exception,
-          )
-        }
-    } else {
-      SafeFuture.completedFuture(Unit)
+  /**
+   * Takes up to zkStatePrefetchLimit blobs from the queue and fetches their ZK states in parallel.
+   * Shnarfs are chained, each one depending on the previous blob's, so they are calculated one blob at a time,
+   * in the queue order. Blobs that could not be handled are put back at the head of the queue, in the same order.
+   */
+  private fun handleBlobsFromTheQueue(): SafeFuture<Unit> {
+    val blobs = ArrayList<Blob>(config.zkStatePrefetchLimit)
+    while (blobs.size < config.zkStatePrefetchLimit) {
+      blobs.add(blobsToHandle.poll() ?: break)
+    }
+    if (blobs.isEmpty()) {
+      return SafeFuture.completedFuture(Unit)
     }
+
+    val blobZkStateFutures = blobs.map { blob -> blobZkStateProvider.getBlobZKState(blob.blocksRange) }
+    var handledBlobs = 0
+    var chain = SafeFuture.completedFuture(Unit)
+    blobs.forEachIndexed { index, blob ->
+      chain = chain.thenCompose {
+        sendBlobToCompressionProver(blob, blobZkStateFutures[index])
+          .thenApply { handledBlobs += 1 }
+      }
+    }
+    return chain
+      .whenException { exception ->
+        val failedBlob = blobs[handledBlobs]
+        blobs.subList(handledBlobs, blobs.size).asReversed().forEach(blobsToHandle::putFirst)
+        log.warn(
+          "Error handling blob from BlobCompressionProofCoordinator queue: blob={} errorMessage={}",
+          failedBlob.intervalString(),
+          exception.message,
+          exception,
+        )
+      }
   }
 
   override fun stop(): CompletableFuture<Unit> {
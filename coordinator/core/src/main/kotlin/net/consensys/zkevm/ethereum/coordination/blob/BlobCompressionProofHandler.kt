@@ -1,5 +1,6 @@
 package net.consensys.zkevm.ethereum.coordination.blob
 
+import kotlinx.datetime.Instant
 import linea.domain.BlockInterval
 import net.consensys.zkevm.coordinator.clients.BlobCompressionProof
 import tech.pegasys.teku.infrastructure.async.SafeFuture
@@ -7,6 +8,8 @@ import tech.pegasys.teku.infrastructure.async.SafeFuture
 data class BlobCompressionProofUpdate(
   val blockInterval: BlockInterval,
   val blobCompressionProof: BlobCompressionProof,
+  val startBlockTime: Instant,
+  val endBlockTime: Instant,
 )
 
 fun interface BlobCompressionProofHandler {
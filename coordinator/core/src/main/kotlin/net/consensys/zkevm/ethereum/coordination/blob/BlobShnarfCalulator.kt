@@ -83,7 +83,6 @@ class GoBackedBlobShnarfCalculator(
 
   private val log: Logger = LogManager.getLogger(GoBackedBlobShnarfCalculator::class.java)
 
-  @Synchronized
   override fun calculateShnarf(
     compressedData: ByteArray,
     parentStateRootHash: ByteArray,
@@ -91,35 +90,45 @@ class GoBackedBlobShnarfCalculator(
     prevShnarf: ByteArray,
     conflationOrder: BlockIntervals,
   ): ShnarfResult {
+    // The native library takes the blob as a Base64 string: encode it outside the lock, so only the native call
+    // itself is serialized and the encoding of the next blob can overlap with it
     val compressedDataB64 = Base64.getEncoder().encodeToString(compressedData)
-    log.trace(
-      "calculateShnarf: " +
-        "compressedDataHex={} " +
-        "compressedDataBaseB64={} " +
-        "parentStateRootHash={} " +
-        "finalStateRootHash={} " +
-        "prevShnarf={} " +
-        "conflationOrder={}",
-      compressedData.encodeHex(),
-      compressedDataB64,
-      parentStateRootHash.encodeHex(),
-      finalStateRootHash.encodeHex(),
-      prevShnarf.encodeHex(),
-      conflationOrder,
-    )
-
-    val result = calculateShnarfTimer.captureTime {
-      delegate.CalculateShnarf(
-        eip4844Enabled = true,
-        compressedData = compressedDataB64,
-        parentStateRootHash = parentStateRootHash.encodeHex(),
-        finalStateRootHash = finalStateRootHash.encodeHex(),
-        prevShnarf = prevShnarf.encodeHex(),
-        conflationOrderStartingBlockNumber = conflationOrder.startingBlockNumber.toLong(),
-        conflationOrderUpperBoundariesLen = conflationOrder.upperBoundaries.size,
-        conflationOrderUpperBoundaries = conflationOrder.upperBoundaries.map { it.toLong() }.toLongArray(),
+    if (log.isTraceEnabled) {
+      log.trace(
+        "calculateShnarf: " +
+          "compressedDataHex={} " +
+          "compressedDataBaseB64={} " +
+          "parentStateRootHash={} " +
+          "finalStateRootHash={} " +
+          "prevShnarf={} " +
+          "conflationOrder={}",
+        compressedData.encodeHex(),
+        compressedDataB64,
+        parentStateRootHash.encodeHex(),
+        finalStateRootHash.encodeHex(),
+        prevShnarf.encodeHex(),
+        conflationOrder,
       )
     }
+    val parentStateRootHashHex = parentStateRootHash.encodeHex()
+    val finalStateRootHashHex = finalStateRootHash.encodeHex()
+    val prevShnarfHex = prevShnarf.encodeHex()
+    val conflationOrderUpperBoundaries = conflationOrder.upperBoundaries.map { it.toLong() }.toLongArray()
+
+    val result = synchronized(delegate) {
+      calculateShnarfTimer.captureTime {
+        delegate.CalculateShnarf(
+          eip4844Enabled = true,
+          compressedData = compressedDataB64,
+          parentStateRootHash = parentStateRootHashHex,
+          finalStateRootHash = finalStateRootHashHex,
+          prevShnarf = prevShnarfHex,
+          conflationOrderStartingBlockNumber = conflationOrder.startingBlockNumber.toLong(),
+          conflationOrderUpperBoundariesLen = conflationOrderUpperBoundaries.size,
+          conflationOrderUpperBoundaries = conflationOrderUpperBoundaries,
+        )
+      }
+    }
 
     if (result.errorMessage.isNotEmpty()) {
       val errorMessage = "Error while calculating Shnarf. error=${result.errorMessage}"
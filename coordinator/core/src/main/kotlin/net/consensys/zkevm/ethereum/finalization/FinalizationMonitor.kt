@@ -11,7 +11,16 @@ interface FinalizationMonitor {
   )
 
   fun getLastFinalizationUpdate(): FinalizationUpdate
-  fun addFinalizationHandler(handlerName: String, handler: FinalizationHandler)
+  fun addFinalizationHandler(handlerName: String, handler: FinalizationHandler) {
+    addFinalizationHandler(handlerName, runAfter = emptySet(), handler)
+  }
+
+  /**
+   * Handlers are called concurrently on each finalization update,
+   * except that a handler is only called once the handlers named in runAfter have completed.
+   */
+  fun addFinalizationHandler(handlerName: String, runAfter: Set<String>, handler: FinalizationHandler)
+
   fun removeFinalizationHandler(handlerName: String)
 }
 
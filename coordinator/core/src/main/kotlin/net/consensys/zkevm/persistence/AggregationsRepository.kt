@@ -44,5 +44,11 @@ interface AggregationsRepository {
 
   fun deleteAggregationsUpToEndBlockNumber(endBlockNumberInclusive: Long): SafeFuture<Int>
 
+  /**
+   * Deletes at most maxAggregations of the aggregations ending at or before endBlockNumberInclusive, lowest first.
+   * Returns the number of deleted aggregations, lower than maxAggregations once none are left.
+   */
+  fun deleteAggregationsUpToEndBlockNumber(endBlockNumberInclusive: Long, maxAggregations: Int): SafeFuture<Int>
+
   fun deleteAggregationsAfterBlockNumber(startingBlockNumberInclusive: Long): SafeFuture<Int>
 }
@@ -14,6 +14,15 @@ interface BatchesRepository {
     endBlockNumberInclusive: Long,
   ): SafeFuture<Int>
 
+  /**
+   * Deletes at most maxBatches of the batches ending at or before endBlockNumberInclusive, lowest first.
+   * Returns the number of deleted batches, lower than maxBatches once none are left.
+   */
+  fun deleteBatchesUpToEndBlockNumber(
+    endBlockNumberInclusive: Long,
+    maxBatches: Int,
+  ): SafeFuture<Int>
+
   fun deleteBatchesAfterBlockNumber(
     startingBlockNumberInclusive: Long,
   ): SafeFuture<Int>
@@ -24,5 +24,14 @@ interface BlobsRepository {
     endBlockNumberInclusive: ULong,
   ): SafeFuture<Int>
 
+  /**
+   * Deletes at most maxBlobs of the blobs ending at or before endBlockNumberInclusive, lowest first.
+   * Returns the number of deleted blobs, lower than maxBlobs once none are left.
+   */
+  fun deleteBlobsUpToEndBlockNumber(
+    endBlockNumberInclusive: ULong,
+    maxBlobs: Int,
+  ): SafeFuture<Int>
+
   fun deleteBlobsAfterBlockNumber(startingBlockNumberInclusive: ULong): SafeFuture<Int>
 }
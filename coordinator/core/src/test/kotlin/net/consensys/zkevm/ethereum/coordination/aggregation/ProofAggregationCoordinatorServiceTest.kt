@@ -8,14 +8,17 @@ import linea.domain.BlockIntervals
 import linea.kotlin.trimToSecondPrecision
 import net.consensys.linea.metrics.MetricsFacade
 import net.consensys.linea.metrics.micrometer.MicrometerMetricsFacade
+import net.consensys.zkevm.coordinator.clients.BlobCompressionProof
 import net.consensys.zkevm.coordinator.clients.ProofAggregationProverClientV2
 import net.consensys.zkevm.domain.Aggregation
+import net.consensys.zkevm.domain.Batch
 import net.consensys.zkevm.domain.BlobAndBatchCounters
 import net.consensys.zkevm.domain.BlobCounters
 import net.consensys.zkevm.domain.BlobsToAggregate
 import net.consensys.zkevm.domain.ProofIndex
 import net.consensys.zkevm.domain.ProofToFinalize
 import net.consensys.zkevm.domain.ProofsToAggregate
+import net.consensys.zkevm.ethereum.coordination.blob.BlobCompressionProofUpdate
 import net.consensys.zkevm.persistence.AggregationsRepository
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.Test
@@ -26,9 +29,12 @@ import org.mockito.kotlin.mock
 import org.mockito.kotlin.verify
 import org.mockito.kotlin.whenever
 import tech.pegasys.teku.infrastructure.async.SafeFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
 import java.util.function.Consumer
 import kotlin.random.Random
 import kotlin.time.Duration.Companion.milliseconds
+import kotlin.time.Duration.Companion.minutes
 
 class ProofAggregationCoordinatorServiceTest {
   private val mockVertx = mock<Vertx>()
@@ -69,6 +75,12 @@ class ProofAggregationCoordinatorServiceTest {
     l2MessagingBlocksOffsets = "mock_l2MessagingBlocksOffsets".toByteArray(),
   )
 
+  private val aggregationL2State = AggregationL2State(
+    parentAggregationLastBlockTimestamp = Instant.fromEpochSeconds(123456),
+    parentAggregationLastL1RollingHashMessageNumber = 12UL,
+    parentAggregationLastL1RollingHash = ByteArray(32),
+  )
+
   @Test
   fun `test aggregation flow`() {
     // FIXME this it's only happy path, with should cover other scenarios
@@ -246,4 +258,171 @@ class ProofAggregationCoordinatorServiceTest {
     verify(mockAggregationsRepository).saveNewAggregation(aggregation2)
     assertThat(provenAggregation).isEqualTo(aggregation2.endBlockNumber)
   }
+
+  /**
+   * Blobs table served from memory, blobs are added to it once proven.
+   */
+  private class InMemoryProvenBlobs : ConsecutiveProvenBlobsProvider {
+    val provenBlobs = CopyOnWriteArrayList<BlobAndBatchCounters>()
+
+    override fun findConsecutiveProvenBlobs(fromBlockNumber: Long): SafeFuture<List<BlobAndBatchCounters>> {
+      return SafeFuture.completedFuture(
+        provenBlobs.filter { it.blobCounters.startBlockNumber >= fromBlockNumber.toULong() },
+      )
+    }
+  }
+
+  private class RecordingAggregationCalculator : AggregationCalculator {
+    val blobs = CopyOnWriteArrayList<BlobCounters>()
+
+    override fun newBlob(blobCounters: BlobCounters) {
+      blobs.add(blobCounters)
+    }
+
+    override fun onAggregation(aggregationHandler: AggregationHandler) {}
+  }
+
+  private fun blobCompressionProofUpdate(blob: BlobAndBatchCounters): BlobCompressionProofUpdate {
+    return BlobCompressionProofUpdate(
+      blockInterval = blob.blobCounters,
+      blobCompressionProof = BlobCompressionProof(
+        compressedData = Random.nextBytes(32),
+        conflationOrder = blob.executionProofs,
+        prevShnarf = Random.nextBytes(32),
+        parentStateRootHash = Random.nextBytes(32),
+        finalStateRootHash = Random.nextBytes(32),
+        parentDataHash = Random.nextBytes(32),
+        dataHash = Random.nextBytes(32),
+        snarkHash = Random.nextBytes(32),
+        expectedX = Random.nextBytes(32),
+        expectedY = Random.nextBytes(32),
+        expectedShnarf = blob.blobCounters.expectedShnarf,
+        decompressionProof = Random.nextBytes(512),
+        proverVersion = "mock-0.0.0",
+        verifierID = 6789,
+        commitment = Random.nextBytes(48),
+        kzgProofContract = Random.nextBytes(48),
+        kzgProofSidecar = Random.nextBytes(48),
+      ),
+      startBlockTime = blob.blobCounters.startBlockTimestamp,
+      endBlockTime = blob.blobCounters.endBlockTimestamp,
+    )
+  }
+
+  @Test
+  fun `proven blobs are sent to aggregation as soon as they are proven`() {
+    val inMemoryProvenBlobs = InMemoryProvenBlobs()
+    val aggregationCalculator = RecordingAggregationCalculator()
+    val provenBlobsTracker = ProvenBlobsTracker()
+    val provenBlobEndBlockNumbers = CopyOnWriteArrayList<ULong>()
+    // not started, so blobs are only polled from the blobs table when action is called
+    val service = ProofAggregationCoordinatorService(
+      vertx = mockVertx,
+      config = ProofAggregationCoordinatorService.Config(
+        pollingInterval = 1.minutes,
+        proofsLimit = blobsToPoll,
+      ),
+      metricsFacade = MicrometerMetricsFacade(registry = SimpleMeterRegistry()),
+      nextBlockNumberToPoll = 1L,
+      aggregationCalculator = aggregationCalculator,
+      aggregationsRepository = mock<AggregationsRepository>(),
+      consecutiveProvenBlobsProvider = inMemoryProvenBlobs,
+      provenBlobsTracker = provenBlobsTracker,
+      proofAggregationClient = mock<ProofAggregationProverClientV2>(),
+      aggregationL2StateProvider = object : AggregationL2StateProvider {
+        override fun getAggregationL2State(blockNumber: Long) = SafeFuture.completedFuture(aggregationL2State)
+      },
+      provenBlobEndBlockNumberConsumer = { provenBlobEndBlockNumbers.add(it) },
+    )
+    val blobs = (0UL until 5UL).map { createBlob(it * 10UL + 1UL, it * 10UL + 10UL) }
+
+    blobs.take(3).forEach { blob ->
+      blob.executionProofs.toIntervalList().forEach {
+        provenBlobsTracker.acceptNewBatch(Batch(it.startBlockNumber, it.endBlockNumber))
+      }
+      assertThat(aggregationCalculator.blobs).doesNotContain(blob.blobCounters)
+      inMemoryProvenBlobs.provenBlobs.add(blob)
+      provenBlobsTracker.acceptNewBlobCompressionProof(blobCompressionProofUpdate(blob))
+      assertThat(aggregationCalculator.blobs.last()).isEqualTo(blob.blobCounters)
+      assertThat(provenBlobEndBlockNumbers.last()).isEqualTo(blob.blobCounters.endBlockNumber)
+    }
+
+    // blobs missed by the tracker, e.g. proven before a restart, are polled from the blobs table,
+    // blobs already sent by the tracker are not sent again
+    inMemoryProvenBlobs.provenBlobs.addAll(blobs.drop(3))
+    service.action().get()
+
+    assertThat(aggregationCalculator.blobs).containsExactlyElementsOf(blobs.map { it.blobCounters })
+    assertThat(provenBlobEndBlockNumbers).containsExactly(10UL, 20UL, 30UL, 50UL)
+  }
+
+  /**
+   * Serves L2 states with futures completed by the test, as the L2 contract and RPC calls would once they respond.
+   */
+  private class ControlledAggregationL2StateProvider : AggregationL2StateProvider {
+    val requestedBlockNumbers = CopyOnWriteArrayList<Long>()
+    val aggregationL2States = ConcurrentHashMap<Long, SafeFuture<AggregationL2State>>()
+
+    override fun getAggregationL2State(blockNumber: Long): SafeFuture<AggregationL2State> {
+      requestedBlockNumbers.add(blockNumber)
+      return aggregationL2States.computeIfAbsent(blockNumber) { SafeFuture() }
+    }
+  }
+
+  @Test
+  fun `aggregation requests do not wait for the l2 state of their parent block`() {
+    val vertx = Vertx.vertx()
+    val aggregationL2StateProvider = ControlledAggregationL2StateProvider()
+    val inMemoryProvenBlobs = InMemoryProvenBlobs()
+    val requestedStartBlockNumbers = CopyOnWriteArrayList<ULong>()
+    val proofAggregationClient = mock<ProofAggregationProverClientV2>()
+    whenever(proofAggregationClient.requestProof(any())).thenAnswer {
+      requestedStartBlockNumbers.add(it.getArgument<ProofsToAggregate>(0).startBlockNumber)
+      SafeFuture<ProofToFinalize>()
+    }
+    val service = ProofAggregationCoordinatorService(
+      vertx = vertx,
+      config = ProofAggregationCoordinatorService.Config(
+        pollingInterval = 1.minutes,
+        proofsLimit = blobsToPoll,
+      ),
+      metricsFacade = MicrometerMetricsFacade(registry = SimpleMeterRegistry()),
+      nextBlockNumberToPoll = 1L,
+      aggregationCalculator = RecordingAggregationCalculator(),
+      aggregationsRepository = mock<AggregationsRepository>(),
+      consecutiveProvenBlobsProvider = inMemoryProvenBlobs,
+      proofAggregationClient = proofAggregationClient,
+      aggregationL2StateProvider = aggregationL2StateProvider,
+    )
+    val aggregations = (0UL until 5UL).map { BlobsToAggregate(it * 20UL + 1UL, it * 20UL + 20UL) }
+
+    service.start().get()
+    try {
+      aggregations.forEach { aggregation ->
+        val startBlockNumber = aggregation.startBlockNumber
+        val parentBlockNumber = startBlockNumber.toLong() - 1L
+        // the L2 calls for the parent block complete while the blobs of the aggregation are being proven
+        assertThat(aggregationL2StateProvider.aggregationL2States[parentBlockNumber]).isNotNull()
+        aggregationL2StateProvider.aggregationL2States[parentBlockNumber]!!.complete(aggregationL2State)
+        inMemoryProvenBlobs.provenBlobs.add(createBlob(startBlockNumber, startBlockNumber + 9UL))
+        inMemoryProvenBlobs.provenBlobs.add(createBlob(startBlockNumber + 10UL, aggregation.endBlockNumber))
+        service.action().get()
+
+        service.onAggregation(aggregation)
+
+        // sent right away, while the L2 state of the next aggregation parent block is still being fetched
+        assertThat(requestedStartBlockNumbers.last()).isEqualTo(startBlockNumber)
+        assertThat(aggregationL2StateProvider.aggregationL2States[aggregation.endBlockNumber.toLong()])
+          .isNotNull()
+          .isNotDone()
+      }
+    } finally {
+      service.stop().get()
+      vertx.close().toCompletionStage().toCompletableFuture().get()
+    }
+
+    assertThat(requestedStartBlockNumbers).containsExactlyElementsOf(aggregations.map { it.startBlockNumber })
+    // each parent block L2 state is fetched once, as soon as the previous aggregation is triggered
+    assertThat(aggregationL2StateProvider.requestedBlockNumbers).containsExactly(0L, 20L, 40L, 60L, 80L, 100L)
+  }
 }
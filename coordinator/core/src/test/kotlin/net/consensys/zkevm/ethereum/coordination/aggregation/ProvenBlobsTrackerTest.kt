@@ -0,0 +1,112 @@
+package net.consensys.zkevm.ethereum.coordination.aggregation
+
+import kotlinx.datetime.Instant
+import linea.domain.BlockInterval
+import linea.domain.BlockIntervals
+import net.consensys.zkevm.coordinator.clients.BlobCompressionProof
+import net.consensys.zkevm.domain.Batch
+import net.consensys.zkevm.ethereum.coordination.blob.BlobCompressionProofUpdate
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.random.Random
+
+class ProvenBlobsTrackerTest {
+  private val tracker = ProvenBlobsTracker()
+
+  private fun blobCompressionProofUpdate(conflationOrder: BlockIntervals): BlobCompressionProofUpdate {
+    return BlobCompressionProofUpdate(
+      blockInterval = conflationOrder.toBlockInterval(),
+      blobCompressionProof = BlobCompressionProof(
+        compressedData = Random.nextBytes(32),
+        conflationOrder = conflationOrder,
+        prevShnarf = Random.nextBytes(32),
+        parentStateRootHash = Random.nextBytes(32),
+        finalStateRootHash = Random.nextBytes(32),
+        parentDataHash = Random.nextBytes(32),
+        dataHash = Random.nextBytes(32),
+        snarkHash = Random.nextBytes(32),
+        expectedX = Random.nextBytes(32),
+        expectedY = Random.nextBytes(32),
+        expectedShnarf = Random.nextBytes(32),
+        decompressionProof = Random.nextBytes(512),
+        proverVersion = "mock-0.0.0",
+        verifierID = 6789,
+        commitment = Random.nextBytes(48),
+        kzgProofContract = Random.nextBytes(48),
+        kzgProofSidecar = Random.nextBytes(48),
+      ),
+      startBlockTime = Instant.fromEpochSeconds(conflationOrder.startingBlockNumber.toLong()),
+      endBlockTime = Instant.fromEpochSeconds(conflationOrder.upperBoundaries.last().toLong()),
+    )
+  }
+
+  private fun proveBatches(conflationOrder: BlockIntervals) {
+    conflationOrder.toIntervalList().forEach { tracker.acceptNewBatch(Batch(it.startBlockNumber, it.endBlockNumber)) }
+  }
+
+  private fun provenBlobsIntervals(fromBlockNumber: Long): List<BlockInterval> {
+    return tracker.findConsecutiveProvenBlobs(fromBlockNumber).get()
+      .map { BlockInterval(it.blobCounters.startBlockNumber, it.blobCounters.endBlockNumber) }
+  }
+
+  @Test
+  fun `blob is proven once its compression proof and all its batches are proven`() {
+    val blob1Batches = BlockIntervals(1UL, listOf(3UL, 7UL, 10UL))
+    val blob2Batches = BlockIntervals(11UL, listOf(15UL, 20UL))
+
+    tracker.acceptNewBlobCompressionProof(blobCompressionProofUpdate(blob1Batches))
+    tracker.acceptNewBatch(Batch(1UL, 3UL))
+    tracker.acceptNewBatch(Batch(4UL, 7UL))
+    assertThat(provenBlobsIntervals(1L)).isEmpty()
+
+    tracker.acceptNewBatch(Batch(8UL, 10UL))
+    proveBatches(blob2Batches)
+    assertThat(provenBlobsIntervals(1L)).containsExactly(BlockInterval(1UL, 10UL))
+
+    tracker.acceptNewBlobCompressionProof(blobCompressionProofUpdate(blob2Batches))
+    val provenBlobs = tracker.findConsecutiveProvenBlobs(1L).get()
+    assertThat(provenBlobs.map { BlockInterval(it.blobCounters.startBlockNumber, it.blobCounters.endBlockNumber) })
+      .containsExactly(BlockInterval(1UL, 10UL), BlockInterval(11UL, 20UL))
+    val lastBlob = provenBlobs.last()
+    assertThat(lastBlob.executionProofs).isEqualTo(blob2Batches)
+    assertThat(lastBlob.blobCounters.numberOfBatches).isEqualTo(2U)
+    assertThat(lastBlob.blobCounters.startBlockTimestamp).isEqualTo(Instant.fromEpochSeconds(11))
+    assertThat(lastBlob.blobCounters.endBlockTimestamp).isEqualTo(Instant.fromEpochSeconds(20))
+  }
+
+  @Test
+  fun `only consecutive proven blobs are returned`() {
+    val blob1Batches = BlockIntervals(1UL, listOf(10UL))
+    val blob2Batches = BlockIntervals(11UL, listOf(20UL))
+    val blob3Batches = BlockIntervals(21UL, listOf(30UL))
+    listOf(blob1Batches, blob3Batches).forEach {
+      proveBatches(it)
+      tracker.acceptNewBlobCompressionProof(blobCompressionProofUpdate(it))
+    }
+    tracker.acceptNewBlobCompressionProof(blobCompressionProofUpdate(blob2Batches))
+
+    assertThat(provenBlobsIntervals(1L)).containsExactly(BlockInterval(1UL, 10UL))
+    // not known by the tracker, e.g. proven before a restart
+    assertThat(provenBlobsIntervals(5L)).isEmpty()
+
+    proveBatches(blob2Batches)
+    assertThat(provenBlobsIntervals(11L)).containsExactly(BlockInterval(11UL, 20UL), BlockInterval(21UL, 30UL))
+    // blobs before the requested block number were dropped
+    assertThat(provenBlobsIntervals(1L)).isEmpty()
+  }
+
+  @Test
+  fun `listeners are notified of every proof`() {
+    val notifications = AtomicInteger(0)
+    tracker.onNewProof { notifications.incrementAndGet() }
+    tracker.onNewProof { throw IllegalStateException("listener failure") }
+    tracker.onNewProof { notifications.incrementAndGet() }
+
+    val blobBatches = BlockIntervals(1UL, listOf(3UL, 10UL))
+    proveBatches(blobBatches)
+    tracker.acceptNewBlobCompressionProof(blobCompressionProofUpdate(blobBatches))
+
+    assertThat(notifications.get()).isEqualTo(2 * 3)
+  }
+}
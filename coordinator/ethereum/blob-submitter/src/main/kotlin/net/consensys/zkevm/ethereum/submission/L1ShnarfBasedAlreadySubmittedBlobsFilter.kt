@@ -1,15 +1,27 @@
 package net.consensys.zkevm.ethereum.submission
 
+import linea.contract.l1.LineaRollupSmartContractClientReadOnly
+import linea.domain.BlockParameter
+import linea.ethapi.EthApiClient
+import linea.kotlin.encodeHex
 import net.consensys.linea.async.AsyncFilter
-import net.consensys.zkevm.coordinator.clients.smartcontract.LineaRollupSmartContractClient
 import net.consensys.zkevm.domain.BlobRecord
 import tech.pegasys.teku.infrastructure.async.SafeFuture
 import java.util.function.Consumer
 
 class L1ShnarfBasedAlreadySubmittedBlobsFilter(
-  private val lineaRollup: LineaRollupSmartContractClient,
+  private val lineaRollup: LineaRollupSmartContractClientReadOnly,
+  private val l1EthApiClient: EthApiClient,
   private val acceptedBlobEndBlockNumberConsumer: Consumer<ULong> = Consumer<ULong> { },
+  private val maxShnarfsPerRequest: Int = 100,
+  private val confirmationBlockTag: BlockParameter.Tag = BlockParameter.Tag.FINALIZED,
 ) : AsyncFilter<BlobRecord> {
+  init {
+    require(maxShnarfsPerRequest > 0) { "maxShnarfsPerRequest must be greater than 0" }
+  }
+
+  // end block numbers of the blobs whose shnarf was found at confirmationBlockTag, by hex shnarf
+  private val confirmedBlobsByShnarf = mutableMapOf<String, ULong>()
 
   /**
    * Filters out blobs that have already been submitted to the smart contract.
@@ -17,32 +29,80 @@ class L1ShnarfBasedAlreadySubmittedBlobsFilter(
    * b1[10..19], b2[20..30], b3[31..40] -> shnarfFinalBlockNumbers = {b3 => 40}
    *
    * if blobRecords=[b1, b2, b3, b4, b5, b6] the result will be [b4, b5, b6]
+   *
+   * Shnarfs are looked up in batches, first at confirmationBlockTag, then at the current L1 block for the blobs
+   * after the ones found. Only shnarfs found at confirmationBlockTag are remembered, so blobs up to them
+   * are not looked up again on later calls, as their submission cannot be reorged out.
    */
   override fun invoke(
     items: List<BlobRecord>,
   ): SafeFuture<List<BlobRecord>> {
-    val blockByShnarfQueryFutures = items.map { blobRecord ->
-      lineaRollup
-        .isBlobShnarfPresent(shnarf = blobRecord.expectedShnarf)
-        .thenApply { isShnarfPresent ->
-          if (isShnarfPresent) {
-            blobRecord.endBlockNumber
-          } else {
-            null
-          }
-        }
+    if (items.isEmpty()) {
+      return SafeFuture.completedFuture(items)
     }
-
-    return SafeFuture.collectAll(blockByShnarfQueryFutures.stream())
-      .thenApply { blockNumbersFoundInSmartContract ->
-        blockNumbersFoundInSmartContract
-          .filterNotNull()
-          .maxOfOrNull { it }
+    val highestConfirmedBlobEndBlockNumber = highestConfirmedBlobEndBlockNumber(items)
+    return findHighestBlobEndBlockNumberInL1(
+      blobs = items.after(highestConfirmedBlobEndBlockNumber),
+      blockParameter = confirmationBlockTag,
+    )
+      .thenCompose { highestBlobEndBlockNumberConfirmedInL1 ->
+        val highestConfirmedEndBlockNumber =
+          listOfNotNull(highestConfirmedBlobEndBlockNumber, highestBlobEndBlockNumberConfirmedInL1).maxOrNull()
+        l1EthApiClient.blockNumber()
+          .thenCompose { l1BlockNumber ->
+            findHighestBlobEndBlockNumberInL1(
+              blobs = items.after(highestConfirmedEndBlockNumber),
+              blockParameter = BlockParameter.fromNumber(l1BlockNumber),
+            )
+          }
+          .thenApply { highestBlobEndBlockNumberFoundInL1 ->
+            listOfNotNull(highestConfirmedEndBlockNumber, highestBlobEndBlockNumberFoundInL1).maxOrNull()
+          }
       }
       .thenApply { highestBlobEndBlockNumberFoundInL1 ->
         highestBlobEndBlockNumberFoundInL1?.also(acceptedBlobEndBlockNumberConsumer::accept)
-          ?.let { blockNumber -> items.filter { it.startBlockNumber > blockNumber } }
-          ?: items
+        items.after(highestBlobEndBlockNumberFoundInL1)
+      }
+  }
+
+  private fun List<BlobRecord>.after(blockNumber: ULong?): List<BlobRecord> {
+    return blockNumber?.let { filter { it.startBlockNumber > blockNumber } } ?: this
+  }
+
+  @Synchronized
+  private fun highestConfirmedBlobEndBlockNumber(items: List<BlobRecord>): ULong? {
+    // blobs that are not candidates anymore won't be checked again
+    val itemsShnarfs = items.map { it.expectedShnarf.encodeHex() }.toSet()
+    confirmedBlobsByShnarf.keys.retainAll(itemsShnarfs)
+    return confirmedBlobsByShnarf.values.maxOrNull()
+  }
+
+  private fun findHighestBlobEndBlockNumberInL1(
+    blobs: List<BlobRecord>,
+    blockParameter: BlockParameter,
+  ): SafeFuture<ULong?> {
+    val shnarfsPresenceFutures = blobs.chunked(maxShnarfsPerRequest).map { blobsChunk ->
+      lineaRollup
+        .areBlobShnarfsPresent(
+          blockParameter = blockParameter,
+          shnarfs = blobsChunk.map { it.expectedShnarf },
+        )
+        .thenApply { shnarfsPresence -> blobsChunk.zip(shnarfsPresence) }
+    }
+
+    return SafeFuture.collectAll(shnarfsPresenceFutures.stream())
+      .thenApply { blobsPresence ->
+        blobsPresence
+          .flatten()
+          .filter { (_, isShnarfPresent) -> isShnarfPresent }
+          .map { (blobRecord, _) -> blobRecord }
+          .onEach { blobRecord -> if (blockParameter == confirmationBlockTag) confirmBlob(blobRecord) }
+          .maxOfOrNull { it.endBlockNumber }
       }
   }
+
+  @Synchronized
+  private fun confirmBlob(blobRecord: BlobRecord) {
+    confirmedBlobsByShnarf[blobRecord.expectedShnarf.encodeHex()] = blobRecord.endBlockNumber
+  }
 }
@@ -1,16 +1,85 @@
 package net.consensys.zkevm.ethereum.submission
 
-import net.consensys.zkevm.coordinator.clients.smartcontract.LineaRollupSmartContractClient
+import linea.contract.l1.LineaRollupSmartContractClientReadOnly
+import linea.domain.BlockParameter
+import linea.ethapi.EthApiClient
+import linea.kotlin.encodeHex
+import net.consensys.zkevm.domain.BlobRecord
 import net.consensys.zkevm.domain.createBlobRecord
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.Test
-import org.mockito.kotlin.any
 import org.mockito.kotlin.mock
 import org.mockito.kotlin.whenever
 import tech.pegasys.teku.infrastructure.async.SafeFuture
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.atomic.AtomicInteger
 import java.util.function.Consumer
 
 class L1ShnarfBasedAlreadySubmittedBlobsFilterTest {
+  /**
+   * Answers shnarf lookups from in memory sets of submitted and finalized shnarfs,
+   * counting the requests sent to L1.
+   */
+  private class FakeLineaRollupSmartContractClient :
+    LineaRollupSmartContractClientReadOnly by mock<LineaRollupSmartContractClientReadOnly>() {
+    val submittedShnarfs: MutableSet<String> = mutableSetOf()
+    val finalizedShnarfs: MutableSet<String> = mutableSetOf()
+    val requestsCount = AtomicInteger(0)
+    val shnarfsLookedUp = CopyOnWriteArrayList<Pair<BlockParameter, String>>()
+
+    fun submit(vararg blobs: BlobRecord) {
+      blobs.forEach { submittedShnarfs.add(it.expectedShnarf.encodeHex()) }
+    }
+
+    fun finalize(vararg blobs: BlobRecord) {
+      submit(*blobs)
+      blobs.forEach { finalizedShnarfs.add(it.expectedShnarf.encodeHex()) }
+    }
+
+    fun shnarfsLookedUpAt(blockParameter: BlockParameter): List<String> {
+      return shnarfsLookedUp.filter { it.first == blockParameter }.map { it.second }
+    }
+
+    override fun isBlobShnarfPresent(blockParameter: BlockParameter, shnarf: ByteArray): SafeFuture<Boolean> {
+      requestsCount.incrementAndGet()
+      return SafeFuture.completedFuture(lookUp(blockParameter, shnarf))
+    }
+
+    override fun areBlobShnarfsPresent(
+      blockParameter: BlockParameter,
+      shnarfs: List<ByteArray>,
+    ): SafeFuture<List<Boolean>> {
+      requestsCount.incrementAndGet()
+      return SafeFuture.completedFuture(shnarfs.map { lookUp(blockParameter, it) })
+    }
+
+    private fun lookUp(blockParameter: BlockParameter, shnarf: ByteArray): Boolean {
+      shnarfsLookedUp.add(blockParameter to shnarf.encodeHex())
+      return if (blockParameter == BlockParameter.Tag.FINALIZED) {
+        finalizedShnarfs.contains(shnarf.encodeHex())
+      } else {
+        submittedShnarfs.contains(shnarf.encodeHex())
+      }
+    }
+  }
+
+  private class FakeL1BlockNumber(var blockNumber: ULong) {
+    val requestsCount = AtomicInteger(0)
+    val ethApiClient = mock<EthApiClient>().also {
+      whenever(it.blockNumber()).thenAnswer {
+        requestsCount.incrementAndGet()
+        SafeFuture.completedFuture(blockNumber)
+      }
+    }
+  }
+
+  private fun createBlobs(count: Int): List<BlobRecord> {
+    return (0 until count).map { index ->
+      val startBlockNumber = index.toULong() * 10UL + 1UL
+      createBlobRecord(startBlockNumber, startBlockNumber + 9UL)
+    }
+  }
+
   @Test
   fun `filterOutAlreadySubmittedBlobRecords filters out all blobs before highest returned blockNumber`() {
     // previous tick submitted 2 chunks of blobs:
@@ -26,22 +95,17 @@ class L1ShnarfBasedAlreadySubmittedBlobsFilterTest {
     val blob7 = createBlobRecord(70UL, 79UL)
     val blobs = listOf(blob1, blob2, blob3, blob4, blob5, blob6, blob7)
 
-    val l1SmcClient = mock<LineaRollupSmartContractClient>()
-    whenever(l1SmcClient.isBlobShnarfPresent(any(), any()))
-      .thenAnswer { invocation ->
-        val shnarfQueried = invocation.getArgument<ByteArray>(1)
-        val endBlockNumber = when {
-          shnarfQueried.contentEquals(blob3.expectedShnarf) -> true
-          shnarfQueried.contentEquals(blob5.expectedShnarf) -> true
-          else -> false
-        }
-        SafeFuture.completedFuture(endBlockNumber)
-      }
+    val l1SmcClient = FakeLineaRollupSmartContractClient().apply {
+      finalize(blob3)
+      submit(blob5)
+    }
+    val l1BlockNumber = FakeL1BlockNumber(100UL)
 
     var acceptedBlob = 0UL
     val acceptedBlobEndBlockNumberConsumer = Consumer<ULong> { acceptedBlob = it }
     val blobsFilter = L1ShnarfBasedAlreadySubmittedBlobsFilter(
       lineaRollup = l1SmcClient,
+      l1EthApiClient = l1BlockNumber.ethApiClient,
       acceptedBlobEndBlockNumberConsumer = acceptedBlobEndBlockNumberConsumer,
     )
 
@@ -49,5 +113,74 @@ class L1ShnarfBasedAlreadySubmittedBlobsFilterTest {
 
     assertThat(filteredBlobs).isEqualTo(listOf(blob6, blob7))
     assertThat(acceptedBlob).isEqualTo(blob5.endBlockNumber)
+    // blobs after the finalized ones are looked up at the current L1 block
+    assertThat(l1SmcClient.shnarfsLookedUpAt(BlockParameter.Tag.FINALIZED))
+      .containsExactlyElementsOf(blobs.map { it.expectedShnarf.encodeHex() })
+    assertThat(l1SmcClient.shnarfsLookedUpAt(BlockParameter.fromNumber(100UL)))
+      .containsExactlyElementsOf(listOf(blob4, blob5, blob6, blob7).map { it.expectedShnarf.encodeHex() })
+  }
+
+  @Test
+  fun `shnarfs are looked up in batches and blobs up to finalized ones are not looked up again`() {
+    val blobs = createBlobs(250)
+    val l1SmcClient = FakeLineaRollupSmartContractClient().apply { finalize(blobs[49], blobs[99]) }
+    val l1BlockNumber = FakeL1BlockNumber(100UL)
+    val blobsFilter = L1ShnarfBasedAlreadySubmittedBlobsFilter(
+      lineaRollup = l1SmcClient,
+      l1EthApiClient = l1BlockNumber.ethApiClient,
+      maxShnarfsPerRequest = 100,
+    )
+    fun requestsCount() = l1SmcClient.requestsCount.get() + l1BlockNumber.requestsCount.get()
+
+    // 1st tick: all the blobs are looked up at the finalized block, 100 per request,
+    // then the ones after the finalized blobs at the current block
+    assertThat(blobsFilter.invoke(blobs).get()).isEqualTo(blobs.drop(100))
+    val firstTickRequests = requestsCount()
+    assertThat(firstTickRequests).isEqualTo(3 + 1 + 2)
+
+    // 2nd tick: L1 moved on, blobs 100..149 were submitted since but are not finalized yet
+    l1BlockNumber.blockNumber = 101UL
+    l1SmcClient.submit(blobs[149])
+    l1SmcClient.shnarfsLookedUp.clear()
+    assertThat(blobsFilter.invoke(blobs).get()).isEqualTo(blobs.drop(150))
+    val secondTickRequests = requestsCount() - firstTickRequests
+    assertThat(secondTickRequests).isEqualTo(2 + 1 + 2)
+    assertThat(l1SmcClient.shnarfsLookedUpAt(BlockParameter.Tag.FINALIZED))
+      .containsExactlyElementsOf(blobs.drop(100).map { it.expectedShnarf.encodeHex() })
+    assertThat(l1SmcClient.shnarfsLookedUpAt(BlockParameter.fromNumber(101UL)))
+      .containsExactlyElementsOf(blobs.drop(100).map { it.expectedShnarf.encodeHex() })
+
+    // 3rd tick: blobs 100..149 are finalized, they are not looked up again from then on
+    l1SmcClient.finalize(blobs[149])
+    assertThat(blobsFilter.invoke(blobs).get()).isEqualTo(blobs.drop(150))
+    l1SmcClient.shnarfsLookedUp.clear()
+    assertThat(blobsFilter.invoke(blobs).get()).isEqualTo(blobs.drop(150))
+    assertThat(l1SmcClient.shnarfsLookedUpAt(BlockParameter.Tag.FINALIZED))
+      .containsExactlyElementsOf(blobs.drop(150).map { it.expectedShnarf.encodeHex() })
+    assertThat(l1SmcClient.shnarfsLookedUpAt(BlockParameter.fromNumber(101UL)))
+      .containsExactlyElementsOf(blobs.drop(150).map { it.expectedShnarf.encodeHex() })
+  }
+
+  @Test
+  fun `blobs whose submission is not finalized are looked up again and kept once reorged out`() {
+    val blobs = createBlobs(10)
+    val l1SmcClient = FakeLineaRollupSmartContractClient().apply { submit(blobs[4]) }
+    val l1BlockNumber = FakeL1BlockNumber(100UL)
+    var acceptedBlob = 0UL
+    val blobsFilter = L1ShnarfBasedAlreadySubmittedBlobsFilter(
+      lineaRollup = l1SmcClient,
+      l1EthApiClient = l1BlockNumber.ethApiClient,
+      acceptedBlobEndBlockNumberConsumer = { acceptedBlob = it },
+    )
+
+    assertThat(blobsFilter.invoke(blobs).get()).isEqualTo(blobs.drop(5))
+    assertThat(acceptedBlob).isEqualTo(blobs[4].endBlockNumber)
+
+    // the submission of blobs[4] was reorged out by a fork at the same height
+    l1SmcClient.submittedShnarfs.clear()
+    l1SmcClient.submit(blobs[2])
+
+    assertThat(blobsFilter.invoke(blobs).get()).isEqualTo(blobs.drop(3))
+    assertThat(acceptedBlob).isEqualTo(blobs[2].endBlockNumber)
   }
 }
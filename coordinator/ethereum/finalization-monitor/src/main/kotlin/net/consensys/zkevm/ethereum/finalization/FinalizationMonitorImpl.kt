@@ -11,11 +11,14 @@ import org.apache.tuweni.bytes.Bytes32
 import org.web3j.protocol.Web3j
 import org.web3j.protocol.core.DefaultBlockParameter
 import tech.pegasys.teku.infrastructure.async.SafeFuture
-import java.util.Collections
 import java.util.concurrent.atomic.AtomicReference
 import kotlin.time.Duration
 import kotlin.time.Duration.Companion.milliseconds
 
+/**
+ * Polls the finalized L2 block number from the rollup contract and only fetches the L2 block and its state root hash
+ * when it has changed.
+ */
 class FinalizationMonitorImpl(
   private val config: Config,
   private val contract: LineaRollupSmartContractClientReadOnly,
@@ -32,9 +35,12 @@ class FinalizationMonitorImpl(
     val l1QueryBlockTag: BlockParameter.Tag = BlockParameter.Tag.FINALIZED,
   )
 
-  private val finalizationHandlers:
-    MutableMap<String, FinalizationHandler> =
-    Collections.synchronizedMap(LinkedHashMap())
+  private data class RegisteredHandler(
+    val handler: FinalizationHandler,
+    val runAfter: Set<String>,
+  )
+
+  private val finalizationHandlers: MutableMap<String, RegisteredHandler> = LinkedHashMap()
   private val lastFinalizationUpdate = AtomicReference<FinalizationMonitor.FinalizationUpdate>(null)
 
   override fun handleError(error: Throwable) {
@@ -42,70 +48,100 @@ class FinalizationMonitorImpl(
   }
 
   override fun start(): SafeFuture<Unit> {
-    return getFinalizationState().thenApply {
-      lastFinalizationUpdate.set(it)
-      super.start()
-    }
+    return contract
+      .finalizedL2BlockNumber(blockParameter = config.l1QueryBlockTag)
+      .thenCompose(::getFinalizationState)
+      .thenApply {
+        lastFinalizationUpdate.set(it)
+        super.start()
+      }
   }
 
   override fun action(): SafeFuture<Unit> {
     log.debug("Checking finalization updates")
-    return getFinalizationState().thenCompose { currentState ->
-      if (lastFinalizationUpdate.get() != currentState) {
-        log.info(
-          "finalization update: previousFinalizedBlock={} newFinalizedBlock={}",
-          lastFinalizationUpdate.get().blockNumber,
-          currentState,
-        )
-        lastFinalizationUpdate.set(currentState)
-        onUpdate(currentState)
-      } else {
-        SafeFuture.completedFuture(Unit)
-      }
-    }
-  }
-
-  private fun getFinalizationState(): SafeFuture<FinalizationMonitor.FinalizationUpdate> {
     return contract
       .finalizedL2BlockNumber(blockParameter = config.l1QueryBlockTag)
       .thenCompose { lineaFinalizedBlockNumber ->
-        l2Client
-          .ethGetBlockByNumber(DefaultBlockParameter.valueOf(lineaFinalizedBlockNumber.toBigInteger()), false)
-          .sendAsync()
-          .thenCombine(
-            contract.blockStateRootHash(
-              blockParameter = config.l1QueryBlockTag,
-              lineaL2BlockNumber = lineaFinalizedBlockNumber,
-            ),
-          ) { finalizedBlock, stateRootHash ->
-            FinalizationMonitor.FinalizationUpdate(
-              lineaFinalizedBlockNumber,
-              Bytes32.wrap(stateRootHash),
-              Bytes32.fromHexString(finalizedBlock.block.hash),
-            )
-          }
+        val previousState = lastFinalizationUpdate.get()
+        if (previousState?.blockNumber == lineaFinalizedBlockNumber) {
+          SafeFuture.completedFuture(previousState)
+        } else {
+          getFinalizationState(lineaFinalizedBlockNumber)
+        }
+      }
+      .thenCompose { currentState ->
+        if (lastFinalizationUpdate.get() != currentState) {
+          log.info(
+            "finalization update: previousFinalizedBlock={} newFinalizedBlock={}",
+            lastFinalizationUpdate.get()?.blockNumber,
+            currentState,
+          )
+          lastFinalizationUpdate.set(currentState)
+          onUpdate(currentState)
+        } else {
+          SafeFuture.completedFuture(Unit)
+        }
       }
   }
 
-  private fun onUpdate(finalizationUpdate: FinalizationMonitor.FinalizationUpdate): SafeFuture<Unit> {
-    return finalizationHandlers.entries.fold(SafeFuture.completedFuture(Unit)) { agg, entry ->
-      val handlerName = entry.key
-      val finalizationHandler = entry.value
-      agg.thenCompose {
-        log.trace(
-          "calling finalization handler: handler={} update={}",
-          handlerName,
-          finalizationUpdate.blockNumber,
+  private fun getFinalizationState(
+    lineaFinalizedBlockNumber: ULong,
+  ): SafeFuture<FinalizationMonitor.FinalizationUpdate> {
+    return SafeFuture.of(
+      l2Client
+        .ethGetBlockByNumber(DefaultBlockParameter.valueOf(lineaFinalizedBlockNumber.toBigInteger()), false)
+        .sendAsync(),
+    )
+      .thenCombine(
+        contract.blockStateRootHash(
+          blockParameter = config.l1QueryBlockTag,
+          lineaL2BlockNumber = lineaFinalizedBlockNumber,
+        ),
+      ) { finalizedBlock, stateRootHash ->
+        FinalizationMonitor.FinalizationUpdate(
+          lineaFinalizedBlockNumber,
+          Bytes32.wrap(stateRootHash),
+          Bytes32.fromHexString(finalizedBlock.block.hash),
         )
-        try {
-          finalizationHandler.handleUpdate(finalizationUpdate)
-            .thenApply { }
-        } catch (th: Throwable) {
-          log.error("Finalization handler={} failed. errorMessage={}", handlerName, th.message, th)
-          SafeFuture.completedFuture(Unit)
-        }
       }
-    }.thenApply {}
+  }
+
+  private fun onUpdate(finalizationUpdate: FinalizationMonitor.FinalizationUpdate): SafeFuture<Unit> {
+    val handlers = synchronized(finalizationHandlers) { LinkedHashMap(finalizationHandlers) }
+    val handlerResults = mutableMapOf<String, SafeFuture<Unit>>()
+
+    fun runHandler(handlerName: String): SafeFuture<Unit> {
+      handlerResults[handlerName]?.let { return it }
+      val registeredHandler = handlers[handlerName]!!
+      val previousHandlersResults = registeredHandler.runAfter
+        .filter(handlers::containsKey)
+        .map(::runHandler)
+      return SafeFuture.allOf(*previousHandlersResults.toTypedArray())
+        .handleComposed { _, _ -> callHandler(handlerName, registeredHandler.handler, finalizationUpdate) }
+        .also { handlerResults[handlerName] = it }
+    }
+
+    handlers.keys.forEach(::runHandler)
+    return SafeFuture.allOf(*handlerResults.values.toTypedArray()).thenApply {}
+  }
+
+  private fun callHandler(
+    handlerName: String,
+    finalizationHandler: FinalizationHandler,
+    finalizationUpdate: FinalizationMonitor.FinalizationUpdate,
+  ): SafeFuture<Unit> {
+    log.trace(
+      "calling finalization handler: handler={} update={}",
+      handlerName,
+      finalizationUpdate.blockNumber,
+    )
+    return try {
+      finalizationHandler.handleUpdate(finalizationUpdate)
+        .thenApply { }
+    } catch (th: Throwable) {
+      log.error("Finalization handler={} failed. errorMessage={}", handlerName, th.message, th)
+      SafeFuture.completedFuture(Unit)
+    }
   }
 
   override fun getLastFinalizationUpdate(): FinalizationMonitor.FinalizationUpdate {
@@ -114,11 +150,31 @@ class FinalizationMonitorImpl(
 
   override fun addFinalizationHandler(
     handlerName: String,
+    runAfter: Set<String>,
     handler: FinalizationHandler,
   ) {
     synchronized(finalizationHandlers) {
-      finalizationHandlers[handlerName] = handler
+      val previousHandler = finalizationHandlers.put(handlerName, RegisteredHandler(handler, runAfter))
+      if (runsAfterItself(handlerName)) {
+        previousHandler?.let { finalizationHandlers[handlerName] = it } ?: finalizationHandlers.remove(handlerName)
+        throw IllegalArgumentException("Finalization handler=$handlerName would run after itself: runAfter=$runAfter")
+      }
+    }
+  }
+
+  private fun runsAfterItself(handlerName: String): Boolean {
+    val visitedHandlers = mutableSetOf<String>()
+    val handlersToVisit = ArrayDeque(finalizationHandlers[handlerName]!!.runAfter)
+    while (handlersToVisit.isNotEmpty()) {
+      val previousHandler = handlersToVisit.removeFirst()
+      if (previousHandler == handlerName) {
+        return true
+      }
+      if (visitedHandlers.add(previousHandler)) {
+        finalizationHandlers[previousHandler]?.let { handlersToVisit.addAll(it.runAfter) }
+      }
     }
+    return false
   }
 
   override fun removeFinalizationHandler(handlerName: String) {
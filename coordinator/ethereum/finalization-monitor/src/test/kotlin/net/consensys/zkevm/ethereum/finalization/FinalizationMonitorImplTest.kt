@@ -3,6 +3,7 @@ package net.consensys.zkevm.ethereum.finalization
 import io.vertx.core.Vertx
 import io.vertx.junit5.VertxExtension
 import io.vertx.junit5.VertxTestContext
+import linea.contract.l1.LineaContractVersion
 import linea.contract.l1.LineaRollupSmartContractClientReadOnly
 import linea.domain.BlockParameter
 import linea.kotlin.ByteArrayExt
@@ -10,6 +11,7 @@ import linea.kotlin.encodeHex
 import org.apache.tuweni.bytes.Bytes
 import org.apache.tuweni.bytes.Bytes32
 import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
 import org.awaitility.Awaitility.await
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
@@ -29,6 +31,7 @@ import java.math.BigInteger
 import java.util.concurrent.CopyOnWriteArrayList
 import java.util.concurrent.atomic.AtomicInteger
 import kotlin.random.Random
+import kotlin.time.Duration.Companion.hours
 import kotlin.time.Duration.Companion.milliseconds
 import kotlin.time.Duration.Companion.seconds
 import kotlin.time.toJavaDuration
@@ -268,7 +271,7 @@ class FinalizationMonitorImplTest {
   }
 
   @Test
-  fun finalizationUpdatesHandledInOrderTheyWereSet(vertx: Vertx, testContext: VertxTestContext) {
+  fun dependentFinalizationHandlersAreCalledInOrder(vertx: Vertx, testContext: VertxTestContext) {
     var blockNumber = 0
     whenever(contractMock.finalizedL2BlockNumber(any())).thenAnswer {
       blockNumber += 1
@@ -309,7 +312,7 @@ class FinalizationMonitorImplTest {
       SafeFuture.of(result)
     }
     val handlerName2 = "handler2"
-    finalizationMonitorImpl.addFinalizationHandler(handlerName2) { finalizationUpdate ->
+    finalizationMonitorImpl.addFinalizationHandler(handlerName2, runAfter = setOf(handlerName1)) { finalizationUpdate ->
       val result = SafeFuture.COMPLETE.thenApply {
         simulateRandomWork(2, 6)
         updatesReceived.add(finalizationUpdate to handlerName2)
@@ -317,7 +320,7 @@ class FinalizationMonitorImplTest {
       SafeFuture.of(result)
     }
     val handlerName3 = "handler3"
-    finalizationMonitorImpl.addFinalizationHandler(handlerName3) { finalizationUpdate ->
+    finalizationMonitorImpl.addFinalizationHandler(handlerName3, runAfter = setOf(handlerName2)) { finalizationUpdate ->
       val result = SafeFuture.COMPLETE.thenApply {
         simulateRandomWork(0, 4)
         updatesReceived.add(finalizationUpdate to handlerName3)
@@ -352,6 +355,128 @@ class FinalizationMonitorImplTest {
       .whenException(testContext::failNow)
   }
 
+  /**
+   * Rollup contract finalizing the blocks set in finalizedBlockNumber, counting the calls sent to it.
+   */
+  private class FakeRollupContract : LineaRollupSmartContractClientReadOnly {
+    @Volatile
+    var finalizedBlockNumber: ULong = 0UL
+    val calls = AtomicInteger(0)
+
+    override fun getAddress(): String = "0x000000000000000000000000000000000000dead"
+    override fun getVersion(): SafeFuture<LineaContractVersion> = SafeFuture.completedFuture(LineaContractVersion.V6)
+    override fun finalizedL2BlockNumber(blockParameter: BlockParameter): SafeFuture<ULong> {
+      calls.incrementAndGet()
+      return SafeFuture.completedFuture(finalizedBlockNumber)
+    }
+
+    override fun finalizedL2BlockTimestamp(blockParameter: BlockParameter): SafeFuture<ULong> =
+      throw UnsupportedOperationException()
+    override fun getMessageRollingHash(blockParameter: BlockParameter, messageNumber: Long): SafeFuture<ByteArray> =
+      throw UnsupportedOperationException()
+    override fun isBlobShnarfPresent(blockParameter: BlockParameter, shnarf: ByteArray): SafeFuture<Boolean> =
+      throw UnsupportedOperationException()
+    override fun blockStateRootHash(blockParameter: BlockParameter, lineaL2BlockNumber: ULong): SafeFuture<ByteArray> {
+      calls.incrementAndGet()
+      return SafeFuture.completedFuture(ByteArrayExt.random32())
+    }
+  }
+
+  private fun countL2BlockRequests(): AtomicInteger {
+    val l2BlockRequests = AtomicInteger(0)
+    val mockBlockByNumberReturn = mock<EthBlock>()
+    val mockBlock = mock<EthBlock.Block>()
+    whenever(mockBlockByNumberReturn.block).thenReturn(mockBlock)
+    whenever(mockBlock.hash).thenReturn(ByteArrayExt.random32().encodeHex())
+    whenever(mockL2Client.ethGetBlockByNumber(any(), any()).sendAsync()).thenAnswer {
+      l2BlockRequests.incrementAndGet()
+      SafeFuture.completedFuture(mockBlockByNumberReturn)
+    }
+    return l2BlockRequests
+  }
+
+  private fun createMonitorPolledByTheTest(
+    vertx: Vertx,
+    contract: LineaRollupSmartContractClientReadOnly,
+  ): FinalizationMonitorImpl {
+    return FinalizationMonitorImpl(
+      // polls are triggered by the test
+      config = config.copy(pollingInterval = 1.hours),
+      contract = contract,
+      l2Client = mockL2Client,
+      vertx = vertx,
+    )
+  }
+
+  @Test
+  fun `independent handlers are called concurrently and dependent ones after them`(vertx: Vertx) {
+    countL2BlockRequests()
+    val contract = FakeRollupContract()
+    val finalizationMonitorImpl = createMonitorPolledByTheTest(vertx, contract)
+    finalizationMonitorImpl.start().get()
+
+    val calledHandlers = CopyOnWriteArrayList<String>()
+    val handler1Result = SafeFuture<Unit>()
+    val handler2Result = SafeFuture<Unit>()
+    finalizationMonitorImpl.addFinalizationHandler("handler1") { calledHandlers.add("handler1"); handler1Result }
+    finalizationMonitorImpl.addFinalizationHandler("handler2") { calledHandlers.add("handler2"); handler2Result }
+    finalizationMonitorImpl.addFinalizationHandler("handler3", runAfter = setOf("handler1")) {
+      SafeFuture.completedFuture(calledHandlers.add("handler3"))
+    }
+    finalizationMonitorImpl.addFinalizationHandler("handler4", runAfter = setOf("handler3", "handler2")) {
+      SafeFuture.completedFuture(calledHandlers.add("handler4"))
+    }
+
+    contract.finalizedBlockNumber = 10UL
+    val check = finalizationMonitorImpl.action()
+    assertThat(calledHandlers).containsExactly("handler1", "handler2")
+    handler1Result.complete(Unit)
+    assertThat(calledHandlers).containsExactly("handler1", "handler2", "handler3")
+    assertThat(check).isNotDone()
+    handler2Result.complete(Unit)
+    assertThat(calledHandlers).containsExactly("handler1", "handler2", "handler3", "handler4")
+    assertThat(check).isCompleted()
+
+    assertThatThrownBy {
+      finalizationMonitorImpl.addFinalizationHandler("handler1", runAfter = setOf("handler4")) {
+        SafeFuture.completedFuture(Unit)
+      }
+    }.isInstanceOf(IllegalArgumentException::class.java)
+    finalizationMonitorImpl.stop().get()
+  }
+
+  @Test
+  fun `L2 blocks are only fetched when the finalized block number changes`(vertx: Vertx) {
+    val l2BlockRequests = countL2BlockRequests()
+    val contract = FakeRollupContract()
+    val finalizationMonitorImpl = createMonitorPolledByTheTest(vertx, contract)
+    val updatesReceivedAtPoll = CopyOnWriteArrayList<Int>()
+    var poll = 0
+    finalizationMonitorImpl.addFinalizationHandler("handler") {
+      SafeFuture.completedFuture(updatesReceivedAtPoll.add(poll))
+    }
+    finalizationMonitorImpl.start().get()
+    val contractCallsAtStart = contract.calls.get()
+    val l2BlockRequestsAtStart = l2BlockRequests.get()
+
+    val pollsCount = 100
+    val pollsPerFinalization = 20
+    while (poll < pollsCount) {
+      poll++
+      if (poll % pollsPerFinalization == 0) {
+        contract.finalizedBlockNumber += 100UL
+      }
+      finalizationMonitorImpl.action().get()
+    }
+    finalizationMonitorImpl.stop().get()
+
+    val finalizationsCount = pollsCount / pollsPerFinalization
+    assertThat(updatesReceivedAtPoll).isEqualTo((pollsPerFinalization..pollsCount step pollsPerFinalization).toList())
+    // the finalized block number on every poll, and the state root hash on each finalization
+    assertThat(contract.calls.get() - contractCallsAtStart).isEqualTo(pollsCount + finalizationsCount)
+    assertThat(l2BlockRequests.get() - l2BlockRequestsAtStart).isEqualTo(finalizationsCount)
+  }
+
   private fun intToBytes32(i: Int): Bytes32 {
     return Bytes32.leftPad(Bytes.wrap(listOf(i.toByte()).toByteArray()))
   }
@@ -0,0 +1,162 @@
+package net.consensys.linea.ethereum.gaspricing.dynamiccap
+
+import linea.domain.FeeHistory
+import java.math.BigInteger
+import java.util.TreeMap
+import java.util.TreeSet
+import kotlin.math.floor
+
+data class FeeHistoryBlockFees(
+  val blockNumber: Long,
+  val baseFeePerGas: ULong,
+  val baseFeePerBlobGas: ULong,
+  val reward: ULong?,
+)
+
+/**
+ * Sliding-window equivalent of Postgres
+ * `percentile_cont(p) within group (order by value)`.
+ *
+ * The window is kept split in two ordered sets around the percentile rank, so adding or evicting
+ * a block is O(log n) and reading the percentile only looks at the two boundary elements,
+ * instead of sorting the whole window on every read.
+ */
+class SlidingWindowPercentile(
+  percentile: Double,
+) {
+  private data class Entry(val blockNumber: Long, val value: Long)
+
+  private val comparator = compareBy<Entry>({ it.value }, { it.blockNumber })
+  private val lower = TreeSet(comparator)
+  private val upper = TreeSet(comparator)
+
+  // mirrors FeeHistoriesPostgresDao, which sends the percentile to Postgres as a float
+  private val fraction = percentile.div(100).toFloat().toDouble()
+
+  val size: Int
+    get() = lower.size + upper.size
+
+  fun add(blockNumber: Long, value: Long) {
+    val entry = Entry(blockNumber, value)
+    if (lower.isEmpty() || comparator.compare(entry, lower.last()) <= 0) {
+      lower.add(entry)
+    } else {
+      upper.add(entry)
+    }
+    rebalance()
+  }
+
+  fun remove(blockNumber: Long, value: Long) {
+    val entry = Entry(blockNumber, value)
+    if (!lower.remove(entry)) {
+      upper.remove(entry)
+    }
+    rebalance()
+  }
+
+  fun value(): ULong? {
+    if (lower.isEmpty()) return null
+    val position = fraction * (size - 1)
+    val proportion = position - floor(position)
+    val firstValue = lower.last().value.toDouble()
+    return if (proportion == 0.0) {
+      firstValue.toULong()
+    } else {
+      val secondValue = upper.first().value.toDouble()
+      (firstValue + (secondValue - firstValue) * proportion).toULong()
+    }
+  }
+
+  private fun rebalance() {
+    // lower holds the elements up to and including floor(fraction * (n - 1))
+    val targetLowerSize = if (size == 0) 0 else floor(fraction * (size - 1)).toInt() + 1
+    while (lower.size > targetLowerSize) {
+      upper.add(lower.pollLast()!!)
+    }
+    while (lower.size < targetLowerSize) {
+      lower.add(upper.pollFirst()!!)
+    }
+  }
+}
+
+/**
+ * In-memory view of the fee histories of a given reward percentile from a block number onwards.
+ * Gives the same results as the percentile and average queries of FeeHistoriesPostgresDao
+ * but is updated incrementally as fee histories are saved and blocks leave the window.
+ */
+class FeeHistoriesPercentileWindow(
+  val percentile: Double,
+  fromBlockNumber: Long,
+) {
+  @Volatile
+  var fromBlockNumber: Long = fromBlockNumber
+    private set
+
+  private val blocks = TreeMap<Long, FeeHistoryBlockFees>()
+  private val baseFeePerGasPercentile = SlidingWindowPercentile(percentile)
+  private val baseFeePerBlobGasPercentile = SlidingWindowPercentile(percentile)
+  private var rewardSum: BigInteger = BigInteger.ZERO
+  private var rewardCount: Int = 0
+
+  @Synchronized
+  fun add(feeHistory: FeeHistory, rewardPercentiles: List<Double>) {
+    val rewardIndex = rewardPercentiles.indexOf(percentile)
+    feeHistory.reward.forEachIndexed { i, reward ->
+      add(
+        FeeHistoryBlockFees(
+          blockNumber = feeHistory.oldestBlock.toLong() + i,
+          baseFeePerGas = feeHistory.baseFeePerGas[i],
+          baseFeePerBlobGas = feeHistory.baseFeePerBlobGas.getOrElse(i) { 0uL },
+          reward = reward.getOrNull(rewardIndex),
+        ),
+      )
+    }
+  }
+
+  @Synchronized
+  fun add(blockFees: FeeHistoryBlockFees) {
+    if (blockFees.blockNumber < fromBlockNumber) return
+    blocks.put(blockFees.blockNumber, blockFees)?.also(::untrack)
+    track(blockFees)
+  }
+
+  @Synchronized
+  fun evictBlocksBefore(fromBlockNumber: Long) {
+    this.fromBlockNumber = this.fromBlockNumber.coerceAtLeast(fromBlockNumber)
+    while (blocks.isNotEmpty() && blocks.firstKey() < fromBlockNumber) {
+      untrack(blocks.pollFirstEntry().value)
+    }
+  }
+
+  @Synchronized
+  fun percentileBaseFeePerGas(): ULong? = baseFeePerGasPercentile.value()
+
+  @Synchronized
+  fun percentileBaseFeePerBlobGas(): ULong? = baseFeePerBlobGasPercentile.value()
+
+  @Synchronized
+  fun averageReward(): ULong? {
+    return if (rewardCount == 0) null else rewardSum.divide(rewardCount.toBigInteger()).toLong().toULong()
+  }
+
+  @Synchronized
+  fun numOfBlocksWithReward(): Int = rewardCount
+
+  private fun track(blockFees: FeeHistoryBlockFees) {
+    baseFeePerGasPercentile.add(blockFees.blockNumber, blockFees.baseFeePerGas.toLong())
+    baseFeePerBlobGasPercentile.add(blockFees.blockNumber, blockFees.baseFeePerBlobGas.toLong())
+    blockFees.reward?.also {
+      rewardSum += it.toLong().toBigInteger()
+      rewardCount++
+    }
+  }
+
+  private fun untrack(blockFees: FeeHistoryBlockFees) {
+    baseFeePerGasPercentile.remove(blockFees.blockNumber, blockFees.baseFeePerGas.toLong())
+    baseFeePerBlobGasPercentile.remove(blockFees.blockNumber, blockFees.baseFeePerBlobGas.toLong())
+    blockFees.reward?.also {
+      rewardSum -= it.toLong().toBigInteger()
+      rewardCount--
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package net.consensys.linea.ethereum.gaspricing.dynamiccap
+
+import linea.domain.FeeHistory
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import kotlin.math.ceil
+import kotlin.math.floor
+import kotlin.random.Random
+
+class FeeHistoriesPercentileWindowTest {
+  // reference implementation of Postgres percentile_cont with the percentile sent as float
+  private fun percentileCont(percentile: Double, values: List<Long>): ULong? {
+    if (values.isEmpty()) return null
+    val sorted = values.sorted()
+    val position = percentile.div(100).toFloat().toDouble() * (sorted.size - 1)
+    val firstRow = floor(position).toInt()
+    val secondRow = ceil(position).toInt()
+    val firstValue = sorted[firstRow].toDouble()
+    return if (firstRow == secondRow) {
+      firstValue.toULong()
+    } else {
+      val secondValue = sorted[secondRow].toDouble()
+      (firstValue + (secondValue - firstValue) * (position - firstRow)).toULong()
+    }
+  }
+
+  @Test
+  fun `sliding window percentile matches percentile_cont when adding and removing values`() {
+    val random = Random(42)
+    listOf(0.0, 10.0, 15.0, 33.3, 50.0, 75.0, 99.9, 100.0).forEach { percentile ->
+      val slidingWindowPercentile = SlidingWindowPercentile(percentile)
+      val window = ArrayDeque<Pair<Long, Long>>()
+      assertThat(slidingWindowPercentile.value()).isNull()
+
+      (0L until 2_000L).forEach { blockNumber ->
+        val value = 1_000_000_000L + random.nextLong(0L, 200_000_000_000L)
+        slidingWindowPercentile.add(blockNumber, value)
+        window.addLast(blockNumber to value)
+        if (window.size > 300) {
+          val (evictedBlockNumber, evictedValue) = window.removeFirst()
+          slidingWindowPercentile.remove(evictedBlockNumber, evictedValue)
+        }
+        assertThat(slidingWindowPercentile.size).isEqualTo(window.size)
+        assertThat(slidingWindowPercentile.value())
+          .describedAs("percentile=$percentile blockNumber=$blockNumber")
+          .isEqualTo(percentileCont(percentile, window.map { it.second }))
+      }
+    }
+  }
+
+  @Test
+  fun `sliding window percentile handles duplicated values`() {
+    val slidingWindowPercentile = SlidingWindowPercentile(50.0)
+    (1L..5L).forEach { slidingWindowPercentile.add(it, 7L) }
+    slidingWindowPercentile.add(6L, 9L)
+    assertThat(slidingWindowPercentile.value()).isEqualTo(7uL)
+
+    (1L..4L).forEach { slidingWindowPercentile.remove(it, 7L) }
+    assertThat(slidingWindowPercentile.value()).isEqualTo(8uL)
+  }
+
+  @Test
+  fun `fee histories window tracks fee histories and evicts blocks leaving the window`() {
+    val rewardPercentiles = listOf(10.0, 50.0)
+    val window = FeeHistoriesPercentileWindow(percentile = 50.0, fromBlockNumber = 100L)
+    window.add(
+      FeeHistory(
+        oldestBlock = 99uL,
+        baseFeePerGas = listOf(1000uL, 1000uL, 1001uL, 1002uL, 1003uL, 1004uL, 1005uL),
+        reward = (0..5).map { listOf(10uL + it.toULong(), 20uL + it.toULong()) },
+        gasUsedRatio = List(6) { 0.5 },
+        baseFeePerBlobGas = listOf(100uL, 100uL, 101uL, 102uL, 103uL, 104uL, 105uL),
+        blobGasUsedRatio = List(6) { 0.5 },
+      ),
+      rewardPercentiles,
+    )
+    // block 99 is before the window and is ignored
+    assertThat(window.numOfBlocksWithReward()).isEqualTo(5)
+    assertThat(window.percentileBaseFeePerGas()).isEqualTo(1002uL)
+    assertThat(window.percentileBaseFeePerBlobGas()).isEqualTo(102uL)
+    assertThat(window.averageReward()).isEqualTo(23uL)
+
+    window.evictBlocksBefore(102L)
+    assertThat(window.fromBlockNumber).isEqualTo(102L)
+    assertThat(window.numOfBlocksWithReward()).isEqualTo(3)
+    assertThat(window.percentileBaseFeePerGas()).isEqualTo(1003uL)
+    assertThat(window.percentileBaseFeePerBlobGas()).isEqualTo(103uL)
+    assertThat(window.averageReward()).isEqualTo(24uL)
+
+    // re-adding an existing block replaces it
+    window.add(
+      FeeHistoryBlockFees(blockNumber = 104L, baseFeePerGas = 2000uL, baseFeePerBlobGas = 200uL, reward = null),
+    )
+    assertThat(window.numOfBlocksWithReward()).isEqualTo(2)
+    assertThat(window.percentileBaseFeePerGas()).isEqualTo(1003uL)
+    assertThat(window.averageReward()).isEqualTo(23uL)
+
+    window.evictBlocksBefore(200L)
+    assertThat(window.numOfBlocksWithReward()).isEqualTo(0)
+    assertThat(window.percentileBaseFeePerGas()).isNull()
+    assertThat(window.percentileBaseFeePerBlobGas()).isNull()
+    assertThat(window.averageReward()).isNull()
+  }
+}
@@ -7,10 +7,20 @@ import net.consensys.linea.ethereum.gaspricing.FeesFetcher
 import org.apache.logging.log4j.LogManager
 import org.apache.logging.log4j.Logger
 import org.web3j.protocol.Web3j
+import org.web3j.protocol.core.DefaultBlockParameter
 import org.web3j.protocol.core.DefaultBlockParameterName
 import tech.pegasys.teku.infrastructure.async.SafeFuture
 import java.math.BigInteger
 
+/**
+ * Keeps a rolling window of the fee history of the last feeHistoryBlockCount L1 blocks.
+ *
+ * The whole window is fetched once, then each time the L1 head moves only the blocks after the newest block of the
+ * window are fetched, appended to it, and the oldest blocks are evicted. The newest block of the window is fetched
+ * again with them, if its fees changed the L1 chain was reorganized and the whole window is fetched again.
+ * The whole window is also fetched again when the new blocks cannot be appended to it, e.g. the L1 head moved by
+ * more than the window size.
+ */
 class FeeHistoryFetcherImpl(
   private val web3jClient: Web3j,
   private val web3jService: Web3jBlobExtended,
@@ -34,55 +44,179 @@ class FeeHistoryFetcherImpl(
   }
 
   private var cacheIsValidForBlockNumber: BigInteger = BigInteger.ZERO
-  private lateinit var feesCache: FeeHistory
+  private var feesCache: FeeHistory? = null
 
   private fun getRecentFees(): SafeFuture<FeeHistory> {
     val blockNumberFuture = web3jClient.ethBlockNumber().sendAsync()
     return SafeFuture.of(blockNumberFuture)
       .thenCompose { blockNumberResponse ->
         val currentBlockNumber = blockNumberResponse.blockNumber
-        if (currentBlockNumber > cacheIsValidForBlockNumber) {
-          web3jService
-            .ethFeeHistoryWithBlob(
-              config.feeHistoryBlockCount.toInt(),
-              DefaultBlockParameterName.LATEST,
-              listOf(config.feeHistoryRewardPercentile),
-            )
-            .sendAsync()
-            .thenApply {
-              val feeHistory = it.feeHistory.toLineaDomain()
-              cacheIsValidForBlockNumber = currentBlockNumber
-              if (feeHistory.baseFeePerBlobGas.isNotEmpty()) {
-                log.trace(
-                  "New Fee History: l1BlockNumber={} l1Blocks={} lastBaseFeePerGas={} reward={} gasUsedRatio={}" +
-                    "baseFeePerBlobGas={} blobGasUsedRatio={}",
-                  currentBlockNumber,
-                  feeHistory.blocksRange().toIntervalString(),
-                  feeHistory.baseFeePerGas[feeHistory.baseFeePerGas.lastIndex],
-                  feeHistory.reward.map { percentiles -> percentiles[0] },
-                  feeHistory.gasUsedRatio,
-                  feeHistory.baseFeePerBlobGas[feeHistory.baseFeePerBlobGas.lastIndex],
-                  feeHistory.blobGasUsedRatio,
-                )
-              } else {
-                log.trace(
-                  "New Fee History: l1BlockNumber={} l1Blocks={} lastBaseFeePerGas={} reward={} gasUsedRatio={}",
-                  currentBlockNumber,
-                  feeHistory.blocksRange().toIntervalString(),
-                  feeHistory.baseFeePerGas[feeHistory.baseFeePerGas.lastIndex],
-                  feeHistory.reward.map { percentiles -> percentiles[0] },
-                  feeHistory.gasUsedRatio,
-                )
-              }
-              feesCache = feeHistory
-              feesCache
-            }
+        val cachedFeeHistory = feesCache
+        if (cachedFeeHistory != null && currentBlockNumber <= cacheIsValidForBlockNumber) {
+          SafeFuture.completedFuture(cachedFeeHistory)
         } else {
-          SafeFuture.completedFuture(feesCache)
+          val feeHistoryFuture = if (cachedFeeHistory != null) {
+            getFeeHistoryUpTo(cachedFeeHistory, currentBlockNumber)
+          } else {
+            getFullFeeHistory()
+          }
+          feeHistoryFuture.thenApply { feeHistory ->
+            cacheIsValidForBlockNumber = currentBlockNumber
+            logNewFeeHistory(currentBlockNumber, feeHistory)
+            feesCache = feeHistory
+            feeHistory
+          }
         }
       }
   }
 
+  private fun getFullFeeHistory(): SafeFuture<FeeHistory> {
+    return getFeeHistory(config.feeHistoryBlockCount.toInt(), DefaultBlockParameterName.LATEST)
+  }
+
+  private fun getFeeHistoryUpTo(
+    cachedFeeHistory: FeeHistory,
+    currentBlockNumber: BigInteger,
+  ): SafeFuture<FeeHistory> {
+    if (cachedFeeHistory.gasUsedRatio.isEmpty()) {
+      return getFullFeeHistory()
+    }
+    val cachedNewestBlockNumber = newestBlockNumber(cachedFeeHistory)
+    val newBlocksCount = currentBlockNumber - cachedNewestBlockNumber.toLong().toBigInteger()
+    if (newBlocksCount <= BigInteger.ZERO) {
+      return SafeFuture.completedFuture(cachedFeeHistory)
+    }
+    if (newBlocksCount >= config.feeHistoryBlockCount.toLong().toBigInteger()) {
+      return getFullFeeHistory()
+    }
+    // the newest cached block is fetched again to detect a reorg of the L1 blocks in the window
+    return getFeeHistory(newBlocksCount.toInt() + 1, DefaultBlockParameter.valueOf(currentBlockNumber))
+      .thenCompose { newBlocksFeeHistory ->
+        val feeHistory = appendToWindow(cachedFeeHistory, newBlocksFeeHistory)
+        if (feeHistory != null) {
+          SafeFuture.completedFuture(feeHistory)
+        } else {
+          log.debug(
+            "New fee history cannot be appended to the cached one, fetching the whole window: " +
+              "cachedL1Blocks={} newL1Blocks={}",
+            cachedFeeHistory.blocksRange().toIntervalString(),
+            newBlocksFeeHistory.blocksRange().toIntervalString(),
+          )
+          getFullFeeHistory()
+        }
+      }
+  }
+
+  private fun getFeeHistory(blockCount: Int, newestBlock: DefaultBlockParameter): SafeFuture<FeeHistory> {
+    return SafeFuture.of(
+      web3jService
+        .ethFeeHistoryWithBlob(
+          blockCount,
+          newestBlock,
+          listOf(config.feeHistoryRewardPercentile),
+        )
+        .sendAsync(),
+    ).thenApply { it.feeHistory.toLineaDomain() }
+  }
+
+  /**
+   * Appends the fee history of the blocks following the cached window to it and evicts its oldest blocks,
+   * or returns null if the new blocks do not directly follow the cached window.
+   *
+   * The fetched fee history starts with the newest block of the cached window, if that block's fees differ from the
+   * cached ones it was reorganized and the cached window is stale.
+   */
+  private fun appendToWindow(cachedFeeHistory: FeeHistory, fetchedFeeHistory: FeeHistory): FeeHistory? {
+    val fetchedBlocksCount = fetchedFeeHistory.gasUsedRatio.size
+    val hasBlobFees = cachedFeeHistory.baseFeePerBlobGas.isNotEmpty()
+    val hasBlobGasUsedRatio = cachedFeeHistory.blobGasUsedRatio.isNotEmpty()
+    val isFollowingCachedWindow =
+      fetchedBlocksCount > 1 &&
+        fetchedFeeHistory.oldestBlock == newestBlockNumber(cachedFeeHistory) &&
+        fetchedFeeHistory.reward.size == fetchedBlocksCount &&
+        fetchedFeeHistory.baseFeePerGas.size == fetchedBlocksCount + 1 &&
+        fetchedFeeHistory.baseFeePerBlobGas.size == (if (hasBlobFees) fetchedBlocksCount + 1 else 0) &&
+        fetchedFeeHistory.blobGasUsedRatio.size == (if (hasBlobGasUsedRatio) fetchedBlocksCount else 0)
+    if (!isFollowingCachedWindow) {
+      return null
+    }
+    val cachedNewestBlockIndex = cachedFeeHistory.gasUsedRatio.lastIndex
+    val isCachedNewestBlockBlobFeeUnchanged = !hasBlobFees ||
+      fetchedFeeHistory.baseFeePerBlobGas.first() == cachedFeeHistory.baseFeePerBlobGas[cachedNewestBlockIndex]
+    val isCachedNewestBlockUnchanged =
+      fetchedFeeHistory.baseFeePerGas.first() == cachedFeeHistory.baseFeePerGas[cachedNewestBlockIndex] &&
+        fetchedFeeHistory.gasUsedRatio.first() == cachedFeeHistory.gasUsedRatio[cachedNewestBlockIndex] &&
+        fetchedFeeHistory.reward.first() == cachedFeeHistory.reward[cachedNewestBlockIndex] &&
+        isCachedNewestBlockBlobFeeUnchanged
+    if (!isCachedNewestBlockUnchanged) {
+      log.info(
+        "L1 block fees changed, L1 reorg detected: l1Block={} cachedBaseFeePerGas={} newBaseFeePerGas={}",
+        newestBlockNumber(cachedFeeHistory),
+        cachedFeeHistory.baseFeePerGas[cachedNewestBlockIndex],
+        fetchedFeeHistory.baseFeePerGas.first(),
+      )
+      return null
+    }
+
+    val newBlocksFeeHistory = FeeHistory(
+      oldestBlock = fetchedFeeHistory.oldestBlock + 1UL,
+      baseFeePerGas = fetchedFeeHistory.baseFeePerGas.drop(1),
+      reward = fetchedFeeHistory.reward.drop(1),
+      gasUsedRatio = fetchedFeeHistory.gasUsedRatio.drop(1),
+      baseFeePerBlobGas = fetchedFeeHistory.baseFeePerBlobGas.drop(1),
+      blobGasUsedRatio = fetchedFeeHistory.blobGasUsedRatio.drop(1),
+    )
+    val newBlocksCount = newBlocksFeeHistory.gasUsedRatio.size
+    val evictedBlocksCount =
+      (cachedFeeHistory.gasUsedRatio.size + newBlocksCount - config.feeHistoryBlockCount.toInt()).coerceAtLeast(0)
+    // baseFeePerGas and baseFeePerBlobGas have an extra entry for the block after the newest one,
+    // replaced by the fees of that block in the new fee history
+    return FeeHistory(
+      oldestBlock = cachedFeeHistory.oldestBlock + evictedBlocksCount.toULong(),
+      baseFeePerGas = (cachedFeeHistory.baseFeePerGas.dropLast(1) + newBlocksFeeHistory.baseFeePerGas)
+        .drop(evictedBlocksCount),
+      reward = (cachedFeeHistory.reward + newBlocksFeeHistory.reward).drop(evictedBlocksCount),
+      gasUsedRatio = (cachedFeeHistory.gasUsedRatio + newBlocksFeeHistory.gasUsedRatio).drop(evictedBlocksCount),
+      baseFeePerBlobGas = if (hasBlobFees) {
+        (cachedFeeHistory.baseFeePerBlobGas.dropLast(1) + newBlocksFeeHistory.baseFeePerBlobGas)
+          .drop(evictedBlocksCount)
+      } else {
+        emptyList()
+      },
+      blobGasUsedRatio = (cachedFeeHistory.blobGasUsedRatio + newBlocksFeeHistory.blobGasUsedRatio)
+        .drop(evictedBlocksCount),
+    )
+  }
+
+  private fun newestBlockNumber(feeHistory: FeeHistory): ULong {
+    return feeHistory.oldestBlock + feeHistory.gasUsedRatio.size.toULong() - 1UL
+  }
+
+  private fun logNewFeeHistory(currentBlockNumber: BigInteger, feeHistory: FeeHistory) {
+    if (feeHistory.baseFeePerBlobGas.isNotEmpty()) {
+      log.trace(
+        "New Fee History: l1BlockNumber={} l1Blocks={} lastBaseFeePerGas={} reward={} gasUsedRatio={}" +
+          "baseFeePerBlobGas={} blobGasUsedRatio={}",
+        currentBlockNumber,
+        feeHistory.blocksRange().toIntervalString(),
+        feeHistory.baseFeePerGas[feeHistory.baseFeePerGas.lastIndex],
+        feeHistory.reward.map { percentiles -> percentiles[0] },
+        feeHistory.gasUsedRatio,
+        feeHistory.baseFeePerBlobGas[feeHistory.baseFeePerBlobGas.lastIndex],
+        feeHistory.blobGasUsedRatio,
+      )
+    } else {
+      log.trace(
+        "New Fee History: l1BlockNumber={} l1Blocks={} lastBaseFeePerGas={} reward={} gasUsedRatio={}",
+        currentBlockNumber,
+        feeHistory.blocksRange().toIntervalString(),
+        feeHistory.baseFeePerGas[feeHistory.baseFeePerGas.lastIndex],
+        feeHistory.reward.map { percentiles -> percentiles[0] },
+        feeHistory.gasUsedRatio,
+      )
+    }
+  }
+
   override fun getL1EthGasPriceData(): SafeFuture<FeeHistory> {
     return getRecentFees()
       .whenException { th ->
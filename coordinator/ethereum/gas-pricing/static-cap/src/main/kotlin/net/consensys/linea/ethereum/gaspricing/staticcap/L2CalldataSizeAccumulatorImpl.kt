@@ -1,7 +1,10 @@
 package net.consensys.linea.ethereum.gaspricing.staticcap
 
+import linea.domain.CommonDomainFunctions
 import linea.kotlin.toBigInteger
 import linea.kotlin.toUInt
+import linea.kotlin.toULong
+import linea.web3j.BlockSizeAndHashes
 import linea.web3j.ExtendedWeb3J
 import net.consensys.linea.ethereum.gaspricing.L2CalldataSizeAccumulator
 import org.apache.logging.log4j.LogManager
@@ -26,28 +29,31 @@ class L2CalldataSizeAccumulatorImpl(
       }
     }
   }
+
+  // blocks of the current window, by ascending block number
+  private val windowBlocks = ArrayDeque<BlockSizeAndHashes>()
+  private var sumOfCalldataSize = BigInteger.ZERO
+
+  // updates are applied one at a time, in call order
+  private var lastUpdate: SafeFuture<BigInteger> = SafeFuture.completedFuture(BigInteger.ZERO)
+
+  private fun calldataSize(block: BlockSizeAndHashes): BigInteger {
+    return block.size.minus(config.blockSizeNonCalldataOverhead.toULong().toBigInteger())
+      .coerceAtLeast(BigInteger.ZERO)
+  }
+
   private fun getRecentL2CalldataSize(): SafeFuture<BigInteger> {
     return web3jClient.ethBlockNumber()
       .thenCompose { currentBlockNumber ->
         if (config.calldataSizeBlockCount > 0u && currentBlockNumber.toUInt() >= config.calldataSizeBlockCount) {
-          val futures =
-            ((currentBlockNumber.toUInt() - config.calldataSizeBlockCount + 1U)..currentBlockNumber.toUInt())
-              .map { blockNumber ->
-                web3jClient.ethGetBlockSizeByNumber(blockNumber.toLong())
-              }
-          SafeFuture.collectAll(futures.stream())
-            .thenApply { blockSizes ->
-              blockSizes.sumOf {
-                it.minus(config.blockSizeNonCalldataOverhead.toULong().toBigInteger())
-                  .coerceAtLeast(BigInteger.ZERO)
-              }.also {
-                log.debug(
-                  "sumOfBlockSizes={} blockSizes={} blockSizeNonCalldataOverhead={}",
-                  it,
-                  blockSizes,
-                  config.blockSizeNonCalldataOverhead,
-                )
-              }
+          updateWindow(headBlockNumber = currentBlockNumber.toULong())
+            .thenPeek {
+              log.debug(
+                "sumOfBlockSizes={} blockSizes={} blockSizeNonCalldataOverhead={}",
+                it,
+                windowBlocks.map { block -> block.size },
+                config.blockSizeNonCalldataOverhead,
+              )
             }
         } else {
           SafeFuture.completedFuture(BigInteger.ZERO)
@@ -55,8 +61,89 @@ class L2CalldataSizeAccumulatorImpl(
       }
   }
 
+  /**
+   * Moves the window to end at headBlockNumber, fetching only the blocks not in the window yet.
+   * The last block of the window is fetched again, so a reorg is detected when its hash changed
+   * or the new blocks don't extend it; the whole window is fetched again in that case.
+   */
+  private fun updateWindow(headBlockNumber: ULong): SafeFuture<BigInteger> {
+    val windowStartBlockNumber = headBlockNumber - config.calldataSizeBlockCount + 1UL
+    if (windowBlocks.isNotEmpty() && windowBlocks.first().number > windowStartBlockNumber) {
+      // head went back, blocks are missing at the start of the window
+      clearWindow()
+    }
+    while (windowBlocks.isNotEmpty() && windowBlocks.first().number < windowStartBlockNumber) {
+      sumOfCalldataSize -= calldataSize(windowBlocks.removeFirst())
+    }
+    while (windowBlocks.isNotEmpty() && windowBlocks.last().number > headBlockNumber) {
+      sumOfCalldataSize -= calldataSize(windowBlocks.removeLast())
+    }
+
+    val fetchFromBlockNumber = windowBlocks.lastOrNull()?.number ?: windowStartBlockNumber
+    return fetchBlocks(fetchFromBlockNumber..headBlockNumber)
+      .thenCompose { blocks ->
+        if (extendWindow(blocks)) {
+          SafeFuture.completedFuture(sumOfCalldataSize)
+        } else {
+          log.info(
+            "L2 reorg detected, fetching all blocks again: window={}",
+            CommonDomainFunctions.blockIntervalString(windowStartBlockNumber, headBlockNumber),
+          )
+          clearWindow()
+          fetchBlocks(windowStartBlockNumber..headBlockNumber)
+            .thenApply { blocks ->
+              if (!extendWindow(blocks)) {
+                clearWindow()
+                throw IllegalStateException("L2 blocks changed while being fetched, retrying on next update")
+              }
+              sumOfCalldataSize
+            }
+        }
+      }
+  }
+
+  private fun fetchBlocks(blockNumbers: ULongRange): SafeFuture<List<BlockSizeAndHashes>> {
+    val futures = blockNumbers.map { blockNumber ->
+      web3jClient.ethGetBlockSizeAndHashesByNumber(blockNumber.toLong())
+    }
+    return SafeFuture.collectAll(futures.stream())
+  }
+
+  /**
+   * Appends the blocks to the window, if they extend it. When the window is not empty,
+   * the first block is expected to be the last block of the window, fetched again.
+   */
+  private fun extendWindow(blocks: List<BlockSizeAndHashes>): Boolean {
+    val lastWindowBlock = windowBlocks.lastOrNull()
+    val newBlocks = if (lastWindowBlock != null) {
+      if (blocks.first().hash != lastWindowBlock.hash) return false
+      blocks.drop(1)
+    } else {
+      blocks
+    }
+    val isChain = (listOfNotNull(lastWindowBlock) + newBlocks)
+      .zipWithNext()
+      .all { (parent, child) -> child.parentHash == parent.hash }
+    if (!isChain) return false
+
+    newBlocks.forEach { block ->
+      windowBlocks.addLast(block)
+      sumOfCalldataSize += calldataSize(block)
+    }
+    return true
+  }
+
+  private fun clearWindow() {
+    windowBlocks.clear()
+    sumOfCalldataSize = BigInteger.ZERO
+  }
+
+  @Synchronized
   override fun getSumOfL2CalldataSize(): SafeFuture<BigInteger> {
-    return getRecentL2CalldataSize()
+    lastUpdate = lastUpdate
+      .handle { _, _ -> }
+      .thenCompose { getRecentL2CalldataSize() }
+    return lastUpdate
       .whenException { th ->
         log.error(
           "Get the sum of L2 calldata size from the last {} blocks failure: {}",
@@ -3,22 +3,28 @@ package net.consensys.linea.ethereum.gaspricing.staticcap
 import io.vertx.junit5.Timeout
 import io.vertx.junit5.VertxExtension
 import io.vertx.junit5.VertxTestContext
+import linea.domain.FeeHistory
 import linea.web3j.EthFeeHistoryBlobExtended
 import linea.web3j.Web3jBlobExtended
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.extension.ExtendWith
 import org.mockito.Mockito
+import org.mockito.kotlin.any
 import org.mockito.kotlin.eq
 import org.mockito.kotlin.mock
 import org.mockito.kotlin.whenever
 import org.web3j.protocol.Web3j
+import org.web3j.protocol.core.DefaultBlockParameter
 import org.web3j.protocol.core.DefaultBlockParameterName
+import org.web3j.protocol.core.Request
 import org.web3j.protocol.core.methods.response.EthBlockNumber
 import org.web3j.protocol.core.methods.response.EthGasPrice
+import org.web3j.utils.Numeric
 import tech.pegasys.teku.infrastructure.async.SafeFuture
 import java.math.BigInteger
 import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CopyOnWriteArrayList
 import java.util.concurrent.TimeUnit
 
 @ExtendWith(VertxExtension::class)
@@ -94,6 +100,121 @@ class FeeHistoryFetcherImplTest {
       }
   }
 
+  @Test
+  fun feeHistoryFetcherImpl_fetchesOnlyNewBlocksAsL1HeadMoves() {
+    val blockCount = 10
+    var l1BlockNumber = L1BlocksFees.OLDEST_BLOCK_NUMBER + 20UL
+    val requestedBlockCounts = CopyOnWriteArrayList<Int>()
+    val l1ClientMock = mock<Web3j>(defaultAnswer = Mockito.RETURNS_DEEP_STUBS)
+    whenever(l1ClientMock.ethBlockNumber().sendAsync()).thenAnswer {
+      val blockNumberResponse = EthBlockNumber()
+      blockNumberResponse.result = Numeric.encodeQuantity(l1BlockNumber.toLong().toBigInteger())
+      CompletableFuture.completedFuture(blockNumberResponse)
+    }
+    val l1Web3jServiceMock = mock<Web3jBlobExtended>()
+    whenever(l1Web3jServiceMock.ethFeeHistoryWithBlob(any(), any(), any())).thenAnswer { invocation ->
+      val requestedBlockCount = invocation.getArgument<Int>(0)
+      val newestBlock = invocation.getArgument<DefaultBlockParameter>(1)
+      val newestBlockNumber = if (newestBlock == DefaultBlockParameterName.LATEST) {
+        l1BlockNumber
+      } else {
+        Numeric.decodeQuantity(newestBlock.value).toLong().toULong()
+      }
+      requestedBlockCounts.add(requestedBlockCount)
+      val feeHistoryResponse = feeHistoryResponse(L1BlocksFees.feeHistory(requestedBlockCount, newestBlockNumber))
+      mock<Request<*, EthFeeHistoryBlobExtended>>().also {
+        whenever(it.sendAsync()).thenReturn(CompletableFuture.completedFuture(feeHistoryResponse))
+      }
+    }
+    val feeHistoryFetcherImpl = FeeHistoryFetcherImpl(
+      l1ClientMock,
+      l1Web3jServiceMock,
+      FeeHistoryFetcherImpl.Config(blockCount.toUInt(), feeHistoryRewardPercentile),
+    )
+
+    val l1HeadMoves = listOf(0, 1, 2, 3, 0, 1, blockCount + 2, 1, 1, 2, 0, 3)
+    l1HeadMoves.forEach { l1HeadMove ->
+      l1BlockNumber += l1HeadMove.toULong()
+      assertThat(feeHistoryFetcherImpl.getL1EthGasPriceData().get())
+        .isEqualTo(L1BlocksFees.feeHistory(blockCount, l1BlockNumber))
+    }
+
+    // the whole window is fetched at start and when the L1 head moves by more than the window size,
+    // otherwise the new blocks are fetched with the newest cached block
+    assertThat(requestedBlockCounts).containsExactly(blockCount, 2, 3, 4, 2, blockCount, 2, 2, 3, 4)
+  }
+
+  @Test
+  fun feeHistoryFetcherImpl_fetchesTheWholeWindowWhenTheNewestCachedBlockWasReorged() {
+    val blockCount = 10
+    var l1BlockNumber = L1BlocksFees.OLDEST_BLOCK_NUMBER + 20UL
+    var reorgedFromBlockNumber: ULong? = null
+    val requestedBlockCounts = CopyOnWriteArrayList<Int>()
+    val l1ClientMock = mock<Web3j>(defaultAnswer = Mockito.RETURNS_DEEP_STUBS)
+    whenever(l1ClientMock.ethBlockNumber().sendAsync()).thenAnswer {
+      val blockNumberResponse = EthBlockNumber()
+      blockNumberResponse.result = Numeric.encodeQuantity(l1BlockNumber.toLong().toBigInteger())
+      CompletableFuture.completedFuture(blockNumberResponse)
+    }
+    val l1Web3jServiceMock = mock<Web3jBlobExtended>()
+    whenever(l1Web3jServiceMock.ethFeeHistoryWithBlob(any(), any(), any())).thenAnswer { invocation ->
+      val requestedBlockCount = invocation.getArgument<Int>(0)
+      val newestBlock = invocation.getArgument<DefaultBlockParameter>(1)
+      val newestBlockNumber = if (newestBlock == DefaultBlockParameterName.LATEST) {
+        l1BlockNumber
+      } else {
+        Numeric.decodeQuantity(newestBlock.value).toLong().toULong()
+      }
+      requestedBlockCounts.add(requestedBlockCount)
+      val feeHistory = L1BlocksFees.feeHistory(requestedBlockCount, newestBlockNumber)
+        .reorgedFrom(reorgedFromBlockNumber)
+      val feeHistoryResponse = feeHistoryResponse(feeHistory)
+      mock<Request<*, EthFeeHistoryBlobExtended>>().also {
+        whenever(it.sendAsync()).thenReturn(CompletableFuture.completedFuture(feeHistoryResponse))
+      }
+    }
+    val feeHistoryFetcherImpl = FeeHistoryFetcherImpl(
+      l1ClientMock,
+      l1Web3jServiceMock,
+      FeeHistoryFetcherImpl.Config(blockCount.toUInt(), feeHistoryRewardPercentile),
+    )
+    assertThat(feeHistoryFetcherImpl.getL1EthGasPriceData().get())
+      .isEqualTo(L1BlocksFees.feeHistory(blockCount, l1BlockNumber))
+
+    // the newest cached block is replaced by a block with other fees
+    reorgedFromBlockNumber = l1BlockNumber
+    l1BlockNumber += 1UL
+
+    assertThat(feeHistoryFetcherImpl.getL1EthGasPriceData().get())
+      .isEqualTo(L1BlocksFees.feeHistory(blockCount, l1BlockNumber).reorgedFrom(reorgedFromBlockNumber))
+    assertThat(requestedBlockCounts).containsExactly(blockCount, 2, blockCount)
+  }
+
+  private fun FeeHistory.reorgedFrom(blockNumber: ULong?): FeeHistory {
+    if (blockNumber == null) {
+      return this
+    }
+    return copy(
+      baseFeePerGas = baseFeePerGas.mapIndexed { index, baseFee ->
+        if (oldestBlock + index.toULong() >= blockNumber) baseFee + 1UL else baseFee
+      },
+    )
+  }
+
+  private fun feeHistoryResponse(feeHistory: FeeHistory): EthFeeHistoryBlobExtended {
+    fun ULong.toHex() = Numeric.encodeQuantity(this.toLong().toBigInteger())
+    val feeHistoryResponse = EthFeeHistoryBlobExtended()
+    feeHistoryResponse.result = EthFeeHistoryBlobExtended.FeeHistoryBlobExtended(
+      oldestBlock = feeHistory.oldestBlock.toHex(),
+      reward = feeHistory.reward.map { percentiles -> percentiles.map { it.toHex() } },
+      baseFeePerGas = feeHistory.baseFeePerGas.map { it.toHex() },
+      gasUsedRatio = feeHistory.gasUsedRatio,
+      baseFeePerBlobGas = feeHistory.baseFeePerBlobGas.map { it.toHex() },
+      blobGasUsedRatio = feeHistory.blobGasUsedRatio,
+    )
+    return feeHistoryResponse
+  }
+
   private fun createMockedWeb3jClient(): Web3j {
     val web3jClient = mock<Web3j>(defaultAnswer = Mockito.RETURNS_DEEP_STUBS)
     whenever(
@@ -0,0 +1,100 @@
+package net.consensys.linea.ethereum.gaspricing.staticcap
+
+import linea.domain.FeeHistory
+
+/**
+ * Fee data of 48 consecutive L1 blocks, answering fee history requests as an L1 node would.
+ */
+internal object L1BlocksFees {
+  const val OLDEST_BLOCK_NUMBER = 21_000_000UL
+
+  // one more entry than blocks, for the block after the newest one
+  private val baseFeePerGas = listOf(
+    12_345_678_901UL, 12_898_766_858UL, 13_185_479_035UL, 13_609_769_620UL,
+    13_357_116_155UL, 13_613_504_329UL, 13_757_788_756UL, 13_305_176_422UL,
+    12_998_102_929UL, 12_865_754_620UL, 13_006_066_931UL, 13_232_032_712UL,
+    13_779_119_374UL, 14_087_220_483UL, 14_263_303_695UL, 13_778_085_715UL,
+    14_478_625_594UL, 13_961_890_685UL, 14_014_649_179UL, 14_748_274_019UL,
+    14_420_932_390UL, 14_966_696_181UL, 15_802_872_400UL, 16_396_910_274UL,
+    16_771_594_021UL, 16_761_552_029UL, 17_267_248_053UL, 17_388_425_283UL,
+    16_502_934_940UL, 16_320_422_793UL, 16_587_626_875UL, 16_154_785_192UL,
+    15_292_969_808UL, 15_703_423_559UL, 15_479_979_545UL, 15_593_501_974UL,
+    16_428_381_968UL, 15_490_306_982UL, 15_540_106_382UL, 14_971_258_845UL,
+    14_578_461_669UL, 14_520_526_862UL, 14_199_841_026UL, 13_962_827_929UL,
+    13_824_585_460UL, 13_478_084_321UL, 13_073_610_380UL, 13_150_708_728UL,
+    13_266_199_895UL,
+  )
+  private val reward = listOf(
+    1_000_251UL, 50_000_131UL, 1_000_540UL, 1_500_000_471UL,
+    1_000_256UL, 1_000_000_904UL, 100_000_748UL, 50_000_532UL,
+    50_000_915UL, 50_000_597UL, 1_000_478UL, 250_000_464UL,
+    100_000_636UL, 1_000_000_809UL, 50_000_621UL, 250_000_110UL,
+    250_000_531UL, 1_500_000_198UL, 1_500_000_093UL, 50_000_058UL,
+    50_000_218UL, 100_000_317UL, 250_000_969UL, 50_000_319UL,
+    1_500_000_791UL, 1_000_000_875UL, 1_500_000_722UL, 1_000_000_994UL,
+    1_000_037UL, 1_000_312UL, 50_000_601UL, 50_000_344UL,
+    50_000_301UL, 250_000_491UL, 250_000_613UL, 250_000_954UL,
+    100_000_661UL, 1_000_000_795UL, 1_500_000_163UL, 1_000_000_348UL,
+    50_000_962UL, 250_000_757UL, 250_000_094UL, 1_000_225UL,
+    50_000_589UL, 1_000_633UL, 250_000_536UL, 250_000_241UL,
+  )
+  private val gasUsedRatio = listOf(
+    0.858401, 0.677823, 0.757429, 0.351487, 0.653559, 0.584789,
+    0.236811, 0.315366, 0.418543, 0.587247, 0.638991, 0.830765,
+    0.67888, 0.599996, 0.227851, 0.906756, 0.214484, 0.53023,
+    0.918776, 0.322438, 0.802762, 0.946953, 0.800724, 0.682807,
+    0.49521, 0.74136, 0.556142, 0.092607, 0.411525, 0.630979,
+    0.291246, 0.073221, 0.714715, 0.386168, 0.558668, 0.928322,
+    0.043193, 0.525719, 0.207159, 0.290106, 0.468208, 0.32332,
+    0.36647, 0.420794, 0.299487, 0.259922, 0.547178, 0.570257,
+  )
+
+  // one more entry than blocks, for the block after the newest one
+  private val baseFeePerBlobGas = listOf(
+    3_120_456UL, 3_250_475UL, 3_521_347UL, 3_374_624UL,
+    2_952_796UL, 3_198_862UL, 2_932_290UL, 3_176_647UL,
+    3_309_007UL, 3_309_007UL, 3_309_007UL, 3_446_882UL,
+    3_159_641UL, 3_554_596UL, 3_554_596UL, 3_998_920UL,
+    4_498_785UL, 4_498_785UL, 4_311_335UL, 4_131_696UL,
+    4_131_696UL, 4_648_158UL, 5_229_177UL, 4_575_529UL,
+    4_003_587UL, 4_504_035UL, 5_067_039UL, 5_700_418UL,
+    4_987_865UL, 5_611_348UL, 4_909_929UL, 4_296_187UL,
+    4_833_210UL, 4_229_058UL, 4_405_268UL, 4_955_926UL,
+    5_575_416UL, 5_343_107UL, 5_343_107UL, 6_010_995UL,
+    6_762_369UL, 6_198_838UL, 5_682_268UL, 4_971_984UL,
+    5_593_482UL, 5_127_358UL, 5_768_277UL, 5_287_587UL,
+    5_948_535UL,
+  )
+  private val blobGasUsedRatio = listOf(
+    0.6666666666666666, 0.8333333333333334, 0.3333333333333333, 0.0,
+    0.8333333333333334, 0.16666666666666666, 0.8333333333333334, 0.6666666666666666,
+    0.5, 0.5, 0.6666666666666666, 0.16666666666666666,
+    1.0, 0.5, 1.0, 1.0,
+    0.5, 0.3333333333333333, 0.3333333333333333, 0.5,
+    1.0, 1.0, 0.0, 0.0,
+    1.0, 1.0, 1.0, 0.0,
+    1.0, 0.0, 0.0, 1.0,
+    0.0, 0.6666666666666666, 1.0, 1.0,
+    0.3333333333333333, 0.5, 1.0, 1.0,
+    0.16666666666666666, 0.16666666666666666, 0.0, 1.0,
+    0.16666666666666666, 1.0, 0.16666666666666666, 1.0,
+  )
+
+  val newestBlockNumber = OLDEST_BLOCK_NUMBER + gasUsedRatio.size.toULong() - 1UL
+
+  /**
+   * Returns the fee history of the blockCount blocks up to newestBlockNumber, or up to the newest recorded block.
+   */
+  fun feeHistory(blockCount: Int, newestBlockNumber: ULong = this.newestBlockNumber): FeeHistory {
+    val toIndex = (minOf(newestBlockNumber, this.newestBlockNumber) - OLDEST_BLOCK_NUMBER).toInt() + 1
+    val fromIndex = (toIndex - blockCount).coerceAtLeast(0)
+    return FeeHistory(
+      oldestBlock = OLDEST_BLOCK_NUMBER + fromIndex.toULong(),
+      baseFeePerGas = baseFeePerGas.subList(fromIndex, toIndex + 1),
+      reward = reward.subList(fromIndex, toIndex).map { listOf(it) },
+      gasUsedRatio = gasUsedRatio.subList(fromIndex, toIndex),
+      baseFeePerBlobGas = baseFeePerBlobGas.subList(fromIndex, toIndex + 1),
+      blobGasUsedRatio = blobGasUsedRatio.subList(fromIndex, toIndex),
+    )
+  }
+}
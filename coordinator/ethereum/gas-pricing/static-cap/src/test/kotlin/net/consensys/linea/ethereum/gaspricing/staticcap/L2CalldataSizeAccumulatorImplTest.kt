@@ -1,17 +1,19 @@
 package net.consensys.linea.ethereum.gaspricing.staticcap
 
+import linea.domain.Block
+import linea.domain.BlockParameter
+import linea.kotlin.toBigInteger
+import linea.web3j.BlockSizeAndHashes
 import linea.web3j.ExtendedWeb3J
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.assertThrows
-import org.mockito.kotlin.any
-import org.mockito.kotlin.doReturn
-import org.mockito.kotlin.eq
 import org.mockito.kotlin.mock
-import org.mockito.kotlin.times
-import org.mockito.kotlin.verify
+import org.web3j.protocol.Web3j
 import tech.pegasys.teku.infrastructure.async.SafeFuture
 import java.math.BigInteger
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.atomic.AtomicInteger
 
 class L2CalldataSizeAccumulatorImplTest {
   private val config = L2CalldataSizeAccumulatorImpl.Config(
@@ -19,23 +21,69 @@ class L2CalldataSizeAccumulatorImplTest {
     calldataSizeBlockCount = 5u,
   )
 
+  /**
+   * L2 chain answering block requests from memory, counting the requests sent to it.
+   * Blocks replaced by a reorg get new hashes and sizes.
+   */
+  private class FakeL2Chain(
+    var headBlockNumber: ULong,
+    private val blockSize: (blockNumber: ULong, reorgsCount: Int) -> BigInteger,
+  ) : ExtendedWeb3J {
+    override val web3jClient: Web3j = mock()
+    private val reorgsFromBlockNumbers = CopyOnWriteArrayList<ULong>()
+    val blockNumberRequests = AtomicInteger(0)
+    val blockRequests = CopyOnWriteArrayList<Long>()
+    var failBlockNumberRequest = false
+
+    fun reorg(fromBlockNumber: ULong) {
+      reorgsFromBlockNumbers.add(fromBlockNumber)
+    }
+
+    private fun blockReorgsCount(blockNumber: ULong): Int {
+      return reorgsFromBlockNumbers.count { it <= blockNumber }
+    }
+
+    private fun blockHash(blockNumber: ULong): String = "0x$blockNumber-${blockReorgsCount(blockNumber)}"
+
+    override fun ethBlockNumber(): SafeFuture<BigInteger> {
+      blockNumberRequests.incrementAndGet()
+      if (failBlockNumberRequest) {
+        return SafeFuture.failedFuture(RuntimeException("Failed for testing"))
+      }
+      return SafeFuture.completedFuture(headBlockNumber.toLong().toBigInteger())
+    }
+
+    override fun ethGetBlockSizeAndHashesByNumber(blockNumber: Long): SafeFuture<BlockSizeAndHashes> {
+      blockRequests.add(blockNumber)
+      val number = blockNumber.toULong()
+      return SafeFuture.completedFuture(
+        BlockSizeAndHashes(
+          number = number,
+          hash = blockHash(number),
+          parentHash = if (number == 0UL) "0x" else blockHash(number - 1UL),
+          size = blockSize(number, blockReorgsCount(number)),
+        ),
+      )
+    }
+
+    override fun ethGetBlock(blockParameter: BlockParameter): SafeFuture<Block?> = throw UnsupportedOperationException()
+    override fun ethGetBlockTimestampByNumber(blockNumber: Long): SafeFuture<BigInteger> =
+      throw UnsupportedOperationException()
+    override fun ethGetBlockSizeByNumber(blockNumber: Long): SafeFuture<BigInteger> =
+      throw UnsupportedOperationException()
+  }
+
   @Test
   fun test_getSumOfL2CalldataSize() {
-    val mockWeb3jClient = mock<ExtendedWeb3J> {
-      on { ethBlockNumber() } doReturn SafeFuture.completedFuture(100.toBigInteger())
-      on { ethGetBlockSizeByNumber(any()) } doReturn SafeFuture.completedFuture(10540.toBigInteger())
-    }
+    val l2Chain = FakeL2Chain(headBlockNumber = 100UL) { _, _ -> 10540.toBigInteger() }
     val l2CalldataSizeAccumulator = L2CalldataSizeAccumulatorImpl(
       config = config,
-      web3jClient = mockWeb3jClient,
+      web3jClient = l2Chain,
     )
 
     val sumOfL2CalldataSize = l2CalldataSizeAccumulator.getSumOfL2CalldataSize().get()
 
-    (0..4).forEach {
-      verify(mockWeb3jClient, times(1))
-        .ethGetBlockSizeByNumber(eq(100L - it))
-    }
+    assertThat(l2Chain.blockRequests).containsExactlyInAnyOrder(96L, 97L, 98L, 99L, 100L)
 
     val expectedCalldataSize = (10540 - 540) * 5
     assertThat(sumOfL2CalldataSize).isEqualTo(expectedCalldataSize.toBigInteger())
@@ -43,76 +91,128 @@ class L2CalldataSizeAccumulatorImplTest {
 
   @Test
   fun test_getSumOfL2CalldataSize_for_each_calldata_size_at_zero() {
-    val mockWeb3jClient = mock<ExtendedWeb3J> {
-      on { ethBlockNumber() } doReturn SafeFuture.completedFuture(100.toBigInteger())
-      on { ethGetBlockSizeByNumber(any()) } doReturn SafeFuture.completedFuture(BigInteger.ZERO)
-    }
+    val l2Chain = FakeL2Chain(headBlockNumber = 100UL) { _, _ -> BigInteger.ZERO }
     val l2CalldataSizeAccumulator = L2CalldataSizeAccumulatorImpl(
       config = config,
-      web3jClient = mockWeb3jClient,
+      web3jClient = l2Chain,
     )
 
     val sumOfL2CalldataSize = l2CalldataSizeAccumulator.getSumOfL2CalldataSize().get()
 
-    (0..4).forEach {
-      verify(mockWeb3jClient, times(1))
-        .ethGetBlockSizeByNumber(eq(100L - it))
-    }
+    assertThat(l2Chain.blockRequests).containsExactlyInAnyOrder(96L, 97L, 98L, 99L, 100L)
 
     assertThat(sumOfL2CalldataSize).isEqualTo(BigInteger.ZERO)
   }
 
   @Test
   fun test_getSumOfL2CalldataSize_for_exception() {
-    val mockWeb3jClient = mock<ExtendedWeb3J> {
-      on { ethBlockNumber() } doReturn SafeFuture.failedFuture(RuntimeException("Failed for testing"))
-    }
+    val l2Chain = FakeL2Chain(headBlockNumber = 100UL) { _, _ -> 10540.toBigInteger() }
+      .apply { failBlockNumberRequest = true }
     val l2CalldataSizeAccumulator = L2CalldataSizeAccumulatorImpl(
       config = config,
-      web3jClient = mockWeb3jClient,
+      web3jClient = l2Chain,
     )
 
     assertThrows<Exception> {
       l2CalldataSizeAccumulator.getSumOfL2CalldataSize().get()
     }
+
+    // a failed update does not prevent the next ones
+    l2Chain.failBlockNumberRequest = false
+    assertThat(l2CalldataSizeAccumulator.getSumOfL2CalldataSize().get())
+      .isEqualTo(((10540 - 540) * 5).toBigInteger())
   }
 
   @Test
   fun test_getSumOfL2CalldataSize_when_ethBlockNumber_is_less_than_calldataSizeBlockCount() {
-    val mockWeb3jClient = mock<ExtendedWeb3J> {
-      on { ethBlockNumber() } doReturn SafeFuture.completedFuture(BigInteger.ONE)
-      on { ethGetBlockSizeByNumber(any()) } doReturn SafeFuture.completedFuture(10540.toBigInteger())
-    }
+    val l2Chain = FakeL2Chain(headBlockNumber = 1UL) { _, _ -> 10540.toBigInteger() }
     val l2CalldataSizeAccumulator = L2CalldataSizeAccumulatorImpl(
       config = config,
-      web3jClient = mockWeb3jClient,
+      web3jClient = l2Chain,
     )
 
     val sumOfL2CalldataSize = l2CalldataSizeAccumulator.getSumOfL2CalldataSize().get()
 
-    verify(mockWeb3jClient, times(0)).ethGetBlockSizeByNumber(any())
+    assertThat(l2Chain.blockRequests).isEmpty()
 
     assertThat(sumOfL2CalldataSize).isEqualTo(BigInteger.ZERO)
   }
 
   @Test
   fun test_getSumOfL2CalldataSize_if_calldataSizeBlockCount_is_zero() {
-    val mockWeb3jClient = mock<ExtendedWeb3J> {
-      on { ethBlockNumber() } doReturn SafeFuture.completedFuture(BigInteger.ONE)
-      on { ethGetBlockSizeByNumber(any()) } doReturn SafeFuture.completedFuture(10540.toBigInteger())
-    }
+    val l2Chain = FakeL2Chain(headBlockNumber = 1UL) { _, _ -> 10540.toBigInteger() }
     val l2CalldataSizeAccumulator = L2CalldataSizeAccumulatorImpl(
       config = L2CalldataSizeAccumulatorImpl.Config(
         blockSizeNonCalldataOverhead = 540u,
         calldataSizeBlockCount = 0u,
       ),
-      web3jClient = mockWeb3jClient,
+      web3jClient = l2Chain,
     )
 
     val sumOfL2CalldataSize = l2CalldataSizeAccumulator.getSumOfL2CalldataSize().get()
 
-    verify(mockWeb3jClient, times(0)).ethGetBlockSizeByNumber(any())
+    assertThat(l2Chain.blockRequests).isEmpty()
 
     assertThat(sumOfL2CalldataSize).isEqualTo(BigInteger.ZERO)
   }
+
+  @Test
+  fun test_getSumOfL2CalldataSize_only_fetches_new_blocks() {
+    val blockCount = 60u
+    val l2Chain = FakeL2Chain(headBlockNumber = 1000UL) { blockNumber, _ -> (1000UL + blockNumber).toBigInteger() }
+    val l2CalldataSizeAccumulator = L2CalldataSizeAccumulatorImpl(
+      config = L2CalldataSizeAccumulatorImpl.Config(
+        blockSizeNonCalldataOverhead = 540u,
+        calldataSizeBlockCount = blockCount,
+      ),
+      web3jClient = l2Chain,
+    )
+    fun expectedSum(headBlockNumber: ULong): BigInteger {
+      return ((headBlockNumber - blockCount + 1UL)..headBlockNumber)
+        .sumOf { (1000UL + it - 540UL).toBigInteger() }
+    }
+
+    assertThat(l2CalldataSizeAccumulator.getSumOfL2CalldataSize().get()).isEqualTo(expectedSum(1000UL))
+    val firstUpdateRequests = l2Chain.blockNumberRequests.get() + l2Chain.blockRequests.size
+    assertThat(firstUpdateRequests).isEqualTo(1 + blockCount.toInt())
+
+    // one or two new blocks between each update
+    val updatesCount = 20
+    repeat(updatesCount) { update ->
+      l2Chain.headBlockNumber += 1UL + (update % 2).toULong()
+      assertThat(l2CalldataSizeAccumulator.getSumOfL2CalldataSize().get())
+        .isEqualTo(expectedSum(l2Chain.headBlockNumber))
+    }
+    val requestsPerUpdate =
+      (l2Chain.blockNumberRequests.get() + l2Chain.blockRequests.size - firstUpdateRequests) / updatesCount
+    // the block number and the new blocks, instead of the whole window
+    assertThat(requestsPerUpdate).isLessThanOrEqualTo(4)
+  }
+
+  @Test
+  fun test_getSumOfL2CalldataSize_after_reorg() {
+    val l2Chain = FakeL2Chain(headBlockNumber = 100UL) { _, reorgsCount -> (10540 + reorgsCount * 100).toBigInteger() }
+    val l2CalldataSizeAccumulator = L2CalldataSizeAccumulatorImpl(
+      config = config,
+      web3jClient = l2Chain,
+    )
+    assertThat(l2CalldataSizeAccumulator.getSumOfL2CalldataSize().get())
+      .isEqualTo(((10540 - 540) * 5).toBigInteger())
+
+    // the last block was replaced, same head
+    l2Chain.reorg(fromBlockNumber = 100UL)
+    assertThat(l2CalldataSizeAccumulator.getSumOfL2CalldataSize().get())
+      .isEqualTo(((10540 - 540) * 4 + (10640 - 540)).toBigInteger())
+
+    // blocks 98 and after were replaced, new head on top of them
+    l2Chain.reorg(fromBlockNumber = 98UL)
+    l2Chain.headBlockNumber = 101UL
+    assertThat(l2CalldataSizeAccumulator.getSumOfL2CalldataSize().get())
+      .isEqualTo(((10540 - 540) * 1 + (10640 - 540) * 2 + (10740 - 540) * 2).toBigInteger())
+
+    // head went back
+    l2Chain.headBlockNumber = 99UL
+    assertThat(l2CalldataSizeAccumulator.getSumOfL2CalldataSize().get())
+      .isEqualTo(((10540 - 540) * 3 + (10640 - 540) * 2).toBigInteger())
+  }
 }
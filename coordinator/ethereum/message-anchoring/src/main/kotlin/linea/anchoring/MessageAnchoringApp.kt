@@ -34,6 +34,8 @@ class MessageAnchoringApp(
     val anchoringTickInterval: Duration,
     val l1EventPollingTimeout: Duration = 5.seconds,
     val l1EventSearchBlockChunk: UInt = 1000u,
+    // number of eth_getLogs chunk requests kept in flight when searching L1 events
+    val l1EventSearchMaxInFlightRequests: UInt = 4u,
     val messageQueueCapacity: UInt = 10_000u,
     val maxMessagesToAnchorPerL2Transaction: UInt = 100u,
   )
@@ -43,7 +45,12 @@ class MessageAnchoringApp(
     EthLogsSearcherImpl(
       vertx = vertx,
       ethApiClient = l1EthApiClient,
-      config = EthLogsSearcherImpl.Config(loopSuccessBackoffDelay = config.l1SuccessBackoffDelay),
+      config = EthLogsSearcherImpl.Config(
+        loopSuccessBackoffDelay = config.l1SuccessBackoffDelay,
+        windowedSearch = EthLogsSearcherImpl.WindowedSearchConfig(
+          maxInFlightRequests = config.l1EventSearchMaxInFlightRequests,
+        ),
+      ),
     )
 
   private val eventsQueue: Deque<MessageSentEvent> = LinkedBlockingDeque()
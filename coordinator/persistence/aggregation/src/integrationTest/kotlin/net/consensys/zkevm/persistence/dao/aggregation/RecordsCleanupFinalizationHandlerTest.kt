@@ -1,5 +1,6 @@
 package net.consensys.zkevm.persistence.dao.aggregation
 
+import io.vertx.core.Vertx
 import io.vertx.junit5.VertxExtension
 import io.vertx.sqlclient.PreparedQuery
 import io.vertx.sqlclient.Row
@@ -7,6 +8,7 @@ import io.vertx.sqlclient.RowSet
 import kotlinx.datetime.Clock
 import net.consensys.FakeFixedClock
 import net.consensys.linea.async.get
+import net.consensys.linea.metrics.MetricsFacade
 import net.consensys.zkevm.domain.createAggregation
 import net.consensys.zkevm.domain.createBatch
 import net.consensys.zkevm.domain.createBlobRecordFromBatches
@@ -22,10 +24,15 @@ import net.consensys.zkevm.persistence.db.DbHelper
 import net.consensys.zkevm.persistence.db.test.CleanDbTestSuiteParallel
 import org.apache.tuweni.bytes.Bytes32
 import org.assertj.core.api.Assertions
+import org.awaitility.Awaitility.await
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.extension.ExtendWith
+import org.mockito.Mockito
+import org.mockito.kotlin.mock
 import tech.pegasys.teku.infrastructure.async.SafeFuture
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.time.Duration.Companion.milliseconds
 
 @ExtendWith(VertxExtension::class)
 class RecordsCleanupFinalizationHandlerTest : CleanDbTestSuiteParallel() {
@@ -39,10 +46,12 @@ class RecordsCleanupFinalizationHandlerTest : CleanDbTestSuiteParallel() {
   private lateinit var blobsRepository: BlobsRepository
   private lateinit var aggregationsRepository: AggregationsRepository
 
+  private lateinit var vertx: Vertx
   private lateinit var recordsCleanupFinalizationHandler: RecordsCleanupFinalizationHandler
 
   @BeforeEach
-  fun beforeEach() {
+  fun beforeEach(vertx: Vertx) {
+    this.vertx = vertx
     fakeClock.setTimeTo(Clock.System.now())
     batchesRepository = PostgresBatchesRepository(
       BatchesPostgresDao(
@@ -64,13 +73,30 @@ class RecordsCleanupFinalizationHandlerTest : CleanDbTestSuiteParallel() {
       ),
     )
 
-    recordsCleanupFinalizationHandler = RecordsCleanupFinalizationHandler(
-      batchesRepository,
-      blobsRepository,
-      aggregationsRepository,
+    recordsCleanupFinalizationHandler = createRecordsCleanupFinalizationHandler()
+  }
+
+  private fun createRecordsCleanupFinalizationHandler(
+    config: RecordsCleanupFinalizationHandler.Config = RecordsCleanupFinalizationHandler.Config(),
+    batchesRepository: BatchesRepository = this.batchesRepository,
+  ): RecordsCleanupFinalizationHandler {
+    return RecordsCleanupFinalizationHandler(
+      batchesRepository = batchesRepository,
+      blobsRepository = blobsRepository,
+      aggregationsRepository = aggregationsRepository,
+      vertx = vertx,
+      metricsFacade = mock<MetricsFacade>(defaultAnswer = Mockito.RETURNS_DEEP_STUBS),
+      config = config,
+      clock = fakeClock,
     )
   }
 
+  private fun finalizationUpdate(blockNumber: ULong) = FinalizationMonitor.FinalizationUpdate(
+    blockNumber = blockNumber,
+    blockHash = Bytes32.random(),
+    zkStateRootHash = Bytes32.random(),
+  )
+
   private fun batchesContentQuery(): PreparedQuery<RowSet<Row>> =
     sqlClient.preparedQuery("select * from ${BatchesPostgresDao.batchesTableName}")
 
@@ -148,20 +174,74 @@ class RecordsCleanupFinalizationHandlerTest : CleanDbTestSuiteParallel() {
 
     recordsCleanupFinalizationHandler.handleUpdate(update).get()
 
-    val batchesAfterCleanup = batchesContentQuery().execute().get()
-    Assertions.assertThat(batchesAfterCleanup.size()).isEqualTo(0)
+    await()
+      .untilAsserted {
+        val batchesAfterCleanup = batchesContentQuery().execute().get()
+        Assertions.assertThat(batchesAfterCleanup.size()).isEqualTo(0)
 
-    val blobsAfterCleanup = blobsContentQuery().execute().get()
-      .map { BlobsPostgresDao.parseRecord(it) }
-      .sortedBy { it.startBlockNumber }
-    Assertions.assertThat(blobsAfterCleanup.size).isEqualTo(1)
-    Assertions.assertThat(blobsAfterCleanup[0]).isEqualTo(blob3)
+        val blobsAfterCleanup = blobsContentQuery().execute().get()
+          .map { BlobsPostgresDao.parseRecord(it) }
+          .sortedBy { it.startBlockNumber }
+        Assertions.assertThat(blobsAfterCleanup.size).isEqualTo(1)
+        Assertions.assertThat(blobsAfterCleanup[0]).isEqualTo(blob3)
 
-    val aggregationsAfterCleanup = aggregationsContentQuery().execute().get()
-    Assertions.assertThat(aggregationsAfterCleanup.size()).isEqualTo(1)
+        val aggregationsAfterCleanup = aggregationsContentQuery().execute().get()
+        Assertions.assertThat(aggregationsAfterCleanup.size()).isEqualTo(1)
+      }
     Assertions.assertThat(
       aggregationsRepository.findAggregationProofByEndBlockNumber(aggregation3.endBlockNumber.toLong()).get(),
     )
       .isNotNull()
   }
+
+  @Test
+  fun `cleanup deletes records in chunks up to the latest finalization received while running`() {
+    val batches = (1L..25L).map { createBatch(startBlockNumber = it, endBlockNumber = it) }
+    SafeFuture.collectAll(batches.map { batchesRepository.saveNewBatch(it) }.stream()).get()
+    val recordsCleanupFinalizationHandler = createRecordsCleanupFinalizationHandler(
+      config = RecordsCleanupFinalizationHandler.Config(maxRecordsPerDelete = 4, pauseBetweenDeletes = 10.milliseconds),
+    )
+
+    // returns right away, the updates received during the cleanup are handled once it completes
+    recordsCleanupFinalizationHandler.handleUpdate(finalizationUpdate(10u)).get()
+    recordsCleanupFinalizationHandler.handleUpdate(finalizationUpdate(20u)).get()
+    recordsCleanupFinalizationHandler.handleUpdate(finalizationUpdate(15u)).get()
+
+    await()
+      .untilAsserted {
+        val remainingBatches = batchesContentQuery().execute().get().map { it.getLong("start_block_number") }
+        Assertions.assertThat(remainingBatches).containsExactlyInAnyOrderElementsOf(21L..25L)
+      }
+  }
+
+  @Test
+  fun `failed cleanup is retried without waiting for a new finalization`() {
+    val batches = (1L..5L).map { createBatch(startBlockNumber = it, endBlockNumber = it) }
+    SafeFuture.collectAll(batches.map { batchesRepository.saveNewBatch(it) }.stream()).get()
+    val batchesDeletes = AtomicInteger()
+    val recordsCleanupFinalizationHandler = createRecordsCleanupFinalizationHandler(
+      config = RecordsCleanupFinalizationHandler.Config(
+        retryBackoffDelay = 10.milliseconds,
+        maxRetryBackoffDelay = 20.milliseconds,
+      ),
+      batchesRepository = object : BatchesRepository by batchesRepository {
+        override fun deleteBatchesUpToEndBlockNumber(endBlockNumberInclusive: Long, maxBatches: Int): SafeFuture<Int> {
+          return if (batchesDeletes.incrementAndGet() <= 2) {
+            SafeFuture.failedFuture(RuntimeException("database unavailable"))
+          } else {
+            batchesRepository.deleteBatchesUpToEndBlockNumber(endBlockNumberInclusive, maxBatches)
+          }
+        }
+      },
+    )
+
+    recordsCleanupFinalizationHandler.handleUpdate(finalizationUpdate(3u)).get()
+
+    await()
+      .untilAsserted {
+        val remainingBatches = batchesContentQuery().execute().get().map { it.getLong("start_block_number") }
+        Assertions.assertThat(remainingBatches).containsExactlyInAnyOrderElementsOf(4L..5L)
+      }
+    Assertions.assertThat(batchesDeletes.get()).isEqualTo(3)
+  }
 }
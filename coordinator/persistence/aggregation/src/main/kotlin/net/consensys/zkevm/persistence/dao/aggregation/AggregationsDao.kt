@@ -47,5 +47,7 @@ interface AggregationsDao {
 
   fun deleteAggregationsUpToEndBlockNumber(endBlockNumberInclusive: Long): SafeFuture<Int>
 
+  fun deleteAggregationsUpToEndBlockNumber(endBlockNumberInclusive: Long, maxAggregations: Int): SafeFuture<Int>
+
   fun deleteAggregationsAfterBlockNumber(startingBlockNumberInclusive: Long): SafeFuture<Int>
 }
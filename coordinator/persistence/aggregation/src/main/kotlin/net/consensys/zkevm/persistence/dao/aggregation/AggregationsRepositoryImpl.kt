@@ -54,6 +54,13 @@ class AggregationsRepositoryImpl(
     return aggregationsPostgresDao.deleteAggregationsUpToEndBlockNumber(endBlockNumberInclusive)
   }
 
+  override fun deleteAggregationsUpToEndBlockNumber(
+    endBlockNumberInclusive: Long,
+    maxAggregations: Int,
+  ): SafeFuture<Int> {
+    return aggregationsPostgresDao.deleteAggregationsUpToEndBlockNumber(endBlockNumberInclusive, maxAggregations)
+  }
+
   override fun deleteAggregationsAfterBlockNumber(startingBlockNumberInclusive: Long): SafeFuture<Int> {
     return aggregationsPostgresDao.deleteAggregationsAfterBlockNumber(startingBlockNumberInclusive)
   }
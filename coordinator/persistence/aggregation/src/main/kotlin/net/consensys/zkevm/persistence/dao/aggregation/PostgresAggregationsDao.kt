@@ -22,9 +22,14 @@ import org.apache.logging.log4j.Level
 import org.apache.logging.log4j.LogManager
 import tech.pegasys.teku.infrastructure.async.SafeFuture
 
+/**
+ * Aggregations are written with connection, and aggregations, blobs and batches read with readConnection,
+ * e.g. a pipelined client with its own pool so polling reads do not wait for writes.
+ */
 class PostgresAggregationsDao(
   connection: SqlClient,
   private val clock: Clock = Clock.System,
+  readConnection: SqlClient = connection,
 ) : AggregationsDao {
   private val log = LogManager.getLogger(this.javaClass.name)
   private val queryLog = SQLQueryLogger(log)
@@ -48,7 +53,7 @@ class PostgresAggregationsDao(
     val blobsTable = "blobs"
   }
 
-  private val selectBatchesAndBlobsForAggregation = connection.preparedQuery(
+  private val selectBatchesAndBlobsForAggregation = readConnection.preparedQuery(
     """
       with blob_previous_ends as (
         select *,
@@ -127,7 +132,7 @@ class PostgresAggregationsDao(
     )
 
   private val selectAggregations =
-    connection.preparedQuery(
+    readConnection.preparedQuery(
       """
         with previous_ends as (select *,
           lag(end_block_number, 1) over (order by end_block_number asc) as previous_end_block_number
@@ -148,7 +153,7 @@ class PostgresAggregationsDao(
     )
 
   private val findAggregationByEndBlockNumber =
-    connection.preparedQuery(
+    readConnection.preparedQuery(
       """
         select * from $aggregationsTable
         where end_block_number = $1
@@ -164,6 +169,20 @@ class PostgresAggregationsDao(
       """.trimIndent(),
     )
 
+  // start_block_number <= end_block_number, bounding start_block_number lets the primary key index be range scanned
+  private val deleteUptoLimitedQuery =
+    connection.preparedQuery(
+      """
+        delete from $aggregationsTable
+        where ctid = any(array(
+          select ctid from $aggregationsTable
+          where start_block_number <= $1 and end_block_number <= $1
+          order by start_block_number
+          limit $2
+        ))
+      """.trimIndent(),
+    )
+
   private val deleteAfterQuery =
     connection.preparedQuery(
       """
@@ -339,6 +358,16 @@ class PostgresAggregationsDao(
       .toSafeFuture()
   }
 
+  override fun deleteAggregationsUpToEndBlockNumber(
+    endBlockNumberInclusive: Long,
+    maxAggregations: Int,
+  ): SafeFuture<Int> {
+    return deleteUptoLimitedQuery
+      .execute(Tuple.of(endBlockNumberInclusive, maxAggregations))
+      .map { rowSet -> rowSet.rowCount() }
+      .toSafeFuture()
+  }
+
   override fun deleteAggregationsAfterBlockNumber(startingBlockNumberInclusive: Long): SafeFuture<Int> {
     return deleteAfterQuery
       .execute(Tuple.of(startingBlockNumberInclusive))
@@ -1,51 +1,231 @@
 package net.consensys.zkevm.persistence.dao.aggregation
 
+import io.vertx.core.Vertx
+import kotlinx.datetime.Clock
+import kotlinx.datetime.Instant
+import net.consensys.linea.metrics.LineaMetricsCategory
+import net.consensys.linea.metrics.MetricsFacade
 import net.consensys.zkevm.ethereum.finalization.FinalizationHandler
 import net.consensys.zkevm.ethereum.finalization.FinalizationMonitor
 import net.consensys.zkevm.persistence.AggregationsRepository
 import net.consensys.zkevm.persistence.BatchesRepository
 import net.consensys.zkevm.persistence.BlobsRepository
+import org.apache.logging.log4j.LogManager
+import org.apache.logging.log4j.Logger
 import tech.pegasys.teku.infrastructure.async.SafeFuture
+import java.util.concurrent.atomic.AtomicLong
+import kotlin.time.Duration
+import kotlin.time.Duration.Companion.milliseconds
+import kotlin.time.Duration.Companion.minutes
+import kotlin.time.Duration.Companion.seconds
 
+/**
+ * Deletes the records no longer needed after a finalization in the background, so finalization handling
+ * never waits for it. Records are deleted one table at a time, at most maxRecordsPerDelete per statement,
+ * pausing pauseBetweenDeletes between statements, so a long finalization gap does not end up in a few
+ * huge deletes competing with conflation inserts.
+ *
+ * Updates received while a cleanup is running are cleaned up once it completes, up to the latest one.
+ * A failed cleanup is retried after retryBackoffDelay, doubled after each consecutive failure up to
+ * maxRetryBackoffDelay, without waiting for a new finalization.
+ */
 class RecordsCleanupFinalizationHandler(
   private val batchesRepository: BatchesRepository,
   private val blobsRepository: BlobsRepository,
   private val aggregationsRepository: AggregationsRepository,
+  private val vertx: Vertx,
+  private val metricsFacade: MetricsFacade,
+  private val config: Config = Config(),
+  private val clock: Clock = Clock.System,
+  private val log: Logger = LogManager.getLogger(RecordsCleanupFinalizationHandler::class.java),
 ) : FinalizationHandler {
+  data class Config(
+    val maxRecordsPerDelete: Int = 1_000,
+    val pauseBetweenDeletes: Duration = 50.milliseconds,
+    val retryBackoffDelay: Duration = 1.seconds,
+    val maxRetryBackoffDelay: Duration = 1.minutes,
+  ) {
+    init {
+      require(maxRecordsPerDelete > 0) { "maxRecordsPerDelete=$maxRecordsPerDelete must be greater than 0" }
+      require(!pauseBetweenDeletes.isNegative()) { "pauseBetweenDeletes=$pauseBetweenDeletes must not be negative" }
+      require(retryBackoffDelay.isPositive()) { "retryBackoffDelay=$retryBackoffDelay must be greater than 0" }
+      require(maxRetryBackoffDelay >= retryBackoffDelay) {
+        "maxRetryBackoffDelay=$maxRetryBackoffDelay must be greater than or equal to " +
+          "retryBackoffDelay=$retryBackoffDelay"
+      }
+    }
+  }
+
+  private inner class TableCleanup(
+    category: LineaMetricsCategory,
+    private val deleteRecords: (finalizedBlockNumber: ULong, maxRecords: Int) -> SafeFuture<Int>,
+  ) {
+    val cleanedUpToFinalizedBlockNumber = AtomicLong(0)
+    private val deletedRecordsCounter = metricsFacade.createCounter(
+      category = category,
+      name = "cleanup.deleted",
+      description = "Number of records deleted after finalization",
+    )
+
+    init {
+      metricsFacade.createGauge(
+        category = category,
+        name = "cleanup.finalized.block.number",
+        description = "Highest finalized block number whose records are all deleted",
+        measurementSupplier = { cleanedUpToFinalizedBlockNumber.get() },
+      )
+    }
+
+    fun cleanUp(finalizedBlockNumber: ULong): SafeFuture<Unit> {
+      return deleteRecords(finalizedBlockNumber, config.maxRecordsPerDelete)
+        .thenCompose { deletedRecords ->
+          deletedRecordsCounter.increment(deletedRecords.toDouble())
+          if (deletedRecords < config.maxRecordsPerDelete) {
+            cleanedUpToFinalizedBlockNumber.set(finalizedBlockNumber.toLong())
+            SafeFuture.completedFuture(Unit)
+          } else {
+            pause().thenCompose { cleanUp(finalizedBlockNumber) }
+          }
+        }
+    }
+  }
+
+  // We do not need to keep batches, blobs and aggregation objects in the DB that are not needed after finalization.
+  // We only need to keep
+  // - the last blob because BlobCompressionProofCoordinator needs the shnarf from the previous blob and
+  // - the last aggregation because we do not want to delete the last aggregation.
+  //
+  // Consider the case when we have a finalization event for block 100.
+  //
+  // We could have the following objects in the DB
+  // Batches : [90, 92], [93, 96], [97, 98], [99, 99], [100, 100]
+  // Blobs: [87, 89], [90, 96], [97, 99], [100, 100]
+  // Aggregations: [82, 89], [90, 100]
+  //
+  // When the finalization event for block 100 is received, we can cleanup
+  // - Batches with endBlockNumber <= 100
+  // - Blobs with endBlockNumber <= 100 - 1 so that the blob [100, 100] remains in DB
+  // - Aggregation with endBlockNumber <= 100 - 1 so that the aggregation [90, 100] remains in DB
+  //
+  // If we subtract 2 instead of 1, ie cleanup all blobs and aggregation with endBlockNumber <= 100 - 2
+  // we end up keeping
+  // - Blobs [97, 99] and [100, 100]
+  // - Aggregation [90, 100]
+  //
+  // Ideally subtracting 1 to clean up blobs and aggregation should work however subtracting 2 is more conservative
+  // and can result in an extra blob (and possibly aggregation) object in the DB after cleanup
+  // but does not impact any functionality.
+  private val tableCleanups = listOf(
+    TableCleanup(LineaMetricsCategory.BATCH) { finalizedBlockNumber, maxRecords ->
+      batchesRepository.deleteBatchesUpToEndBlockNumber(finalizedBlockNumber.toLong(), maxRecords)
+    },
+    TableCleanup(LineaMetricsCategory.BLOB) { finalizedBlockNumber, maxRecords ->
+      blobsRepository.deleteBlobsUpToEndBlockNumber(finalizedBlockNumber - 1u, maxRecords)
+    },
+    TableCleanup(LineaMetricsCategory.AGGREGATION) { finalizedBlockNumber, maxRecords ->
+      aggregationsRepository.deleteAggregationsUpToEndBlockNumber(finalizedBlockNumber.toLong() - 1L, maxRecords)
+    },
+  )
+
+  private val lock = Any()
+  private var latestFinalizedBlockNumber: ULong? = null
+  // also set while a failed cleanup waits to be retried
+  private var cleanupInProgress = false
+  private var nextRetryDelay = config.retryBackoffDelay
+
+  // reception times of the oldest update not cleaned up yet and of the oldest one received after the cleanup target
+  private var pendingSince: Instant? = null
+  private var pendingAfterTargetSince: Instant? = null
+
+  init {
+    metricsFacade.createGauge(
+      category = LineaMetricsCategory.CONFLATION,
+      name = "records.cleanup.lag.seconds",
+      description = "Time since the oldest finalization whose records are not deleted yet, 0 when up to date",
+      measurementSupplier = {
+        synchronized(lock) { pendingSince?.let { (clock.now() - it).inWholeSeconds } ?: 0L }
+      },
+    )
+  }
+
   override fun handleUpdate(update: FinalizationMonitor.FinalizationUpdate): SafeFuture<*> {
-    // We do not need to keep batches, blobs and aggregation objects in the DB that are not needed after finalization.
-    // We only need to keep
-    // - the last blob because BlobCompressionProofCoordinator needs the shnarf from the previous blob and
-    // - the last aggregation because we do not want to delete the last aggregation.
-    //
-    // Consider the case when we have a finalization event for block 100.
-    //
-    // We could have the following objects in the DB
-    // Batches : [90, 92], [93, 96], [97, 98], [99, 99], [100, 100]
-    // Blobs: [87, 89], [90, 96], [97, 99], [100, 100]
-    // Aggregations: [82, 89], [90, 100]
-    //
-    // When the finalization event for block 100 is received, we can cleanup
-    // - Batches with endBlockNumber <= 100
-    // - Blobs with endBlockNumber <= 100 - 1 so that the blob [100, 100] remains in DB
-    // - Aggregation with endBlockNumber <= 100 - 1 so that the aggregation [90, 100] remains in DB
-    //
-    // If we subtract 2 instead of 1, ie cleanup all blobs and aggregation with endBlockNumber <= 100 - 2
-    // we end up keeping
-    // - Blobs [97, 99] and [100, 100]
-    // - Aggregation [90, 100]
-    //
-    // Ideally subtracting 1 to clean up blobs and aggregation should work however subtracting 2 is more conservative
-    // and can result in an extra blob (and possibly aggregation) object in the DB after cleanup
-    // but does not impact any functionality.
-
-    val batchesCleanup = batchesRepository.deleteBatchesUpToEndBlockNumber(update.blockNumber.toLong())
-    val blobsCleanup = blobsRepository.deleteBlobsUpToEndBlockNumber(
-      endBlockNumberInclusive = update.blockNumber - 1u,
+    synchronized(lock) {
+      if (latestFinalizedBlockNumber != null && update.blockNumber <= latestFinalizedBlockNumber!!) {
+        return SafeFuture.completedFuture(Unit)
+      }
+      latestFinalizedBlockNumber = update.blockNumber
+      if (pendingSince == null) {
+        pendingSince = clock.now()
+      } else if (cleanupInProgress && pendingAfterTargetSince == null) {
+        pendingAfterTargetSince = clock.now()
+      }
+    }
+    startCleanupIfIdle()
+    return SafeFuture.completedFuture(Unit)
+  }
+
+  private fun startCleanupIfIdle() {
+    synchronized(lock) {
+      if (cleanupInProgress) {
+        return
+      }
+      cleanupInProgress = true
+    }
+    cleanUpToLatestFinalization()
+  }
+
+  private fun cleanUpToLatestFinalization() {
+    val finalizedBlockNumber = synchronized(lock) {
+      pendingAfterTargetSince = null
+      latestFinalizedBlockNumber!!
+    }
+    cleanUp(finalizedBlockNumber)
+      .whenComplete { _, error ->
+        if (error != null) {
+          scheduleRetry(finalizedBlockNumber, error)
+          return@whenComplete
+        }
+        val hasNewerUpdates = synchronized(lock) {
+          cleanupInProgress = false
+          nextRetryDelay = config.retryBackoffDelay
+          (latestFinalizedBlockNumber != finalizedBlockNumber).also { hasNewerUpdates ->
+            pendingSince = if (hasNewerUpdates) pendingAfterTargetSince else null
+          }
+        }
+        if (hasNewerUpdates) {
+          startCleanupIfIdle()
+        }
+      }
+  }
+
+  private fun scheduleRetry(finalizedBlockNumber: ULong, error: Throwable) {
+    val retryDelay = synchronized(lock) {
+      nextRetryDelay.also { nextRetryDelay = (it * 2).coerceAtMost(config.maxRetryBackoffDelay) }
+    }
+    log.warn(
+      "records cleanup failed, it will be retried: finalizedBlockNumber={} retryDelay={} errorMessage={}",
+      finalizedBlockNumber,
+      retryDelay,
+      error.message,
+      error,
     )
-    val aggregationsCleanup = aggregationsRepository
-      .deleteAggregationsUpToEndBlockNumber(endBlockNumberInclusive = update.blockNumber.toLong() - 1L)
+    // the retry cleans up to the latest finalization received meanwhile
+    vertx.setTimer(retryDelay.inWholeMilliseconds.coerceAtLeast(1L)) { cleanUpToLatestFinalization() }
+  }
+
+  private fun cleanUp(finalizedBlockNumber: ULong): SafeFuture<Unit> {
+    log.debug("records cleanup: finalizedBlockNumber={}", finalizedBlockNumber)
+    return tableCleanups.fold(SafeFuture.completedFuture(Unit)) { previousCleanups, tableCleanup ->
+      previousCleanups.thenCompose { tableCleanup.cleanUp(finalizedBlockNumber) }
+    }
+  }
 
-    return SafeFuture.allOf(batchesCleanup, blobsCleanup, aggregationsCleanup)
+  private fun pause(): SafeFuture<Unit> {
+    if (config.pauseBetweenDeletes == Duration.ZERO) {
+      return SafeFuture.completedFuture(Unit)
+    }
+    val pause = SafeFuture<Unit>()
+    vertx.setTimer(config.pauseBetweenDeletes.inWholeMilliseconds.coerceAtLeast(1L)) { pause.complete(Unit) }
+    return pause
   }
 }
@@ -55,6 +55,15 @@ class RetryingPostgresAggregationsDao(
     return persistenceRetryer.retryQuery({ delegate.deleteAggregationsUpToEndBlockNumber(endBlockNumberInclusive) })
   }
 
+  override fun deleteAggregationsUpToEndBlockNumber(
+    endBlockNumberInclusive: Long,
+    maxAggregations: Int,
+  ): SafeFuture<Int> {
+    return persistenceRetryer.retryQuery(
+      { delegate.deleteAggregationsUpToEndBlockNumber(endBlockNumberInclusive, maxAggregations) },
+    )
+  }
+
   override fun deleteAggregationsAfterBlockNumber(startingBlockNumberInclusive: Long): SafeFuture<Int> {
     return persistenceRetryer.retryQuery({ delegate.deleteAggregationsAfterBlockNumber(startingBlockNumberInclusive) })
   }
@@ -1,5 +1,6 @@
 package net.consensys.zkevm.persistence.dao.batch.persistence
 
+import io.vertx.core.Vertx
 import io.vertx.junit5.VertxExtension
 import io.vertx.sqlclient.PreparedQuery
 import io.vertx.sqlclient.Row
@@ -9,6 +10,7 @@ import net.consensys.FakeFixedClock
 import net.consensys.linea.async.get
 import net.consensys.zkevm.domain.Batch
 import net.consensys.zkevm.domain.createBatch
+import net.consensys.zkevm.persistence.db.Db
 import net.consensys.zkevm.persistence.db.DbHelper
 import net.consensys.zkevm.persistence.db.DuplicatedRecordException
 import net.consensys.zkevm.persistence.db.test.CleanDbTestSuiteParallel
@@ -21,6 +23,8 @@ import org.junit.jupiter.api.assertThrows
 import org.junit.jupiter.api.extension.ExtendWith
 import tech.pegasys.teku.infrastructure.async.SafeFuture
 import java.util.concurrent.ExecutionException
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
 import kotlin.time.Duration.Companion.seconds
 
 @ExtendWith(VertxExtension::class)
@@ -120,6 +124,117 @@ class BatchesPostgresDaoTest : CleanDbTestSuiteParallel() {
     }
   }
 
+  @Test
+  fun `saveNewBatches saves all the batches or none when one is duplicated`() {
+    val batches = listOf(createBatch(1, 3), createBatch(4, 5), createBatch(6, 7))
+    batchesDao.saveNewBatches(batches).get()
+    assertThat(DbQueries.getBatches(sqlClient)).hasSameElementsAs(batches)
+
+    assertThrows<ExecutionException> {
+      batchesDao.saveNewBatches(listOf(createBatch(8, 9), batches[1], createBatch(10, 11))).get()
+    }.also { executionException ->
+      assertThat(executionException.cause).isInstanceOf(DuplicatedRecordException::class.java)
+      assertThat(executionException.cause!!.message)
+        .isEqualTo("One of batches [8..9]2, [4..5]2, [10..11]2 is already persisted!")
+    }
+    assertThat(DbQueries.getBatches(sqlClient)).hasSameElementsAs(batches)
+  }
+
+  @Test
+  fun `repository saves concurrent batches together and completes each save with its own result`() {
+    val batchesRepository = PostgresBatchesRepository(batchesDao)
+    val batches = (0L until 300L).map { createBatch(it * 10 + 1, it * 10 + 10) }
+    batchesRepository.saveNewBatch(batches[0]).get()
+
+    val saves = (batches + batches[0] + batches[1]).map { batch ->
+      batchesRepository.saveNewBatch(batch).handle { _, error -> error }
+    }
+    val errors = SafeFuture.collectAll(saves.stream()).get()
+
+    assertThat(errors[0]).isInstanceOf(DuplicatedRecordException::class.java)
+    assertThat(errors.subList(1, batches.size)).containsOnlyNulls()
+    assertThat(errors.takeLast(2)).allMatch { it is DuplicatedRecordException }
+    assertThat(DbQueries.getBatches(sqlClient)).hasSameElementsAs(batches)
+  }
+
+  @Test
+  fun `bursts of batches are saved in fewer round trips while pollers are active`(vertx: Vertx) {
+    val burstsCount = 50
+    val batchesPerBurst = 20
+    val pollersCount = 20
+
+    val insertRoundTrips = AtomicInteger(0)
+    fun countingInserts(dao: BatchesDao): BatchesDao = object : BatchesDao by dao {
+      override fun saveNewBatch(batch: Batch): SafeFuture<Unit> {
+        insertRoundTrips.incrementAndGet()
+        return dao.saveNewBatch(batch)
+      }
+
+      override fun saveNewBatches(batches: List<Batch>): SafeFuture<Unit> {
+        insertRoundTrips.incrementAndGet()
+        return dao.saveNewBatches(batches)
+      }
+    }
+
+    fun conflationInsertRoundTrips(
+      saveNewBatch: (Batch) -> SafeFuture<Unit>,
+      readBatchesDao: BatchesDao,
+    ): Int {
+      batchesDao.deleteBatchesAfterBlockNumber(0L).get()
+      insertRoundTrips.set(0)
+      val polling = AtomicBoolean(true)
+      fun poll(pollerDone: SafeFuture<Unit>) {
+        if (!polling.get()) {
+          pollerDone.complete(Unit)
+          return
+        }
+        readBatchesDao.findHighestConsecutiveEndBlockNumberFromBlockNumber(1L)
+          .whenComplete { _, _ -> poll(pollerDone) }
+      }
+      val pollers = List(pollersCount) { SafeFuture<Unit>().also(::poll) }
+
+      // execution proofs completing in bursts
+      (0L until burstsCount).forEach { burst ->
+        val batches = (0L until batchesPerBurst).map { index ->
+          val batchIndex = burst * batchesPerBurst + index
+          createBatch(batchIndex * 10 + 1, batchIndex * 10 + 10)
+        }
+        SafeFuture.collectAll(batches.map(saveNewBatch).stream()).get()
+      }
+      polling.set(false)
+      SafeFuture.allOf(*pollers.toTypedArray()).get()
+      assertThat(DbQueries.getBatches(sqlClient)).hasSize(burstsCount * batchesPerBurst)
+      return insertRoundTrips.get()
+    }
+
+    fun createClient(maxPoolSize: Int, pipeliningLimit: Int) = Db.vertxSqlClient(
+      vertx = vertx,
+      host = "localhost",
+      port = 5432,
+      database = databaseName,
+      username = "postgres",
+      password = "postgres",
+      maxPoolSize = maxPoolSize,
+      pipeliningLimit = pipeliningLimit,
+    )
+
+    // a single pool shared by reads and writes, saving batches one by one
+    val sharedClient = createClient(maxPoolSize = 10, pipeliningLimit = 10)
+    val sharedClientDao = countingInserts(BatchesPostgresDao(sharedClient, fakeClock))
+    assertThat(conflationInsertRoundTrips(sharedClientDao::saveNewBatch, sharedClientDao))
+      .isEqualTo(burstsCount * batchesPerBurst)
+
+    // read and write pools, saving concurrent batches together
+    val writeClient = createClient(maxPoolSize = 10, pipeliningLimit = 1)
+    val readClient = createClient(maxPoolSize = 10, pipeliningLimit = 10)
+    val splitClientsDao = countingInserts(BatchesPostgresDao(writeClient, fakeClock, readConnection = readClient))
+    val batchesRepository = PostgresBatchesRepository(splitClientsDao, maxConcurrentSaves = 4)
+    // the first saves of a burst up to maxConcurrentSaves, then the others together
+    assertThat(conflationInsertRoundTrips(batchesRepository::saveNewBatch, splitClientsDao))
+      .isLessThan(burstsCount * batchesPerBurst / 2)
+    listOf(sharedClient, writeClient, readClient).forEach { it.close().get() }
+  }
+
   @Test
   fun `findHighestConsecutiveEndBlockNumberFromBlockNumber when empty returns null`() {
     assertThat(
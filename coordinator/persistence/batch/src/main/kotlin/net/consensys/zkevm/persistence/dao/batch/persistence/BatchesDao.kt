@@ -6,6 +6,11 @@ import tech.pegasys.teku.infrastructure.async.SafeFuture
 interface BatchesDao {
   fun saveNewBatch(batch: Batch): SafeFuture<Unit>
 
+  /**
+   * Saves the batches in a single round trip, either all of them or none if one fails.
+   */
+  fun saveNewBatches(batches: List<Batch>): SafeFuture<Unit>
+
   fun findHighestConsecutiveEndBlockNumberFromBlockNumber(
     startingBlockNumberInclusive: Long,
   ): SafeFuture<Long?>
@@ -14,6 +19,11 @@ interface BatchesDao {
     endBlockNumberInclusive: Long,
   ): SafeFuture<Int>
 
+  fun deleteBatchesUpToEndBlockNumber(
+    endBlockNumberInclusive: Long,
+    maxBatches: Int,
+  ): SafeFuture<Int>
+
   fun deleteBatchesAfterBlockNumber(
     startingBlockNumberInclusive: Long,
   ): SafeFuture<Int>
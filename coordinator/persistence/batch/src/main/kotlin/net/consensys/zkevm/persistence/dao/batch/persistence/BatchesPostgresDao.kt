@@ -13,9 +13,14 @@ import org.apache.logging.log4j.Level
 import org.apache.logging.log4j.LogManager
 import tech.pegasys.teku.infrastructure.async.SafeFuture
 
+/**
+ * Batches are written with connection and read with readConnection,
+ * e.g. a pipelined client with its own pool so polling reads do not wait for writes.
+ */
 class BatchesPostgresDao(
   connection: SqlClient,
   private val clock: Clock = Clock.System,
+  readConnection: SqlClient = connection,
 ) : BatchesDao {
   private val log = LogManager.getLogger(this.javaClass.name)
   private val queryLog = SQLQueryLogger(log)
@@ -76,6 +81,19 @@ class BatchesPostgresDao(
     """
       .trimIndent()
 
+  // start_block_number <= end_block_number, bounding start_block_number lets the primary key index be range scanned
+  private val deleteUptoLimitedSql =
+    """
+        delete from $batchesTableName
+        where ctid = any(array(
+          select ctid from $batchesTableName
+          where start_block_number <= $1 and end_block_number <= $1
+          order by start_block_number
+          limit $2
+        ))
+    """
+      .trimIndent()
+
   private val deleteAfterSql =
     """
         delete from $batchesTableName
@@ -83,31 +101,38 @@ class BatchesPostgresDao(
     """
       .trimIndent()
 
-  private val findHighestConsecutiveEndBlockNumberQuery = connection.preparedQuery(
+  private val findHighestConsecutiveEndBlockNumberQuery = readConnection.preparedQuery(
     findHighestConsecutiveEndBlockNumberSql,
   )
   private val insertQuery = connection.preparedQuery(insertSql)
   private val deleteUptoQuery = connection.preparedQuery(deleteUptoSql)
+  private val deleteUptoLimitedQuery = connection.preparedQuery(deleteUptoLimitedSql)
   private val deleteAfterQuery = connection.preparedQuery(deleteAfterSql)
 
+  private fun insertParams(batch: Batch, createdEpochMilli: Long): List<Any> {
+    return listOf(
+      createdEpochMilli,
+      batch.startBlockNumber.toLong(),
+      batch.endBlockNumber.toLong(),
+      batchStatusToDbValue(Batch.Status.Proven),
+    )
+  }
+
+  private fun isBatchDuplicateKeyException(th: Throwable): Boolean {
+    return th is PgException &&
+      th.errorMessage == "duplicate key value violates unique constraint \"batches_pkey\""
+  }
+
   override fun saveNewBatch(batch: Batch): SafeFuture<Unit> {
-    val startBlockNumber = batch.startBlockNumber.toLong()
-    val endBlockNumber = batch.endBlockNumber.toLong()
-    val params =
-      listOf(
-        clock.now().toEpochMilliseconds(),
-        startBlockNumber,
-        endBlockNumber,
-        batchStatusToDbValue(Batch.Status.Proven),
-      )
+    val params = insertParams(batch, clock.now().toEpochMilliseconds())
     queryLog.log(Level.TRACE, insertSql, params)
     return insertQuery.execute(Tuple.tuple(params))
       .map { }
       .recover { th ->
-        if (th is PgException && th.errorMessage == "duplicate key value violates unique constraint \"batches_pkey\"") {
+        if (isBatchDuplicateKeyException(th)) {
           Future.failedFuture(
             DuplicatedRecordException(
-              "Batch startBlockNumber=$startBlockNumber, endBlockNumber=$endBlockNumber " +
+              "Batch startBlockNumber=${batch.startBlockNumber}, endBlockNumber=${batch.endBlockNumber} " +
                 "is already persisted!",
               th,
             ),
@@ -119,6 +144,31 @@ class BatchesPostgresDao(
       .toSafeFuture()
   }
 
+  override fun saveNewBatches(batches: List<Batch>): SafeFuture<Unit> {
+    if (batches.isEmpty()) {
+      return SafeFuture.completedFuture(Unit)
+    }
+    val createdEpochMilli = clock.now().toEpochMilliseconds()
+    val params = batches.map { batch -> insertParams(batch, createdEpochMilli) }
+    queryLog.log(Level.TRACE, insertSql, params)
+    // single round trip, the batches are either all saved or none is
+    return insertQuery.executeBatch(params.map(Tuple::tuple))
+      .map { }
+      .recover { th ->
+        if (isBatchDuplicateKeyException(th)) {
+          Future.failedFuture(
+            DuplicatedRecordException(
+              "One of batches ${batches.joinToString(", ") { it.intervalString() }} is already persisted!",
+              th,
+            ),
+          )
+        } else {
+          Future.failedFuture(th)
+        }
+      }
+      .toSafeFuture()
+  }
+
   override fun findHighestConsecutiveEndBlockNumberFromBlockNumber(
     startingBlockNumberInclusive: Long,
   ): SafeFuture<Long?> {
@@ -145,6 +195,16 @@ class BatchesPostgresDao(
       .toSafeFuture()
   }
 
+  override fun deleteBatchesUpToEndBlockNumber(
+    endBlockNumberInclusive: Long,
+    maxBatches: Int,
+  ): SafeFuture<Int> {
+    return deleteUptoLimitedQuery
+      .execute(Tuple.of(endBlockNumberInclusive, maxBatches))
+      .map { rowSet -> rowSet.rowCount() }
+      .toSafeFuture()
+  }
+
   override fun deleteBatchesAfterBlockNumber(startingBlockNumberInclusive: Long): SafeFuture<Int> {
     return deleteAfterQuery
       .execute(
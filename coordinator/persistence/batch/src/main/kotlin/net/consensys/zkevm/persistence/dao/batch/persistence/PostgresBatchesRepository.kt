@@ -2,13 +2,28 @@ package net.consensys.zkevm.persistence.dao.batch.persistence
 
 import net.consensys.zkevm.domain.Batch
 import net.consensys.zkevm.persistence.BatchesRepository
+import net.consensys.zkevm.persistence.db.GroupedWriter
 import tech.pegasys.teku.infrastructure.async.SafeFuture
 
+/**
+ * Batches saved while maxConcurrentSaves saves are in flight, e.g. when several execution proofs complete at once,
+ * are saved together in a single round trip.
+ */
 class PostgresBatchesRepository(
   private val batchesDao: BatchesDao,
+  maxBatchesPerSave: Int = 100,
+  maxConcurrentSaves: Int = 4,
 ) : BatchesRepository {
+  private val batchesWriter = GroupedWriter(
+    maxBatchSize = maxBatchesPerSave,
+    maxInFlightWrites = maxConcurrentSaves,
+    writeRecord = batchesDao::saveNewBatch,
+    // batches are saved all or none, a duplicated one fails the whole save and they are then saved one by one
+    writeRecords = { batches -> batchesDao.saveNewBatches(batches).thenApply { batches.map { null } } },
+  )
+
   override fun saveNewBatch(batch: Batch): SafeFuture<Unit> {
-    return batchesDao.saveNewBatch(batch)
+    return batchesWriter.write(batch)
   }
 
   override fun findHighestConsecutiveEndBlockNumberFromBlockNumber(
@@ -23,6 +38,13 @@ class PostgresBatchesRepository(
     return batchesDao.deleteBatchesUpToEndBlockNumber(endBlockNumberInclusive)
   }
 
+  override fun deleteBatchesUpToEndBlockNumber(
+    endBlockNumberInclusive: Long,
+    maxBatches: Int,
+  ): SafeFuture<Int> {
+    return batchesDao.deleteBatchesUpToEndBlockNumber(endBlockNumberInclusive, maxBatches)
+  }
+
   override fun deleteBatchesAfterBlockNumber(
     startingBlockNumberInclusive: Long,
   ): SafeFuture<Int> {
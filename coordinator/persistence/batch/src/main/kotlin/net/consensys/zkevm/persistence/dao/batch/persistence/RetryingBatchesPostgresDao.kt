@@ -12,6 +12,10 @@ class RetryingBatchesPostgresDao(
     return persistenceRetryer.retryQuery({ delegate.saveNewBatch(batch) })
   }
 
+  override fun saveNewBatches(batches: List<Batch>): SafeFuture<Unit> {
+    return persistenceRetryer.retryQuery({ delegate.saveNewBatches(batches) })
+  }
+
   override fun findHighestConsecutiveEndBlockNumberFromBlockNumber(
     startingBlockNumberInclusive: Long,
   ): SafeFuture<Long?> {
@@ -24,6 +28,12 @@ class RetryingBatchesPostgresDao(
     return persistenceRetryer.retryQuery({ delegate.deleteBatchesUpToEndBlockNumber(endBlockNumberInclusive) })
   }
 
+  override fun deleteBatchesUpToEndBlockNumber(endBlockNumberInclusive: Long, maxBatches: Int): SafeFuture<Int> {
+    return persistenceRetryer.retryQuery(
+      { delegate.deleteBatchesUpToEndBlockNumber(endBlockNumberInclusive, maxBatches) },
+    )
+  }
+
   override fun deleteBatchesAfterBlockNumber(startingBlockNumberInclusive: Long): SafeFuture<Int> {
     return persistenceRetryer.retryQuery({ delegate.deleteBatchesAfterBlockNumber(startingBlockNumberInclusive) })
   }
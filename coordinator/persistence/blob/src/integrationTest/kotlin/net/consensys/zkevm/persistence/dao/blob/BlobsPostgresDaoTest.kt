@@ -123,6 +123,28 @@ class BlobsPostgresDaoTest : CleanDbTestSuiteParallel() {
     }
   }
 
+  @Test
+  fun `saveNewBlobs inserts all the blobs or none when one is duplicated`() {
+    val blobRecords = listOf(
+      createBlobRecord(startBlockNumber = 1UL, endBlockNumber = 10UL, startBlockTime = expectedStartBlockTime),
+      createBlobRecord(startBlockNumber = 11UL, endBlockNumber = 20UL, startBlockTime = expectedStartBlockTime),
+    )
+    blobsPostgresDao.saveNewBlobs(blobRecords).get()
+    assertThat(blobsContentQuery().execute().get().map { it.getLong("start_block_number") })
+      .containsExactlyInAnyOrder(1L, 11L)
+
+    val newBlobRecord =
+      createBlobRecord(startBlockNumber = 21UL, endBlockNumber = 30UL, startBlockTime = expectedStartBlockTime)
+    assertThrows<ExecutionException> {
+      blobsPostgresDao.saveNewBlobs(listOf(newBlobRecord, blobRecords[1])).get()
+    }.also { executionException ->
+      assertThat(executionException.cause).isInstanceOf(DuplicatedRecordException::class.java)
+      assertThat(executionException.cause!!.message)
+        .isEqualTo("One of blobs [21..30]10, [11..20]10 is already persisted!")
+    }
+    assertThat(blobsContentQuery().execute().get().size()).isEqualTo(2)
+  }
+
   @Test
   fun `getConsecutiveBlobsFromBlockNumber works correctly for 1 blob`() {
     val expectedStartBlock1 = 1UL
@@ -7,6 +7,11 @@ import tech.pegasys.teku.infrastructure.async.SafeFuture
 interface BlobsDao {
   fun saveNewBlob(blobRecord: BlobRecord): SafeFuture<Unit>
 
+  /**
+   * Saves the blobs in a single round trip, either all of them or none if one fails.
+   */
+  fun saveNewBlobs(blobRecords: List<BlobRecord>): SafeFuture<Unit>
+
   fun getConsecutiveBlobsFromBlockNumber(
     startingBlockNumberInclusive: ULong,
     endBlockCreatedBefore: Instant,
@@ -24,6 +29,11 @@ interface BlobsDao {
     endBlockNumberInclusive: ULong,
   ): SafeFuture<Int>
 
+  fun deleteBlobsUpToEndBlockNumber(
+    endBlockNumberInclusive: ULong,
+    maxBlobs: Int,
+  ): SafeFuture<Int>
+
   fun deleteBlobsAfterBlockNumber(
     startingBlockNumberInclusive: ULong,
   ): SafeFuture<Int>
@@ -21,11 +21,16 @@ import org.apache.logging.log4j.LogManager
 import org.apache.logging.log4j.Logger
 import tech.pegasys.teku.infrastructure.async.SafeFuture
 
+/**
+ * Blobs are written with connection and read with readConnection,
+ * e.g. a pipelined client with its own pool so polling reads do not wait for writes.
+ */
 class BlobsPostgresDao(
   config: Config,
   connection: SqlClient,
   log: Logger = LogManager.getLogger(BlobsPostgresDao::class.java),
   private val clock: Clock = Clock.System,
+  readConnection: SqlClient = connection,
 ) : BlobsDao {
   private val queryLog = SQLQueryLogger(log)
   data class Config(val maxBlobsToReturn: UInt)
@@ -125,6 +130,19 @@ class BlobsPostgresDao(
     """
       .trimIndent()
 
+  // start_block_number <= end_block_number, bounding start_block_number lets the primary key index be range scanned
+  private val deleteUptoLimitedSql =
+    """
+      delete from $TableName
+      where ctid = any(array(
+        select ctid from $TableName
+        where start_block_number <= $1 and end_block_number <= $1
+        order by start_block_number
+        limit $2
+      ))
+    """
+      .trimIndent()
+
   private val deleteAfterSql =
     """
       delete from $TableName
@@ -132,27 +150,31 @@ class BlobsPostgresDao(
     """
       .trimIndent()
 
-  private val selectQuery = connection.preparedQuery(selectSql)
-  private val selectBlobByStartBlockNumberQuery = connection.preparedQuery(selectBlobByStartBlockNumberSql)
-  private val selectBlobByEndBlockNumberQuery = connection.preparedQuery(selectBlobByEndBlockNumberSql)
+  private val selectQuery = readConnection.preparedQuery(selectSql)
+  private val selectBlobByStartBlockNumberQuery = readConnection.preparedQuery(selectBlobByStartBlockNumberSql)
+  private val selectBlobByEndBlockNumberQuery = readConnection.preparedQuery(selectBlobByEndBlockNumberSql)
   private val insertQuery = connection.preparedQuery(insertSql)
   private val deleteUptoQuery = connection.preparedQuery(deleteUptoSql)
+  private val deleteUptoLimitedQuery = connection.preparedQuery(deleteUptoLimitedSql)
   private val deleteAfterQuery = connection.preparedQuery(deleteAfterSql)
 
+  private fun insertParams(blobRecord: BlobRecord, createdEpochMilli: Long): List<Any?> {
+    return listOf(
+      createdEpochMilli,
+      blobRecord.startBlockNumber.toLong(),
+      blobRecord.endBlockNumber.toLong(),
+      blobRecord.blobHash.encodeHex(),
+      blobStatusToDbValue(BlobStatus.COMPRESSION_PROVEN),
+      blobRecord.startBlockTime.toEpochMilliseconds(),
+      blobRecord.endBlockTime.toEpochMilliseconds(),
+      blobRecord.batchesCount.toInt(),
+      blobRecord.expectedShnarf.encodeHex(),
+      blobRecord.blobCompressionProof.toJsonString(),
+    )
+  }
+
   override fun saveNewBlob(blobRecord: BlobRecord): SafeFuture<Unit> {
-    val params: List<Any?> =
-      listOf(
-        clock.now().toEpochMilliseconds(),
-        blobRecord.startBlockNumber.toLong(),
-        blobRecord.endBlockNumber.toLong(),
-        blobRecord.blobHash.encodeHex(),
-        blobStatusToDbValue(BlobStatus.COMPRESSION_PROVEN),
-        blobRecord.startBlockTime.toEpochMilliseconds(),
-        blobRecord.endBlockTime.toEpochMilliseconds(),
-        blobRecord.batchesCount.toInt(),
-        blobRecord.expectedShnarf.encodeHex(),
-        blobRecord.blobCompressionProof.toJsonString(),
-      )
+    val params = insertParams(blobRecord, clock.now().toEpochMilliseconds())
     queryLog.log(Level.TRACE, insertSql, params)
 
     return insertQuery.execute(Tuple.tuple(params))
@@ -169,6 +191,31 @@ class BlobsPostgresDao(
       .toSafeFuture()
   }
 
+  override fun saveNewBlobs(blobRecords: List<BlobRecord>): SafeFuture<Unit> {
+    if (blobRecords.isEmpty()) {
+      return SafeFuture.completedFuture(Unit)
+    }
+    val createdEpochMilli = clock.now().toEpochMilliseconds()
+    val params = blobRecords.map { blobRecord -> insertParams(blobRecord, createdEpochMilli) }
+    queryLog.log(Level.TRACE, insertSql, params)
+    // single round trip, the blobs are either all saved or none is
+    return insertQuery.executeBatch(params.map(Tuple::tuple))
+      .map { }
+      .recover { th ->
+        if (isDuplicateKeyException(th)) {
+          Future.failedFuture(
+            DuplicatedRecordException(
+              "One of blobs ${blobRecords.joinToString(", ") { it.intervalString() }} is already persisted!",
+              th,
+            ),
+          )
+        } else {
+          Future.failedFuture(th)
+        }
+      }
+      .toSafeFuture()
+  }
+
   private fun getConsecutiveBlobsFromBlockNumber(
     startingBlockNumberInclusive: ULong,
   ): SafeFuture<List<BlobRecord>> {
@@ -224,6 +271,16 @@ class BlobsPostgresDao(
       .toSafeFuture()
   }
 
+  override fun deleteBlobsUpToEndBlockNumber(
+    endBlockNumberInclusive: ULong,
+    maxBlobs: Int,
+  ): SafeFuture<Int> {
+    return deleteUptoLimitedQuery
+      .execute(Tuple.of(endBlockNumberInclusive.toLong(), maxBlobs))
+      .map { rowSet -> rowSet.rowCount() }
+      .toSafeFuture()
+  }
+
   override fun deleteBlobsAfterBlockNumber(startingBlockNumberInclusive: ULong): SafeFuture<Int> {
     return deleteAfterQuery
       .execute(Tuple.of(startingBlockNumberInclusive.toLong()))
@@ -4,13 +4,28 @@ import kotlinx.datetime.Instant
 import net.consensys.zkevm.domain.BlobRecord
 import net.consensys.zkevm.persistence.BlobsRepository
 import net.consensys.zkevm.persistence.db.DuplicatedRecordException
+import net.consensys.zkevm.persistence.db.GroupedWriter
 import tech.pegasys.teku.infrastructure.async.SafeFuture
 
+/**
+ * Blobs saved while maxConcurrentSaves saves are in flight, e.g. when several compression proofs complete at once,
+ * are saved together in a single round trip.
+ */
 class BlobsRepositoryImpl(
   private val blobsDao: BlobsDao,
+  maxBlobsPerSave: Int = 100,
+  maxConcurrentSaves: Int = 4,
 ) : BlobsRepository {
+  private val blobsWriter = GroupedWriter(
+    maxBatchSize = maxBlobsPerSave,
+    maxInFlightWrites = maxConcurrentSaves,
+    writeRecord = blobsDao::saveNewBlob,
+    // blobs are saved all or none, a duplicated one fails the whole save and they are then saved one by one
+    writeRecords = { blobs -> blobsDao.saveNewBlobs(blobs).thenApply { blobs.map { null } } },
+  )
+
   override fun saveNewBlob(blobRecord: BlobRecord): SafeFuture<Unit> {
-    return blobsDao.saveNewBlob(blobRecord)
+    return blobsWriter.write(blobRecord)
       .exceptionallyCompose { error ->
         if (error is DuplicatedRecordException) {
           SafeFuture.completedFuture(Unit)
@@ -44,6 +59,13 @@ class BlobsRepositoryImpl(
     return blobsDao.deleteBlobsUpToEndBlockNumber(endBlockNumberInclusive)
   }
 
+  override fun deleteBlobsUpToEndBlockNumber(
+    endBlockNumberInclusive: ULong,
+    maxBlobs: Int,
+  ): SafeFuture<Int> {
+    return blobsDao.deleteBlobsUpToEndBlockNumber(endBlockNumberInclusive, maxBlobs)
+  }
+
   override fun deleteBlobsAfterBlockNumber(startingBlockNumberInclusive: ULong): SafeFuture<Int> {
     return blobsDao.deleteBlobsAfterBlockNumber(startingBlockNumberInclusive)
   }
@@ -13,6 +13,10 @@ class RetryingBlobsPostgresDao(
     return persistenceRetryer.retryQuery({ delegate.saveNewBlob(blobRecord) })
   }
 
+  override fun saveNewBlobs(blobRecords: List<BlobRecord>): SafeFuture<Unit> {
+    return persistenceRetryer.retryQuery({ delegate.saveNewBlobs(blobRecords) })
+  }
+
   override fun getConsecutiveBlobsFromBlockNumber(
     startingBlockNumberInclusive: ULong,
     endBlockCreatedBefore: Instant,
@@ -37,6 +41,10 @@ class RetryingBlobsPostgresDao(
     return persistenceRetryer.retryQuery({ delegate.deleteBlobsUpToEndBlockNumber(endBlockNumberInclusive) })
   }
 
+  override fun deleteBlobsUpToEndBlockNumber(endBlockNumberInclusive: ULong, maxBlobs: Int): SafeFuture<Int> {
+    return persistenceRetryer.retryQuery({ delegate.deleteBlobsUpToEndBlockNumber(endBlockNumberInclusive, maxBlobs) })
+  }
+
   override fun deleteBlobsAfterBlockNumber(startingBlockNumberInclusive: ULong): SafeFuture<Int> {
     return persistenceRetryer.retryQuery({ delegate.deleteBlobsAfterBlockNumber(startingBlockNumberInclusive) })
   }
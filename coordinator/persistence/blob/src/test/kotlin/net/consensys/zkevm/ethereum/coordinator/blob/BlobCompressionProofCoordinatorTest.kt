@@ -9,15 +9,19 @@ import net.consensys.zkevm.coordinator.clients.BlobCompressionProof
 import net.consensys.zkevm.coordinator.clients.BlobCompressionProofRequest
 import net.consensys.zkevm.coordinator.clients.BlobCompressionProverClientV2
 import net.consensys.zkevm.domain.Blob
+import net.consensys.zkevm.domain.BlobRecord
 import net.consensys.zkevm.domain.ConflationCalculationResult
 import net.consensys.zkevm.domain.ConflationTrigger
 import net.consensys.zkevm.ethereum.coordination.blob.BlobCompressionProofCoordinator
+import net.consensys.zkevm.ethereum.coordination.blob.BlobCompressionProofUpdate
 import net.consensys.zkevm.ethereum.coordination.blob.BlobZkState
 import net.consensys.zkevm.ethereum.coordination.blob.BlobZkStateProvider
+import net.consensys.zkevm.ethereum.coordination.blob.FakeBlobShnarfCalculator
 import net.consensys.zkevm.ethereum.coordination.blob.RollingBlobShnarfCalculator
 import net.consensys.zkevm.ethereum.coordination.blob.RollingBlobShnarfResult
 import net.consensys.zkevm.ethereum.coordination.blob.ShnarfResult
 import net.consensys.zkevm.persistence.BlobsRepository
+import org.assertj.core.api.Assertions.assertThat
 import org.awaitility.Awaitility.await
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
@@ -30,9 +34,12 @@ import org.mockito.kotlin.times
 import org.mockito.kotlin.verify
 import org.mockito.kotlin.whenever
 import tech.pegasys.teku.infrastructure.async.SafeFuture
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.atomic.AtomicInteger
 import kotlin.random.Random
 import kotlin.time.Duration.Companion.milliseconds
 import kotlin.time.Duration.Companion.seconds
+import kotlin.time.toJavaDuration
 
 @ExtendWith(VertxExtension::class)
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -282,4 +289,165 @@ class BlobCompressionProofCoordinatorTest {
           )
       }
   }
+
+  @Test
+  fun `backlog of blobs is drained without waiting a polling interval per blob`(vertx: Vertx) {
+    val blobsCount = 40
+    val zkStateLatency = 10.milliseconds
+    val pollingInterval = 2.seconds
+    val zkStatePrefetchLimit = 4
+
+    val inFlightZkStateRequests = AtomicInteger(0)
+    val maxInFlightZkStateRequests = AtomicInteger(0)
+    // answers after a fixed latency, like the state manager would
+    val slowBlobZkStateProvider = object : BlobZkStateProvider {
+      override fun getBlobZKState(blockRange: ULongRange): SafeFuture<BlobZkState> {
+        maxInFlightZkStateRequests.accumulateAndGet(inFlightZkStateRequests.incrementAndGet()) { a, b -> maxOf(a, b) }
+        val result = SafeFuture<BlobZkState>()
+        vertx.setTimer(zkStateLatency.inWholeMilliseconds) {
+          inFlightZkStateRequests.decrementAndGet()
+          result.complete(
+            BlobZkState(
+              parentStateRootHash = Random.nextBytes(32),
+              finalStateRootHash = Random.nextBytes(32),
+            ),
+          )
+        }
+        return result
+      }
+    }
+    val proofRequests = CopyOnWriteArrayList<BlobCompressionProofRequest>()
+    val recordingProverClient = mock<BlobCompressionProverClientV2>().also {
+      whenever(it.requestProof(any())).thenAnswer { invocation ->
+        proofRequests.add(invocation.getArgument(0))
+        SafeFuture<BlobCompressionProof>()
+      }
+    }
+    val genesisShnarf = Random.nextBytes(32)
+    val coordinator = BlobCompressionProofCoordinator(
+      vertx = vertx,
+      blobsRepository = mock(),
+      blobCompressionProverClient = recordingProverClient,
+      rollingBlobShnarfCalculator = RollingBlobShnarfCalculator(
+        blobShnarfCalculator = FakeBlobShnarfCalculator(),
+        blobsRepository = mock(),
+        genesisShnarf = genesisShnarf,
+      ),
+      blobZkStateProvider = slowBlobZkStateProvider,
+      config = BlobCompressionProofCoordinator.Config(
+        pollingInterval = pollingInterval,
+        zkStatePrefetchLimit = zkStatePrefetchLimit,
+      ),
+      blobCompressionProofHandler = { _ -> SafeFuture.completedFuture(Unit) },
+      metricsFacade = mock(defaultAnswer = Mockito.RETURNS_DEEP_STUBS),
+    )
+
+    val blobs = (0 until blobsCount).map { index ->
+      val startBlockNumber = index.toULong() * 10UL + 1UL
+      Blob(
+        conflations = listOf(
+          ConflationCalculationResult(
+            startBlockNumber = startBlockNumber,
+            endBlockNumber = startBlockNumber + 9UL,
+            conflationTrigger = ConflationTrigger.TRACES_LIMIT,
+            tracesCounters = TracesCountersV2.EMPTY_TRACES_COUNT,
+          ),
+        ),
+        compressedData = Random.nextBytes(128),
+        startBlockTime = fixedClock.now(),
+        endBlockTime = fixedClock.now().plus(108.seconds),
+      )
+    }
+    blobs.forEach { coordinator.handleBlob(it).get() }
+
+    coordinator.start()
+    try {
+      // waiting a polling interval per tick would take blobsCount / zkStatePrefetchLimit intervals
+      await()
+        .atMost((pollingInterval * 3).toJavaDuration())
+        .untilAsserted { assertThat(proofRequests).hasSize(blobsCount) }
+    } finally {
+      coordinator.stop()
+    }
+
+    assertThat(maxInFlightZkStateRequests.get()).isGreaterThan(1).isLessThanOrEqualTo(zkStatePrefetchLimit)
+    // shnarfs are still chained in the blobs order
+    assertThat(proofRequests.map { it.conflations }).isEqualTo(blobs.map { it.conflations })
+    assertThat(proofRequests.first().prevShnarf).isEqualTo(genesisShnarf)
+    proofRequests.zipWithNext { parent, child ->
+      assertThat(child.prevShnarf).isEqualTo(parent.expectedShnarfResult.expectedShnarf)
+      assertThat(child.parentDataHash).isEqualTo(parent.expectedShnarfResult.dataHash)
+    }
+  }
+
+  @Test
+  fun `blob compression proof is handed over only after the blob is persisted`(vertx: Vertx) {
+    val blobSaved = SafeFuture<Unit>()
+    val savedBlobs = CopyOnWriteArrayList<BlobRecord>()
+    val persistingBlobsRepository = mock<BlobsRepository>().also {
+      whenever(it.saveNewBlob(any())).thenAnswer { invocation ->
+        savedBlobs.add(invocation.getArgument(0))
+        blobSaved
+      }
+    }
+    val handledProofs = CopyOnWriteArrayList<BlobCompressionProofUpdate>()
+    val blobSavedWhenProofsHandled = CopyOnWriteArrayList<Boolean>()
+    val coordinator = BlobCompressionProofCoordinator(
+      vertx = vertx,
+      blobsRepository = persistingBlobsRepository,
+      blobCompressionProverClient = blobCompressionProverClient,
+      rollingBlobShnarfCalculator = RollingBlobShnarfCalculator(
+        blobShnarfCalculator = FakeBlobShnarfCalculator(),
+        blobsRepository = mock(),
+        genesisShnarf = Random.nextBytes(32),
+      ),
+      blobZkStateProvider = blobZkStateProvider,
+      config = BlobCompressionProofCoordinator.Config(
+        pollingInterval = blobHandlerPollingInterval,
+      ),
+      blobCompressionProofHandler = { proofUpdate ->
+        blobSavedWhenProofsHandled.add(blobSaved.isDone)
+        handledProofs.add(proofUpdate)
+        SafeFuture.completedFuture(Unit)
+      },
+      metricsFacade = mock(defaultAnswer = Mockito.RETURNS_DEEP_STUBS),
+    )
+    whenever(blobZkStateProvider.getBlobZKState(any()))
+      .thenReturn(
+        SafeFuture.completedFuture(
+          BlobZkState(
+            parentStateRootHash = Random.nextBytes(32),
+            finalStateRootHash = Random.nextBytes(32),
+          ),
+        ),
+      )
+    val blob = Blob(
+      conflations = listOf(
+        ConflationCalculationResult(
+          startBlockNumber = expectedStartBlock,
+          endBlockNumber = expectedEndBlock,
+          conflationTrigger = ConflationTrigger.TRACES_LIMIT,
+          tracesCounters = TracesCountersV2.EMPTY_TRACES_COUNT,
+        ),
+      ),
+      compressedData = Random.nextBytes(128),
+      startBlockTime = fixedClock.now(),
+      endBlockTime = fixedClock.now().plus((12 * (expectedEndBlock - expectedStartBlock).toInt()).seconds),
+    )
+    coordinator.handleBlob(blob).get()
+
+    coordinator.start()
+    try {
+      await().untilAsserted { assertThat(savedBlobs).hasSize(1) }
+      blobSaved.complete(Unit)
+
+      await().untilAsserted { assertThat(handledProofs).hasSize(1) }
+      // the proof must not reach aggregation while the blob insert is in flight
+      assertThat(blobSavedWhenProofsHandled).containsExactly(true)
+      assertThat(handledProofs.first().blockInterval.startBlockNumber).isEqualTo(expectedStartBlock)
+      assertThat(handledProofs.first().blockInterval.endBlockNumber).isEqualTo(expectedEndBlock)
+    } finally {
+      coordinator.stop()
+    }
+  }
 }
@@ -364,6 +364,47 @@ class FeeHistoriesPostgresDaoTest : CleanDbTestSuiteParallel() {
     assertThat(p20NumOfRecordsOutOfRange).isEqualTo(0)
   }
 
+  @Test
+  fun `findBlockFeesFromBlockNumber returns block fees with the reward of the given percentile`() {
+    var dbContent =
+      performInsertTest(
+        feeHistory,
+        rewardPercentiles,
+      )
+    assertThat(dbContent).size().isEqualTo(5)
+
+    val rewardPercentile90 = listOf(90.0)
+    fakeClock.setTimeTo(Clock.System.now())
+    dbContent =
+      performInsertTest(
+        createFeeHistory(
+          oldestBlockNumber = 105UL,
+          initialReward = 1000UL,
+          initialBaseFeePerGas = 10005UL,
+          initialGasUsedRatio = 70U,
+          initialBaseFeePerBlobGas = 1005UL,
+          initialBlobGasUsedRatio = 60U,
+          feeHistoryBlockCount = 2U,
+          rewardPercentilesCount = rewardPercentile90.size,
+        ),
+        rewardPercentile90,
+      )
+    assertThat(dbContent).size().isEqualTo(7)
+
+    val p20BlockFees = feeHistoriesPostgresDao.findBlockFeesFromBlockNumber(
+      rewardPercentile = 20.0,
+      fromBlockNumber = 103L,
+    ).get()
+    assertThat(p20BlockFees).isEqualTo(
+      listOf(
+        FeeHistoryBlockFeesRecord(blockNumber = 103L, baseFeePerGas = 10003uL, baseFeePerBlobGas = 1003uL, reward = 2006uL),
+        FeeHistoryBlockFeesRecord(blockNumber = 104L, baseFeePerGas = 10004uL, baseFeePerBlobGas = 1004uL, reward = 2008uL),
+        FeeHistoryBlockFeesRecord(blockNumber = 105L, baseFeePerGas = 10005uL, baseFeePerBlobGas = 1005uL, reward = null),
+        FeeHistoryBlockFeesRecord(blockNumber = 106L, baseFeePerGas = 10006uL, baseFeePerBlobGas = 1006uL, reward = null),
+      ),
+    )
+  }
+
   @Test
   fun `deleteFeeHistoriesUpToBlockNumber deletes number of records below or equal to the given block number`() {
     var dbContent =
@@ -0,0 +1,134 @@
+package net.consensys.zkevm.persistence.dao.feehistory
+
+import io.vertx.junit5.VertxExtension
+import linea.domain.FeeHistory
+import net.consensys.linea.async.get
+import net.consensys.zkevm.persistence.db.DbHelper
+import net.consensys.zkevm.persistence.db.test.CleanDbTestSuiteParallel
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.ExtendWith
+import tech.pegasys.teku.infrastructure.async.SafeFuture
+import kotlin.random.Random
+
+@ExtendWith(VertxExtension::class)
+class FeeHistoriesRepositoryImplTest : CleanDbTestSuiteParallel() {
+  init {
+    target = "4"
+  }
+
+  override val databaseName = DbHelper.generateUniqueDbName("coordinator-tests-feehistories-repository")
+
+  private val rewardPercentiles: List<Double> = listOf(10.0, 15.0, 50.0)
+  private val random = Random(26)
+  private lateinit var feeHistoriesPostgresDao: FeeHistoriesPostgresDao
+
+  @BeforeEach
+  fun beforeEach() {
+    feeHistoriesPostgresDao = FeeHistoriesPostgresDao(sqlClient)
+  }
+
+  private fun randomFeeHistory(oldestBlockNumber: ULong, blockCount: Int): FeeHistory {
+    return FeeHistory(
+      oldestBlock = oldestBlockNumber,
+      baseFeePerGas = List(blockCount + 1) { random.nextLong(1_000_000_000L, 100_000_000_000L).toULong() },
+      reward = List(blockCount) {
+        rewardPercentiles.map { random.nextLong(1_000_000L, 10_000_000_000L).toULong() }.sorted()
+      },
+      gasUsedRatio = List(blockCount) { random.nextDouble() },
+      baseFeePerBlobGas = List(blockCount + 1) { random.nextLong(1L, 10_000_000_000L).toULong() },
+      blobGasUsedRatio = List(blockCount) { random.nextDouble() },
+    )
+  }
+
+  private fun createRepository(): FeeHistoriesRepositoryImpl {
+    return FeeHistoriesRepositoryImpl(
+      FeeHistoriesRepositoryImpl.Config(rewardPercentiles = rewardPercentiles),
+      feeHistoriesPostgresDao,
+    )
+  }
+
+  private fun assertCachedValuesMatchDb(
+    repository: FeeHistoriesRepositoryImpl,
+    percentile: Double,
+    fromBlockNumber: Long,
+  ) {
+    repository.cachePercentileGasFees(percentile, fromBlockNumber).get()
+    val cachedNumOfFeeHistories = repository.cacheNumOfFeeHistoriesFromBlockNumber(percentile, fromBlockNumber).get()
+    val cachedPercentileGasFees = repository.getCachedPercentileGasFees()
+
+    assertThat(cachedPercentileGasFees.percentileBaseFeePerGas)
+      .isEqualTo(feeHistoriesPostgresDao.findBaseFeePerGasAtPercentile(percentile, fromBlockNumber).get())
+    assertThat(cachedPercentileGasFees.percentileBaseFeePerBlobGas)
+      .isEqualTo(feeHistoriesPostgresDao.findBaseFeePerBlobGasAtPercentile(percentile, fromBlockNumber).get())
+    assertThat(cachedPercentileGasFees.percentileAvgReward)
+      .isEqualTo(feeHistoriesPostgresDao.findAverageRewardAtPercentile(percentile, fromBlockNumber).get())
+    assertThat(cachedNumOfFeeHistories)
+      .isEqualTo(feeHistoriesPostgresDao.getNumOfFeeHistoriesFromBlockNumber(percentile, fromBlockNumber).get())
+  }
+
+  @Test
+  fun `cached percentile gas fees match percentile_cont results while the window slides`() {
+    val windowInBlocks = 200L
+    val feeHistoryBlockCount = 50
+    val repository = createRepository()
+
+    rewardPercentiles.forEach { percentile ->
+      var oldestBlockNumber = 1_000uL + (rewardPercentiles.indexOf(percentile) * 10_000).toULong()
+      repeat(10) {
+        repository.saveNewFeeHistory(randomFeeHistory(oldestBlockNumber, feeHistoryBlockCount)).get()
+        val highestBlockNumber = oldestBlockNumber.toLong() + feeHistoryBlockCount - 1
+        assertCachedValuesMatchDb(
+          repository = repository,
+          percentile = percentile,
+          fromBlockNumber = (highestBlockNumber - windowInBlocks).coerceAtLeast(0L).inc(),
+        )
+        oldestBlockNumber += feeHistoryBlockCount.toULong()
+      }
+    }
+  }
+
+  @Test
+  fun `cached percentile gas fees are rebuilt from db on startup`() {
+    val fromBlockNumber = 1_020L
+    feeHistoriesPostgresDao.saveNewFeeHistory(randomFeeHistory(1_000uL, 100), rewardPercentiles).get()
+
+    val repository = createRepository()
+    assertCachedValuesMatchDb(repository, percentile = 15.0, fromBlockNumber = fromBlockNumber)
+
+    // fee histories saved afterwards are added to the cached window
+    repository.saveNewFeeHistory(randomFeeHistory(1_100uL, 40)).get()
+    assertCachedValuesMatchDb(repository, percentile = 15.0, fromBlockNumber = fromBlockNumber)
+
+    // restarting rebuilds the same state from db
+    assertCachedValuesMatchDb(createRepository(), percentile = 15.0, fromBlockNumber = fromBlockNumber)
+  }
+
+  @Test
+  fun `fee histories saved while the window is loaded are kept in it`() {
+    val fromBlockNumber = 1_020L
+    feeHistoriesPostgresDao.saveNewFeeHistory(randomFeeHistory(1_000uL, 100), rewardPercentiles).get()
+    val windowLoadReleased = SafeFuture<Unit>()
+    val blockedLoadDao = object : FeeHistoriesDao by feeHistoriesPostgresDao {
+      override fun findBlockFeesFromBlockNumber(
+        rewardPercentile: Double,
+        fromBlockNumber: Long,
+      ): SafeFuture<List<FeeHistoryBlockFeesRecord>> {
+        return feeHistoriesPostgresDao.findBlockFeesFromBlockNumber(rewardPercentile, fromBlockNumber)
+          .thenCompose { blocksFees -> windowLoadReleased.thenApply { blocksFees } }
+      }
+    }
+    val repository = FeeHistoriesRepositoryImpl(
+      FeeHistoriesRepositoryImpl.Config(rewardPercentiles = rewardPercentiles),
+      blockedLoadDao,
+    )
+
+    val windowLoad = repository.cachePercentileGasFees(15.0, fromBlockNumber)
+    repository.saveNewFeeHistory(randomFeeHistory(1_100uL, 20)).get()
+    windowLoadReleased.complete(Unit)
+    windowLoad.get()
+
+    assertCachedValuesMatchDb(repository, percentile = 15.0, fromBlockNumber = fromBlockNumber)
+  }
+}
@@ -11,6 +11,13 @@ import org.apache.logging.log4j.Level
 import org.apache.logging.log4j.LogManager
 import tech.pegasys.teku.infrastructure.async.SafeFuture
 
+data class FeeHistoryBlockFeesRecord(
+  val blockNumber: Long,
+  val baseFeePerGas: ULong,
+  val baseFeePerBlobGas: ULong,
+  val reward: ULong?,
+)
+
 interface FeeHistoriesDao {
   fun saveNewFeeHistory(
     feeHistory: FeeHistory,
@@ -39,14 +46,24 @@ interface FeeHistoriesDao {
     fromBlockNumber: Long,
   ): SafeFuture<Int>
 
+  fun findBlockFeesFromBlockNumber(
+    rewardPercentile: Double,
+    fromBlockNumber: Long,
+  ): SafeFuture<List<FeeHistoryBlockFeesRecord>>
+
   fun deleteFeeHistoriesUpToBlockNumber(
     blockNumberInclusive: Long,
   ): SafeFuture<Int>
 }
 
+/**
+ * Fee histories are written with connection and read with readConnection,
+ * e.g. a pipelined client with its own pool so polling reads do not wait for writes.
+ */
 class FeeHistoriesPostgresDao(
   connection: SqlClient,
   private val clock: Clock = Clock.System,
+  readConnection: SqlClient = connection,
 ) : FeeHistoriesDao {
   private val log = LogManager.getLogger(this.javaClass.name)
   private val queryLog = SQLQueryLogger(log)
@@ -110,6 +127,15 @@ class FeeHistoriesPostgresDao(
     """
       .trimIndent()
 
+  private val selectBlockFeesFromBlockNumberSql =
+    """
+      select block_number, base_fee_per_gas, base_fee_per_blob_gas,
+      rewards[array_position(reward_percentiles, $1)] as reward from $TableName
+      where block_number >= $2
+      order by block_number asc
+    """
+      .trimIndent()
+
   private val deleteSql =
     """
       delete from $TableName
@@ -118,13 +144,15 @@ class FeeHistoriesPostgresDao(
       .trimIndent()
 
   private val upsertQuery = connection.preparedQuery(upsertSql)
-  private val selectHighestBlockNumberQuery = connection.preparedQuery(selectHighestBlockNumberSql)
-  private val getNthPercentileOfBaseFeePerGasQuery = connection.preparedQuery(getNthPercentileOfBaseFeePerGasSql)
-  private val getNthPercentileOfBaseFeePerBlobGasQuery = connection.preparedQuery(
+  private val selectHighestBlockNumberQuery = readConnection.preparedQuery(selectHighestBlockNumberSql)
+  private val getNthPercentileOfBaseFeePerGasQuery = readConnection.preparedQuery(getNthPercentileOfBaseFeePerGasSql)
+  private val getNthPercentileOfBaseFeePerBlobGasQuery = readConnection.preparedQuery(
     getNthPercentileOfBaseFeePerBlobGasSql,
   )
-  private val getAvgNthPercentileRewardQuery = connection.preparedQuery(getAvgNthPercentileRewardSql)
-  private val countFeeHistoriesFromBlockNumberQuery = connection.preparedQuery(countFeeHistoriesFromBlockNumberSql)
+  private val getAvgNthPercentileRewardQuery = readConnection.preparedQuery(getAvgNthPercentileRewardSql)
+  private val countFeeHistoriesFromBlockNumberQuery =
+    readConnection.preparedQuery(countFeeHistoriesFromBlockNumberSql)
+  private val selectBlockFeesFromBlockNumberQuery = readConnection.preparedQuery(selectBlockFeesFromBlockNumberSql)
   private val deleteQuery = connection.preparedQuery(deleteSql)
 
   override fun saveNewFeeHistory(feeHistory: FeeHistory, rewardPercentiles: List<Double>): SafeFuture<Unit> {
@@ -229,6 +257,30 @@ class FeeHistoriesPostgresDao(
       }
   }
 
+  override fun findBlockFeesFromBlockNumber(
+    rewardPercentile: Double,
+    fromBlockNumber: Long,
+  ): SafeFuture<List<FeeHistoryBlockFeesRecord>> {
+    val params = listOf(
+      rewardPercentile.toFloat(),
+      fromBlockNumber,
+    )
+    queryLog.log(Level.TRACE, selectBlockFeesFromBlockNumberSql, params)
+    return selectBlockFeesFromBlockNumberQuery
+      .execute(Tuple.tuple(params))
+      .toSafeFuture()
+      .thenApply { rowSet ->
+        rowSet.map { row ->
+          FeeHistoryBlockFeesRecord(
+            blockNumber = row.getLong("block_number"),
+            baseFeePerGas = row.getLong("base_fee_per_gas").toULong(),
+            baseFeePerBlobGas = row.getLong("base_fee_per_blob_gas").toULong(),
+            reward = row.getLong("reward")?.toULong(),
+          )
+        }
+      }
+  }
+
   override fun deleteFeeHistoriesUpToBlockNumber(
     blockNumberInclusive: Long,
   ): SafeFuture<Int> {
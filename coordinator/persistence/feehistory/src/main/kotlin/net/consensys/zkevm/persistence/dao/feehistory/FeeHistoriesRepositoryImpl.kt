@@ -1,7 +1,9 @@
 package net.consensys.zkevm.persistence.dao.feehistory
 
 import linea.domain.FeeHistory
+import net.consensys.linea.ethereum.gaspricing.dynamiccap.FeeHistoriesPercentileWindow
 import net.consensys.linea.ethereum.gaspricing.dynamiccap.FeeHistoriesRepositoryWithCache
+import net.consensys.linea.ethereum.gaspricing.dynamiccap.FeeHistoryBlockFees
 import net.consensys.linea.ethereum.gaspricing.dynamiccap.PercentileGasFees
 import net.consensys.zkevm.persistence.db.DuplicatedRecordException
 import tech.pegasys.teku.infrastructure.async.SafeFuture
@@ -41,11 +43,58 @@ class FeeHistoriesRepositoryImpl(
       ),
     )
 
+  private class WindowLoad {
+    val savedFeeHistories = mutableListOf<FeeHistory>()
+  }
+
+  private val lock = Any()
+
+  // loaded from the DB on the first cache request and then kept up to date on every save,
+  // so that refreshing the cached percentiles does not need to scan the fee histories table
+  private var percentileWindow: FeeHistoriesPercentileWindow? = null
+
+  // fee histories saved while a window is loaded are added to it once loaded,
+  // as the DB query may not have seen them
+  private val windowLoadsInProgress = mutableListOf<WindowLoad>()
+
+  private fun getOrLoadPercentileWindow(
+    percentile: Double,
+    fromBlockNumber: Long,
+  ): SafeFuture<FeeHistoriesPercentileWindow> {
+    val windowLoad = synchronized(lock) {
+      val window = percentileWindow
+      if (window != null && window.percentile == percentile && fromBlockNumber >= window.fromBlockNumber) {
+        window.evictBlocksBefore(fromBlockNumber)
+        return SafeFuture.completedFuture(window)
+      }
+      WindowLoad().also { windowLoadsInProgress.add(it) }
+    }
+    return feeHistoriesDao.findBlockFeesFromBlockNumber(percentile, fromBlockNumber)
+      .thenApply { blocksFees ->
+        val window = FeeHistoriesPercentileWindow(percentile, fromBlockNumber)
+        blocksFees.forEach { window.add(it.toFeeHistoryBlockFees()) }
+        synchronized(lock) {
+          windowLoad.savedFeeHistories.forEach { window.add(it, config.rewardPercentiles) }
+          percentileWindow = window
+        }
+        window
+      }
+      .alwaysRun {
+        synchronized(lock) { windowLoadsInProgress.remove(windowLoad) }
+      }
+  }
+
   override fun saveNewFeeHistory(feeHistory: FeeHistory): SafeFuture<Unit> {
     return feeHistoriesDao.saveNewFeeHistory(
       feeHistory,
       config.rewardPercentiles,
     )
+      .thenPeek {
+        synchronized(lock) {
+          percentileWindow?.add(feeHistory, config.rewardPercentiles)
+          windowLoadsInProgress.forEach { it.savedFeeHistories.add(feeHistory) }
+        }
+      }
       .exceptionallyCompose { error ->
         if (error is DuplicatedRecordException) {
           SafeFuture.completedFuture(Unit)
@@ -107,12 +156,11 @@ class FeeHistoriesRepositoryImpl(
     rewardPercentile: Double,
     fromBlockNumber: Long,
   ): SafeFuture<Int> {
-    return feeHistoriesDao.getNumOfFeeHistoriesFromBlockNumber(
-      rewardPercentile,
-      fromBlockNumber,
-    ).thenPeek {
-      lastNumOfFeeHistoriesFromBlockNumber.set(it)
-    }
+    return getOrLoadPercentileWindow(rewardPercentile, fromBlockNumber)
+      .thenApply { window -> window.numOfBlocksWithReward() }
+      .thenPeek {
+        lastNumOfFeeHistoriesFromBlockNumber.set(it)
+      }
   }
 
   override fun getCachedPercentileGasFees(): PercentileGasFees {
@@ -123,32 +171,18 @@ class FeeHistoriesRepositoryImpl(
     percentile: Double,
     fromBlockNumber: Long,
   ): SafeFuture<Unit> {
-    return findBaseFeePerGasAtPercentile(
-      percentile,
-      fromBlockNumber,
-    ).thenCompose { percentileBaseFeePerGas ->
-      findBaseFeePerBlobGasAtPercentile(
-        percentile,
-        fromBlockNumber,
-      ).thenCompose { percentileBaseFeePerBlobGas ->
-        (
-          if (config.fixedAverageRewardToCache != null) {
-            SafeFuture.completedFuture(config.fixedAverageRewardToCache)
-          } else {
-            findAverageRewardAtPercentile(percentile, fromBlockNumber)
-          }
-          ).thenApply { percentileAvgReward ->
-          lastPercentileGasFees.set(
-            PercentileGasFees(
-              percentileBaseFeePerGas!!,
-              percentileBaseFeePerBlobGas!!
-                .coerceAtLeast(config.minBaseFeePerBlobGasToCache ?: percentileBaseFeePerBlobGas),
-              percentileAvgReward!!,
-            ),
-          )
-        }
+    return getOrLoadPercentileWindow(percentile, fromBlockNumber)
+      .thenApply { window ->
+        val percentileBaseFeePerBlobGas = window.percentileBaseFeePerBlobGas()
+        lastPercentileGasFees.set(
+          PercentileGasFees(
+            window.percentileBaseFeePerGas()!!,
+            percentileBaseFeePerBlobGas!!
+              .coerceAtLeast(config.minBaseFeePerBlobGasToCache ?: percentileBaseFeePerBlobGas),
+            (config.fixedAverageRewardToCache ?: window.averageReward())!!,
+          ),
+        )
       }
-    }
   }
 
   override fun deleteFeeHistoriesUpToBlockNumber(
@@ -156,4 +190,13 @@ class FeeHistoriesRepositoryImpl(
   ): SafeFuture<Int> {
     return feeHistoriesDao.deleteFeeHistoriesUpToBlockNumber(blockNumberInclusive)
   }
+
+  private fun FeeHistoryBlockFeesRecord.toFeeHistoryBlockFees(): FeeHistoryBlockFees {
+    return FeeHistoryBlockFees(
+      blockNumber = blockNumber,
+      baseFeePerGas = baseFeePerGas,
+      baseFeePerBlobGas = baseFeePerBlobGas,
+      reward = reward,
+    )
+  }
 }
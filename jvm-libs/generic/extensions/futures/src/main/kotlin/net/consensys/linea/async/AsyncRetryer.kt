@@ -4,6 +4,9 @@ import io.vertx.core.Vertx
 import tech.pegasys.teku.infrastructure.async.SafeFuture
 import java.time.Instant
 import java.util.function.Consumer
+import kotlin.math.min
+import kotlin.math.pow
+import kotlin.random.Random
 import kotlin.time.Duration
 import kotlin.time.Duration.Companion.milliseconds
 
@@ -28,6 +31,7 @@ interface AsyncRetryer<T> {
       maxRetries: Int? = null,
       timeout: Duration? = null,
       initialDelay: Duration? = null,
+      maxBackoffDelay: Duration? = null,
     ): AsyncRetryer<T> {
       return SequentialAsyncRetryerFactory(
         vertx = vertx,
@@ -35,6 +39,7 @@ interface AsyncRetryer<T> {
         maxRetries = maxRetries,
         initialDelay = initialDelay,
         timeout = timeout,
+        maxBackoffDelay = maxBackoffDelay,
       )
     }
 
@@ -44,6 +49,7 @@ interface AsyncRetryer<T> {
       maxRetries: Int? = null,
       timeout: Duration? = null,
       initialDelay: Duration? = null,
+      maxBackoffDelay: Duration? = null,
       stopRetriesPredicate: (T) -> Boolean = ::alwaysTruePredicate,
       stopRetriesOnErrorPredicate: (Throwable) -> Boolean = ::alwaysFalsePredicate,
       exceptionConsumer: Consumer<Throwable>? = null,
@@ -55,6 +61,7 @@ interface AsyncRetryer<T> {
         maxRetries = maxRetries,
         timeout = timeout,
         initialDelay = initialDelay,
+        maxBackoffDelay = maxBackoffDelay,
       ).retry(stopRetriesPredicate, stopRetriesOnErrorPredicate, exceptionConsumer, action)
     }
   }
@@ -62,6 +69,10 @@ interface AsyncRetryer<T> {
 
 /**
  * Retries an action until it succeeds or the maxRetries is reached or timeout has elapsed, whichever comes first.
+ *
+ * Retries are delayed by backoffDelay, or when maxBackoffDelay is set, by an exponential backoff doubling from
+ * backoffDelay up to maxBackoffDelay with full jitter: each delay is drawn uniformly up to the backoff,
+ * so concurrent retryers failing at the same time do not retry in lockstep.
  */
 internal class SequentialAsyncActionRetryer<T>(
   val vertx: Vertx,
@@ -69,6 +80,7 @@ internal class SequentialAsyncActionRetryer<T>(
   val maxRetries: Int?,
   val timeout: Duration?,
   val initialDelay: Duration?,
+  val maxBackoffDelay: Duration? = null,
   val stopRetriesPredicate: (T) -> Boolean = ::alwaysTruePredicate,
   val stopRetriesOnErrorPredicate: (Throwable) -> Boolean = ::alwaysFalsePredicate,
   val exceptionConsumer: Consumer<Throwable>? = null,
@@ -85,9 +97,15 @@ internal class SequentialAsyncActionRetryer<T>(
     initialDelay?.also {
       require(initialDelay >= 1.milliseconds) { "initialDelay must be >= 1ms. value=$initialDelay" }
     }
+    maxBackoffDelay?.also {
+      require(maxBackoffDelay >= backoffDelay) {
+        "maxBackoffDelay must be >= backoffDelay. value=$maxBackoffDelay backoffDelay=$backoffDelay"
+      }
+    }
   }
 
   private val resultFuture = SafeFuture<T>()
+  private var retriesCount = 0
   private var remainingRetries: Int? = maxRetries
   private var startTime: Instant = Instant.now()
   private var remainingTime: Long? = timeout?.inWholeMilliseconds
@@ -143,7 +161,7 @@ internal class SequentialAsyncActionRetryer<T>(
         val hasMoreRetries = remainingRetries == null || remainingRetries!! > 0
         val hasMoreTime = remainingTime == null || remainingTime!! > 0
         if (hasMoreRetries && hasMoreTime) {
-          vertx.setTimer(backoffDelay.inWholeMilliseconds) {
+          vertx.setTimer(nextRetryDelay().inWholeMilliseconds) {
             if (remainingRetries != null) {
               remainingRetries = remainingRetries!! - 1
             }
@@ -164,6 +182,29 @@ internal class SequentialAsyncActionRetryer<T>(
       }
     }
   }
+
+  private fun nextRetryDelay(): Duration {
+    val backoff = if (maxBackoffDelay == null) {
+      backoffDelay
+    } else {
+      fullJitterBackoffDelay(backoffDelay, maxBackoffDelay, retriesCount)
+    }
+    retriesCount++
+    return backoff
+  }
+}
+
+internal fun fullJitterBackoffDelay(
+  backoffDelay: Duration,
+  maxBackoffDelay: Duration,
+  retriesCount: Int,
+  random: Random = Random,
+): Duration {
+  val exponentialBackoffMillis = min(
+    maxBackoffDelay.inWholeMilliseconds.toDouble(),
+    backoffDelay.inWholeMilliseconds * 2.0.pow(retriesCount),
+  ).toLong()
+  return random.nextLong(1, exponentialBackoffMillis + 1).milliseconds
 }
 
 private class SequentialAsyncRetryerFactory<T>(
@@ -172,6 +213,7 @@ private class SequentialAsyncRetryerFactory<T>(
   val maxRetries: Int? = null,
   val timeout: Duration? = null,
   val initialDelay: Duration? = null,
+  val maxBackoffDelay: Duration? = null,
 ) : AsyncRetryer<T> {
   override fun retry(action: () -> SafeFuture<T>): SafeFuture<T> {
     return SequentialAsyncActionRetryer(
@@ -180,6 +222,7 @@ private class SequentialAsyncRetryerFactory<T>(
       maxRetries = maxRetries,
       timeout = timeout,
       initialDelay = initialDelay,
+      maxBackoffDelay = maxBackoffDelay,
       stopRetriesPredicate = ::alwaysTruePredicate,
       exceptionConsumer = null,
       action = action,
@@ -198,6 +241,7 @@ private class SequentialAsyncRetryerFactory<T>(
       backoffDelay = backoffDelay,
       initialDelay = initialDelay,
       timeout = timeout,
+      maxBackoffDelay = maxBackoffDelay,
       stopRetriesPredicate = stopRetriesPredicate,
       stopRetriesOnErrorPredicate = stopRetriesOnErrorPredicate,
       exceptionConsumer = exceptionConsumer,
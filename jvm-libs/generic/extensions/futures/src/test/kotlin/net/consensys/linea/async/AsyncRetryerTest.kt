@@ -11,6 +11,7 @@ import org.junit.jupiter.api.extension.ExtendWith
 import tech.pegasys.teku.infrastructure.async.SafeFuture
 import java.util.concurrent.ExecutionException
 import java.util.concurrent.atomic.AtomicInteger
+import kotlin.random.Random
 import kotlin.time.Duration
 import kotlin.time.Duration.Companion.milliseconds
 import kotlin.time.Duration.Companion.nanoseconds
@@ -402,4 +403,55 @@ class AsyncRetryerTest {
     assertThat(future2.get()).isEqualTo(2)
     assertThat(future1.get()).isEqualTo(1)
   }
+
+  @Test
+  fun `retry should reject a maxBackoffDelay lower than the backoffDelay`(vertx: Vertx) {
+    val exception = assertThrows<IllegalArgumentException> {
+      AsyncRetryer.retryer<Unit>(vertx, backoffDelay = 20.milliseconds, maxBackoffDelay = 10.milliseconds)
+        .retry { SafeFuture.completedFuture(Unit) }
+    }
+    assertThat(exception.message).isEqualTo("maxBackoffDelay must be >= backoffDelay. value=10ms backoffDelay=20ms")
+  }
+
+  @Test
+  fun `retry with maxBackoffDelay should retry until maxRetries`(vertx: Vertx) {
+    val callsCount = AtomicInteger(0)
+    val future = AsyncRetryer.retry<Unit>(
+      vertx,
+      backoffDelay = 1.milliseconds,
+      maxBackoffDelay = 4.milliseconds,
+      maxRetries = 8,
+    ) {
+      callsCount.incrementAndGet()
+      SafeFuture.failedFuture(Exception("Upss"))
+    }
+
+    assertThrows<ExecutionException> { future.get() }
+    assertThat(callsCount.get()).isEqualTo(9)
+  }
+
+  @Test
+  fun `full jitter backoff doubles up to maxBackoffDelay`() {
+    val highestDraw = object : Random() {
+      override fun nextBits(bitCount: Int): Int = throw UnsupportedOperationException()
+      override fun nextLong(from: Long, until: Long): Long = until - 1
+    }
+    val lowestDraw = object : Random() {
+      override fun nextBits(bitCount: Int): Int = throw UnsupportedOperationException()
+      override fun nextLong(from: Long, until: Long): Long = from
+    }
+
+    val highestDelays = (0 until 8).map { retriesCount ->
+      fullJitterBackoffDelay(20.milliseconds, 80.milliseconds, retriesCount, highestDraw)
+    }
+    val lowestDelays = (0 until 8).map { retriesCount ->
+      fullJitterBackoffDelay(20.milliseconds, 80.milliseconds, retriesCount, lowestDraw)
+    }
+
+    assertThat(highestDelays).isEqualTo(listOf(20, 40, 80, 80, 80, 80, 80, 80).map { it.milliseconds })
+    assertThat(lowestDelays).containsOnly(1.milliseconds)
+    // the exponent may overflow a Long after many retries, the backoff stays capped
+    assertThat(fullJitterBackoffDelay(20.milliseconds, 80.milliseconds, 1_000, highestDraw))
+      .isEqualTo(80.milliseconds)
+  }
 }
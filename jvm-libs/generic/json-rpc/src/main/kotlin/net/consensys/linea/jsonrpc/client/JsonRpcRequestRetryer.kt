@@ -26,6 +26,7 @@ data class RequestRetryConfig(
   val timeout: Duration? = null,
   val backoffDelay: Duration,
   val failuresWarningThreshold: UInt = 0u,
+  val maxBackoffDelay: Duration? = null,
 ) {
   init {
     maxRetries?.also {
@@ -60,6 +61,7 @@ class JsonRpcRequestRetryer(
     backoffDelay = config.requestRetry.backoffDelay,
     maxRetries = config.requestRetry.maxRetries?.toInt(),
     timeout = config.requestRetry.timeout,
+    maxBackoffDelay = config.requestRetry.maxBackoffDelay,
   )
 
   override fun makeRequest(
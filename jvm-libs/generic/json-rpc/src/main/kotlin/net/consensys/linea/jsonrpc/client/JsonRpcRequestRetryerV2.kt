@@ -61,6 +61,7 @@ class JsonRpcRequestRetryerV2(
       backoffDelay = requestRetry.backoffDelay,
       maxRetries = requestRetry.maxRetries?.toInt(),
       timeout = requestRetry.timeout,
+      maxBackoffDelay = requestRetry.maxBackoffDelay,
       stopRetriesPredicate = { result: Result<T, Throwable> ->
         result.onFailure(lastException::set)
         !requestPredicate.test(result)
@@ -0,0 +1,113 @@
+package net.consensys.zkevm.persistence.db
+
+import tech.pegasys.teku.infrastructure.async.SafeFuture
+import java.util.concurrent.CompletionException
+
+/**
+ * Groups concurrent writes of records: while maxInFlightWrites writes are in flight, new records are queued
+ * and written together with writeRecords, up to maxBatchSize per write, as soon as one of them completes.
+ * Records are only grouped under load, no delay is added when writes do not overlap.
+ *
+ * writeRecords completes with the failure of each record, null when it was written,
+ * so records of a grouped write can fail on their own, e.g. when they are already persisted.
+ * If a grouped write fails as a whole with an error matching writeOneByOneOnError, e.g. because one of its records
+ * is already persisted, its records are written one by one with writeRecord, so each write completes with its own
+ * result. Other errors fail all the records of the write, retries are left to writeRecords and to the callers.
+ */
+class GroupedWriter<T>(
+  private val maxBatchSize: Int,
+  private val maxInFlightWrites: Int = 1,
+  private val writeRecord: (T) -> SafeFuture<Unit>,
+  private val writeRecords: (List<T>) -> SafeFuture<List<Throwable?>>,
+  private val writeOneByOneOnError: (Throwable) -> Boolean = ::isDuplicateKeyException,
+) {
+  init {
+    require(maxBatchSize > 0) { "maxBatchSize=$maxBatchSize must be greater than 0" }
+    require(maxInFlightWrites > 0) { "maxInFlightWrites=$maxInFlightWrites must be greater than 0" }
+  }
+
+  private class PendingWrite<T>(
+    val record: T,
+    val result: SafeFuture<Unit> = SafeFuture(),
+  )
+
+  private val pendingWrites = ArrayDeque<PendingWrite<T>>()
+  private var inFlightWrites = 0
+
+  fun write(record: T): SafeFuture<Unit> {
+    val pendingWrite = PendingWrite(record)
+    synchronized(pendingWrites) {
+      pendingWrites.addLast(pendingWrite)
+    }
+    writePendingRecords()
+    return pendingWrite.result
+  }
+
+  private fun writePendingRecords() {
+    while (true) {
+      val batch = synchronized(pendingWrites) {
+        if (pendingWrites.isEmpty() || inFlightWrites >= maxInFlightWrites) {
+          return
+        }
+        inFlightWrites++
+        List(minOf(pendingWrites.size, maxBatchSize)) { pendingWrites.removeFirst() }
+      }
+      writeBatch(batch)
+        .whenComplete { _, _ ->
+          synchronized(pendingWrites) {
+            inFlightWrites--
+          }
+          writePendingRecords()
+        }
+    }
+  }
+
+  private fun writeBatch(batch: List<PendingWrite<T>>): SafeFuture<Unit> {
+    if (batch.size == 1) {
+      return writeOne(batch.single())
+    }
+    val write = try {
+      writeRecords(batch.map { it.record })
+    } catch (th: Throwable) {
+      SafeFuture.failedFuture(th)
+    }
+    return write.handleComposed { failures, th ->
+      val error = th?.let(::unwrap)
+      if (error == null) {
+        batch.zip(failures).forEach { (pendingWrite, failure) ->
+          if (failure == null) {
+            pendingWrite.result.complete(Unit)
+          } else {
+            pendingWrite.result.completeExceptionally(failure)
+          }
+        }
+        SafeFuture.completedFuture(Unit)
+      } else if (writeOneByOneOnError(error)) {
+        SafeFuture.collectAll(batch.map(::writeOne).stream()).thenApply { }
+      } else {
+        batch.forEach { it.result.completeExceptionally(error) }
+        SafeFuture.completedFuture(Unit)
+      }
+    }
+  }
+
+  private fun writeOne(pendingWrite: PendingWrite<T>): SafeFuture<Unit> {
+    val write = try {
+      writeRecord(pendingWrite.record)
+    } catch (th: Throwable) {
+      SafeFuture.failedFuture(th)
+    }
+    return write.handle { _, th ->
+      if (th == null) {
+        pendingWrite.result.complete(Unit)
+      } else {
+        pendingWrite.result.completeExceptionally(unwrap(th))
+      }
+    }
+  }
+
+  // failures of the dependent stages of a write are wrapped
+  private fun unwrap(th: Throwable): Throwable {
+    return if (th is CompletionException && th.cause != null) th.cause!! else th
+  }
+}
@@ -0,0 +1,155 @@
+package net.consensys.zkevm.persistence.db
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import tech.pegasys.teku.infrastructure.async.SafeFuture
+import java.time.Duration
+import java.util.concurrent.ExecutionException
+
+class GroupedWriterTest {
+  /**
+   * Store completing writes on demand, failing the writes of records already stored,
+   * or all the writes in flight when it is unavailable.
+   */
+  private class FakeStore {
+    val storedRecords = mutableListOf<Int>()
+    val writes = mutableListOf<List<Int>>()
+    var unavailable = false
+    private val inFlightWrites = ArrayDeque<Pair<List<Int>, SafeFuture<Unit>>>()
+
+    val inFlightWritesCount: Int
+      get() = inFlightWrites.size
+
+    fun write(records: List<Int>): SafeFuture<Unit> {
+      writes.add(records)
+      return SafeFuture<Unit>().also { inFlightWrites.addLast(records to it) }
+    }
+
+    fun completeWrites() {
+      while (inFlightWrites.isNotEmpty()) {
+        val (records, result) = inFlightWrites.removeFirst()
+        if (unavailable) {
+          result.completeExceptionally(IllegalStateException("store is unavailable"))
+        } else if (records.any { storedRecords.contains(it) } || records.size != records.distinct().size) {
+          result.completeExceptionally(DuplicatedRecordException("Record $records is already persisted!"))
+        } else {
+          storedRecords.addAll(records)
+          result.complete(Unit)
+        }
+      }
+    }
+  }
+
+  private fun createWriter(
+    store: FakeStore,
+    maxBatchSize: Int = 10,
+    maxInFlightWrites: Int = 1,
+  ): GroupedWriter<Int> {
+    return GroupedWriter(
+      maxBatchSize = maxBatchSize,
+      maxInFlightWrites = maxInFlightWrites,
+      writeRecord = { record -> store.write(listOf(record)) },
+      writeRecords = { records -> store.write(records).thenApply { records.map { null } } },
+    )
+  }
+
+  @Test
+  fun `records written while a write is in flight are written together`() {
+    val store = FakeStore()
+    val writer = createWriter(store, maxBatchSize = 10)
+
+    val results = (1..25).map { writer.write(it) }
+    store.completeWrites()
+
+    assertThat(results).allMatch { it.isDone && !it.isCompletedExceptionally }
+    assertThat(store.writes).isEqualTo(listOf(listOf(1), (2..11).toList(), (12..21).toList(), (22..25).toList()))
+    assertThat(store.storedRecords).isEqualTo((1..25).toList())
+
+    // no write in flight, records are written right away
+    val result = writer.write(26)
+    assertThat(store.writes.last()).isEqualTo(listOf(26))
+    store.completeWrites()
+    assertThat(result).isCompleted()
+  }
+
+  @Test
+  fun `records of a failed write are written one by one`() {
+    val store = FakeStore()
+    val writer = createWriter(store)
+
+    val firstResult = writer.write(1)
+    val results = listOf(2, 1, 3).map { writer.write(it) }
+    store.completeWrites()
+
+    assertThat(firstResult).isCompleted()
+    assertThat(store.writes).isEqualTo(listOf(listOf(1), listOf(2, 1, 3), listOf(2), listOf(1), listOf(3)))
+    assertThat(results[0]).isCompleted()
+    assertThat(results[1]).failsWithin(Duration.ZERO)
+      .withThrowableOfType(ExecutionException::class.java)
+      .withCauseInstanceOf(DuplicatedRecordException::class.java)
+    assertThat(results[2]).isCompleted()
+    assertThat(store.storedRecords).isEqualTo(listOf(1, 2, 3))
+  }
+
+  @Test
+  fun `up to maxInFlightWrites writes are in flight at once`() {
+    val store = FakeStore()
+    val writer = createWriter(store, maxBatchSize = 10, maxInFlightWrites = 3)
+
+    val results = (1..25).map { writer.write(it) }
+
+    assertThat(store.inFlightWritesCount).isEqualTo(3)
+    assertThat(store.writes).isEqualTo(listOf(listOf(1), listOf(2), listOf(3)))
+
+    store.completeWrites()
+
+    assertThat(results).allMatch { it.isDone && !it.isCompletedExceptionally }
+    assertThat(store.writes.drop(3)).isEqualTo(listOf((4..13).toList(), (14..23).toList(), (24..25).toList()))
+    assertThat(store.storedRecords).containsExactlyInAnyOrderElementsOf((1..25).toList())
+  }
+
+  @Test
+  fun `records of a write failing for another reason fail without being written one by one`() {
+    val store = FakeStore()
+    val writer = createWriter(store)
+
+    val firstResult = writer.write(1)
+    val results = listOf(2, 3).map { writer.write(it) }
+    store.unavailable = true
+    store.completeWrites()
+
+    assertThat(store.writes).isEqualTo(listOf(listOf(1), listOf(2, 3)))
+    assertThat(listOf(firstResult) + results).allSatisfy { result ->
+      assertThat(result).failsWithin(Duration.ZERO)
+        .withThrowableOfType(ExecutionException::class.java)
+        .withCauseInstanceOf(IllegalStateException::class.java)
+    }
+  }
+
+  @Test
+  fun `records of a grouped write complete with their own result`() {
+    val store = FakeStore()
+    val writer = GroupedWriter<Int>(
+      maxBatchSize = 10,
+      writeRecord = { record -> store.write(listOf(record)) },
+      writeRecords = { records ->
+        store.write(records.filter { it % 2 == 0 }).thenApply {
+          records.map { if (it % 2 == 0) null else IllegalArgumentException("odd record $it") }
+        }
+      },
+    )
+
+    writer.write(0)
+    val results = (1..4).map { writer.write(it) }
+    store.completeWrites()
+
+    assertThat(store.writes).isEqualTo(listOf(listOf(0), listOf(2, 4)))
+    assertThat(results[1]).isCompleted()
+    assertThat(results[3]).isCompleted()
+    assertThat(listOf(results[0], results[2])).allSatisfy { result ->
+      assertThat(result).failsWithin(Duration.ZERO)
+        .withThrowableOfType(ExecutionException::class.java)
+        .withCauseInstanceOf(IllegalArgumentException::class.java)
+    }
+  }
+}
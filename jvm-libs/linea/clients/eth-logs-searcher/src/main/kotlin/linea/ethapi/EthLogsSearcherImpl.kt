@@ -8,6 +8,7 @@ import linea.domain.BlockParameter
 import linea.domain.BlockParameter.Companion.toBlockParameter
 import linea.domain.CommonDomainFunctions
 import linea.domain.EthLog
+import linea.ethapi.cursor.AdaptiveSearchCursor
 import linea.ethapi.cursor.BinarySearchCursor
 import linea.ethapi.cursor.ConsecutiveSearchCursor
 import net.consensys.linea.async.AsyncRetryer
@@ -34,8 +35,44 @@ class EthLogsSearcherImpl(
 ) : EthLogsSearcher, EthLogsClient by ethApiClient {
   data class Config(
     val loopSuccessBackoffDelay: Duration = 1.milliseconds,
+    // when set, getLogsRollingForward searches several chunks concurrently, otherwise one chunk at a time
+    val windowedSearch: WindowedSearchConfig? = null,
   )
 
+  data class WindowedSearchConfig(
+    val maxInFlightRequests: UInt = 4u,
+    // chunk size doubles up to maxChunkSize after each chunk with less than sparseChunkLogsThreshold logs
+    val maxChunkSize: UInt = 10_000u,
+    val sparseChunkLogsThreshold: UInt = 100u,
+    val retryBackoffDelay: Duration = 100.milliseconds,
+    // chunks failing with an error message containing any of these are split in half instead of retried
+    val tooManyResultsErrorMessages: List<String> = DEFAULT_TOO_MANY_RESULTS_ERROR_MESSAGES,
+  ) {
+    init {
+      require(maxInFlightRequests > 0u) { "maxInFlightRequests=$maxInFlightRequests must be greater than 0" }
+      require(maxChunkSize > 0u) { "maxChunkSize=$maxChunkSize must be greater than 0" }
+    }
+
+    fun isTooManyResultsError(error: Throwable): Boolean {
+      return generateSequence(error) { it.cause }
+        .take(10)
+        .mapNotNull { it.message?.lowercase() }
+        .any { message -> tooManyResultsErrorMessages.any { message.contains(it.lowercase()) } }
+    }
+
+    companion object {
+      val DEFAULT_TOO_MANY_RESULTS_ERROR_MESSAGES = listOf(
+        "query returned more than", // geth, infura
+        "response size exceeded", // alchemy
+        "exceeds max results", // erigon
+        "query exceeds max", // nethermind
+        "exceed maximum block range", // geth
+        "exceeds maximum range limit", // besu
+        "too many results",
+      )
+    }
+  }
+
   override fun findLog(
     fromBlock: BlockParameter,
     toBlock: BlockParameter,
@@ -85,19 +122,78 @@ class EthLogsSearcherImpl(
             IllegalStateException("invalid range: fromBlock=$fromBlock is after toBlock=$toBlock ($end)"),
           )
         } else {
-          getLogsLoopingForward(
-            fromBlock = start,
-            toBlock = end,
-            address = address,
-            topics = topics,
-            chunkSize = chunkSize,
-            searchTimeout = searchTimeout,
-            logsSoftLimit = stopAfterTargetLogsCount,
-          )
+          if (config.windowedSearch != null) {
+            getLogsWindowed(
+              fromBlock = start,
+              toBlock = end,
+              address = address,
+              topics = topics,
+              chunkSize = chunkSize,
+              searchTimeout = searchTimeout,
+              logsSoftLimit = stopAfterTargetLogsCount,
+              windowedSearchConfig = config.windowedSearch,
+            )
+          } else {
+            getLogsLoopingForward(
+              fromBlock = start,
+              toBlock = end,
+              address = address,
+              topics = topics,
+              chunkSize = chunkSize,
+              searchTimeout = searchTimeout,
+              logsSoftLimit = stopAfterTargetLogsCount,
+            )
+          }
         }
       }
   }
 
+  private fun getLogsWindowed(
+    fromBlock: ULong,
+    toBlock: ULong,
+    address: String,
+    topics: List<String?>,
+    chunkSize: UInt,
+    searchTimeout: Duration,
+    logsSoftLimit: UInt?,
+    windowedSearchConfig: WindowedSearchConfig,
+  ): SafeFuture<EthLogsSearcher.LogSearchResult> {
+    val cursor = AdaptiveSearchCursor(
+      from = fromBlock,
+      to = toBlock,
+      initialChunkSize = chunkSize,
+      maxChunkSize = windowedSearchConfig.maxChunkSize.coerceAtLeast(chunkSize),
+      sparseChunkLogsThreshold = windowedSearchConfig.sparseChunkLogsThreshold,
+    )
+    return WindowedLogsSearch(
+      vertx = vertx,
+      fromBlock = fromBlock,
+      toBlock = toBlock,
+      cursor = cursor,
+      maxInFlightRequests = windowedSearchConfig.maxInFlightRequests.toInt(),
+      searchTimeout = searchTimeout,
+      logsSoftLimit = logsSoftLimit?.toInt() ?: Int.MAX_VALUE,
+      retryBackoffDelay = windowedSearchConfig.retryBackoffDelay,
+      isTooManyResultsError = windowedSearchConfig::isTooManyResultsError,
+      clock = clock,
+      log = log,
+    ) { chunk ->
+      getLogs(chunk.first.toBlockParameter(), chunk.last.toBlockParameter(), address, topics)
+    }
+      .start()
+      .thenPeek { result ->
+        log.debug(
+          "getLogsRollingForward: fromBlock={} toBlock={} effectiveEndBlock={} address={} topics={} logsCount={}",
+          fromBlock,
+          toBlock,
+          result.endBlockNumber,
+          address,
+          topics.joinToString(", ") { it ?: "null" },
+          result.logs.size,
+        )
+      }
+  }
+
   private fun getLogsLoopingForward(
     fromBlock: ULong,
     toBlock: ULong,
@@ -0,0 +1,194 @@
+package linea.ethapi
+
+import io.vertx.core.Vertx
+import kotlinx.datetime.Clock
+import kotlinx.datetime.Instant
+import linea.EthLogsSearcher
+import linea.domain.CommonDomainFunctions
+import linea.domain.EthLog
+import linea.ethapi.cursor.AdaptiveSearchCursor
+import org.apache.logging.log4j.Logger
+import tech.pegasys.teku.infrastructure.async.SafeFuture
+import java.util.TreeMap
+import kotlin.time.Duration
+
+/**
+ * Searches logs of fromBlock..toBlock keeping up to maxInFlightRequests chunk requests in flight.
+ *
+ * Chunk results are collected strictly in block order, so the result is always a consecutive
+ * prefix of the range, the same as searching one chunk at a time:
+ * - once logsSoftLimit is reached, the search completes with the collected chunks
+ *   and results of requests still in flight are discarded;
+ * - once searchTimeout elapses, no new requests are sent and the search completes with the collected chunks
+ *   when in flight requests finish. It fails with the last error if no chunk could be collected at all.
+ *
+ * Failed chunks are retried after retryBackoffDelay, chunks rejected for returning too many results are split.
+ */
+internal class WindowedLogsSearch(
+  private val vertx: Vertx,
+  private val fromBlock: ULong,
+  private val toBlock: ULong,
+  private val cursor: AdaptiveSearchCursor,
+  private val maxInFlightRequests: Int,
+  private val searchTimeout: Duration,
+  private val logsSoftLimit: Int,
+  private val retryBackoffDelay: Duration,
+  private val isTooManyResultsError: (Throwable) -> Boolean,
+  private val clock: Clock,
+  private val log: Logger,
+  private val getLogs: (ULongRange) -> SafeFuture<List<EthLog>>,
+) {
+  private val result = SafeFuture<EthLogsSearcher.LogSearchResult>()
+  private val searchedChunks = TreeMap<ULong, Pair<ULongRange, List<EthLog>>>()
+  private val logsCollected = mutableListOf<EthLog>()
+  private var nextBlockToCollect: ULong = fromBlock
+  private var lastCollectedBlock: ULong? = null
+  private var allChunksCollected = false
+  private var inFlightRequests = 0
+  private var pendingRetries = 0
+  private var lastError: Throwable? = null
+  private var dispatching = false
+  private var dispatchRequested = false
+  private lateinit var startTime: Instant
+
+  fun start(): SafeFuture<EthLogsSearcher.LogSearchResult> {
+    startTime = clock.now()
+    dispatch()
+    return result
+  }
+
+  // requests may complete synchronously, so requests are sent from this loop
+  // instead of recursively from their completion callbacks
+  private fun dispatch() {
+    synchronized(this) {
+      if (dispatching) {
+        dispatchRequested = true
+        return
+      }
+      dispatching = true
+    }
+    do {
+      val chunksToSearch = synchronized(this) {
+        dispatchRequested = false
+        nextChunksToSearch()
+      }
+      chunksToSearch.forEach(::searchChunk)
+      val dispatchAgain = synchronized(this) {
+        dispatching = dispatchRequested
+        dispatchRequested
+      }
+    } while (dispatchAgain)
+  }
+
+  private fun nextChunksToSearch(): List<ULongRange> {
+    if (result.isDone) return emptyList()
+    val enoughLogsCollected = logsCollected.size >= logsSoftLimit
+    val searchTimeoutElapsed = (clock.now() - startTime) >= searchTimeout
+    if (allChunksCollected || enoughLogsCollected) {
+      completeSearch()
+      return emptyList()
+    }
+    if (searchTimeoutElapsed) {
+      if (inFlightRequests == 0 && pendingRetries == 0) {
+        completeSearch()
+      }
+      return emptyList()
+    }
+
+    val chunks = mutableListOf<ULongRange>()
+    while (inFlightRequests < maxInFlightRequests && cursor.hasNext()) {
+      chunks.add(cursor.next())
+      inFlightRequests++
+    }
+    return chunks
+  }
+
+  private fun searchChunk(chunk: ULongRange) {
+    log.trace("searching in chunk={}", CommonDomainFunctions.blockIntervalString(chunk.first, chunk.last))
+    val logsFuture: SafeFuture<List<EthLog>> = try {
+      getLogs(chunk)
+    } catch (error: Throwable) {
+      SafeFuture.failedFuture(error)
+    }
+    logsFuture
+      .handle { logs, error ->
+        synchronized(this) {
+          inFlightRequests--
+          if (error == null) {
+            onChunkSearched(chunk, logs)
+          } else {
+            onChunkFailed(chunk, error)
+          }
+        }
+        dispatch()
+      }
+      .finish { error -> result.completeExceptionally(error) }
+  }
+
+  private fun onChunkSearched(chunk: ULongRange, logs: List<EthLog>) {
+    log.trace(
+      "logs collected: chunk={} logsCount={}",
+      CommonDomainFunctions.blockIntervalString(chunk.first, chunk.last),
+      logs.size,
+    )
+    cursor.onChunkSearched(logs.size)
+    searchedChunks[chunk.first] = chunk to logs
+    while (!allChunksCollected && logsCollected.size < logsSoftLimit && searchedChunks.isNotEmpty()) {
+      if (searchedChunks.firstKey() != nextBlockToCollect) break
+      val (searchedChunk, chunkLogs) = searchedChunks.pollFirstEntry().value
+      logsCollected.addAll(chunkLogs)
+      lastCollectedBlock = searchedChunk.last
+      if (searchedChunk.last == toBlock) {
+        allChunksCollected = true
+      } else {
+        nextBlockToCollect = searchedChunk.last + 1UL
+      }
+    }
+  }
+
+  private fun onChunkFailed(chunk: ULongRange, error: Throwable) {
+    if (isTooManyResultsError(error) && cursor.splitChunk(chunk)) {
+      log.debug(
+        "too many results, splitting chunk={} nextChunkSize={} errorMessage={}",
+        CommonDomainFunctions.blockIntervalString(chunk.first, chunk.last),
+        cursor.chunkSize,
+        error.message,
+      )
+      return
+    }
+    log.debug(
+      "failed to search chunk={}, will retry: errorMessage={}",
+      CommonDomainFunctions.blockIntervalString(chunk.first, chunk.last),
+      error.message,
+    )
+    lastError = error
+    pendingRetries++
+    vertx.setTimer(retryBackoffDelay.inWholeMilliseconds) {
+      synchronized(this) {
+        pendingRetries--
+        cursor.retryChunk(chunk)
+      }
+      dispatch()
+    }
+  }
+
+  private fun completeSearch() {
+    val endBlockNumber = lastCollectedBlock
+    if (endBlockNumber == null) {
+      result.completeExceptionally(
+        lastError ?: IllegalStateException(
+          "no logs chunk searched within searchTimeout=$searchTimeout: " +
+            "fromBlock=$fromBlock toBlock=$toBlock",
+        ),
+      )
+    } else {
+      result.complete(
+        EthLogsSearcher.LogSearchResult(
+          logs = logsCollected.toList(),
+          startBlockNumber = fromBlock,
+          endBlockNumber = endBlockNumber,
+        ),
+      )
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package linea.ethapi.cursor
+
+import java.util.TreeMap
+
+/**
+ * Forward cursor whose chunk size adapts to the results of previous chunks:
+ * - grows (doubles) up to maxChunkSize when a chunk returns few logs;
+ * - halves when a chunk is rejected for returning too many results, the rejected chunk is split in two.
+ *
+ * Chunks that need to be searched again (split or retried) are always handed out
+ * before new chunks, lowest block first, so callers can collect results in block order.
+ */
+internal class AdaptiveSearchCursor(
+  val from: ULong,
+  val to: ULong,
+  initialChunkSize: UInt,
+  val maxChunkSize: UInt,
+  val sparseChunkLogsThreshold: UInt,
+) {
+  init {
+    require(from <= to) { "from=$from must be less than or equal to to=$to" }
+    require(initialChunkSize > 0u) { "initialChunkSize=$initialChunkSize must be greater than 0" }
+    require(maxChunkSize >= initialChunkSize) {
+      "maxChunkSize=$maxChunkSize must be greater than or equal to initialChunkSize=$initialChunkSize"
+    }
+  }
+
+  private val chunksToSearchAgain = TreeMap<ULong, ULongRange>()
+  private var nextChunkStart: ULong = from
+  private var allChunksAllocated = false
+
+  var chunkSize: ULong = initialChunkSize.toULong()
+    private set
+
+  @Synchronized
+  fun hasNext(): Boolean = chunksToSearchAgain.isNotEmpty() || !allChunksAllocated
+
+  @Synchronized
+  fun next(): ULongRange {
+    chunksToSearchAgain.pollFirstEntry()?.let { return it.value }
+    if (allChunksAllocated) throw NoSuchElementException("No more chunks available.")
+
+    val chunkEnd = if (to - nextChunkStart < chunkSize) to else nextChunkStart + chunkSize - 1UL
+    val chunk = nextChunkStart..chunkEnd
+    if (chunkEnd == to) {
+      allChunksAllocated = true
+    } else {
+      nextChunkStart = chunkEnd + 1UL
+    }
+    return chunk
+  }
+
+  @Synchronized
+  fun onChunkSearched(logsCount: Int) {
+    if (logsCount.toUInt() < sparseChunkLogsThreshold) {
+      chunkSize = (chunkSize * 2UL).coerceAtMost(maxChunkSize.toULong())
+    }
+  }
+
+  /**
+   * Splits a chunk that returned too many results in two halves to be searched again.
+   * Returns false if chunk cannot be split further.
+   */
+  @Synchronized
+  fun splitChunk(chunk: ULongRange): Boolean {
+    if (chunk.first == chunk.last) return false
+    val middle = chunk.first + (chunk.last - chunk.first) / 2UL
+    chunksToSearchAgain[chunk.first] = chunk.first..middle
+    chunksToSearchAgain[middle + 1UL] = (middle + 1UL)..chunk.last
+    chunkSize = (middle - chunk.first + 1UL).coerceAtMost(chunkSize)
+    return true
+  }
+
+  @Synchronized
+  fun retryChunk(chunk: ULongRange) {
+    chunksToSearchAgain[chunk.first] = chunk
+  }
+}
@@ -32,6 +32,7 @@ import org.web3j.protocol.http.HttpService
 import java.net.URI
 import kotlin.random.Random
 import kotlin.time.Duration.Companion.milliseconds
+import kotlin.time.Duration.Companion.seconds
 
 internal data class EthGetLogsRequest(
   val fromBlock: ULong,
@@ -46,6 +47,7 @@ class EthLogsSearcherImplIntTest {
   private lateinit var vertx: Vertx
   private lateinit var wireMockServer: WireMockServer
   private lateinit var TestingJsonRpcServer: TestingJsonRpcServer
+  private lateinit var ethApiClient: EthApiClient
   private val address = "0x508ca82df566dcd1b0de8296e70a96332cd644ec"
   private val log = LogManager.getLogger("test.case.Web3JLogsSearcherIntTest")
 
@@ -95,13 +97,14 @@ class EthLogsSearcherImplIntTest {
       recordRequestsResponses = true,
     )
     setUpFakeLogsServerToHandleEthLogs(TestingJsonRpcServer, subsetOfBlocksWithLogs)
+    ethApiClient = createEthApiClient(
+      vertx = vertx,
+      web3jClient = Web3j.build(HttpService(URI("http://127.0.0.1:" + TestingJsonRpcServer.boundPort).toString())),
+      requestRetryConfig = retryConfig,
+    )
     logsClient = EthLogsSearcherImpl(
       vertx = vertx,
-      ethApiClient = createEthApiClient(
-        vertx = vertx,
-        web3jClient = Web3j.build(HttpService(URI("http://127.0.0.1:" + TestingJsonRpcServer.boundPort).toString())),
-        requestRetryConfig = retryConfig,
-      ),
+      ethApiClient = ethApiClient,
       config = EthLogsSearcherImpl.Config(
         loopSuccessBackoffDelay = 1.milliseconds,
       ),
@@ -411,6 +414,106 @@ class EthLogsSearcherImplIntTest {
       }
   }
 
+  private fun createWindowedLogsSearcher(
+    windowedSearchConfig: EthLogsSearcherImpl.WindowedSearchConfig,
+  ): EthLogsSearcherImpl {
+    return EthLogsSearcherImpl(
+      vertx = vertx,
+      ethApiClient = ethApiClient,
+      config = EthLogsSearcherImpl.Config(
+        loopSuccessBackoffDelay = 1.milliseconds,
+        windowedSearch = windowedSearchConfig,
+      ),
+      log = LogManager.getLogger("test.case.Web3JLogsSearcher"),
+    )
+  }
+
+  @Test
+  fun `getLogsRollingForward windowed search catches up with fewer eth_getLogs calls than sequential search`() {
+    setupClientWithTestingJsonRpcServer(
+      subsetOfBlocksWithLogs = listOf(100UL..109UL, 1_500UL..1_509UL, 2_950UL..2_959UL),
+    )
+    TestingJsonRpcServer.responsesArtificialDelay = 20.milliseconds
+    val windowedLogsClient = createWindowedLogsSearcher(
+      EthLogsSearcherImpl.WindowedSearchConfig(
+        maxInFlightRequests = 4u,
+        maxChunkSize = 400u,
+        sparseChunkLogsThreshold = 1u,
+      ),
+    )
+
+    val sequentialResult = logsClient.getLogsRollingForward(
+      fromBlock = 0UL.toBlockParameter(),
+      toBlock = 2_999UL.toBlockParameter(),
+      address = address,
+      topics = listOf("0xffaabbcc"),
+      chunkSize = 100u,
+      searchTimeout = 60.seconds,
+    ).get()
+    val sequentialGetLogsCalls = TestingJsonRpcServer.callCountByMethod("eth_getLogs")
+    TestingJsonRpcServer.cleanRecordedRequests()
+
+    val windowedResult = windowedLogsClient.getLogsRollingForward(
+      fromBlock = 0UL.toBlockParameter(),
+      toBlock = 2_999UL.toBlockParameter(),
+      address = address,
+      topics = listOf("0xffaabbcc"),
+      chunkSize = 100u,
+      searchTimeout = 60.seconds,
+    ).get()
+    val windowedChunks = TestingJsonRpcServer.recordedRequests()
+      .map { (request, _) -> request }
+      .filter { it.method == "eth_getLogs" }
+      .map(::parseEthLogsRequest)
+      .map { it.fromBlock..it.toBlock }
+      .sortedBy { it.first }
+
+    assertThat(windowedResult.logs.map { it.blockNumber })
+      .hasSize(30)
+      .isEqualTo(sequentialResult.logs.map { it.blockNumber })
+    assertThat(windowedResult.endBlockNumber).isEqualTo(2_999UL)
+    assertThat(sequentialGetLogsCalls).isEqualTo(30)
+    // each block is searched exactly once
+    assertThat(windowedChunks.flatMap { it.toList() }).isEqualTo((0UL..2_999UL).toList())
+    // the 4 first chunks have the initial size, then at most 6 chunks with logs do not grow the chunk size,
+    // so at most 7 more chunks have less than maxChunkSize blocks
+    assertThat(windowedChunks.size).isLessThanOrEqualTo(16)
+  }
+
+  @Test
+  fun `getLogsRollingForward windowed search splits chunks rejected for too many results`() {
+    setupClientWithTestingJsonRpcServer()
+    TestingJsonRpcServer.handle("eth_getLogs", { request ->
+      val filter = parseEthLogsRequest(request)
+      if (filter.toBlock - filter.fromBlock >= 25UL) {
+        throw JsonRpcError(-32005, "query returned more than 10000 results").asException()
+      }
+      generateLogsForBlockRange(
+        fromBlock = filter.fromBlock.toInt(),
+        toBlock = filter.toBlock.toInt(),
+        topic = filter.topics[0],
+      )
+    })
+    val windowedLogsClient = createWindowedLogsSearcher(
+      EthLogsSearcherImpl.WindowedSearchConfig(
+        maxInFlightRequests = 3u,
+        maxChunkSize = 100u,
+      ),
+    )
+
+    val result = windowedLogsClient.getLogsRollingForward(
+      fromBlock = 0UL.toBlockParameter(),
+      toBlock = 199UL.toBlockParameter(),
+      address = address,
+      topics = listOf("0xffaabbcc"),
+      chunkSize = 100u,
+      searchTimeout = 10.seconds,
+    ).get()
+
+    assertThat(result.logs.map { it.blockNumber }).isEqualTo((0UL..199UL).toList())
+    assertThat(result.endBlockNumber).isEqualTo(199UL)
+  }
+
   companion object {
     private fun generateLogsForBlockRange(
       fromBlock: Int,
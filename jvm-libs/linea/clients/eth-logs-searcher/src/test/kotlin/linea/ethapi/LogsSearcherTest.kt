@@ -11,6 +11,7 @@ import org.junit.jupiter.api.AfterEach
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import kotlin.time.Duration.Companion.hours
+import kotlin.time.Duration.Companion.milliseconds
 import kotlin.time.Duration.Companion.seconds
 
 class LogsSearcherTest {
@@ -211,4 +212,122 @@ class LogsSearcherTest {
 
     assertThat(result.logs).isEmpty()
   }
+
+  private fun createWindowedSearcher(): EthLogsSearcher {
+    return EthLogsSearcherImpl(
+      vertx,
+      fakeElClient,
+      config = EthLogsSearcherImpl.Config(
+        windowedSearch = EthLogsSearcherImpl.WindowedSearchConfig(
+          maxInFlightRequests = 4u,
+          maxChunkSize = 40u,
+          sparseChunkLogsThreshold = 1u,
+          retryBackoffDelay = 1.milliseconds,
+        ),
+      ),
+    )
+  }
+
+  @Test
+  fun `windowed search should return logs within block range in block order`() {
+    fakeElClient.setFinalizedBlockTag(450UL)
+    val result = createWindowedSearcher().getLogsRollingForward(
+      fromBlock = BlockParameter.BlockNumber(10UL),
+      toBlock = BlockParameter.Tag.FINALIZED,
+      address = testAddress,
+      topics = emptyList(),
+      chunkSize = 10U,
+      searchTimeout = 1000000.seconds,
+      stopAfterTargetLogsCount = null,
+    ).get()
+
+    assertThat(result.logs).isEqualTo(initialLogs.take(3))
+    assertThat(result.startBlockNumber).isEqualTo(10UL)
+    assertThat(result.endBlockNumber).isEqualTo(450UL)
+  }
+
+  @Test
+  fun `windowed search should return logs within block range in face of temporary errors`() {
+    fakeElClient.setFinalizedBlockTag(450UL)
+    fakeElClient.setGetLogsBlocksForcedErrorsCounts(
+      mutableMapOf(
+        1UL to 5U,
+        101UL to 5U,
+        201UL to 5U,
+        301UL to 5U,
+      ),
+    )
+    val result = createWindowedSearcher().getLogsRollingForward(
+      fromBlock = BlockParameter.BlockNumber(1UL),
+      toBlock = BlockParameter.Tag.FINALIZED,
+      address = testAddress,
+      topics = emptyList(),
+      chunkSize = 100U,
+      searchTimeout = 1000000.seconds,
+      stopAfterTargetLogsCount = null,
+    ).get()
+
+    assertThat(result.logs).isEqualTo(initialLogs.take(3))
+    assertThat(result.startBlockNumber).isEqualTo(1UL)
+    assertThat(result.endBlockNumber).isEqualTo(450UL)
+  }
+
+  @Test
+  fun `windowed search should stop at the first chunk that reaches stopAfterTargetLogsCount`() {
+    val result = createWindowedSearcher().getLogsRollingForward(
+      fromBlock = BlockParameter.BlockNumber(0UL),
+      toBlock = BlockParameter.BlockNumber(3000UL),
+      address = testAddress,
+      topics = emptyList(),
+      chunkSize = 50U,
+      searchTimeout = 2.hours,
+      stopAfterTargetLogsCount = 1U,
+    ).get()
+
+    assertThat(result.logs).isEqualTo(initialLogs.take(1))
+    assertThat(result.endBlockNumber).isLessThan(300UL)
+  }
+
+  @Test
+  fun `windowed search should return collected chunks when search timeout elapses in face of consistent errors`() {
+    fakeElClient.setFinalizedBlockTag(450UL)
+    fakeElClient.setGetLogsBlocksForcedErrorsCounts(
+      mutableMapOf(
+        401UL to null,
+      ),
+    )
+    val result = createWindowedSearcher().getLogsRollingForward(
+      fromBlock = BlockParameter.BlockNumber(1UL),
+      toBlock = BlockParameter.Tag.FINALIZED,
+      address = testAddress,
+      topics = emptyList(),
+      chunkSize = 100U,
+      searchTimeout = 1.seconds,
+      stopAfterTargetLogsCount = null,
+    ).get()
+
+    assertThat(result.logs).isEqualTo(initialLogs.take(3))
+    assertThat(result.endBlockNumber).isEqualTo(400UL)
+  }
+
+  @Test
+  fun `windowed search should fail when no chunk could be searched before search timeout`() {
+    fakeElClient.setGetLogsBlocksForcedErrorsCounts(
+      mutableMapOf(
+        1UL to null,
+      ),
+    )
+    assertThatThrownBy {
+      createWindowedSearcher().getLogsRollingForward(
+        fromBlock = BlockParameter.BlockNumber(1UL),
+        toBlock = BlockParameter.BlockNumber(450UL),
+        address = testAddress,
+        topics = emptyList(),
+        chunkSize = 100U,
+        searchTimeout = 1.seconds,
+        stopAfterTargetLogsCount = null,
+      ).get()
+    }.hasCauseInstanceOf(IllegalStateException::class.java)
+      .hasMessageContaining("for error testing when calling getLogs")
+  }
 }
@@ -0,0 +1,88 @@
+package linea.ethapi.cursor
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+
+class AdaptiveSearchCursorTest {
+
+  @Test
+  fun `should grow chunk size on sparse chunks up to max chunk size`() {
+    val cursor = AdaptiveSearchCursor(
+      from = 0uL,
+      to = 100uL,
+      initialChunkSize = 10u,
+      maxChunkSize = 30u,
+      sparseChunkLogsThreshold = 5u,
+    )
+
+    assertThat(cursor.next()).isEqualTo(0uL..9uL)
+    cursor.onChunkSearched(logsCount = 0)
+    assertThat(cursor.next()).isEqualTo(10uL..29uL)
+    cursor.onChunkSearched(logsCount = 5)
+    assertThat(cursor.next()).isEqualTo(30uL..49uL)
+    cursor.onChunkSearched(logsCount = 4)
+    assertThat(cursor.next()).isEqualTo(50uL..79uL)
+    cursor.onChunkSearched(logsCount = 1)
+    assertThat(cursor.next()).isEqualTo(80uL..100uL)
+    assertThat(cursor.hasNext()).isFalse()
+    assertThrows<NoSuchElementException> { cursor.next() }
+  }
+
+  @Test
+  fun `should split chunks with too many results and hand them out first`() {
+    val cursor = AdaptiveSearchCursor(
+      from = 0uL,
+      to = 55uL,
+      initialChunkSize = 20u,
+      maxChunkSize = 20u,
+      sparseChunkLogsThreshold = 1u,
+    )
+
+    val firstChunk = cursor.next()
+    assertThat(firstChunk).isEqualTo(0uL..19uL)
+    assertThat(cursor.next()).isEqualTo(20uL..39uL)
+
+    assertThat(cursor.splitChunk(firstChunk)).isTrue()
+    assertThat(cursor.chunkSize).isEqualTo(10uL)
+    assertThat(cursor.next()).isEqualTo(0uL..9uL)
+    assertThat(cursor.next()).isEqualTo(10uL..19uL)
+    assertThat(cursor.next()).isEqualTo(40uL..49uL)
+
+    cursor.retryChunk(20uL..39uL)
+    assertThat(cursor.next()).isEqualTo(20uL..39uL)
+    assertThat(cursor.next()).isEqualTo(50uL..55uL)
+    assertThat(cursor.hasNext()).isFalse()
+  }
+
+  @Test
+  fun `should not split single block chunks`() {
+    val cursor = AdaptiveSearchCursor(
+      from = 10uL,
+      to = 10uL,
+      initialChunkSize = 1u,
+      maxChunkSize = 1u,
+      sparseChunkLogsThreshold = 1u,
+    )
+
+    val chunk = cursor.next()
+    assertThat(chunk).isEqualTo(10uL..10uL)
+    assertThat(cursor.splitChunk(chunk)).isFalse()
+    assertThat(cursor.hasNext()).isFalse()
+  }
+
+  @Test
+  fun `should not overflow when searching up to the last block number`() {
+    val cursor = AdaptiveSearchCursor(
+      from = ULong.MAX_VALUE - 15uL,
+      to = ULong.MAX_VALUE,
+      initialChunkSize = 10u,
+      maxChunkSize = 10u,
+      sparseChunkLogsThreshold = 1u,
+    )
+
+    assertThat(cursor.next()).isEqualTo((ULong.MAX_VALUE - 15uL)..(ULong.MAX_VALUE - 6uL))
+    assertThat(cursor.next()).isEqualTo((ULong.MAX_VALUE - 5uL)..ULong.MAX_VALUE)
+    assertThat(cursor.hasNext()).isFalse()
+  }
+}
@@ -36,6 +36,18 @@ interface LineaRollupSmartContractClientReadOnly : ContractVersionProvider<Linea
     shnarf: ByteArray,
   ): SafeFuture<Boolean>
 
+  /**
+   * Checks which of the given blobs' shnarfs are already present in the smart contract, all at the same block.
+   * Returns a flag per shnarf, in the same order.
+   * Implementations should check them in as few requests as possible.
+   */
+  fun areBlobShnarfsPresent(
+    blockParameter: BlockParameter = BlockParameter.Tag.LATEST,
+    shnarfs: List<ByteArray>,
+  ): SafeFuture<List<Boolean>> {
+    return SafeFuture.collectAll(shnarfs.map { isBlobShnarfPresent(blockParameter, it) }.stream())
+  }
+
   /**
    * Gets Type 2 StateRootHash for Linea Block
    */
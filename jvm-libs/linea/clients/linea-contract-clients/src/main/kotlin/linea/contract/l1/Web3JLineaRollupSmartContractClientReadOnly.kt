@@ -9,11 +9,19 @@ import linea.web3j.domain.toWeb3j
 import net.consensys.linea.async.toSafeFuture
 import org.apache.logging.log4j.LogManager
 import org.apache.logging.log4j.Logger
+import org.web3j.abi.FunctionEncoder
+import org.web3j.abi.TypeReference
+import org.web3j.abi.datatypes.Function
+import org.web3j.abi.datatypes.generated.Bytes32
+import org.web3j.abi.datatypes.generated.Uint256
 import org.web3j.crypto.Credentials
 import org.web3j.protocol.Web3j
+import org.web3j.protocol.core.methods.request.Transaction
+import org.web3j.protocol.core.methods.response.EthCall
 import org.web3j.tx.Contract
 import org.web3j.tx.exceptions.ContractCallException
 import org.web3j.tx.gas.StaticGasProvider
+import org.web3j.utils.Numeric
 import tech.pegasys.teku.infrastructure.async.SafeFuture
 import java.math.BigInteger
 import java.util.concurrent.atomic.AtomicReference
@@ -127,6 +135,51 @@ open class Web3JLineaRollupSmartContractClientReadOnly(
       }
   }
 
+  /**
+   * Sends all the blobShnarfExists calls in a single JSON-RPC batch request
+   */
+  override fun areBlobShnarfsPresent(
+    blockParameter: BlockParameter,
+    shnarfs: List<ByteArray>,
+  ): SafeFuture<List<Boolean>> {
+    if (shnarfs.isEmpty()) {
+      return SafeFuture.completedFuture(emptyList())
+    }
+    val batch = web3j.newBatch()
+    val requests = shnarfs.map { shnarf ->
+      web3j.ethCall(
+        Transaction.createEthCallTransaction(
+          null,
+          contractAddress,
+          FunctionEncoder.encode(blobShnarfExistsFunction(shnarf)),
+        ),
+        blockParameter.toWeb3j(),
+      ).also(batch::add)
+    }
+    return batch.sendAsync()
+      .toSafeFuture()
+      .thenApply { batchResponse ->
+        // JSON-RPC batch responses may come in any order
+        val responsesById = batchResponse.responses.associateBy { it.id }
+        requests.map { request ->
+          val response = responsesById[request.id] as EthCall?
+            ?: throw IllegalStateException("Missing blobShnarfExists response for request id=${request.id}")
+          if (response.hasError()) {
+            throw ContractCallException("blobShnarfExists call failed: ${response.error.message}")
+          }
+          Numeric.toBigInt(response.value) != BigInteger.ZERO
+        }
+      }
+  }
+
+  private fun blobShnarfExistsFunction(shnarf: ByteArray): Function {
+    return Function(
+      LineaRollupV6.FUNC_BLOBSHNARFEXISTS,
+      listOf(Bytes32(shnarf)),
+      listOf(object : TypeReference<Uint256>() {}),
+    )
+  }
+
   override fun blockStateRootHash(blockParameter: BlockParameter, lineaL2BlockNumber: ULong): SafeFuture<ByteArray> {
     return contractClientAtBlock(blockParameter)
       .stateRootHashes(lineaL2BlockNumber.toBigInteger()).sendAsync()
@@ -8,6 +8,7 @@ data class RetryConfig(
   val timeout: Duration? = null,
   val backoffDelay: Duration = 100.milliseconds,
   val failuresWarningThreshold: UInt = 0u,
+  val maxBackoffDelay: Duration? = null,
 ) {
   val isRetryDisabled = maxRetries == 0u || timeout == 0.milliseconds
   val isRetryEnabled: Boolean = !isRetryDisabled
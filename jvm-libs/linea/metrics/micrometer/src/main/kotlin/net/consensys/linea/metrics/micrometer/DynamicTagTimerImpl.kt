@@ -2,11 +2,13 @@ package net.consensys.linea.metrics.micrometer
 
 import io.micrometer.core.instrument.Clock
 import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Tags
 import io.micrometer.core.instrument.Timer
 import net.consensys.linea.metrics.DynamicTagTimer
 import net.consensys.linea.metrics.Tag
 import java.util.concurrent.Callable
 import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
 import io.micrometer.core.instrument.Timer as MicrometerTimer
 
 /**
@@ -15,33 +17,40 @@ import io.micrometer.core.instrument.Timer as MicrometerTimer
  * due to limitations of Micrometer design, thus, this class is not suitable for the precise
  * nanosecond-level measurements. Related issue:
  * https://github.com/micrometer-metrics/micrometer/issues/535
+ *
+ * Timers are registered once per distinct set of dynamic tags and then reused,
+ * so the tags are only validated and looked up in the meter registry the first time they are seen.
  */
 class DynamicTagTimerImpl<T> (
   private val meterRegistry: MeterRegistry,
-  name: String,
-  description: String,
+  private val name: String,
+  private val description: String,
   commonTags: List<Tag>,
   private val clock: Clock = Clock.SYSTEM,
   private val extractor: (T) -> List<Tag>,
   private val extractorOnError: (Throwable) -> List<Tag>,
 ) : DynamicTagTimer<T> {
 
-  private val timerBuilder: MicrometerTimer.Builder = MicrometerTimer.builder(name)
-    .description(description)
-    .tags(*commonTags.flatMap { listOf(it.key, it.value) }.toTypedArray())
+  private val commonMicrometerTags: Tags = Tags.of(commonTags.toMicrometerTags())
+
+  // by dynamic tags
+  private val timers = ConcurrentHashMap<List<Tag>, MicrometerTimer>()
 
   private fun getTimer(dynamicTags: List<Tag>): MicrometerTimer {
-    dynamicTags.forEach { it.requireValidMicrometerName() }
-    return timerBuilder
-      .tags(*dynamicTags.flatMap { listOf(it.key, it.value) }.toTypedArray())
-      .register(meterRegistry)
+    // the extracted tags are copied as they may be a mutable list
+    return timers[dynamicTags] ?: timers.computeIfAbsent(dynamicTags.toList()) {
+      dynamicTags.forEach { it.requireValidMicrometerName() }
+      MicrometerTimer.builder(name)
+        .description(description)
+        .tags(commonMicrometerTags.and(dynamicTags.toMicrometerTags()))
+        .register(meterRegistry)
+    }
   }
 
   override fun captureTime(f: CompletableFuture<T>): CompletableFuture<T> {
     val timerSample = Timer.start(clock)
     f.whenComplete { result: T?, error: Throwable? ->
       val dynamicTags = result?.let { extractor.invoke(it) } ?: extractorOnError.invoke(error!!)
-      dynamicTags.forEach { it.requireValidMicrometerName() }
       val timer = getTimer(dynamicTags)
       timerSample.stop(timer)
     }
@@ -55,7 +64,6 @@ class DynamicTagTimerImpl<T> (
       onSuccess = { extractor.invoke(it) },
       onFailure = { extractorOnError.invoke(it) },
     )
-    dynamicTags.forEach { it.requireValidMicrometerName() }
     val timer = getTimer(dynamicTags)
     timerSample.stop(timer)
     return result.getOrThrow()
@@ -1,5 +1,6 @@
 package net.consensys.linea.metrics.micrometer
 
+import java.util.concurrent.CopyOnWriteArraySet
 import java.util.function.Supplier
 
 /**
@@ -10,16 +11,17 @@ import java.util.function.Supplier
  * but if the supplier is a lambda, it will be garbage collected and the value will be lost.
  * Reporters are expected to be long-lived objects for the whole application lifespan
  * so it should not be a problem.
+ *
+ * Reporters are rarely added, so they are kept in a copy on write set: reads sum a snapshot of the reporters
+ * without locking, and are not blocked by each other or by a slow reporter.
  */
 class GaugeAggregator : Supplier<Number> {
-  private val reporters = mutableSetOf<Supplier<Number>>()
+  private val reporters = CopyOnWriteArraySet<Supplier<Number>>()
 
-  @Synchronized
   fun addReporter(reporter: Supplier<Number>) {
     reporters.add(reporter)
   }
 
-  @Synchronized
   override fun get(): Number {
     return reporters.sumOf { it.get().toLong() }
   }
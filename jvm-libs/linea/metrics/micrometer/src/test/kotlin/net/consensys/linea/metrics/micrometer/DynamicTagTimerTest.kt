@@ -131,4 +131,61 @@ internal class DynamicTagTimerTest {
     assertThat(createdMeter.id.tags[0].key).isEqualTo("method")
     assertThat(createdMeter.id.tags[0].value).isEqualTo("eth_blockNumber_failure")
   }
+
+  @Test
+  fun itReusesTheTimerOfEachDynamicTagSet() {
+    val meterRegistry: MeterRegistry = SimpleMeterRegistry()
+    val timer = DynamicTagTimerImpl<String>(
+      meterRegistry = meterRegistry,
+      name = "request.counter",
+      description = "API request counter",
+      extractor = { listOf(Tag(key = "method", value = it)) },
+      extractorOnError = { listOf(Tag(key = "method", value = "failure")) },
+      commonTags = listOf(Tag(key = "client", value = "l1")),
+    )
+    repeat(3) { timer.captureTime { "eth_blockNumber" } }
+    repeat(2) { timer.captureTime { "eth_call" } }
+
+    val createdMeters = meterRegistry.find("request.counter").timers()
+    assertThat(createdMeters.map { it.id.getTag("method") to it.count() })
+      .containsExactlyInAnyOrder("eth_blockNumber" to 3L, "eth_call" to 2L)
+    assertThat(createdMeters.map { it.id.getTag("client") }).containsOnly("l1")
+
+    val timerWithInvalidTag = DynamicTagTimerImpl<String>(
+      meterRegistry = meterRegistry,
+      name = "request.counter",
+      description = "API request counter",
+      extractor = { listOf(Tag(key = "Invalid_Key", value = it)) },
+      extractorOnError = { emptyList() },
+      commonTags = emptyList(),
+    )
+    repeat(2) {
+      assertThrows<IllegalArgumentException> { timerWithInvalidTag.captureTime { "eth_call" } }
+    }
+  }
+
+  @Test
+  fun itKeysTimersByACopyOfTheExtractedTags() {
+    val meterRegistry: MeterRegistry = SimpleMeterRegistry()
+    // extractor reusing the same mutable list for every call
+    val extractedTags = mutableListOf<Tag>()
+    val timer = DynamicTagTimerImpl<String>(
+      meterRegistry = meterRegistry,
+      name = "request.counter",
+      description = "API request counter",
+      extractor = { method ->
+        extractedTags.clear()
+        extractedTags.add(Tag(key = "method", value = method))
+        extractedTags
+      },
+      extractorOnError = { emptyList() },
+      commonTags = emptyList(),
+    )
+    timer.captureTime { "eth_blockNumber" }
+    timer.captureTime { "eth_call" }
+    timer.captureTime { "eth_blockNumber" }
+
+    assertThat(meterRegistry.find("request.counter").timers().map { it.id.getTag("method") to it.count() })
+      .containsExactlyInAnyOrder("eth_blockNumber" to 2L, "eth_call" to 1L)
+  }
 }
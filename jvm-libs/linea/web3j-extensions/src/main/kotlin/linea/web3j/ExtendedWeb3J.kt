@@ -2,11 +2,13 @@ package linea.web3j
 
 import linea.domain.Block
 import linea.domain.BlockParameter
+import linea.kotlin.toULong
 import linea.web3j.domain.toWeb3j
 import net.consensys.linea.async.toSafeFuture
 import org.web3j.protocol.Web3j
 import org.web3j.protocol.core.DefaultBlockParameter
 import org.web3j.protocol.core.Response
+import org.web3j.protocol.core.methods.response.EthBlock
 import tech.pegasys.teku.infrastructure.async.SafeFuture
 import java.math.BigInteger
 
@@ -20,8 +22,16 @@ interface ExtendedWeb3J {
   fun ethGetBlock(blockParameter: BlockParameter): SafeFuture<Block?>
   fun ethGetBlockTimestampByNumber(blockNumber: Long): SafeFuture<BigInteger>
   fun ethGetBlockSizeByNumber(blockNumber: Long): SafeFuture<BigInteger>
+  fun ethGetBlockSizeAndHashesByNumber(blockNumber: Long): SafeFuture<BlockSizeAndHashes>
 }
 
+data class BlockSizeAndHashes(
+  val number: ULong,
+  val hash: String,
+  val parentHash: String,
+  val size: BigInteger,
+)
+
 class ExtendedWeb3JImpl(override val web3jClient: Web3j) : ExtendedWeb3J {
 
   private fun buildException(error: Response.Error): Exception =
@@ -59,28 +69,32 @@ class ExtendedWeb3JImpl(override val web3jClient: Web3j) : ExtendedWeb3J {
   override fun ethGetBlockTimestampByNumber(
     blockNumber: Long,
   ): SafeFuture<BigInteger> {
-    return SafeFuture.of(
-      web3jClient
-        .ethGetBlockByNumber(
-          DefaultBlockParameter.valueOf(BigInteger.valueOf(blockNumber)),
-          false,
-        )
-        .sendAsync(),
-    )
-      .thenCompose { response ->
-        if (response.hasError()) {
-          SafeFuture.failedFuture(buildException(response.error))
-        } else {
-          response.block?.let {
-            SafeFuture.completedFuture(response.block.timestamp)
-          } ?: SafeFuture.failedFuture(Exception("Block $blockNumber not found!"))
-        }
-      }
+    return ethGetBlockWithoutTransactionsByNumber(blockNumber).thenApply { block -> block.timestamp }
   }
 
   override fun ethGetBlockSizeByNumber(
     blockNumber: Long,
   ): SafeFuture<BigInteger> {
+    return ethGetBlockWithoutTransactionsByNumber(blockNumber).thenApply { block -> block.size }
+  }
+
+  override fun ethGetBlockSizeAndHashesByNumber(
+    blockNumber: Long,
+  ): SafeFuture<BlockSizeAndHashes> {
+    return ethGetBlockWithoutTransactionsByNumber(blockNumber)
+      .thenApply { block ->
+        BlockSizeAndHashes(
+          number = block.number.toULong(),
+          hash = block.hash,
+          parentHash = block.parentHash,
+          size = block.size,
+        )
+      }
+  }
+
+  private fun ethGetBlockWithoutTransactionsByNumber(
+    blockNumber: Long,
+  ): SafeFuture<EthBlock.Block> {
     return SafeFuture.of(
       web3jClient
         .ethGetBlockByNumber(
@@ -94,7 +108,7 @@ class ExtendedWeb3JImpl(override val web3jClient: Web3j) : ExtendedWeb3J {
           SafeFuture.failedFuture(buildException(response.error))
         } else {
           response.block?.let {
-            SafeFuture.completedFuture(response.block.size)
+            SafeFuture.completedFuture(response.block)
           } ?: SafeFuture.failedFuture(Exception("Block $blockNumber not found!"))
         }
       }
@@ -27,6 +27,7 @@ class Web3jEthApiClientWithRetries(
       backoffDelay = requestRetryConfig.backoffDelay,
       timeout = requestRetryConfig.timeout,
       maxRetries = requestRetryConfig.maxRetries?.toInt(),
+      maxBackoffDelay = requestRetryConfig.maxBackoffDelay,
       stopRetriesOnErrorPredicate = stopRetriesOnErrorPredicate::test,
       action = fn,
     )
@@ -32,7 +32,7 @@ import kotlin.random.Random
 @ExtendWith(VertxExtension::class)
 class TransactionExclusionAppTest : CleanDbTestSuiteParallel() {
   init {
-    target = "3"
+    target = "4"
   }
 
   override var databaseName = DbHelper.generateUniqueDbName("tx-exclusion-api-app-tests")
@@ -12,6 +12,7 @@ import net.consensys.linea.metrics.micrometer.MicrometerMetricsFacade
 import net.consensys.linea.transactionexclusion.TransactionExclusionServiceV1
 import net.consensys.linea.transactionexclusion.app.api.Api
 import net.consensys.linea.transactionexclusion.app.api.ApiConfig
+import net.consensys.linea.transactionexclusion.service.RecentRejectionsIndex
 import net.consensys.linea.transactionexclusion.service.RejectedTransactionCleanupService
 import net.consensys.linea.transactionexclusion.service.TransactionExclusionServiceV1Impl
 import net.consensys.linea.vertx.loadVertxConfig
@@ -36,6 +37,7 @@ data class DbConnectionConfig(
 data class DbCleanupConfig(
   val pollingInterval: Duration,
   val storagePeriod: Duration,
+  val deleteBatchSize: Int = 1_000,
 )
 
 data class DatabaseConfig(
@@ -49,10 +51,20 @@ data class DatabaseConfig(
   val transactionalPoolSize: Int = 10,
 )
 
+/**
+ * Enables the in-memory index of recent rejections, only valid when a single instance of the app saves
+ * rejected transactions.
+ */
+data class RecentRejectionsIndexConfig(
+  val maxCachedTransactions: Int = 10_000,
+  val expectedRejectionsInQueryableWindow: Int = 1_000_000,
+)
+
 data class AppConfig(
   val api: ApiConfig,
   val database: DatabaseConfig,
   val dataQueryableWindowSinceRejectedTimestamp: Duration,
+  val recentRejectionsIndex: RecentRejectionsIndexConfig? = null,
 )
 
 data class PersistenceRetryConfig(
@@ -71,6 +83,7 @@ class TransactionExclusionApp(config: AppConfig) {
   private val rejectedTransactionsRepository: RejectedTransactionsDao
   private val transactionExclusionService: TransactionExclusionServiceV1
   private val rejectedTransactionCleanupService: RejectedTransactionCleanupService
+  private val recentRejectionsIndex: RecentRejectionsIndex?
   private val micrometerMetricsFacade: MicrometerMetricsFacade
   val apiBindedPort: Int
     get() = api.bindedPort
@@ -100,6 +113,9 @@ class TransactionExclusionApp(config: AppConfig) {
       delegate = RejectedTransactionsPostgresDao(
         readConnection = this.sqlReadClient,
         writeConnection = this.sqlWriteClient,
+        config = RejectedTransactionsPostgresDao.Config(
+          deleteBatchSize = config.database.cleanup.deleteBatchSize,
+        ),
       ),
       persistenceRetryer = PersistenceRetryer(
         vertx = vertx,
@@ -110,12 +126,22 @@ class TransactionExclusionApp(config: AppConfig) {
         ),
       ),
     )
+    this.recentRejectionsIndex = config.recentRejectionsIndex?.let {
+      RecentRejectionsIndex(
+        config = RecentRejectionsIndex.Config(
+          rejectedTimestampWithinDuration = config.dataQueryableWindowSinceRejectedTimestamp.toKotlinDuration(),
+          maxCachedTransactions = it.maxCachedTransactions,
+          expectedRejectionsInWindow = it.expectedRejectionsInQueryableWindow,
+        ),
+      )
+    }
     this.transactionExclusionService = TransactionExclusionServiceV1Impl(
       config = TransactionExclusionServiceV1Impl.Config(
         config.dataQueryableWindowSinceRejectedTimestamp.toKotlinDuration(),
       ),
       repository = this.rejectedTransactionsRepository,
       metricsFacade = this.micrometerMetricsFacade,
+      recentRejectionsIndex = this.recentRejectionsIndex,
     )
     this.rejectedTransactionCleanupService = RejectedTransactionCleanupService(
       config = RejectedTransactionCleanupService.Config(
@@ -123,6 +149,7 @@ class TransactionExclusionApp(config: AppConfig) {
         storagePeriod = config.database.cleanup.storagePeriod.toKotlinDuration(),
       ),
       repository = this.rejectedTransactionsRepository,
+      metricsFacade = this.micrometerMetricsFacade,
       vertx = this.vertx,
     )
     this.api =
@@ -136,6 +163,10 @@ class TransactionExclusionApp(config: AppConfig) {
 
   fun start(): Future<*> {
     log.info("Starting up app..")
+    // lookups fall back to the database until the index is loaded
+    recentRejectionsIndex?.load(rejectedTransactionsRepository)
+      ?.thenPeek { log.info("Recent rejections index loaded") }
+      ?.whenException { log.error("Failed to load recent rejections index: errorMessage={}", it.message, it) }
     return api.start().toSafeFuture()
       .thenCompose { rejectedTransactionCleanupService.start() }
       .thenPeek {
@@ -159,7 +190,7 @@ class TransactionExclusionApp(config: AppConfig) {
     readPipeliningLimit: Int,
     skipMigration: Boolean = false,
   ): SqlClient {
-    val dbVersion = "3"
+    val dbVersion = "4"
     if (!skipMigration) {
       Db.applyDbMigrations(
         host = connectionConfig.host,
@@ -0,0 +1,216 @@
+package net.consensys.linea.transactionexclusion.service
+
+import kotlinx.datetime.Clock
+import kotlinx.datetime.Instant
+import linea.kotlin.encodeHex
+import net.consensys.linea.transactionexclusion.RejectedTransaction
+import net.consensys.zkevm.persistence.dao.rejectedtransaction.RejectedTransactionsDao
+import tech.pegasys.teku.infrastructure.async.SafeFuture
+import java.nio.ByteBuffer
+import kotlin.math.ceil
+import kotlin.math.ln
+import kotlin.math.max
+import kotlin.math.roundToInt
+import kotlin.time.Duration
+import kotlin.time.Duration.Companion.milliseconds
+
+/**
+ * In-memory index of the recently rejected transactions, answering most exclusion status lookups without
+ * querying the database:
+ * - a bounded LRU map of the most recent rejection of the recently saved or looked up transactions
+ * - Bloom filters of the hashes of all the transactions rejected within the queryable window,
+ * one per slice of the window so the slices leaving it can be dropped
+ *
+ * A lookup is answered from memory when the hash is in the map with all its rejections within the window known,
+ * or when the Bloom filters do not contain it. Otherwise, the hash was rejected within the window but evicted from
+ * the map, or is a false positive, and the lookup falls back to the database.
+ *
+ * The index only knows the rejections saved through this instance after it was loaded, so it must only be used
+ * when a single instance of the service saves the rejected transactions, and rejected transactions
+ * must be stored at least as long as the queryable window.
+ */
+class RecentRejectionsIndex(
+  private val config: Config,
+  private val clock: Clock = Clock.System,
+) {
+  data class Config(
+    val rejectedTimestampWithinDuration: Duration,
+    val maxCachedTransactions: Int,
+    val expectedRejectionsInWindow: Int,
+    val bloomFilterFalsePositiveRate: Double = 0.01,
+    val bloomFiltersCount: Int = 8,
+  ) {
+    init {
+      require(rejectedTimestampWithinDuration.isPositive()) { "rejectedTimestampWithinDuration must be positive" }
+      require(maxCachedTransactions > 0) { "maxCachedTransactions must be greater than 0" }
+      require(expectedRejectionsInWindow > 0) { "expectedRejectionsInWindow must be greater than 0" }
+      require(bloomFilterFalsePositiveRate > 0.0 && bloomFilterFalsePositiveRate < 1.0) {
+        "bloomFilterFalsePositiveRate must be between 0 and 1"
+      }
+      require(bloomFiltersCount > 0) { "bloomFiltersCount must be greater than 0" }
+    }
+  }
+
+  sealed interface LookupResult {
+    data class Rejected(val rejectedTransaction: RejectedTransaction) : LookupResult
+    data object NotRejected : LookupResult
+    data object Unknown : LookupResult
+  }
+
+  private data class CachedRejection(
+    val mostRecentRejection: RejectedTransaction?,
+    // false when rejections of the transaction may exist in the database without being known by the index
+    val isComplete: Boolean,
+  )
+
+  private val bloomFilterSpanMillis =
+    max(1L, config.rejectedTimestampWithinDuration.inWholeMilliseconds / config.bloomFiltersCount)
+  private val expectedRejectionsPerBloomFilter =
+    max(1, ceil(config.expectedRejectionsInWindow.toDouble() / config.bloomFiltersCount).toInt())
+
+  private val cachedRejections = object : LinkedHashMap<String, CachedRejection>(16, 0.75f, true) {
+    override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, CachedRejection>?): Boolean {
+      return size > config.maxCachedTransactions
+    }
+  }
+
+  // by index of the window slice of the rejection timestamps
+  private val bloomFilters = sortedMapOf<Long, BloomFilter>()
+
+  // all the rejections since this timestamp are known by the Bloom filters, null until the index is loaded
+  private var coveredSince: Instant? = null
+  private var savesCount = 0L
+
+  /**
+   * Loads the hashes of the transactions rejected within the queryable window, lookups return Unknown until then.
+   * Rejections saved while loading are recorded with onSaved.
+   */
+  fun load(repository: RejectedTransactionsDao): SafeFuture<Unit> {
+    val loadedSince = clock.now()
+      .minus(config.rejectedTimestampWithinDuration)
+      .minus(bloomFilterSpanMillis.milliseconds)
+    return repository.findRejectedTransactionHashes(notRejectedBefore = loadedSince)
+      .thenApply { rejections ->
+        synchronized(this) {
+          rejections.forEach { (txHash, rejectedTimestamp) -> addToBloomFilters(txHash, rejectedTimestamp) }
+          coveredSince = loadedSince
+        }
+      }
+  }
+
+  @Synchronized
+  fun onSaved(rejectedTransaction: RejectedTransaction) {
+    savesCount++
+    val coveredSince = this.coveredSince
+    val txHash = rejectedTransaction.transactionInfo.hash
+    val key = txHash.encodeHex()
+    val cachedRejection = cachedRejections[key]
+    if (cachedRejection == null) {
+      cachedRejections[key] = CachedRejection(
+        mostRecentRejection = rejectedTransaction,
+        isComplete = coveredSince != null && !mightContain(txHash, notRejectedBefore = coveredSince),
+      )
+    } else if (cachedRejection.mostRecentRejection == null ||
+      cachedRejection.mostRecentRejection.timestamp < rejectedTransaction.timestamp
+    ) {
+      cachedRejections[key] = cachedRejection.copy(mostRecentRejection = rejectedTransaction)
+    }
+    addToBloomFilters(txHash, rejectedTransaction.timestamp)
+  }
+
+  /**
+   * Returns the most recent rejection of the transaction not rejected before notRejectedBefore,
+   * or Unknown if the database must be queried.
+   */
+  @Synchronized
+  fun find(txHash: ByteArray, notRejectedBefore: Instant): LookupResult {
+    val coveredSince = this.coveredSince
+    if (coveredSince == null || notRejectedBefore < coveredSince) {
+      return LookupResult.Unknown
+    }
+    val cachedRejection = cachedRejections[txHash.encodeHex()]
+    return if (cachedRejection != null && cachedRejection.isComplete) {
+      val mostRecentRejection = cachedRejection.mostRecentRejection
+      if (mostRecentRejection != null && mostRecentRejection.timestamp >= notRejectedBefore) {
+        LookupResult.Rejected(mostRecentRejection)
+      } else {
+        LookupResult.NotRejected
+      }
+    } else if (!mightContain(txHash, notRejectedBefore)) {
+      LookupResult.NotRejected
+    } else {
+      LookupResult.Unknown
+    }
+  }
+
+  /**
+   * Returns a token to pass to onQueried with the result of a database lookup, so the result is only cached
+   * if no rejection was saved while the database was queried.
+   */
+  @Synchronized
+  fun beforeQuery(): Long = savesCount
+
+  @Synchronized
+  fun onQueried(txHash: ByteArray, mostRecentRejection: RejectedTransaction?, beforeQueryToken: Long) {
+    if (coveredSince != null && beforeQueryToken == savesCount) {
+      cachedRejections[txHash.encodeHex()] = CachedRejection(mostRecentRejection, isComplete = true)
+    }
+  }
+
+  private fun bloomFilterIndex(timestamp: Instant): Long = timestamp.toEpochMilliseconds() / bloomFilterSpanMillis
+
+  private fun addToBloomFilters(txHash: ByteArray, rejectedTimestamp: Instant) {
+    val oldestBloomFilterIndex = bloomFilterIndex(
+      clock.now().minus(config.rejectedTimestampWithinDuration),
+    ) - 1
+    bloomFilters.headMap(oldestBloomFilterIndex).clear()
+    val bloomFilterIndex = bloomFilterIndex(rejectedTimestamp)
+    if (bloomFilterIndex >= oldestBloomFilterIndex) {
+      bloomFilters
+        .getOrPut(bloomFilterIndex) {
+          BloomFilter(expectedRejectionsPerBloomFilter, config.bloomFilterFalsePositiveRate)
+        }
+        .add(txHash)
+    }
+  }
+
+  private fun mightContain(txHash: ByteArray, notRejectedBefore: Instant): Boolean {
+    return bloomFilters.tailMap(bloomFilterIndex(notRejectedBefore)).values.any { it.mightContain(txHash) }
+  }
+
+  private class BloomFilter(expectedInsertions: Int, falsePositiveRate: Double) {
+    private val bitsCount: Long =
+      max(64L, ceil(-expectedInsertions * ln(falsePositiveRate) / (ln(2.0) * ln(2.0))).toLong())
+    private val hashFunctionsCount: Int =
+      max(1, (bitsCount.toDouble() / expectedInsertions * ln(2.0)).roundToInt())
+    private val bits = LongArray(((bitsCount + 63) / 64).toInt())
+
+    fun add(txHash: ByteArray) {
+      forEachBitIndex(txHash) { bitIndex ->
+        bits[(bitIndex ushr 6).toInt()] = bits[(bitIndex ushr 6).toInt()] or (1L shl (bitIndex and 63).toInt())
+      }
+    }
+
+    fun mightContain(txHash: ByteArray): Boolean {
+      var mightContain = true
+      forEachBitIndex(txHash) { bitIndex ->
+        if (bits[(bitIndex ushr 6).toInt()] and (1L shl (bitIndex and 63).toInt()) == 0L) {
+          mightContain = false
+        }
+      }
+      return mightContain
+    }
+
+    // tx hashes are keccak hashes, so their first bytes are used as is by double hashing
+    private inline fun forEachBitIndex(txHash: ByteArray, action: (Long) -> Unit) {
+      val (hash1, hash2) = if (txHash.size >= 16) {
+        ByteBuffer.wrap(txHash).let { it.getLong(0) to it.getLong(8) }
+      } else {
+        txHash.contentHashCode().toLong().let { it * -0x61c8864680b583ebL to it * 0x27d4eb2f165667c5L }
+      }
+      for (i in 0 until hashFunctionsCount) {
+        action(Math.floorMod(hash1 + i * hash2, bitsCount))
+      }
+    }
+  }
+}
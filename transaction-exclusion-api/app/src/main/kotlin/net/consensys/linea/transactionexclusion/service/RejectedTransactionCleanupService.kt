@@ -2,6 +2,8 @@ package net.consensys.linea.transactionexclusion.service
 
 import io.vertx.core.Vertx
 import kotlinx.datetime.Clock
+import net.consensys.linea.metrics.MetricsFacade
+import net.consensys.linea.transactionexclusion.metrics.LineaMetricsCategory
 import net.consensys.zkevm.PeriodicPollingService
 import net.consensys.zkevm.persistence.dao.rejectedtransaction.RejectedTransactionsDao
 import org.apache.logging.log4j.LogManager
@@ -13,6 +15,7 @@ class RejectedTransactionCleanupService(
   vertx: Vertx,
   private val config: Config,
   private val repository: RejectedTransactionsDao,
+  metricsFacade: MetricsFacade,
   private val clock: Clock = Clock.System,
   private val log: Logger = LogManager.getLogger(RejectedTransactionCleanupService::class.java),
 ) : PeriodicPollingService(
@@ -25,11 +28,25 @@ class RejectedTransactionCleanupService(
     val storagePeriod: Duration,
   )
 
+  private val cleanupTimer = metricsFacade.createTimer(
+    category = LineaMetricsCategory.TX_EXCLUSION_API,
+    name = "transactions.cleanup.duration",
+    description = "Duration of the deletion of the rejected transactions exceeding the storage period",
+  )
+  private val deletedRowsCounter = metricsFacade.createCounter(
+    category = LineaMetricsCategory.TX_EXCLUSION_API,
+    name = "transactions.cleanup.deleted",
+    description = "Counter of rejected transactions deleted as they exceeded the storage period",
+  )
+
   override fun action(): SafeFuture<*> {
-    return this.repository.deleteRejectedTransactions(
+    val cleanup = this.repository.deleteRejectedTransactions(
       clock.now().minus(config.storagePeriod),
-    ).thenPeek { deletedRows ->
+    )
+    cleanupTimer.captureTime(cleanup)
+    return cleanup.thenPeek { deletedRows ->
       if (deletedRows > 0) {
+        deletedRowsCounter.increment(deletedRows.toDouble())
         log.debug("deletedRows=$deletedRows")
       }
     }
@@ -21,6 +21,7 @@ class TransactionExclusionServiceV1Impl(
   private val repository: RejectedTransactionsDao,
   metricsFacade: MetricsFacade,
   private val clock: Clock = Clock.System,
+  private val recentRejectionsIndex: RecentRejectionsIndex? = null,
 ) : TransactionExclusionServiceV1 {
   data class Config(
     val rejectedTimestampWithinDuration: Duration,
@@ -51,6 +52,7 @@ class TransactionExclusionServiceV1Impl(
           }
         } else {
           txRejectionCounter.increment()
+          recentRejectionsIndex?.onSaved(rejectedTransaction)
           SafeFuture.completedFuture(Ok(SaveRejectedTransactionStatus.SAVED))
         }
       }
@@ -59,9 +61,18 @@ class TransactionExclusionServiceV1Impl(
   override fun getTransactionExclusionStatus(
     txHash: ByteArray,
   ): SafeFuture<Result<RejectedTransaction?, TransactionExclusionError>> {
+    val notRejectedBefore = clock.now().minus(config.rejectedTimestampWithinDuration)
+    when (val lookupResult = recentRejectionsIndex?.find(txHash, notRejectedBefore)) {
+      is RecentRejectionsIndex.LookupResult.Rejected ->
+        return SafeFuture.completedFuture(Ok(lookupResult.rejectedTransaction))
+      RecentRejectionsIndex.LookupResult.NotRejected ->
+        return SafeFuture.completedFuture(Ok(null))
+      RecentRejectionsIndex.LookupResult.Unknown, null -> Unit
+    }
+    val beforeQueryToken = recentRejectionsIndex?.beforeQuery()
     return this.repository.findRejectedTransactionByTxHash(
       txHash = txHash,
-      notRejectedBefore = clock.now().minus(config.rejectedTimestampWithinDuration),
+      notRejectedBefore = notRejectedBefore,
     )
       .handleComposed { result, error ->
         if (error != null) {
@@ -69,6 +80,9 @@ class TransactionExclusionServiceV1Impl(
             Err(TransactionExclusionError(ErrorType.SERVER_ERROR, error.message ?: "")),
           )
         } else {
+          if (beforeQueryToken != null) {
+            recentRejectionsIndex?.onQueried(txHash, result, beforeQueryToken)
+          }
           SafeFuture.completedFuture(Ok(result))
         }
       }
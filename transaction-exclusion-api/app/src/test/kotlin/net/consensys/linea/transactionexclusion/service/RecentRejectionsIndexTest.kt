@@ -0,0 +1,218 @@
+package net.consensys.linea.transactionexclusion.service
+
+import com.github.michaelbull.result.Ok
+import kotlinx.datetime.Clock
+import kotlinx.datetime.Instant
+import net.consensys.FakeFixedClock
+import net.consensys.linea.metrics.MetricsFacade
+import net.consensys.linea.transactionexclusion.RejectedTransaction
+import net.consensys.linea.transactionexclusion.test.defaultRejectedTransaction
+import net.consensys.zkevm.persistence.dao.rejectedtransaction.RejectedTransactionsDao
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.mockito.Mockito
+import org.mockito.kotlin.mock
+import tech.pegasys.teku.infrastructure.async.SafeFuture
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.math.pow
+import kotlin.random.Random
+import kotlin.time.Duration.Companion.hours
+import kotlin.time.Duration.Companion.minutes
+
+class RecentRejectionsIndexTest {
+  private val queryableWindow = 24.hours
+  private val fakeClock = FakeFixedClock(Clock.System.now())
+  private val metricsFacadeMock = mock<MetricsFacade>(defaultAnswer = Mockito.RETURNS_DEEP_STUBS)
+
+  /**
+   * Rejected transactions repository storing them in memory, counting the lookups by tx hash.
+   */
+  private class FakeRejectedTransactionsDao : RejectedTransactionsDao {
+    private val rejectedTransactions = mutableListOf<RejectedTransaction>()
+    val findByTxHashQueries = AtomicInteger(0)
+
+    @Synchronized
+    override fun saveNewRejectedTransaction(rejectedTransaction: RejectedTransaction): SafeFuture<Unit> {
+      rejectedTransactions.add(rejectedTransaction)
+      return SafeFuture.completedFuture(Unit)
+    }
+
+    @Synchronized
+    override fun findRejectedTransactionByTxHash(
+      txHash: ByteArray,
+      notRejectedBefore: Instant,
+    ): SafeFuture<RejectedTransaction?> {
+      findByTxHashQueries.incrementAndGet()
+      return SafeFuture.completedFuture(
+        rejectedTransactions
+          .filter { it.transactionInfo.hash.contentEquals(txHash) && it.timestamp >= notRejectedBefore }
+          .maxByOrNull { it.timestamp },
+      )
+    }
+
+    @Synchronized
+    override fun findRejectedTransactionHashes(
+      notRejectedBefore: Instant,
+    ): SafeFuture<List<Pair<ByteArray, Instant>>> {
+      return SafeFuture.completedFuture(
+        rejectedTransactions
+          .filter { it.timestamp >= notRejectedBefore }
+          .map { it.transactionInfo.hash to it.timestamp },
+      )
+    }
+
+    override fun deleteRejectedTransactions(createdBefore: Instant): SafeFuture<Int> {
+      throw UnsupportedOperationException()
+    }
+  }
+
+  private fun createIndex(maxCachedTransactions: Int = 1000): RecentRejectionsIndex {
+    return RecentRejectionsIndex(
+      config = RecentRejectionsIndex.Config(
+        rejectedTimestampWithinDuration = queryableWindow,
+        maxCachedTransactions = maxCachedTransactions,
+        expectedRejectionsInWindow = 10_000,
+      ),
+      clock = fakeClock,
+    )
+  }
+
+  private fun createService(
+    repository: RejectedTransactionsDao,
+    recentRejectionsIndex: RecentRejectionsIndex?,
+  ): TransactionExclusionServiceV1Impl {
+    return TransactionExclusionServiceV1Impl(
+      config = TransactionExclusionServiceV1Impl.Config(rejectedTimestampWithinDuration = queryableWindow),
+      repository = repository,
+      metricsFacade = metricsFacadeMock,
+      clock = fakeClock,
+      recentRejectionsIndex = recentRejectionsIndex,
+    )
+  }
+
+  private fun rejectedTransaction(txHash: ByteArray, timestamp: Instant = fakeClock.now()): RejectedTransaction {
+    return defaultRejectedTransaction.copy(
+      timestamp = timestamp,
+      reasonMessage = "rejected at ${timestamp.toEpochMilliseconds()}",
+      transactionInfo = defaultRejectedTransaction.transactionInfo.copy(hash = txHash),
+    )
+  }
+
+  private fun notRejectedBefore(): Instant = fakeClock.now().minus(queryableWindow)
+
+  @Test
+  fun `lookups are unknown until the index is loaded`() {
+    val index = createIndex()
+    val rejectedTransaction = rejectedTransaction(Random.nextBytes(32))
+    index.onSaved(rejectedTransaction)
+
+    assertThat(index.find(rejectedTransaction.transactionInfo.hash, notRejectedBefore()))
+      .isEqualTo(RecentRejectionsIndex.LookupResult.Unknown)
+    assertThat(index.find(Random.nextBytes(32), notRejectedBefore()))
+      .isEqualTo(RecentRejectionsIndex.LookupResult.Unknown)
+  }
+
+  @Test
+  fun `saved rejections and never rejected transactions are answered from memory`() {
+    val index = createIndex()
+    index.load(FakeRejectedTransactionsDao()).get()
+    val txHash = Random.nextBytes(32)
+    val firstRejection = rejectedTransaction(txHash, fakeClock.now().minus(10.minutes))
+    val mostRecentRejection = rejectedTransaction(txHash, fakeClock.now().minus(5.minutes))
+    index.onSaved(mostRecentRejection)
+    index.onSaved(firstRejection)
+
+    assertThat(index.find(txHash, notRejectedBefore()))
+      .isEqualTo(RecentRejectionsIndex.LookupResult.Rejected(mostRecentRejection))
+    repeat(100) {
+      assertThat(index.find(Random.nextBytes(32), notRejectedBefore()))
+        .isEqualTo(RecentRejectionsIndex.LookupResult.NotRejected)
+    }
+
+    // the rejections leave the queryable window
+    fakeClock.advanceBy(queryableWindow)
+    assertThat(index.find(txHash, notRejectedBefore()))
+      .isEqualTo(RecentRejectionsIndex.LookupResult.NotRejected)
+  }
+
+  @Test
+  fun `rejections saved before loading or evicted from memory fall back to the database`() {
+    val repository = FakeRejectedTransactionsDao()
+    val rejectedBeforeLoading = rejectedTransaction(Random.nextBytes(32), fakeClock.now().minus(1.hours))
+    repository.saveNewRejectedTransaction(rejectedBeforeLoading).get()
+    val index = createIndex(maxCachedTransactions = 2)
+    index.load(repository).get()
+
+    assertThat(index.find(rejectedBeforeLoading.transactionInfo.hash, notRejectedBefore()))
+      .isEqualTo(RecentRejectionsIndex.LookupResult.Unknown)
+    // a rejection of the same transaction does not tell whether it is the most recent one
+    index.onSaved(rejectedTransaction(rejectedBeforeLoading.transactionInfo.hash, fakeClock.now().minus(2.hours)))
+    assertThat(index.find(rejectedBeforeLoading.transactionInfo.hash, notRejectedBefore()))
+      .isEqualTo(RecentRejectionsIndex.LookupResult.Unknown)
+
+    // database results are kept in memory
+    val service = createService(repository, index)
+    assertThat(service.getTransactionExclusionStatus(rejectedBeforeLoading.transactionInfo.hash).get())
+      .isEqualTo(Ok(rejectedBeforeLoading))
+    assertThat(service.getTransactionExclusionStatus(rejectedBeforeLoading.transactionInfo.hash).get())
+      .isEqualTo(Ok(rejectedBeforeLoading))
+    assertThat(repository.findByTxHashQueries.get()).isEqualTo(1)
+
+    val evictedRejection = rejectedTransaction(Random.nextBytes(32))
+    service.saveRejectedTransaction(evictedRejection).get()
+    service.saveRejectedTransaction(rejectedTransaction(Random.nextBytes(32))).get()
+    service.saveRejectedTransaction(rejectedTransaction(Random.nextBytes(32))).get()
+    assertThat(index.find(evictedRejection.transactionInfo.hash, notRejectedBefore()))
+      .isEqualTo(RecentRejectionsIndex.LookupResult.Unknown)
+    assertThat(service.getTransactionExclusionStatus(evictedRejection.transactionInfo.hash).get())
+      .isEqualTo(Ok(evictedRejection))
+    assertThat(repository.findByTxHashQueries.get()).isEqualTo(2)
+  }
+
+  @Test
+  fun `skewed lookups return the same results with far fewer database queries`() {
+    val random = Random(42)
+    val repository = FakeRejectedTransactionsDao()
+    val indexedRepository = FakeRejectedTransactionsDao()
+    val service = createService(repository, recentRejectionsIndex = null)
+    val index = createIndex(maxCachedTransactions = 500)
+    val indexedService = createService(indexedRepository, index)
+
+    // rejections before the index is loaded, e.g. before a restart
+    val txHashes = List(5_000) { random.nextBytes(32) }
+    txHashes.take(1_000).forEach { txHash ->
+      val rejectedTransaction = rejectedTransaction(txHash, fakeClock.now().minus(random.nextInt(1, 600).minutes))
+      repository.saveNewRejectedTransaction(rejectedTransaction).get()
+      indexedRepository.saveNewRejectedTransaction(rejectedTransaction).get()
+    }
+    index.load(indexedRepository).get()
+
+    // Zipf like popularity of the polled hashes, half of them never rejected
+    val popularityWeights = DoubleArray(txHashes.size) { 1.0 / (it + 1).toDouble().pow(1.1) }
+    val cumulativeWeights = popularityWeights.runningReduce { sum, weight -> sum + weight }
+    val shuffledTxHashes = txHashes.shuffled(random)
+    fun nextPolledTxHash(): ByteArray {
+      val weight = random.nextDouble() * cumulativeWeights.last()
+      val rank = cumulativeWeights.indexOfFirst { it >= weight }
+      return shuffledTxHashes[rank]
+    }
+
+    val lookupsCount = 50_000
+    repeat(lookupsCount) { lookup ->
+      if (lookup % 10 == 0) {
+        val rejectedTransaction = rejectedTransaction(txHashes[1_000 + random.nextInt(1_500)])
+        service.saveRejectedTransaction(rejectedTransaction).get()
+        indexedService.saveRejectedTransaction(rejectedTransaction).get()
+      }
+      if (lookup % 1_000 == 0) {
+        fakeClock.advanceBy(10.minutes)
+      }
+      val txHash = nextPolledTxHash()
+      assertThat(indexedService.getTransactionExclusionStatus(txHash).get())
+        .isEqualTo(service.getTransactionExclusionStatus(txHash).get())
+    }
+
+    assertThat(repository.findByTxHashQueries.get()).isEqualTo(lookupsCount)
+    assertThat(indexedRepository.findByTxHashQueries.get() * 5).isLessThan(lookupsCount)
+  }
+}
@@ -6,6 +6,7 @@ import io.vertx.junit5.VertxExtension
 import io.vertx.junit5.VertxTestContext
 import kotlinx.datetime.Clock
 import net.consensys.FakeFixedClock
+import net.consensys.linea.metrics.MetricsFacade
 import net.consensys.zkevm.persistence.dao.rejectedtransaction.RejectedTransactionsDao
 import org.awaitility.Awaitility
 import org.junit.jupiter.api.BeforeEach
@@ -48,6 +49,7 @@ class RejectedTransactionCleanupServiceTest {
         clock = fakeClock,
         vertx = Vertx.vertx(),
         repository = rejectedTransactionsRepositoryMock,
+        metricsFacade = mock<MetricsFacade>(defaultAnswer = Mockito.RETURNS_DEEP_STUBS),
       )
   }
 
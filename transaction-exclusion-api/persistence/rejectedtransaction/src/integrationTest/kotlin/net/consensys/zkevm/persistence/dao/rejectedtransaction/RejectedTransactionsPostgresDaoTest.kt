@@ -25,14 +25,16 @@ import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.assertThrows
 import org.junit.jupiter.api.extension.ExtendWith
+import tech.pegasys.teku.infrastructure.async.SafeFuture
 import java.util.concurrent.ExecutionException
+import kotlin.random.Random
 import kotlin.time.Duration.Companion.hours
 import kotlin.time.Duration.Companion.seconds
 
 @ExtendWith(VertxExtension::class)
 class RejectedTransactionsPostgresDaoTest : CleanDbTestSuiteParallel() {
   init {
-    target = "3"
+    target = "4"
   }
 
   override val databaseName = DbHelper.generateUniqueDbName("tx-exclusion-api-rejectedtxns-dao-tests")
@@ -273,6 +275,27 @@ class RejectedTransactionsPostgresDaoTest : CleanDbTestSuiteParallel() {
     assertThat(fullTransactionsTotalRows()).isEqualTo(1)
   }
 
+  @Test
+  fun `findRejectedTransactionHashes returns hashes of transactions not rejected before given timestamp`() {
+    val oldRejectedTransaction = createRejectedTransaction(
+      timestamp = fakeClock.now().minus(1.hours).minus(1.seconds),
+    )
+    val recentRejectedTransaction = createRejectedTransaction(
+      reasonMessage = "Transaction line count for module MUL=587 is above the limit 401",
+      timestamp = fakeClock.now().minus(10.seconds),
+    )
+    performInsertTest(oldRejectedTransaction)
+    performInsertTest(recentRejectedTransaction)
+
+    val rejectedTransactionHashes = rejectedTransactionsPostgresDao.findRejectedTransactionHashes(
+      notRejectedBefore,
+    ).get()
+
+    assertThat(rejectedTransactionHashes).hasSize(1)
+    assertThat(rejectedTransactionHashes.single().first).isEqualTo(recentRejectedTransaction.transactionInfo.hash)
+    assertThat(rejectedTransactionHashes.single().second).isEqualTo(recentRejectedTransaction.timestamp)
+  }
+
   @Test
   fun `deleteRejectedTransactions returns 2 row deleted as created timestamp exceeds storage window`() {
     // insert a new rejected transaction A
@@ -329,4 +352,91 @@ class RejectedTransactionsPostgresDaoTest : CleanDbTestSuiteParallel() {
     assertThat(rejectedTransactionsTotalRows()).isEqualTo(1)
     assertThat(fullTransactionsTotalRows()).isEqualTo(1)
   }
+
+  @Test
+  fun `deleteRejectedTransactions deletes expired rows in batches with their orphan full transactions`() {
+    val dao = RejectedTransactionsPostgresDao(
+      readConnection = sqlClient,
+      writeConnection = sqlClient,
+      clock = fakeClock,
+      config = RejectedTransactionsPostgresDao.Config(deleteBatchSize = 2),
+    )
+    val expiredRejectedTransactions = createRandomRejectedTransactions(5)
+    SafeFuture.collectAll(expiredRejectedTransactions.map { dao.saveNewRejectedTransaction(it) }.stream()).get()
+    fakeClock.advanceBy(11.hours)
+    // rejected again within the storage window, its full transaction must be kept
+    dao.saveNewRejectedTransaction(
+      expiredRejectedTransactions.first().copy(
+        reasonMessage = "Transaction line count for module MUL=587 is above the limit 401",
+        timestamp = fakeClock.now().trimToMillisecondPrecision(),
+      ),
+    ).get()
+
+    val deletedRows = dao.deleteRejectedTransactions(fakeClock.now().minus(10.hours)).get()
+
+    assertThat(deletedRows).isEqualTo(5)
+    assertThat(rejectedTransactionsTotalRows()).isEqualTo(1)
+    assertThat(fullTransactionsTotalRows()).isEqualTo(1)
+    assertThat(dao.deleteRejectedTransactions(fakeClock.now().minus(10.hours)).get()).isEqualTo(0)
+  }
+
+  private fun createRandomRejectedTransactions(count: Int): List<RejectedTransaction> {
+    return (0 until count).map {
+      createRejectedTransaction(
+        transactionInfo = defaultRejectedTransaction.transactionInfo.copy(hash = Random.nextBytes(32)),
+      )
+    }
+  }
+
+  @Test
+  fun `saveNewRejectedTransaction completes each of concurrent saves with its own result`() {
+    val rejectedTransactions = createRandomRejectedTransactions(300)
+    val sameTxHashOtherReason = rejectedTransactions[1].copy(
+      reasonMessage = "Transaction line count for module MUL=587 is above the limit 401",
+    )
+    val tooLongReason = createRandomRejectedTransactions(1).single().copy(reasonMessage = "x".repeat(2000))
+    val saves = (rejectedTransactions + rejectedTransactions[0] + sameTxHashOtherReason + tooLongReason)
+      .map { rejectedTransaction ->
+        rejectedTransactionsPostgresDao.saveNewRejectedTransaction(rejectedTransaction)
+          .handle { _, error -> error }
+      }
+
+    val errors = SafeFuture.collectAll(saves.stream()).get()
+
+    // saved in the same batches, only the duplicated and invalid ones fail
+    assertThat(errors.take(rejectedTransactions.size)).containsOnlyNulls()
+    assertThat(errors[rejectedTransactions.size]).isInstanceOf(DuplicatedRecordException::class.java)
+    assertThat(errors[rejectedTransactions.size + 1]).isNull()
+    assertThat(errors[rejectedTransactions.size + 2]).isNotNull().isNotInstanceOf(DuplicatedRecordException::class.java)
+    assertThat(rejectedTransactionsTotalRows()).isEqualTo(rejectedTransactions.size + 1)
+    assertThat(fullTransactionsTotalRows()).isEqualTo(rejectedTransactions.size)
+  }
+
+  @Test
+  fun `saveNewRejectedTransaction persists sustained concurrent saves with per row and grouped inserts`() {
+    val savesCount = 1_000
+    fun saveAll(dao: RejectedTransactionsPostgresDao) {
+      val rejectedTransactions = createRandomRejectedTransactions(savesCount)
+      SafeFuture.collectAll(rejectedTransactions.map { dao.saveNewRejectedTransaction(it) }.stream()).get()
+    }
+
+    saveAll(
+      RejectedTransactionsPostgresDao(
+        readConnection = pool,
+        writeConnection = pool,
+        clock = fakeClock,
+        config = RejectedTransactionsPostgresDao.Config(maxBatchSize = 1),
+      ),
+    )
+    saveAll(
+      RejectedTransactionsPostgresDao(
+        readConnection = pool,
+        writeConnection = pool,
+        clock = fakeClock,
+      ),
+    )
+
+    assertThat(rejectedTransactionsTotalRows()).isEqualTo(2 * savesCount)
+    assertThat(fullTransactionsTotalRows()).isEqualTo(2 * savesCount)
+  }
 }
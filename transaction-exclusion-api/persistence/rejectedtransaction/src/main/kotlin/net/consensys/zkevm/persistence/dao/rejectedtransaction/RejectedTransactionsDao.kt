@@ -14,6 +14,13 @@ interface RejectedTransactionsDao {
     notRejectedBefore: Instant = Instant.DISTANT_PAST,
   ): SafeFuture<RejectedTransaction?>
 
+  /**
+   * Returns the tx hash and rejection timestamp of the rejected transactions not rejected before notRejectedBefore
+   */
+  fun findRejectedTransactionHashes(
+    notRejectedBefore: Instant,
+  ): SafeFuture<List<Pair<ByteArray, Instant>>>
+
   fun deleteRejectedTransactions(
     createdBefore: Instant,
   ): SafeFuture<Int>
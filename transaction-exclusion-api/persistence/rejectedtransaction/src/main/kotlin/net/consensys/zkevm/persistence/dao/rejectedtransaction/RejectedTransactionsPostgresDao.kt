@@ -1,7 +1,8 @@
 package net.consensys.zkevm.persistence.dao.rejectedtransaction
 
 import com.fasterxml.jackson.databind.ObjectMapper
-import io.vertx.core.Future
+import io.vertx.core.buffer.Buffer
+import io.vertx.pgclient.PgException
 import io.vertx.sqlclient.Row
 import io.vertx.sqlclient.SqlClient
 import io.vertx.sqlclient.Tuple
@@ -13,21 +14,53 @@ import net.consensys.linea.transactionexclusion.ModuleOverflow
 import net.consensys.linea.transactionexclusion.RejectedTransaction
 import net.consensys.linea.transactionexclusion.TransactionInfo
 import net.consensys.zkevm.persistence.db.DuplicatedRecordException
+import net.consensys.zkevm.persistence.db.GroupedWriter
 import net.consensys.zkevm.persistence.db.SQLQueryLogger
 import net.consensys.zkevm.persistence.db.isDuplicateKeyException
 import org.apache.logging.log4j.Level
 import org.apache.logging.log4j.LogManager
 import tech.pegasys.teku.infrastructure.async.SafeFuture
 
+/**
+ * Saves of rejected transactions are group committed: while maxInFlightBatches inserts are running,
+ * new saves are queued and inserted together, up to maxBatchSize per insert, as soon as an insert completes.
+ * Each save still completes with its own result, failing with DuplicatedRecordException
+ * if the rejected transaction was already saved.
+ *
+ * Expired rejected transactions are deleted in batches of up to deleteBatchSize rows, each batch followed by
+ * the deletion of the full transactions it left unreferenced, so no statement scans or locks the whole tables.
+ */
 class RejectedTransactionsPostgresDao(
   private val readConnection: SqlClient,
   private val writeConnection: SqlClient,
   private val clock: Clock = Clock.System,
+  private val config: Config = Config(),
 ) : RejectedTransactionsDao {
   private val log = LogManager.getLogger(this.javaClass.name)
   private val queryLog = SQLQueryLogger(log)
 
+  data class Config(
+    val maxBatchSize: Int = 100,
+    val maxInFlightBatches: Int = 4,
+    val deleteBatchSize: Int = 1_000,
+  ) {
+    init {
+      require(maxBatchSize > 0) { "maxBatchSize=$maxBatchSize must be greater than 0" }
+      require(maxInFlightBatches > 0) { "maxInFlightBatches=$maxInFlightBatches must be greater than 0" }
+      require(deleteBatchSize > 0) { "deleteBatchSize=$deleteBatchSize must be greater than 0" }
+    }
+  }
+
+  private class NewRejectedTransaction(
+    val rejectedTransaction: RejectedTransaction,
+    val createdEpochMilli: Long,
+  ) {
+    val key = rejectedTransaction.transactionInfo.hash.encodeHex() to rejectedTransaction.reasonMessage
+  }
+
   companion object {
+    private val objectMapper = ObjectMapper()
+
     // Public instead of internal to allow usage in integrationTest source set
     fun rejectedStageToDbValue(txRejectionStage: RejectedTransaction.Stage): String {
       return when (txRejectionStage) {
@@ -50,7 +83,7 @@ class RejectedTransactionsPostgresDao(
     }
 
     fun parseModuleOverflowListFromJsonString(jsonString: String): List<ModuleOverflow> {
-      return ObjectMapper().readValue(
+      return objectMapper.readValue(
         jsonString,
         Array<ModuleOverflow>::class.java,
       ).toList()
@@ -84,19 +117,33 @@ class RejectedTransactionsPostgresDao(
 
   private val insertSql =
     """
-      with x as (
+      with new_rows as (
+        select * from unnest(
+          $1::bigint[], $2::bytea[], $3::bytea[], $4::bytea[], $5::bigint[],
+          $6::text[], $7::text[], $8::bigint[], $9::bigint[], $10::text[], $11::bytea[]
+        ) as t(created_epoch_milli, tx_hash, tx_from, tx_to, tx_nonce,
+          reject_stage, reject_reason, reject_timestamp, block_number, overflows, tx_rlp)
+      ),
+      x as (
         insert into $rejectedTransactionsTable
         (created_epoch_milli, tx_hash, tx_from, tx_to, tx_nonce,
         reject_stage, reject_reason, reject_timestamp, block_number, overflows)
-        values ($1, $2, $3, $4, $5, $6, $7, $8, $9, cast($10::text as jsonb))
-        returning tx_hash
+        select created_epoch_milli, tx_hash, tx_from, tx_to, tx_nonce,
+        reject_stage, reject_reason, reject_timestamp, block_number, cast(overflows as jsonb)
+        from new_rows
+        on conflict on constraint ${rejectedTransactionsTable}_pkey
+        do nothing
+        returning tx_hash, reject_reason
+      ),
+      y as (
+        insert into $fullTransactionsTable
+        (tx_hash, tx_rlp)
+        select distinct on (x.tx_hash) x.tx_hash, new_rows.tx_rlp
+        from x join new_rows on x.tx_hash = new_rows.tx_hash
+        on conflict on constraint ${fullTransactionsTable}_pkey
+        do nothing
       )
-      insert into $fullTransactionsTable
-      (tx_hash, tx_rlp)
-      select x.tx_hash, $11
-      from x
-      on conflict on constraint ${fullTransactionsTable}_pkey
-      do nothing
+      select tx_hash, reject_reason from x
     """
       .trimIndent()
 
@@ -113,55 +160,120 @@ class RejectedTransactionsPostgresDao(
     """
       .trimIndent()
 
+  private val selectHashesSql =
+    """
+      select tx_hash, reject_timestamp
+      from $rejectedTransactionsTable
+      where reject_timestamp >= $1
+    """
+      .trimIndent()
+
   private val deleteRejectedTransactionsSql =
     """
       delete from $rejectedTransactionsTable
-      where created_epoch_milli < $1
+      where ctid = any(array(
+        select ctid from $rejectedTransactionsTable
+        where created_epoch_milli >= $1 and created_epoch_milli < $2
+        order by created_epoch_milli
+        limit $3
+      ))
+      returning tx_hash, created_epoch_milli
     """
       .trimIndent()
 
   private val deleteFullTransactionsSql =
     """
-      delete from $fullTransactionsTable
-      f where not exists (select null from $rejectedTransactionsTable x where f.tx_hash = x.tx_hash)
+      delete from $fullTransactionsTable f
+      where f.tx_hash = any($1)
+        and not exists (select null from $rejectedTransactionsTable x where f.tx_hash = x.tx_hash)
     """
       .trimIndent()
 
   private val insertSqlQuery = writeConnection.preparedQuery(insertSql)
   private val selectSqlQuery = readConnection.preparedQuery(selectSql)
+  private val selectHashesSqlQuery = readConnection.preparedQuery(selectHashesSql)
   private val deleteRejectedTransactionsSqlQuery = writeConnection.preparedQuery(deleteRejectedTransactionsSql)
   private val deleteFullTransactionsSqlQuery = writeConnection.preparedQuery(deleteFullTransactionsSql)
 
+  // if an insert is rejected by the DB, e.g. because of a single invalid rejected transaction,
+  // its rejected transactions are inserted one by one so only the invalid ones fail
+  private val rejectedTransactionsWriter = GroupedWriter(
+    maxBatchSize = config.maxBatchSize,
+    maxInFlightWrites = config.maxInFlightBatches,
+    writeRecord = ::insertRejectedTransaction,
+    writeRecords = ::insertRejectedTransactions,
+    writeOneByOneOnError = { error -> error is PgException },
+  )
+
   override fun saveNewRejectedTransaction(rejectedTransaction: RejectedTransaction): SafeFuture<Unit> {
+    return rejectedTransactionsWriter.write(
+      NewRejectedTransaction(rejectedTransaction, clock.now().toEpochMilliseconds()),
+    )
+  }
+
+  private fun insertRejectedTransaction(newRejectedTransaction: NewRejectedTransaction): SafeFuture<Unit> {
+    return insertRejectedTransactions(listOf(newRejectedTransaction))
+      .exceptionallyCompose { th ->
+        SafeFuture.failedFuture(
+          if (isDuplicateKeyException(th)) duplicatedRecordException(newRejectedTransaction, th) else th,
+        )
+      }
+      .thenCompose { failures ->
+        failures.single()?.let { SafeFuture.failedFuture(it) } ?: SafeFuture.completedFuture(Unit)
+      }
+  }
+
+  /**
+   * Inserts the rejected transactions with a single query, failing the ones already saved.
+   */
+  private fun insertRejectedTransactions(
+    newRejectedTransactions: List<NewRejectedTransaction>,
+  ): SafeFuture<List<Throwable?>> {
+    // the same rejected transaction saved more than once in the batch is inserted once
+    return insert(newRejectedTransactions.distinctBy { it.key })
+      .thenApply { insertedKeys ->
+        val savedKeys = mutableSetOf<Pair<String, String>>()
+        newRejectedTransactions.map { newRejectedTransaction ->
+          if (insertedKeys.contains(newRejectedTransaction.key) && savedKeys.add(newRejectedTransaction.key)) {
+            null
+          } else {
+            duplicatedRecordException(newRejectedTransaction, cause = null)
+          }
+        }
+      }
+  }
+
+  private fun duplicatedRecordException(
+    newRejectedTransaction: NewRejectedTransaction,
+    cause: Throwable?,
+  ): DuplicatedRecordException {
+    return DuplicatedRecordException(
+      "RejectedTransaction ${newRejectedTransaction.rejectedTransaction.transactionInfo.hash.encodeHex()} " +
+        "is already persisted!",
+      cause,
+    )
+  }
+
+  private fun insert(saves: List<NewRejectedTransaction>): SafeFuture<Set<Pair<String, String>>> {
     val params: List<Any?> =
       listOf(
-        clock.now().toEpochMilliseconds(),
-        rejectedTransaction.transactionInfo.hash,
-        rejectedTransaction.transactionInfo.from,
-        rejectedTransaction.transactionInfo.to,
-        rejectedTransaction.transactionInfo.nonce.toLong(),
-        rejectedStageToDbValue(rejectedTransaction.txRejectionStage),
-        rejectedTransaction.reasonMessage,
-        rejectedTransaction.timestamp.toEpochMilliseconds(),
-        rejectedTransaction.blockNumber?.toLong(),
-        ObjectMapper().writeValueAsString(rejectedTransaction.overflows),
-        rejectedTransaction.transactionRLP,
+        saves.map { it.createdEpochMilli }.toTypedArray(),
+        saves.map { Buffer.buffer(it.rejectedTransaction.transactionInfo.hash) }.toTypedArray(),
+        saves.map { Buffer.buffer(it.rejectedTransaction.transactionInfo.from) }.toTypedArray(),
+        saves.map { save -> save.rejectedTransaction.transactionInfo.to?.let { Buffer.buffer(it) } }.toTypedArray(),
+        saves.map { it.rejectedTransaction.transactionInfo.nonce.toLong() }.toTypedArray(),
+        saves.map { rejectedStageToDbValue(it.rejectedTransaction.txRejectionStage) }.toTypedArray(),
+        saves.map { it.rejectedTransaction.reasonMessage }.toTypedArray(),
+        saves.map { it.rejectedTransaction.timestamp.toEpochMilliseconds() }.toTypedArray(),
+        saves.map { it.rejectedTransaction.blockNumber?.toLong() }.toTypedArray(),
+        saves.map { objectMapper.writeValueAsString(it.rejectedTransaction.overflows) }.toTypedArray(),
+        saves.map { Buffer.buffer(it.rejectedTransaction.transactionRLP) }.toTypedArray(),
       )
     queryLog.log(Level.TRACE, insertSql, params)
 
     return insertSqlQuery.execute(Tuple.tuple(params))
-      .map { }
-      .recover { th ->
-        if (isDuplicateKeyException(th)) {
-          Future.failedFuture(
-            DuplicatedRecordException(
-              "RejectedTransaction ${rejectedTransaction.transactionInfo.hash.encodeHex()} is already persisted!",
-              th,
-            ),
-          )
-        } else {
-          Future.failedFuture(th)
-        }
+      .map { rowSet ->
+        rowSet.map { row -> row.getBuffer("tx_hash").bytes.encodeHex() to row.getString("reject_reason") }.toSet()
       }
       .toSafeFuture()
   }
@@ -182,15 +294,58 @@ class RejectedTransactionsPostgresDao(
       .thenApply { rejectedTxRecords -> rejectedTxRecords.firstOrNull() }
   }
 
+  override fun findRejectedTransactionHashes(
+    notRejectedBefore: Instant,
+  ): SafeFuture<List<Pair<ByteArray, Instant>>> {
+    return selectHashesSqlQuery
+      .execute(Tuple.of(notRejectedBefore.toEpochMilliseconds()))
+      .toSafeFuture()
+      .thenApply { rowSet ->
+        rowSet.map { row ->
+          row.getBuffer("tx_hash").bytes to Instant.fromEpochMilliseconds(row.getLong("reject_timestamp"))
+        }
+      }
+  }
+
   override fun deleteRejectedTransactions(
     createdBefore: Instant,
+  ): SafeFuture<Int> {
+    return deleteRejectedTransactionsBatches(
+      createdFromEpochMilli = Long.MIN_VALUE,
+      createdBeforeEpochMilli = createdBefore.toEpochMilliseconds(),
+      deletedRows = 0,
+    )
+  }
+
+  // each batch starts from the last created timestamp of the previous one,
+  // so the index scans do not go through the entries of the rows deleted by the previous batches
+  private fun deleteRejectedTransactionsBatches(
+    createdFromEpochMilli: Long,
+    createdBeforeEpochMilli: Long,
+    deletedRows: Int,
   ): SafeFuture<Int> {
     return deleteRejectedTransactionsSqlQuery
-      .execute(Tuple.of(createdBefore.toEpochMilliseconds()))
-      .map { rowSet -> rowSet.rowCount() }
-      .also {
-        deleteFullTransactionsSqlQuery.execute()
-      }
+      .execute(Tuple.of(createdFromEpochMilli, createdBeforeEpochMilli, config.deleteBatchSize))
       .toSafeFuture()
+      .thenCompose { rowSet ->
+        val txHashes = rowSet.map { row -> row.getBuffer("tx_hash") }.toTypedArray()
+        val lastCreatedEpochMilli = rowSet.maxOfOrNull { row -> row.getLong("created_epoch_milli") }
+        val batchDeletedRows = rowSet.rowCount()
+        // only the full transactions of this batch can be orphans, the statement sees the deletes of the batch
+        deleteFullTransactionsSqlQuery
+          .execute(Tuple.tuple().addArrayOfBuffer(txHashes))
+          .toSafeFuture()
+          .thenCompose {
+            if (batchDeletedRows < config.deleteBatchSize || lastCreatedEpochMilli == null) {
+              SafeFuture.completedFuture(deletedRows + batchDeletedRows)
+            } else {
+              deleteRejectedTransactionsBatches(
+                createdFromEpochMilli = lastCreatedEpochMilli,
+                createdBeforeEpochMilli = createdBeforeEpochMilli,
+                deletedRows = deletedRows + batchDeletedRows,
+              )
+            }
+          }
+      }
   }
 }
@@ -20,6 +20,10 @@ class RetryingRejectedTransactionsPostgresDao(
     return persistenceRetryer.retryQuery({ delegate.findRejectedTransactionByTxHash(txHash, notRejectedBefore) })
   }
 
+  override fun findRejectedTransactionHashes(notRejectedBefore: Instant): SafeFuture<List<Pair<ByteArray, Instant>>> {
+    return persistenceRetryer.retryQuery({ delegate.findRejectedTransactionHashes(notRejectedBefore) })
+  }
+
   override fun deleteRejectedTransactions(createdBefore: Instant): SafeFuture<Int> {
     return persistenceRetryer.retryQuery({ delegate.deleteRejectedTransactions(createdBefore) })
   }
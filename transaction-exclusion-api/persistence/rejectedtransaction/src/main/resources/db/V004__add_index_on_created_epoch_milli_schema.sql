@@ -0,0 +1,6 @@
+-- =======================================================
+-- rejected_transactions table
+-- =======================================================
+-- built concurrently so inserts are not blocked while the index is built on a large table,
+-- Flyway runs this migration outside of a transaction as create index concurrently cannot run in one
+create index concurrently if not exists created_epoch_milli_idx on rejected_transactions using btree (created_epoch_milli);
@@ -50,6 +50,9 @@ class RetryingRejectedTransactionsPostgresDaoTest {
     )
       .thenReturn(SafeFuture.completedFuture(null))
 
+    whenever(delegateRejectedTransactionsDao.findRejectedTransactionHashes(eq(notRejectedBefore)))
+      .thenReturn(SafeFuture.completedFuture(emptyList()))
+
     whenever(delegateRejectedTransactionsDao.deleteRejectedTransactions(eq(createdBefore)))
       .thenReturn(SafeFuture.completedFuture(0))
   }
@@ -68,6 +71,9 @@ class RetryingRejectedTransactionsPostgresDaoTest {
       eq(notRejectedBefore),
     )
 
+    retryingRejectedTransactionsPostgresDao.findRejectedTransactionHashes(notRejectedBefore)
+    verify(delegateRejectedTransactionsDao, times(1)).findRejectedTransactionHashes(eq(notRejectedBefore))
+
     retryingRejectedTransactionsPostgresDao.deleteRejectedTransactions(createdBefore)
     verify(delegateRejectedTransactionsDao, times(1)).deleteRejectedTransactions(
       eq(createdBefore),